@@ -0,0 +1,414 @@
+package gradebook;
+
+import java.util.Arrays;
+
+/**
+ * AssignmentStats is a class keeping running aggregates of the grades in
+ * one assignment column, so that statistics can be answered without
+ * scanning every student; the multiplicity of the current minimum and
+ * maximum is tracked so they only need to be looked up again once the last
+ * grade holding an extreme value is overwritten, and an order-statistic
+ * index of the grades answers median and percentile queries. Queries
+ * needing many ranks at once read a sorted copy of the grades instead,
+ * which is made from the index when first needed and kept until the column
+ * next changes
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class AssignmentStats {
+	/** sum of all grades */
+	private double sum = 0;
+
+	/** number of grades */
+	private int count = 0;
+
+	/** smallest grade */
+	private float min = 0;
+
+	/** number of grades equal to min */
+	private int minCount = 0;
+
+	/** largest grade */
+	private float max = 0;
+
+	/** number of grades equal to max */
+	private int maxCount = 0;
+
+	/** every grade in the column, ordered for rank queries */
+	private GradeIndex index = new GradeIndex();
+
+	/**
+	 * sorted copy of the grades, or null if the column has changed since
+	 * it was made; volatile so that a copy made by one reader is seen whole
+	 * by the others
+	 */
+	private volatile SortedGrades sorted = null;
+
+	/**
+	 * constructor to initialize AssignmentStats for a column of 0s
+	 *
+	 * @param count number of grades in the column
+	 */
+	AssignmentStats(int count) {
+		this.count = count;
+		this.minCount = count;
+		this.maxCount = count;
+		index.add(0f, count);
+	} // end constructor AssignmentStats
+
+	/**
+	 * constructor to initialize AssignmentStats for an existing column,
+	 * indexing each distinct grade once
+	 *
+	 * @param column the column's grades
+	 * @param count number of grades in the column
+	 */
+	AssignmentStats(float[] column, int count) {
+		this.count = count;
+		if (count > 0) {
+			// sort a copy of the column so equal grades form runs
+			float[] sorted = Arrays.copyOf(column, count);
+			Arrays.sort(sorted);
+			int start = 0;
+			while (start < count) {
+				int end = start + 1;
+				while (end < count && sorted[end] == sorted[start]) {
+					++end;
+				} // end while loop
+				index.add(sorted[start], end - start);
+				sum += (double) sorted[start] * (end - start);
+				start = end;
+			} // end while loop
+			recompute();
+		} // end if block
+	} // end constructor AssignmentStats
+
+	/**
+	 * accounts for a grade being added to the column
+	 *
+	 * @param grade the added grade
+	 */
+	void add(float grade) {
+		sorted = null;
+		sum += grade;
+		index.add(grade, 1);
+		if (count++ == 0) {
+			min = grade;
+			minCount = 1;
+			max = grade;
+			maxCount = 1;
+		} // end if block
+		else {
+			addExtremes(grade);
+		} // end else block
+	} // end method add
+
+	/**
+	 * accounts for a grade in the column being overwritten
+	 *
+	 * @param oldGrade the grade which was overwritten
+	 * @param newGrade the grade which replaced it
+	 */
+	void replace(float oldGrade, float newGrade) {
+		sorted = null;
+		sum += (double) newGrade - oldGrade;
+		index.remove(oldGrade);
+		index.add(newGrade, 1);
+
+		// recompute the extremes if the last copy of one was overwritten,
+		// otherwise just fold in the new grade
+		boolean extremeLost = false;
+		if (oldGrade == min && --minCount == 0) {
+			extremeLost = true;
+		} // end if block
+		if (oldGrade == max && --maxCount == 0) {
+			extremeLost = true;
+		} // end if block
+		if (extremeLost) {
+			recompute();
+		} // end if block
+		else {
+			addExtremes(newGrade);
+		} // end else block
+	} // end method replace
+
+	/**
+	 * makes an independent copy of these aggregates, so a snapshot can keep
+	 * the original while the column goes on changing
+	 *
+	 * @return the copy
+	 */
+	AssignmentStats copy() {
+		AssignmentStats copy = new AssignmentStats(0);
+		copy.sum = sum;
+		copy.count = count;
+		copy.min = min;
+		copy.minCount = minCount;
+		copy.max = max;
+		copy.maxCount = maxCount;
+		copy.index = index.copy();
+		copy.sorted = sorted;
+		return copy;
+	} // end method copy
+
+	/**
+	 * accessor for the sum of all grades
+	 *
+	 * @return sum of all grades
+	 */
+	double sum() {
+		return sum;
+	} // end method sum
+
+	/**
+	 * accessor for the number of grades
+	 *
+	 * @return number of grades
+	 */
+	int count() {
+		return count;
+	} // end method count
+
+	/**
+	 * accessor for the smallest grade
+	 *
+	 * @return smallest grade
+	 */
+	float min() {
+		return min;
+	} // end method min
+
+	/**
+	 * accessor for the largest grade
+	 *
+	 * @return largest grade
+	 */
+	float max() {
+		return max;
+	} // end method max
+
+	/**
+	 * accessor for the number of grades equal to the smallest
+	 *
+	 * @return number of grades equal to min
+	 */
+	int minCount() {
+		return minCount;
+	} // end method minCount
+
+	/**
+	 * accessor for the number of grades equal to the largest
+	 *
+	 * @return number of grades equal to max
+	 */
+	int maxCount() {
+		return maxCount;
+	} // end method maxCount
+
+	/**
+	 * calculates the median grade; for an even number of grades this is the
+	 * average of the two middle grades
+	 *
+	 * @return the median grade
+	 */
+	float median() {
+		// if the list has an odd number of elements, return the middle value
+		if (count % 2 == 1) {
+			return index.select(count / 2);
+		} // end if block
+		// otherwise, return the average of the two middle values
+		else {
+			return (index.select(count / 2 - 1) + index.select(count / 2)) / 2;
+		} // end else block
+	} // end method median
+
+	/**
+	 * calculates a percentile of the grades, interpolating linearly between
+	 * the two grades closest to the requested rank; the 50th percentile is
+	 * the median
+	 *
+	 * @param percent percentile to calculate, from 0 to 100
+	 * @return the grade at the given percentile
+	 */
+	double percentile(double percent) {
+		double rank = percent / 100 * (count - 1);
+		int lower = (int) Math.floor(rank);
+		float lowerGrade = index.select(lower);
+		if (lower == rank) {
+			return lowerGrade;
+		} // end if block
+		float upperGrade = index.select(lower + 1);
+		return lowerGrade + (rank - lower) * (upperGrade - lowerGrade);
+	} // end method percentile
+
+	/**
+	 * calculates several percentiles of the grades at once, interpolating
+	 * the same way as percentile
+	 *
+	 * @param percents percentiles to calculate, each from 0 to 100
+	 * @return the grade at each percentile, in the order given
+	 */
+	double[] percentiles(double[] percents) {
+		float[] grades = sortedGrades().grades;
+		double[] results = new double[percents.length];
+		for (int i = 0; i < percents.length; ++i) {
+			double rank = percents[i] / 100 * (count - 1);
+			int lower = (int) Math.floor(rank);
+			if (lower == rank) {
+				results[i] = grades[lower];
+			} // end if block
+			else {
+				results[i] = grades[lower] +
+						(rank - lower) * (grades[lower + 1] - grades[lower]);
+			} // end else block
+		} // end for loop
+		return results;
+	} // end method percentiles
+
+	/**
+	 * counts the grades falling in each of a number of equal-width ranges
+	 * from 0 to the assignment's total points; each range includes its
+	 * lower bound, and the last also includes the total
+	 *
+	 * @param totalPoints total points of the assignment
+	 * @param buckets number of ranges
+	 * @return the number of grades in each range, lowest first
+	 */
+	int[] distribution(float totalPoints, int buckets) {
+		float[] grades = sortedGrades().grades;
+		int[] counts = new int[buckets];
+		int start = 0;
+		for (int i = 0; i < buckets - 1; ++i) {
+			int end = lowerBound(grades, (double) totalPoints * (i + 1) / buckets);
+			counts[i] = end - start;
+			start = end;
+		} // end for loop
+		counts[buckets - 1] = grades.length - start;
+		return counts;
+	} // end method distribution
+
+	/**
+	 * calculates the population standard deviation of the grades
+	 *
+	 * @return the standard deviation
+	 */
+	double standardDeviation() {
+		return sortedGrades().standardDeviation;
+	} // end method standardDeviation
+
+	/**
+	 * accessor for the grades in ascending order, which are only sorted
+	 * again after the column has changed
+	 *
+	 * @return the sorted grades, which must not be changed
+	 */
+	float[] sorted() {
+		return sortedGrades().grades;
+	} // end method sorted
+
+	/**
+	 * provides the sorted copy of the grades, making it if the column has
+	 * changed since the last one was made
+	 *
+	 * @return the sorted grades
+	 */
+	private SortedGrades sortedGrades() {
+		SortedGrades current = sorted;
+		if (current == null) {
+			current = new SortedGrades(index.toArray());
+			sorted = current;
+		} // end if block
+		return current;
+	} // end method sortedGrades
+
+	/**
+	 * finds the number of grades below a value
+	 *
+	 * @param grades grades in ascending order
+	 * @param value value to compare against
+	 * @return index of the first grade not below value
+	 */
+	private static int lowerBound(float[] grades, double value) {
+		int low = 0;
+		int high = grades.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (grades[middle] < value) {
+				low = middle + 1;
+			} // end if block
+			else {
+				high = middle;
+			} // end else block
+		} // end while loop
+		return low;
+	} // end method lowerBound
+
+	/**
+	 * folds a grade into the extremes
+	 *
+	 * @param grade the grade to account for
+	 */
+	private void addExtremes(float grade) {
+		if (grade < min) {
+			min = grade;
+			minCount = 1;
+		} // end if block
+		else if (grade == min) {
+			++minCount;
+		} // end else-if block
+		if (grade > max) {
+			max = grade;
+			maxCount = 1;
+		} // end if block
+		else if (grade == max) {
+			++maxCount;
+		} // end else-if block
+	} // end method addExtremes
+
+	/**
+	 * looks up the extremes and their multiplicities in the index
+	 */
+	private void recompute() {
+		min = index.select(0);
+		minCount = index.count(min);
+		max = index.select(count - 1);
+		maxCount = index.count(max);
+	} // end method recompute
+
+	/**
+	 * SortedGrades is an immutable sorted copy of a column's grades along
+	 * with the statistics computed from it
+	 */
+	private static class SortedGrades {
+		/** the grades in ascending order */
+		final float[] grades;
+
+		/** population standard deviation of the grades */
+		final double standardDeviation;
+
+		/**
+		 * constructor to initialize SortedGrades fields
+		 *
+		 * @param grades the grades in ascending order
+		 */
+		SortedGrades(float[] grades) {
+			this.grades = grades;
+
+			// two passes, so the deviations are taken from the exact mean
+			double mean = 0;
+			for (float grade : grades) {
+				mean += grade;
+			} // end for loop
+			mean /= grades.length;
+			double squares = 0;
+			for (float grade : grades) {
+				squares += (grade - mean) * (grade - mean);
+			} // end for loop
+			standardDeviation = Math.sqrt(squares / grades.length);
+		} // end constructor SortedGrades
+	} // end class SortedGrades
+} // end class AssignmentStats
@@ -0,0 +1,203 @@
+package gradebook;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ChannelInput is a buffered reader of primitive values from a byte
+ * channel, reading the values written by ChannelOutput
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class ChannelInput {
+	/** source of the read bytes */
+	private final ReadableByteChannel channel;
+
+	/** bytes read from the channel but not yet consumed */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(
+			ChannelOutput.BUFFER_SIZE);
+
+	/** whether the channel has been exhausted */
+	private boolean endOfInput = false;
+
+	/**
+	 * constructor to initialize ChannelInput fields
+	 *
+	 * @param channel source of the read bytes
+	 */
+	ChannelInput(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer.limit(0);
+	} // end constructor ChannelInput
+
+	/**
+	 * determines whether every byte of the channel has been consumed
+	 *
+	 * @return whether the input is exhausted
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel
+	 */
+	boolean atEnd() throws IOException {
+		return !buffer.hasRemaining() && !fill();
+	} // end method atEnd
+
+	/**
+	 * reads a byte
+	 *
+	 * @return the byte read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	byte readByte() throws IOException {
+		require(1);
+		return buffer.get();
+	} // end method readByte
+
+	/**
+	 * reads an int
+	 *
+	 * @return the int read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	int readInt() throws IOException {
+		require(4);
+		return buffer.getInt();
+	} // end method readInt
+
+	/**
+	 * reads a long
+	 *
+	 * @return the long read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	long readLong() throws IOException {
+		require(8);
+		return buffer.getLong();
+	} // end method readLong
+
+	/**
+	 * reads a float
+	 *
+	 * @return the float read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	float readFloat() throws IOException {
+		require(4);
+		return buffer.getFloat();
+	} // end method readFloat
+
+	/**
+	 * reads a String written as its UTF-8 length and bytes
+	 *
+	 * @return the String read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	String readString() throws IOException {
+		int length = readInt();
+		if (length < 0) {
+			throw new IOException("Corrupt string length " + length);
+		} // end if block
+
+		byte[] bytes = new byte[length];
+		readBytes(bytes, 0, length);
+		return new String(bytes, StandardCharsets.UTF_8);
+	} // end method readString
+
+	/**
+	 * reads a run of bytes
+	 *
+	 * @param bytes array to store the bytes in
+	 * @param offset index at which to store the first byte
+	 * @param length number of bytes to read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	void readBytes(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			require(1);
+			int count = Math.min(buffer.remaining(), length);
+			buffer.get(bytes, offset, count);
+			offset += count;
+			length -= count;
+		} // end while loop
+	} // end method readBytes
+
+	/**
+	 * reads a run of floats in bulk
+	 *
+	 * @param values array to store the floats in
+	 * @param offset index at which to store the first float
+	 * @param length number of floats to read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	void readFloats(float[] values, int offset, int length)
+			throws IOException {
+		while (length > 0) {
+			require(4);
+			FloatBuffer floats = buffer.asFloatBuffer();
+			int count = Math.min(floats.remaining(), length);
+			floats.get(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		} // end while loop
+	} // end method readFloats
+
+	/**
+	 * makes sure the given number of bytes are buffered
+	 *
+	 * @param bytes number of bytes about to be read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel or the
+	 * 			  input ends first
+	 */
+	private void require(int bytes) throws IOException {
+		while (buffer.remaining() < bytes) {
+			if (!fill()) {
+				throw new EOFException("Unexpected end of input");
+			} // end if block
+		} // end while loop
+	} // end method require
+
+	/**
+	 * reads more bytes after the unconsumed ones
+	 *
+	 * @return whether any bytes were read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the channel
+	 */
+	private boolean fill() throws IOException {
+		if (endOfInput) {
+			return false;
+		} // end if block
+
+		buffer.compact();
+		int count = channel.read(buffer);
+		buffer.flip();
+		if (count < 0) {
+			endOfInput = true;
+			return false;
+		} // end if block
+		return true;
+	} // end method fill
+} // end class ChannelInput
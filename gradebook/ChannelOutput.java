@@ -0,0 +1,167 @@
+package gradebook;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ChannelOutput is a buffered writer of primitive values to a byte
+ * channel, used for the binary gradebook formats; values are written
+ * big-endian and Strings as a length followed by their UTF-8 bytes
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class ChannelOutput {
+	/** number of bytes buffered between writes to the channel */
+	static final int BUFFER_SIZE = 1 << 16;
+
+	/** destination of the written bytes */
+	private final WritableByteChannel channel;
+
+	/** bytes waiting to be written to the channel */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * constructor to initialize ChannelOutput fields
+	 *
+	 * @param channel destination of the written bytes
+	 */
+	ChannelOutput(WritableByteChannel channel) {
+		this.channel = channel;
+	} // end constructor ChannelOutput
+
+	/**
+	 * writes a byte
+	 *
+	 * @param value the byte to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void writeByte(byte value) throws IOException {
+		reserve(1);
+		buffer.put(value);
+	} // end method writeByte
+
+	/**
+	 * writes an int
+	 *
+	 * @param value the int to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void writeInt(int value) throws IOException {
+		reserve(4);
+		buffer.putInt(value);
+	} // end method writeInt
+
+	/**
+	 * writes a long
+	 *
+	 * @param value the long to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void writeLong(long value) throws IOException {
+		reserve(8);
+		buffer.putLong(value);
+	} // end method writeLong
+
+	/**
+	 * writes a float
+	 *
+	 * @param value the float to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void writeFloat(float value) throws IOException {
+		reserve(4);
+		buffer.putFloat(value);
+	} // end method writeFloat
+
+	/**
+	 * writes a String as its UTF-8 length and bytes
+	 *
+	 * @param value the String to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	} // end method writeString
+
+	/**
+	 * writes a run of bytes
+	 *
+	 * @param bytes array holding the bytes
+	 * @param offset index of the first byte to write
+	 * @param length number of bytes to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			reserve(1);
+			int count = Math.min(buffer.remaining(), length);
+			buffer.put(bytes, offset, count);
+			offset += count;
+			length -= count;
+		} // end while loop
+	} // end method writeBytes
+
+	/**
+	 * writes a run of floats in bulk
+	 *
+	 * @param values array holding the floats
+	 * @param offset index of the first float to write
+	 * @param length number of floats to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void writeFloats(float[] values, int offset, int length)
+			throws IOException {
+		while (length > 0) {
+			reserve(4);
+			FloatBuffer floats = buffer.asFloatBuffer();
+			int count = Math.min(floats.remaining(), length);
+			floats.put(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		} // end while loop
+	} // end method writeFloats
+
+	/**
+	 * writes every buffered byte to the channel
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		} // end while loop
+		buffer.clear();
+	} // end method flush
+
+	/**
+	 * makes sure the buffer has room for the given number of bytes
+	 *
+	 * @param bytes number of bytes about to be written
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to the channel
+	 */
+	private void reserve(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		} // end if block
+	} // end method reserve
+} // end class ChannelOutput
@@ -0,0 +1,1756 @@
+package gradebook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ConcurrentGradeBook is a thread-safe view of a MyGradeBook, allowing
+ * statistics and reports to be read while grades are being changed.
+ * Adding students or assignments takes an exclusive lock on the whole
+ * gradebook, while everything else shares it. A grade change then locks
+ * only its assignment's column and a stripe of student rows, so graders of
+ * different assignments proceed in parallel. Running statistics and
+ * current grades are read optimistically against the column or row lock
+ * and only fall back to a read lock if a grade changed underneath them;
+ * medians, percentiles, rankings and reports always take read locks
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public class ConcurrentGradeBook implements AutoCloseable {
+	/** number of locks student rows are spread over; a power of two */
+	private static final int ROW_STRIPES = 64;
+
+	/** gradebook holding the data */
+	private final MyGradeBook book;
+
+	/** lock on the set of assignments and students */
+	private final StampedLock structure = new StampedLock();
+
+	/**
+	 * lock on the grades and running aggregates of each assignment,
+	 * indexed by column; replaced only under the structure write lock
+	 */
+	private StampedLock[] columnLocks = new StampedLock[0];
+
+	/** locks on the grades and weighted totals of the student rows */
+	private final StampedLock[] rowLocks = new StampedLock[ROW_STRIPES];
+
+	/**
+	 * constructor to make a gradebook safe for concurrent use; the
+	 * gradebook must only be used through this view from now on
+	 *
+	 * @param book gradebook holding the data
+	 */
+	public ConcurrentGradeBook(MyGradeBook book) {
+		this.book = book;
+		for (int i = 0; i < ROW_STRIPES; ++i) {
+			rowLocks[i] = new StampedLock();
+		} // end for loop
+		addColumnLocks();
+		book.setInlineCheckpoints(false);
+	} // end constructor ConcurrentGradeBook
+
+	/**
+	 * factory method to construct an empty ConcurrentGradeBook
+	 *
+	 * @return an empty ConcurrentGradeBook
+	 */
+	public static ConcurrentGradeBook initialize() {
+		return new ConcurrentGradeBook(MyGradeBook.initialize());
+	} // end method initialize
+
+	/**
+	 * factory method to construct an empty ConcurrentGradeBook whose grades
+	 * are kept in the given place
+	 *
+	 * @param storage where the grade matrix lives
+	 * @return an empty ConcurrentGradeBook
+	 */
+	public static ConcurrentGradeBook initialize(GradeStorage storage) {
+		return new ConcurrentGradeBook(MyGradeBook.initialize(storage));
+	} // end method initialize
+
+	/**
+	 * factory method to construct a ConcurrentGradeBook that contains the
+	 * grade book from filename
+	 *
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @return a ConcurrentGradeBook that contains the grade book from
+	 *         filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public static ConcurrentGradeBook initializeWithFile(String filename)
+			throws IOException {
+		return new ConcurrentGradeBook(
+				MyGradeBook.initializeWithFile(filename));
+	} // end method initializeWithFile
+
+	/**
+	 * factory method to construct a ConcurrentGradeBook that contains the
+	 * grade book from filename, reading the file as mode selects
+	 *
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @param mode
+	 *            how the file is read
+	 * @return a ConcurrentGradeBook that contains the grade book from
+	 *         filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public static ConcurrentGradeBook initializeWithFile(String filename,
+			LoadMode mode) throws IOException {
+		return new ConcurrentGradeBook(
+				MyGradeBook.initializeWithFile(filename, mode));
+	} // end method initializeWithFile
+
+	/**
+	 * factory method to construct a ConcurrentGradeBook that contains the
+	 * grade book from filename, with its grades kept in the given place
+	 *
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @param storage
+	 *            where the grade matrix lives
+	 * @return a ConcurrentGradeBook that contains the grade book from
+	 *         filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public static ConcurrentGradeBook initializeWithFile(String filename,
+			GradeStorage storage) throws IOException {
+		return new ConcurrentGradeBook(
+				MyGradeBook.initializeWithFile(filename, storage));
+	} // end method initializeWithFile
+
+	/**
+	 * factory method to construct a ConcurrentGradeBook that contains the
+	 * grade book from startingString
+	 *
+	 * @param startingString
+	 *            String that contains the initial grade book, which is
+	 *            formatted like initial.txt
+	 * @return a ConcurrentGradeBook that contains the grade book from
+	 *         startingString
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the String
+	 */
+	public static ConcurrentGradeBook initializeWithString(
+			String startingString) throws IOException {
+		return new ConcurrentGradeBook(
+				MyGradeBook.initializeWithString(startingString));
+	} // end method initializeWithString
+
+	/**
+	 * add to the state of this grade book by processing filename; this
+	 * excludes every other use of the grade book until it is done
+	 *
+	 * @param filename
+	 *            the filename for a file that contains information that
+	 *            will be added to the grade book
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public void processFile(String filename)
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.setInlineCheckpoints(true);
+			book.processFile(filename);
+		} // end try block
+		finally {
+			book.setInlineCheckpoints(false);
+			addColumnLocks();
+
+			// a journal compaction may have shared the weighted totals,
+			// which writers of different rows change at once
+			book.unshareTotals();
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method processFile
+
+	/**
+	 * add to the state of this grade book by processing filename, reading
+	 * the file as mode selects; this excludes every other use of the grade
+	 * book until it is done
+	 *
+	 * @param filename
+	 *            the filename for a file that contains information that
+	 *            will be added to the grade book
+	 * @param mode
+	 *            how the file is read
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public void processFile(String filename, LoadMode mode)
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.setInlineCheckpoints(true);
+			book.processFile(filename, mode);
+		} // end try block
+		finally {
+			book.setInlineCheckpoints(false);
+			addColumnLocks();
+
+			// a journal compaction may have shared the weighted totals,
+			// which writers of different rows change at once
+			book.unshareTotals();
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method processFile
+
+	/**
+	 * add to the state of this grade book by processing additionalString;
+	 * this excludes every other use of the grade book until it is done
+	 *
+	 * @param additionalString
+	 *            String that contains information that will be added to
+	 *            the grade book
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the String
+	 */
+	public void processString(String additionalString)
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.setInlineCheckpoints(true);
+			book.processString(additionalString);
+		} // end try block
+		finally {
+			book.setInlineCheckpoints(false);
+			addColumnLocks();
+
+			// a journal compaction may have shared the weighted totals,
+			// which writers of different rows change at once
+			book.unshareTotals();
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method processString
+
+	/**
+	 * changes the assignment (named assignmentName) grade for student
+	 * (whose username is equal to username) to newGrade, locking only the
+	 * assignment's column and the student's row stripe
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param username
+	 *            username for the student
+	 * @param newGrade
+	 *            the new grade for the given assignment and student
+	 * @return whether there was a grade to change. Returns true if the
+	 *         given assignment/student combination exists and the grade is
+	 *         now newGrade, returns false otherwise
+	 */
+	public boolean changeGrade(String assignmentName, String username,
+			double newGrade) {
+		long stamp = structure.readLock();
+		try {
+			int column = book.assignmentColumn(assignmentName);
+			int row = book.studentRow(username);
+			GradeBookMetrics metrics = book.metrics();
+			if (column < 0 || row < 0) {
+				if (metrics != null) {
+					metrics.rejectGradeChanges(1);
+				} // end if block
+				return false;
+			} // end if block
+			long start = metrics == null ? 0 : System.nanoTime();
+
+			// always lock the column before the row so graders never deadlock
+			StampedLock columnLock = columnLocks[column];
+			StampedLock rowLock = rowLock(row);
+			boolean changed;
+			long columnStamp = columnLock.writeLock();
+			try {
+				long rowStamp = rowLock.writeLock();
+				try {
+					changed = book.changeGrade(column, row, newGrade);
+				} // end try block
+				finally {
+					rowLock.unlockWrite(rowStamp);
+				} // end finally block
+			} // end try block
+			finally {
+				columnLock.unlockWrite(columnStamp);
+			} // end finally block
+
+			// time the change including the wait for its locks
+			if (metrics != null) {
+				metrics.record(GradeBookMetrics.CHANGE_GRADE, start);
+			} // end if block
+			return changed;
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+			checkpointHistoryIfDue();
+			compactJournalIfDue();
+		} // end finally block
+	} // end method changeGrade
+
+	/**
+	 * takes a history checkpoint if enough grade changes have been logged
+	 * since the last; the checkpoint shares the grade columns, so no grade
+	 * may change while it is taken
+	 */
+	private void checkpointHistoryIfDue() {
+		if (!book.historyCheckpointDue()) {
+			return;
+		} // end if block
+		long stamp = structure.writeLock();
+		try {
+			// another grader may have taken it while this one waited
+			if (book.historyCheckpointDue()) {
+				book.checkpointHistory();
+			} // end if block
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method checkpointHistoryIfDue
+
+	/**
+	 * compacts the journal if it has grown past its compaction size; the
+	 * compaction captures the whole gradebook, so no grade may change, nor
+	 * be journaled but not yet applied, while it is taken
+	 *
+	 * @throws UncheckedIOException
+	 * 			  thrown if error occurs starting the compaction
+	 */
+	private void compactJournalIfDue() {
+		if (!book.journalCompactionDue()) {
+			return;
+		} // end if block
+		long stamp = structure.writeLock();
+		try {
+			// another grader may have started it while this one waited
+			if (book.journalCompactionDue()) {
+				book.compactJournal();
+				book.unshareTotals();
+			} // end if block
+		} // end try block
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} // end catch block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method compactJournalIfDue
+
+	/**
+	 * calculates the average across all students for a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the average across all students for assignmentName
+	 */
+	public double average(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		return readStatistic(assignmentName, new Statistic() {
+			@Override
+			double of(String name) {
+				return book.average(name);
+			} // end method of
+		});
+	} // end method average
+
+	/**
+	 * calculates the min across all students for a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the min across all students for assignmentName
+	 */
+	public double min(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		return readStatistic(assignmentName, new Statistic() {
+			@Override
+			double of(String name) {
+				return book.min(name);
+			} // end method of
+		});
+	} // end method min
+
+	/**
+	 * calculates the max across all students for a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the max across all students for assignmentName
+	 */
+	public double max(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		return readStatistic(assignmentName, new Statistic() {
+			@Override
+			double of(String name) {
+				return book.max(name);
+			} // end method of
+		});
+	} // end method max
+
+	/**
+	 * calculates the median across all students for a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the median across all students for assignmentName
+	 */
+	public double median(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.median(assignmentName);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method median
+
+	/**
+	 * calculates a percentile across all students for a given assignment,
+	 * interpolating linearly between the two closest grades
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param percent
+	 *            percentile to calculate, from 0 to 100; 50 gives the median
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or percent is out of range
+	 * @return the given percentile across all students for assignmentName
+	 */
+	public double percentile(String assignmentName, double percent)
+			throws IllegalArgumentException, ArithmeticException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.percentile(assignmentName, percent);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method percentile
+
+	/**
+	 * calculates several percentiles across all students for a given
+	 * assignment from one sorted copy of its grades
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param percents
+	 *            percentiles to calculate, each from 0 to 100
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or a percentile is out of range
+	 * @return the grade at each percentile, in the order given
+	 */
+	public double[] percentiles(String assignmentName, double... percents)
+			throws IllegalArgumentException, ArithmeticException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.percentiles(assignmentName, percents);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method percentiles
+
+	/**
+	 * calculates the interquartile range across all students for a given
+	 * assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the 75th percentile minus the 25th percentile for
+	 *         assignmentName
+	 */
+	public double interquartileRange(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.interquartileRange(assignmentName);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method interquartileRange
+
+	/**
+	 * calculates the population standard deviation across all students for
+	 * a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the standard deviation across all students for assignmentName
+	 */
+	public double standardDeviation(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.standardDeviation(assignmentName);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method standardDeviation
+
+	/**
+	 * counts how many students' grades for a given assignment fall in each
+	 * of a number of equal-width ranges from 0 to the assignment's total
+	 * points
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param buckets
+	 *            number of ranges, at least 1
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or buckets is less than 1
+	 * @return the number of grades in each range, lowest range first
+	 */
+	public int[] distribution(String assignmentName, int buckets)
+			throws IllegalArgumentException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.distribution(assignmentName, buckets);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method distribution
+
+	/**
+	 * calculates the current grade for the given student
+	 *
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @return the current grade for student with username
+	 */
+	public double currentGrade(String username)
+			throws IllegalArgumentException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = rowLock(username);
+
+			// read the running total without locking unless it changes
+			long rowStamp = lock.tryOptimisticRead();
+			if (rowStamp != 0) {
+				double grade = book.currentGrade(username);
+				if (lock.validate(rowStamp)) {
+					return grade;
+				} // end if block
+			} // end if block
+
+			rowStamp = lock.readLock();
+			try {
+				return book.currentGrade(username);
+			} // end try block
+			finally {
+				lock.unlockRead(rowStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method currentGrade
+
+	/**
+	 * calculates the current grade the given student had at a past time,
+	 * from the history of grade changes
+	 *
+	 * @param username
+	 *            username for the student
+	 * @param asOf
+	 *            the time, at millisecond resolution
+	 * @throws IllegalArgumentException
+	 * 			  thrown when username does not match a student who existed
+	 * 			  at asOf, or asOf is before history was enabled
+	 * @throws IllegalStateException
+	 * 			  thrown if history is not being kept
+	 * @return the current grade for student with username as of asOf
+	 */
+	public double currentGrade(String username, Instant asOf)
+			throws IllegalArgumentException, IllegalStateException {
+		long stamp = structure.readLock();
+		try {
+			return book.currentGrade(username, asOf);
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method currentGrade
+
+	/**
+	 * provides the grade earned by the given student for the given
+	 * assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when the parameters do not match an existing
+	 * 			  assignment or student
+	 * @return the grade earned by username for assignmentName
+	 */
+	public double assignmentGrade(String assignmentName, String username)
+			throws IllegalArgumentException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = rowLock(username);
+
+			// read the grade without locking unless it changes
+			long rowStamp = lock.tryOptimisticRead();
+			if (rowStamp != 0) {
+				double grade = book.assignmentGrade(assignmentName, username);
+				if (lock.validate(rowStamp)) {
+					return grade;
+				} // end if block
+			} // end if block
+
+			rowStamp = lock.readLock();
+			try {
+				return book.assignmentGrade(assignmentName, username);
+			} // end try block
+			finally {
+				lock.unlockRead(rowStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method assignmentGrade
+
+	/**
+	 * provides the grade the given student had for the given assignment at
+	 * a past time, from the history of grade changes
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param username
+	 *            username for the student
+	 * @param asOf
+	 *            the time, at millisecond resolution
+	 * @throws IllegalArgumentException
+	 * 			  thrown when the parameters do not match an assignment and
+	 * 			  student which existed at asOf, or asOf is before history
+	 * 			  was enabled
+	 * @throws IllegalStateException
+	 * 			  thrown if history is not being kept
+	 * @return the grade earned by username for assignmentName as of asOf
+	 */
+	public double assignmentGrade(String assignmentName, String username,
+			Instant asOf) throws IllegalArgumentException,
+			IllegalStateException {
+		long stamp = structure.readLock();
+		try {
+			return book.assignmentGrade(assignmentName, username, asOf);
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method assignmentGrade
+
+	/**
+	 * calculates the current grade of every student
+	 *
+	 * @return map from each student's username to their current grade
+	 */
+	public HashMap<String, Double> currentGrades() {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			return book.currentGrades();
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method currentGrades
+
+	/**
+	 * calculates the current grade of every student on the common fork-join
+	 * pool
+	 *
+	 * @return map from each student's username to their current grade
+	 * @throws InterruptedException
+	 * 			  thrown if interrupted while waiting for the workers
+	 */
+	public HashMap<String, Double> currentGradesInParallel()
+			throws InterruptedException {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			return book.currentGradesInParallel();
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method currentGradesInParallel
+
+	/**
+	 * calculates the current grade of every student on executor
+	 *
+	 * @param executor
+	 *            executor to run the chunks of students on
+	 * @param parallelism
+	 *            number of chunks to split the students into
+	 * @return map from each student's username to their current grade
+	 * @throws InterruptedException
+	 * 			  thrown if interrupted while waiting for the workers
+	 */
+	public HashMap<String, Double> currentGradesInParallel(
+			ExecutorService executor, int parallelism)
+			throws InterruptedException {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			return book.currentGradesInParallel(executor, parallelism);
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method currentGradesInParallel
+
+	/**
+	 * finds the class rank of the given student by current grade
+	 *
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @return 1 plus the number of students with a strictly higher current
+	 *         grade
+	 */
+	public int rankOf(String username)
+			throws IllegalArgumentException {
+		long stamp = readLockCurrentRanking();
+		try {
+			return book.rankOf(username);
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method rankOf
+
+	/**
+	 * lists the students with the highest current grades
+	 *
+	 * @param k
+	 *            number of students wanted
+	 * @throws IllegalArgumentException
+	 * 			  thrown when k is negative
+	 * @return map from the username of each of the k best students to
+	 *         their current grade, iterating from the highest grade down
+	 */
+	public LinkedHashMap<String, Double> topK(int k)
+			throws IllegalArgumentException {
+		long stamp = readLockCurrentRanking();
+		try {
+			return book.topK(k);
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method topK
+
+	/**
+	 * lists the students with the lowest current grades
+	 *
+	 * @param k
+	 *            number of students wanted
+	 * @throws IllegalArgumentException
+	 * 			  thrown when k is negative
+	 * @return map from the username of each of the k worst students to
+	 *         their current grade, iterating from the lowest grade up
+	 */
+	public LinkedHashMap<String, Double> bottomK(int k)
+			throws IllegalArgumentException {
+		long stamp = readLockCurrentRanking();
+		try {
+			return book.bottomK(k);
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method bottomK
+
+	/**
+	 * lists the students with the highest grades in the given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param k
+	 *            number of students wanted
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or k is negative
+	 * @return map from the username of each of the k best students to
+	 *         their grade in assignmentName, iterating from the highest
+	 *         grade down
+	 */
+	public LinkedHashMap<String, Double> topK(String assignmentName, int k)
+			throws IllegalArgumentException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			int column = book.assignmentColumn(assignmentName);
+			long columnStamp = lock.readLock();
+			if (!book.hasAssignmentRanking(column)) {
+				// building the ranking must exclude changes to the column
+				lock.unlockRead(columnStamp);
+				columnStamp = lock.writeLock();
+				try {
+					book.assignmentRanking(column);
+				} // end try block
+				finally {
+					columnStamp = lock.tryConvertToReadLock(columnStamp);
+				} // end finally block
+			} // end if block
+			try {
+				return book.topK(assignmentName, k);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method topK
+
+	/**
+	 * calculates the count, mean, min and max of the current grades of each
+	 * advisor's students
+	 *
+	 * @return map from each advisor to the statistics of their students'
+	 *         current grades
+	 */
+	public TreeMap<String, GroupStatistics> currentGradesByAdvisor() {
+		long stamp = readLockStudentGroups();
+		long[] rowStamps = readLockRows();
+		try {
+			return book.currentGradesByAdvisor();
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method currentGradesByAdvisor
+
+	/**
+	 * calculates the count, mean, min and max of the current grades of the
+	 * students expected to graduate in each year
+	 *
+	 * @return map from each expected graduation year to the statistics of
+	 *         its students' current grades
+	 */
+	public TreeMap<Integer, GroupStatistics> currentGradesByGradYear() {
+		long stamp = readLockStudentGroups();
+		long[] rowStamps = readLockRows();
+		try {
+			return book.currentGradesByGradYear();
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method currentGradesByGradYear
+
+	/**
+	 * calculates the count, mean, min and max of each advisor's students'
+	 * grades in the given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return map from each advisor to the statistics of their students'
+	 *         grades in assignmentName
+	 */
+	public TreeMap<String, GroupStatistics> assignmentGradesByAdvisor(
+			String assignmentName) throws IllegalArgumentException {
+		long stamp = readLockStudentGroups();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.assignmentGradesByAdvisor(assignmentName);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method assignmentGradesByAdvisor
+
+	/**
+	 * calculates the count, mean, min and max of the grades in the given
+	 * assignment of the students expected to graduate in each year
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return map from each expected graduation year to the statistics of
+	 *         its students' grades in assignmentName
+	 */
+	public TreeMap<Integer, GroupStatistics> assignmentGradesByGradYear(
+			String assignmentName) throws IllegalArgumentException {
+		long stamp = readLockStudentGroups();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.assignmentGradesByGradYear(assignmentName);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method assignmentGradesByGradYear
+
+	/**
+	 * lists the students of the given advisor
+	 *
+	 * @param advisor
+	 *            name of the advisor
+	 * @return the usernames of the advisor's students in alphabetical order
+	 */
+	public List<String> studentsOfAdvisor(String advisor) {
+		long stamp = readLockStudentGroups();
+		try {
+			return book.studentsOfAdvisor(advisor);
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method studentsOfAdvisor
+
+	/**
+	 * lists the students expected to graduate in the given year
+	 *
+	 * @param gradYear
+	 *            expected graduation year
+	 * @return the usernames of the year's students in alphabetical order
+	 */
+	public List<String> studentsOfGradYear(int gradYear) {
+		long stamp = readLockStudentGroups();
+		try {
+			return book.studentsOfGradYear(gradYear);
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method studentsOfGradYear
+
+	/**
+	 * provide a String that contains the current grades of all students in
+	 * the course
+	 *
+	 * @return a String formatted like currentGrades.txt
+	 */
+	public String outputCurrentGrades() {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			return book.outputCurrentGrades();
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputCurrentGrades
+
+	/**
+	 * write the current grades of all students in the course to out
+	 *
+	 * @param out
+	 *            destination for the report, formatted like
+	 *            currentGrades.txt
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputCurrentGrades(Appendable out)
+			throws IOException {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			book.outputCurrentGrades(out);
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputCurrentGrades
+
+	/**
+	 * write the current grades of all students in the course to out as
+	 * UTF-8
+	 *
+	 * @param out
+	 *            destination for the report, formatted like
+	 *            currentGrades.txt
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputCurrentGrades(OutputStream out)
+			throws IOException {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			book.outputCurrentGrades(out);
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputCurrentGrades
+
+	/**
+	 * provide a String that contains the current grades of the given
+	 * student
+	 *
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @return a String formatted like studentGrades.txt
+	 */
+	public String outputStudentGrades(String username)
+			throws IllegalArgumentException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = rowLock(username);
+			long rowStamp = lock.readLock();
+			try {
+				return book.outputStudentGrades(username);
+			} // end try block
+			finally {
+				lock.unlockRead(rowStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputStudentGrades
+
+	/**
+	 * write the current grades of the given student to out
+	 *
+	 * @param username
+	 *            username for the student
+	 * @param out
+	 *            destination for the report, formatted like
+	 *            studentGrades.txt
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputStudentGrades(String username, Appendable out)
+			throws IllegalArgumentException, IOException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = rowLock(username);
+			long rowStamp = lock.readLock();
+			try {
+				book.outputStudentGrades(username, out);
+			} // end try block
+			finally {
+				lock.unlockRead(rowStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputStudentGrades
+
+	/**
+	 * write the current grades of the given student to out as UTF-8
+	 *
+	 * @param username
+	 *            username for the student
+	 * @param out
+	 *            destination for the report, formatted like
+	 *            studentGrades.txt
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputStudentGrades(String username, OutputStream out)
+			throws IllegalArgumentException, IOException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = rowLock(username);
+			long rowStamp = lock.readLock();
+			try {
+				book.outputStudentGrades(username, out);
+			} // end try block
+			finally {
+				lock.unlockRead(rowStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputStudentGrades
+
+	/**
+	 * provide a String that contains the grades of all students for the
+	 * given assignment
+	 *
+	 * @param assignName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return a String formatted like gradesForAssignment1.txt
+	 */
+	public String outputAssignmentGrades(String assignName)
+			throws IllegalArgumentException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignName);
+			long columnStamp = lock.readLock();
+			try {
+				return book.outputAssignmentGrades(assignName);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputAssignmentGrades
+
+	/**
+	 * write the grades of all students for the given assignment to out
+	 *
+	 * @param assignName
+	 *            name of the assignment
+	 * @param out
+	 *            destination for the report, formatted like
+	 *            gradesForAssignment1.txt
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputAssignmentGrades(String assignName, Appendable out)
+			throws IllegalArgumentException, IOException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignName);
+			long columnStamp = lock.readLock();
+			try {
+				book.outputAssignmentGrades(assignName, out);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputAssignmentGrades
+
+	/**
+	 * write the grades of all students for the given assignment to out as
+	 * UTF-8
+	 *
+	 * @param assignName
+	 *            name of the assignment
+	 * @param out
+	 *            destination for the report, formatted like
+	 *            gradesForAssignment1.txt
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputAssignmentGrades(String assignName, OutputStream out)
+			throws IllegalArgumentException, IOException {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignName);
+			long columnStamp = lock.readLock();
+			try {
+				book.outputAssignmentGrades(assignName, out);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputAssignmentGrades
+
+	/**
+	 * provide a String that contains the whole grade book
+	 *
+	 * @return a String formatted like initial.txt
+	 */
+	public String outputGradebook() {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			return book.outputGradebook();
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputGradebook
+
+	/**
+	 * write the whole grade book to out
+	 *
+	 * @param out
+	 *            destination for the report, formatted like initial.txt
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputGradebook(Appendable out)
+			throws IOException {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			book.outputGradebook(out);
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputGradebook
+
+	/**
+	 * write the whole grade book to out as UTF-8
+	 *
+	 * @param out
+	 *            destination for the report, formatted like initial.txt
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputGradebook(OutputStream out)
+			throws IOException {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			book.outputGradebook(out);
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method outputGradebook
+
+	/**
+	 * take a read-only view of this grade book as it is now, on which long
+	 * statistics and reports can run without holding any of this grade
+	 * book's locks; writers are only held off while the view is made,
+	 * which costs time in the number of assignments plus a copy of each
+	 * student's weighted total, since writers of different rows change
+	 * those at once. Each grade column is copied the first time a writer
+	 * changes it afterwards
+	 *
+	 * @return a snapshot of this grade book, for one thread at a time
+	 */
+	public MyGradeBook snapshot() {
+		long stamp = structure.writeLock();
+		try {
+			MyGradeBook view = book.snapshot();
+			book.unshareTotals();
+			return view;
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method snapshot
+
+	/**
+	 * save the state of this grade book to path in the binary snapshot
+	 * format
+	 *
+	 * @param path
+	 *            the path of the file to write, replacing any existing file
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the file
+	 */
+	public void saveSnapshot(Path path)
+			throws IOException {
+		long stamp = structure.readLock();
+		long[] rowStamps = readLockRows();
+		try {
+			book.saveSnapshot(path);
+		} // end try block
+		finally {
+			unlockRows(rowStamps);
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method saveSnapshot
+
+	/**
+	 * start recording every change to this grade book in a write-ahead
+	 * journal in directory
+	 *
+	 * @param directory
+	 *            the directory to hold the journal, created if needed
+	 * @param durability
+	 *            how eagerly changes are forced to disk
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the journal
+	 * @throws IllegalStateException
+	 * 			  thrown if a journal is already open
+	 */
+	public void openJournal(Path directory, JournalDurability durability)
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.openJournal(directory, durability);
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method openJournal
+
+	/**
+	 * start recording every change to this grade book in a write-ahead
+	 * journal in directory
+	 *
+	 * @param directory
+	 *            the directory to hold the journal, created if needed
+	 * @param durability
+	 *            how eagerly changes are forced to disk
+	 * @param groupCommitMillis
+	 *            milliseconds between group commits when durability is
+	 *            GROUP
+	 * @param compactionBytes
+	 *            size in bytes past which the journal is folded into a new
+	 *            base snapshot
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the journal
+	 * @throws IllegalStateException
+	 * 			  thrown if a journal is already open
+	 */
+	public void openJournal(Path directory, JournalDurability durability,
+			long groupCommitMillis, long compactionBytes)
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.openJournal(directory, durability, groupCommitMillis,
+					compactionBytes);
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method openJournal
+
+	/**
+	 * fold the journal into a new base snapshot now; writers are held off
+	 * while the base is captured, since each change is journaled once,
+	 * before it is applied, and one caught between the two would be in
+	 * neither the base nor the segment after it. The base is written out
+	 * in the background once writers resume
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs starting the compaction
+	 * @throws IllegalStateException
+	 * 			  thrown if no journal is open
+	 */
+	public void compactJournal()
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.compactJournal();
+			book.unshareTotals();
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method compactJournal
+
+	/**
+	 * force every journaled change to disk and stop journaling
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs flushing the journal
+	 */
+	public void closeJournal()
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.closeJournal();
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method closeJournal
+
+	/**
+	 * close any journal and give back the memory the grade matrix holds
+	 * outside the Java heap, once every other use of the grade book is
+	 * done; the grade book must not be used afterwards
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs flushing the journal
+	 */
+	@Override
+	public void close()
+			throws IOException {
+		long stamp = structure.writeLock();
+		try {
+			book.close();
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method close
+
+	/**
+	 * start recording operation counters and latencies for this grade book
+	 *
+	 * @return the metrics being recorded, which are kept if metrics were
+	 *         already enabled
+	 */
+	public GradeBookMetrics enableMetrics() {
+		long stamp = structure.writeLock();
+		try {
+			return book.enableMetrics();
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method enableMetrics
+
+	/**
+	 * start recording operation counters and latencies for this grade book
+	 * and publish them over JMX as gradebook:type=GradeBookMetrics,name=name
+	 *
+	 * @param name
+	 *            name distinguishing this grade book from others in the
+	 *            same JVM
+	 * @return the metrics being recorded, which replace any metrics already
+	 *         being recorded
+	 * @throws IllegalArgumentException
+	 * 			  thrown if metrics are already registered under the name
+	 */
+	public GradeBookMetrics enableMetrics(String name)
+			throws IllegalArgumentException {
+		long stamp = structure.writeLock();
+		try {
+			return book.enableMetrics(name);
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method enableMetrics
+
+	/**
+	 * stop recording operation metrics and withdraw them from JMX
+	 */
+	public void disableMetrics() {
+		long stamp = structure.writeLock();
+		try {
+			book.disableMetrics();
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method disableMetrics
+
+	/**
+	 * start keeping a history of every grade change to this grade book,
+	 * taking a checkpoint every checkpointInterval changes
+	 *
+	 * @param checkpointInterval
+	 *            number of changes between checkpoints, at least 1
+	 * @throws IllegalArgumentException
+	 * 			  thrown if checkpointInterval is less than 1
+	 * @throws IllegalStateException
+	 * 			  thrown if history is already being kept
+	 */
+	public void enableHistory(int checkpointInterval)
+			throws IllegalArgumentException, IllegalStateException {
+		long stamp = structure.writeLock();
+		try {
+			book.enableHistory(checkpointInterval);
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method enableHistory
+
+	/**
+	 * stop keeping a history of grade changes and discard the history kept
+	 * so far
+	 */
+	public void disableHistory() {
+		long stamp = structure.writeLock();
+		try {
+			book.disableHistory();
+		} // end try block
+		finally {
+			structure.unlockWrite(stamp);
+		} // end finally block
+	} // end method disableHistory
+
+	/**
+	 * a running statistic of one assignment column
+	 */
+	private abstract static class Statistic {
+		/**
+		 * reads the statistic from the gradebook
+		 *
+		 * @param assignmentName name of the assignment
+		 * @return the statistic's value
+		 */
+		abstract double of(String assignmentName);
+	} // end class Statistic
+
+	/**
+	 * reads a running statistic of an assignment optimistically, falling
+	 * back to a read lock on the column if a grade changed meanwhile
+	 *
+	 * @param assignmentName name of the assignment
+	 * @param statistic the statistic to read
+	 * @return the statistic's value
+	 * @throws IllegalArgumentException
+	 * 			  thrown when there is no such assignment
+	 */
+	private double readStatistic(String assignmentName, Statistic statistic) {
+		long stamp = structure.readLock();
+		try {
+			StampedLock lock = columnLock(assignmentName);
+			long columnStamp = lock.tryOptimisticRead();
+			if (columnStamp != 0) {
+				double value = statistic.of(assignmentName);
+				if (lock.validate(columnStamp)) {
+					return value;
+				} // end if block
+			} // end if block
+
+			columnStamp = lock.readLock();
+			try {
+				return statistic.of(assignmentName);
+			} // end try block
+			finally {
+				lock.unlockRead(columnStamp);
+			} // end finally block
+		} // end try block
+		finally {
+			structure.unlockRead(stamp);
+		} // end finally block
+	} // end method readStatistic
+
+	/**
+	 * takes a read lock on the structure once the ranking by current grade
+	 * has been built; the ranking is built under the write lock, so that no
+	 * grade changes while it is, and the lock is then downgraded
+	 *
+	 * @return the stamp of the read lock
+	 */
+	private long readLockCurrentRanking() {
+		long stamp = structure.readLock();
+		if (!book.hasCurrentRanking()) {
+			structure.unlockRead(stamp);
+			stamp = structure.writeLock();
+			try {
+				book.currentRanking();
+			} // end try block
+			finally {
+				stamp = structure.tryConvertToReadLock(stamp);
+			} // end finally block
+		} // end if block
+		return stamp;
+	} // end method readLockCurrentRanking
+
+	/**
+	 * takes a read lock on the structure once the students have been
+	 * grouped by advisor and year, grouping them under the write lock first
+	 * if need be
+	 *
+	 * @return the stamp of the read lock
+	 */
+	private long readLockStudentGroups() {
+		long stamp = structure.readLock();
+		if (!book.hasStudentGroups()) {
+			structure.unlockRead(stamp);
+			stamp = structure.writeLock();
+			try {
+				book.buildStudentGroups();
+			} // end try block
+			finally {
+				stamp = structure.tryConvertToReadLock(stamp);
+			} // end finally block
+		} // end if block
+		return stamp;
+	} // end method readLockStudentGroups
+
+	/**
+	 * looks up the lock of an assignment column; the caller must hold the
+	 * structure lock
+	 *
+	 * @param assignmentName name of the assignment
+	 * @return the column's lock
+	 * @throws IllegalArgumentException
+	 * 			  thrown when there is no such assignment
+	 */
+	private StampedLock columnLock(String assignmentName) {
+		int column = book.assignmentColumn(assignmentName);
+		if (column < 0) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		return columnLocks[column];
+	} // end method columnLock
+
+	/**
+	 * looks up the lock of a student's row; the caller must hold the
+	 * structure lock
+	 *
+	 * @param username username for the student
+	 * @return the row's lock
+	 * @throws IllegalArgumentException
+	 * 			  thrown when there is no such student
+	 */
+	private StampedLock rowLock(String username) {
+		int row = book.studentRow(username);
+		if (row < 0) {
+			throw new IllegalArgumentException("Student not found");
+		} // end if block
+		return rowLock(row);
+	} // end method rowLock
+
+	/**
+	 * looks up the lock of a row
+	 *
+	 * @param row index of the student
+	 * @return the row's lock
+	 */
+	private StampedLock rowLock(int row) {
+		return rowLocks[row & (ROW_STRIPES - 1)];
+	} // end method rowLock
+
+	/**
+	 * takes a read lock on every row, in order
+	 *
+	 * @return the stamps of the locks
+	 */
+	private long[] readLockRows() {
+		long[] stamps = new long[ROW_STRIPES];
+		for (int i = 0; i < ROW_STRIPES; ++i) {
+			stamps[i] = rowLocks[i].readLock();
+		} // end for loop
+		return stamps;
+	} // end method readLockRows
+
+	/**
+	 * releases the read locks taken by readLockRows
+	 *
+	 * @param stamps the stamps of the locks
+	 */
+	private void unlockRows(long[] stamps) {
+		for (int i = ROW_STRIPES - 1; i >= 0; --i) {
+			rowLocks[i].unlockRead(stamps[i]);
+		} // end for loop
+	} // end method unlockRows
+
+	/**
+	 * makes a lock for every assignment added since the last call; the
+	 * caller must hold the structure write lock
+	 */
+	private void addColumnLocks() {
+		int columns = book.assignmentCount();
+		if (columns > columnLocks.length) {
+			int start = columnLocks.length;
+			columnLocks = Arrays.copyOf(columnLocks, columns);
+			for (int column = start; column < columns; ++column) {
+				columnLocks[column] = new StampedLock();
+			} // end for loop
+		} // end if block
+	} // end method addColumnLocks
+} // end class ConcurrentGradeBook
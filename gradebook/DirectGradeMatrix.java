@@ -0,0 +1,217 @@
+package gradebook;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * DirectGradeMatrix is a GradeMatrix keeping one direct buffer of native
+ * order floats per column outside the Java heap, so the garbage collector
+ * sees a handful of small buffer objects however many grades there are.
+ * A direct buffer's memory is normally only given back once the buffer
+ * has been collected, so buffers this matrix alone holds are released as
+ * soon as they are replaced or the matrix is closed; buffers a snapshot
+ * may still be reading are left to be released with the last matrix
+ * holding them
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class DirectGradeMatrix extends GradeMatrix {
+	/** bytes per grade */
+	private static final int FLOAT_BYTES = 4;
+
+	/**
+	 * the platform's sun.misc.Unsafe, whose invokeCleaner releases a
+	 * direct buffer at once, or null if it cannot be reached
+	 */
+	private static final Object UNSAFE;
+
+	/** Unsafe.invokeCleaner, or null if it cannot be reached */
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> type = Class.forName("sun.misc.Unsafe");
+			Field field = type.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+		} // end try block
+		catch (ReflectiveOperationException | RuntimeException e) {
+			// buffers are then released whenever they are collected
+			unsafe = null;
+			invokeCleaner = null;
+		} // end catch block
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	} // end static block
+
+	/** one buffer of grades per assignment, indexed by student */
+	private ByteBuffer[] columns = new ByteBuffer[0];
+
+	/** whether another matrix may be holding each column's buffer */
+	private boolean[] shared = new boolean[0];
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	float get(int column, int row) {
+		return columns[column].getFloat(row * FLOAT_BYTES);
+	} // end method get
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void set(int column, int row, float grade) {
+		columns[column].putFloat(row * FLOAT_BYTES, grade);
+	} // end method set
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void getColumn(int column, float[] grades) {
+		columns[column].asFloatBuffer().get(grades, 0, rowCount());
+	} // end method getColumn
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void setColumn(int column, float[] grades) {
+		columns[column].asFloatBuffer().put(grades, 0, rowCount());
+	} // end method setColumn
+
+	/**
+	 * {@inheritDoc}; every buffer becomes shared, in both matrices
+	 */
+	@Override
+	GradeMatrix snapshot() {
+		DirectGradeMatrix copy = new DirectGradeMatrix();
+		copy.columns = Arrays.copyOf(columns, columnCount());
+		copy.shared = new boolean[columnCount()];
+		Arrays.fill(copy.shared, true);
+		Arrays.fill(shared, 0, columnCount(), true);
+		return shapeCopy(copy);
+	} // end method snapshot
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void copyColumn(int column) {
+		replace(column, copy(columns[column], rowCapacity()));
+	} // end method copyColumn
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void close() {
+		for (int i = 0; i < columnCount(); ++i) {
+			if (!shared[i]) {
+				release(columns[i]);
+			} // end if block
+		} // end for loop
+		columns = new ByteBuffer[0];
+		shared = new boolean[0];
+	} // end method close
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void appendColumn(int capacity) {
+		// make room for another column reference if necessary
+		int count = columnCount();
+		if (count == columns.length) {
+			columns = Arrays.copyOf(columns, Math.max(4, count * 2));
+			shared = Arrays.copyOf(shared, columns.length);
+		} // end if block
+
+		columns[count] = allocate(capacity);
+		shared[count] = false;
+	} // end method appendColumn
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void resizeColumns(int capacity) {
+		for (int i = 0; i < columnCount(); ++i) {
+			replace(i, copy(columns[i], capacity));
+		} // end for loop
+	} // end method resizeColumns
+
+	/**
+	 * puts a new buffer this matrix alone holds in place of a column's,
+	 * releasing the old one unless a snapshot may hold it
+	 *
+	 * @param column ordinal of the assignment
+	 * @param buffer the column's new buffer
+	 */
+	private void replace(int column, ByteBuffer buffer) {
+		if (!shared[column]) {
+			release(columns[column]);
+		} // end if block
+		columns[column] = buffer;
+		shared[column] = false;
+	} // end method replace
+
+	/**
+	 * allocates a zeroed buffer outside the heap
+	 *
+	 * @param capacity number of grades the buffer must hold
+	 * @return the buffer
+	 * @throws IllegalStateException
+	 * 			  thrown if the capacity is too large for one buffer
+	 */
+	private static ByteBuffer allocate(int capacity) {
+		if (capacity > Integer.MAX_VALUE / FLOAT_BYTES) {
+			throw new IllegalStateException("Too many students for a column");
+		} // end if block
+		return ByteBuffer.allocateDirect(capacity * FLOAT_BYTES)
+				.order(ByteOrder.nativeOrder());
+	} // end method allocate
+
+	/**
+	 * copies a buffer into a new, possibly larger one
+	 *
+	 * @param buffer the buffer to copy
+	 * @param capacity number of grades the new buffer must hold
+	 * @return the copy, with 0s past the end of the original
+	 */
+	private static ByteBuffer copy(ByteBuffer buffer, int capacity) {
+		ByteBuffer copy = allocate(capacity);
+		copy.put(0, buffer, 0, buffer.capacity());
+		return copy;
+	} // end method copy
+
+	/**
+	 * gives a buffer's memory back now, if the platform allows it; the
+	 * buffer must not be used again
+	 *
+	 * @param buffer the buffer to release
+	 */
+	private static void release(ByteBuffer buffer) {
+		if (INVOKE_CLEANER == null) {
+			return;
+		} // end if block
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, buffer);
+		} // end try block
+		catch (ReflectiveOperationException e) {
+			// leave it to be released once it is collected
+		} // end catch block
+	} // end method release
+} // end class DirectGradeMatrix
@@ -0,0 +1,311 @@
+package gradebook;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * GradeBookMetrics is a class recording how often each public operation
+ * of a MyGradeBook is called and how long it takes, along with how much
+ * input has been loaded and how many grade changes were rejected. Counters
+ * are LongAdders and latencies go into LatencyHistograms, so recording
+ * never blocks and many threads may record at once. A gradebook only
+ * records while metrics are enabled on it; otherwise each operation pays
+ * for a single null check
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public class GradeBookMetrics implements GradeBookMetricsMXBean {
+	/** processFile and processString */
+	static final int PROCESS = 0;
+
+	/** changeGrade */
+	static final int CHANGE_GRADE = 1;
+
+	/** changeGrades and changeStudentGrades */
+	static final int CHANGE_GRADES = 2;
+
+	/** average */
+	static final int AVERAGE = 3;
+
+	/** median */
+	static final int MEDIAN = 4;
+
+	/** percentile */
+	static final int PERCENTILE = 5;
+
+	/** min */
+	static final int MIN = 6;
+
+	/** max */
+	static final int MAX = 7;
+
+	/** currentGrade */
+	static final int CURRENT_GRADE = 8;
+
+	/** currentGrades and currentGradesInParallel */
+	static final int CURRENT_GRADES = 9;
+
+	/** assignmentGrade */
+	static final int ASSIGNMENT_GRADE = 10;
+
+	/** outputCurrentGrades */
+	static final int OUTPUT_CURRENT_GRADES = 11;
+
+	/** outputStudentGrades */
+	static final int OUTPUT_STUDENT_GRADES = 12;
+
+	/** outputAssignmentGrades */
+	static final int OUTPUT_ASSIGNMENT_GRADES = 13;
+
+	/** outputGradebook */
+	static final int OUTPUT_GRADEBOOK = 14;
+
+	/** percentiles and interquartileRange */
+	static final int PERCENTILES = 15;
+
+	/** standardDeviation */
+	static final int STANDARD_DEVIATION = 16;
+
+	/** distribution */
+	static final int DISTRIBUTION = 17;
+
+	/** rankOf */
+	static final int RANK_OF = 18;
+
+	/** topK and bottomK */
+	static final int TOP_K = 19;
+
+	/**
+	 * currentGradesByAdvisor, currentGradesByGradYear,
+	 * assignmentGradesByAdvisor and assignmentGradesByGradYear
+	 */
+	static final int GROUP_STATISTICS = 20;
+
+	/** studentsOfAdvisor and studentsOfGradYear */
+	static final int GROUP_MEMBERS = 21;
+
+	/** name of each operation, indexed by the constants above */
+	private static final String[] OPERATION_NAMES = {
+		"process", "changeGrade", "changeGrades", "average", "median",
+		"percentile", "min", "max", "currentGrade", "currentGrades",
+		"assignmentGrade", "outputCurrentGrades", "outputStudentGrades",
+		"outputAssignmentGrades", "outputGradebook", "percentiles",
+		"standardDeviation", "distribution", "rankOf", "topK",
+		"groupStatistics", "groupMembers"
+	};
+
+	/** gradebook whose sizes are reported */
+	private final MyGradeBook book;
+
+	/** latencies of each operation, indexed by the constants above */
+	private final LatencyHistogram[] latencies =
+			new LatencyHistogram[OPERATION_NAMES.length];
+
+	/** bytes of files plus characters of strings loaded */
+	private final LongAdder parsedBytes = new LongAdder();
+
+	/** number of grade changes which were not applied */
+	private final LongAdder rejectedGradeChanges = new LongAdder();
+
+	/** name the metrics are registered under, or null if not registered */
+	private ObjectName objectName = null;
+
+	/**
+	 * constructor to initialize GradeBookMetrics fields
+	 *
+	 * @param book gradebook whose sizes are reported
+	 */
+	GradeBookMetrics(MyGradeBook book) {
+		this.book = book;
+		for (int i = 0; i < latencies.length; ++i) {
+			latencies[i] = new LatencyHistogram();
+		} // end for loop
+	} // end constructor GradeBookMetrics
+
+	/**
+	 * records a completed call of an operation
+	 *
+	 * @param operation one of the operation constants
+	 * @param startNanos value of System.nanoTime() when the call started
+	 */
+	void record(int operation, long startNanos) {
+		latencies[operation].record(System.nanoTime() - startNanos);
+	} // end method record
+
+	/**
+	 * records a completed load
+	 *
+	 * @param startNanos value of System.nanoTime() when the load started
+	 * @param bytes size of the input
+	 */
+	void recordParse(long startNanos, long bytes) {
+		record(PROCESS, startNanos);
+		parsedBytes.add(bytes);
+	} // end method recordParse
+
+	/**
+	 * counts grade changes which were not applied
+	 *
+	 * @param count number of rejected changes
+	 */
+	void rejectGradeChanges(int count) {
+		rejectedGradeChanges.add(count);
+	} // end method rejectGradeChanges
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getStudentCount() {
+		return book.studentCount();
+	} // end method getStudentCount
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getAssignmentCount() {
+		return book.assignmentCount();
+	} // end method getAssignmentCount
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCellCount() {
+		return (long) book.studentCount() * book.assignmentCount();
+	} // end method getCellCount
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getParsedBytes() {
+		return parsedBytes.sum();
+	} // end method getParsedBytes
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getParseMegabytesPerSecond() {
+		long nanos = latencies[PROCESS].total();
+		return nanos == 0 ? 0 : parsedBytes.sum() * 1e3 / nanos;
+	} // end method getParseMegabytesPerSecond
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getRejectedGradeChanges() {
+		return rejectedGradeChanges.sum();
+	} // end method getRejectedGradeChanges
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Long> getOperationCounts() {
+		Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < latencies.length; ++i) {
+			counts.put(OPERATION_NAMES[i], latencies[i].count());
+		} // end for loop
+		return counts;
+	} // end method getOperationCounts
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Double> getMeanMicros() {
+		Map<String, Double> means = new LinkedHashMap<String, Double>();
+		for (int i = 0; i < latencies.length; ++i) {
+			long count = latencies[i].count();
+			means.put(OPERATION_NAMES[i],
+					count == 0 ? 0 : latencies[i].total() / 1e3 / count);
+		} // end for loop
+		return means;
+	} // end method getMeanMicros
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Double> percentileMicros(double percent) {
+		if (!(percent >= 0 && percent <= 100)) {
+			throw new IllegalArgumentException("Percentile out of range");
+		} // end if block
+		Map<String, Double> percentiles = new LinkedHashMap<String, Double>();
+		for (int i = 0; i < latencies.length; ++i) {
+			percentiles.put(OPERATION_NAMES[i],
+					latencies[i].percentile(percent) / 1e3);
+		} // end for loop
+		return percentiles;
+	} // end method percentileMicros
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : latencies) {
+			histogram.reset();
+		} // end for loop
+		parsedBytes.reset();
+		rejectedGradeChanges.reset();
+	} // end method reset
+
+	/**
+	 * registers the metrics with the platform MBean server as
+	 * gradebook:type=GradeBookMetrics,name=name
+	 *
+	 * @param name name distinguishing this gradebook from others
+	 * @throws IllegalArgumentException
+	 * 			  thrown if metrics are already registered under the name
+	 */
+	void register(String name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName objectName = new ObjectName(
+					"gradebook:type=GradeBookMetrics,name=" +
+					ObjectName.quote(name));
+			server.registerMBean(this, objectName);
+			this.objectName = objectName;
+		} // end try block
+		catch (InstanceAlreadyExistsException e) {
+			throw new IllegalArgumentException(
+					"Metrics already registered as " + name);
+		} // end catch block
+		catch (JMException e) {
+			throw new IllegalStateException(e);
+		} // end catch block
+	} // end method register
+
+	/**
+	 * removes the metrics from the platform MBean server, if registered
+	 */
+	void unregister() {
+		if (objectName == null) {
+			return;
+		} // end if block
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+					objectName);
+		} // end try block
+		catch (JMException e) {
+			// already gone, which is all that was wanted
+		} // end catch block
+		objectName = null;
+	} // end method unregister
+} // end class GradeBookMetrics
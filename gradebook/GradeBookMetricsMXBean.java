@@ -0,0 +1,94 @@
+package gradebook;
+
+import java.util.Map;
+
+/**
+ * GradeBookMetricsMXBean is the management interface through which the
+ * operation counters, latencies and size gauges of a MyGradeBook are read
+ * over JMX. Operations are named after the MyGradeBook methods they time;
+ * every overload of a method shares one name, loading files and strings is
+ * named "process", and the group-by queries are named "groupStatistics"
+ * and "groupMembers"
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public interface GradeBookMetricsMXBean {
+	/**
+	 * accessor for the number of students in the gradebook
+	 *
+	 * @return number of students
+	 */
+	int getStudentCount();
+
+	/**
+	 * accessor for the number of assignments in the gradebook
+	 *
+	 * @return number of assignments
+	 */
+	int getAssignmentCount();
+
+	/**
+	 * accessor for the number of grades in the gradebook
+	 *
+	 * @return number of students times number of assignments
+	 */
+	long getCellCount();
+
+	/**
+	 * accessor for the size of everything loaded by processFile and
+	 * processString
+	 *
+	 * @return bytes of files plus characters of strings loaded
+	 */
+	long getParsedBytes();
+
+	/**
+	 * calculates the rate at which input has been loaded
+	 *
+	 * @return parsed bytes per second of loading, in megabytes
+	 */
+	double getParseMegabytesPerSecond();
+
+	/**
+	 * accessor for the number of grade changes which were not applied,
+	 * because the student or assignment does not exist or the grade is out
+	 * of range for the assignment; batches and loaded files count each
+	 * rejected grade
+	 *
+	 * @return number of rejected grade changes
+	 */
+	long getRejectedGradeChanges();
+
+	/**
+	 * accessor for the number of completed calls of each operation
+	 *
+	 * @return map from each operation's name to its call count
+	 */
+	Map<String, Long> getOperationCounts();
+
+	/**
+	 * calculates the mean latency of each operation
+	 *
+	 * @return map from each operation's name to its mean latency in
+	 *         microseconds
+	 */
+	Map<String, Double> getMeanMicros();
+
+	/**
+	 * estimates a latency percentile of each operation
+	 *
+	 * @param percent percentile to estimate, from 0 to 100
+	 * @return map from each operation's name to the latency in
+	 *         microseconds
+	 */
+	Map<String, Double> percentileMicros(double percent);
+
+	/**
+	 * forgets every count and latency recorded so far
+	 */
+	void reset();
+} // end interface GradeBookMetricsMXBean
@@ -0,0 +1,437 @@
+package gradebook;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * GradeBookTokenizer is a streaming, line-oriented reader for the
+ * tab-separated gradebook input formats; each line is loaded whole into a
+ * reusable character buffer and trimmed, after which it can be compared,
+ * converted to a number, or walked one tab-separated field at a time
+ * without creating intermediate Strings or arrays
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class GradeBookTokenizer {
+	/** number of characters buffered by a fresh tokenizer */
+	private static final int INITIAL_BUFFER_SIZE = 8192;
+
+	/** largest mantissa which can be held exactly by a float */
+	private static final int MAX_EXACT_FLOAT_MANTISSA = 1 << 24;
+
+	/** powers of ten which can be held exactly by a float */
+	private static final float[] FLOAT_POWERS_OF_TEN = {
+		1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+	};
+
+	/** source of characters */
+	private final Reader in;
+
+	/** buffer holding the current line and any read-ahead */
+	private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+
+	/** index of the first unconsumed character in buffer */
+	private int position = 0;
+
+	/** index one past the last valid character in buffer */
+	private int limit = 0;
+
+	/** whether the reader has been exhausted */
+	private boolean endOfInput = false;
+
+	/** index of the first character of the current trimmed line */
+	private int lineStart = 0;
+
+	/** index one past the last character of the current trimmed line */
+	private int lineEnd = 0;
+
+	/** index of the start of the next field, or -1 if there are none left */
+	private int fieldStart = -1;
+
+	/** number of lines read so far */
+	private long lineCount = 0;
+
+	/**
+	 * constructor to initialize GradeBookTokenizer fields
+	 *
+	 * @param in source of characters to tokenize
+	 */
+	GradeBookTokenizer(Reader in) {
+		this.in = in;
+	} // end constructor GradeBookTokenizer
+
+	/**
+	 * determines whether there is another line to read; this may move the
+	 * buffer, so the current line must not be used afterwards
+	 *
+	 * @return whether any input remains
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the underlying reader
+	 */
+	boolean hasNextLine() throws IOException {
+		return position < limit || fill();
+	} // end method hasNextLine
+
+	/**
+	 * advances to the next line, trimming surrounding whitespace and
+	 * resetting the field cursor to the start of the line
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the underlying reader
+	 * @throws NoSuchElementException
+	 * 			  thrown if there are no lines left
+	 */
+	void nextLine() throws IOException {
+		if (!hasNextLine()) {
+			throw new NoSuchElementException("No line found");
+		} // end if block
+
+		// find the end of the line, reading more input until it is buffered
+		int scan = position;
+		while (true) {
+			while (scan < limit && buffer[scan] != '\n' && buffer[scan] != '\r') {
+				++scan;
+			} // end while loop
+			if (scan < limit || endOfInput) {
+				break;
+			} // end if block
+			scan -= position;
+			fill();
+			scan += position;
+		} // end while loop
+
+		// trim the line
+		int start = position;
+		int end = scan;
+		while (start < end && buffer[start] <= ' ') {
+			++start;
+		} // end while loop
+		while (end > start && buffer[end - 1] <= ' ') {
+			--end;
+		} // end while loop
+		lineStart = start;
+		lineEnd = end;
+		fieldStart = start;
+		++lineCount;
+
+		// consume the line terminator, treating \r\n as a single terminator
+		position = scan;
+		if (position < limit && buffer[position++] == '\r') {
+			if (position == limit) {
+				fillKeepingLine();
+			} // end if block
+			if (position < limit && buffer[position] == '\n') {
+				++position;
+			} // end if block
+		} // end if block
+	} // end method nextLine
+
+	/**
+	 * advances to the next line, if there is one, and determines whether it
+	 * is exactly the given text once trimmed
+	 *
+	 * @param text text to compare against
+	 * @return whether there was a next line and it matches
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the underlying reader
+	 */
+	boolean nextLineEquals(String text) throws IOException {
+		if (!hasNextLine()) {
+			return false;
+		} // end if block
+		nextLine();
+		return lineEquals(text);
+	} // end method nextLineEquals
+
+	/**
+	 * determines whether the current trimmed line is exactly the given text
+	 *
+	 * @param text text to compare against
+	 * @return whether the line matches
+	 */
+	boolean lineEquals(String text) {
+		if (lineEnd - lineStart != text.length()) {
+			return false;
+		} // end if block
+		for (int i = 0; i < text.length(); ++i) {
+			if (buffer[lineStart + i] != text.charAt(i)) {
+				return false;
+			} // end if block
+		} // end for loop
+		return true;
+	} // end method lineEquals
+
+	/**
+	 * provides the current trimmed line as a String
+	 *
+	 * @return the current line
+	 */
+	String line() {
+		return new String(buffer, lineStart, lineEnd - lineStart);
+	} // end method line
+
+	/**
+	 * parses the current trimmed line as a float
+	 *
+	 * @return the value of the line
+	 * @throws NumberFormatException
+	 * 			  thrown if the line is not a valid float
+	 */
+	float lineFloat() {
+		return parseFloat(buffer, lineStart, lineEnd);
+	} // end method lineFloat
+
+	/**
+	 * parses the current trimmed line as a base 10 int
+	 *
+	 * @return the value of the line
+	 * @throws NumberFormatException
+	 * 			  thrown if the line is not a valid int
+	 */
+	int lineInt() {
+		return parseInt(buffer, lineStart, lineEnd);
+	} // end method lineInt
+
+	/**
+	 * determines whether the current line has another tab-separated field;
+	 * like String.split, a line always has at least one field
+	 *
+	 * @return whether a field remains
+	 */
+	boolean hasNextField() {
+		return fieldStart >= 0;
+	} // end method hasNextField
+
+	/**
+	 * consumes the next tab-separated field as a String
+	 *
+	 * @return the field's text
+	 * @throws NoSuchElementException
+	 * 			  thrown if there are no fields left on the line
+	 */
+	String nextField() {
+		int start = fieldStart;
+		return new String(buffer, start, advanceField() - start);
+	} // end method nextField
+
+	/**
+	 * consumes the next tab-separated field as a float
+	 *
+	 * @return the field's value
+	 * @throws NoSuchElementException
+	 * 			  thrown if there are no fields left on the line
+	 * @throws NumberFormatException
+	 * 			  thrown if the field is not a valid float
+	 */
+	float nextFloatField() {
+		int start = fieldStart;
+		return parseFloat(buffer, start, advanceField());
+	} // end method nextFloatField
+
+	/**
+	 * consumes the next tab-separated field as a base 10 int
+	 *
+	 * @return the field's value
+	 * @throws NoSuchElementException
+	 * 			  thrown if there are no fields left on the line
+	 * @throws NumberFormatException
+	 * 			  thrown if the field is not a valid int
+	 */
+	int nextIntField() {
+		int start = fieldStart;
+		return parseInt(buffer, start, advanceField());
+	} // end method nextIntField
+
+	/**
+	 * accessor for the number of lines read so far
+	 *
+	 * @return number of lines read
+	 */
+	long lineCount() {
+		return lineCount;
+	} // end method lineCount
+
+	/**
+	 * releases the underlying reader
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs closing the underlying reader
+	 */
+	void close() throws IOException {
+		in.close();
+	} // end method close
+
+	/**
+	 * moves the field cursor past the current field
+	 *
+	 * @return index one past the end of the consumed field
+	 */
+	private int advanceField() {
+		if (fieldStart < 0) {
+			throw new NoSuchElementException("No field found");
+		} // end if block
+
+		int end = fieldStart;
+		while (end < lineEnd && buffer[end] != '\t') {
+			++end;
+		} // end while loop
+		fieldStart = end < lineEnd ? end + 1 : -1;
+		return end;
+	} // end method advanceField
+
+	/**
+	 * reads more characters after the unconsumed input, discarding
+	 * everything before position
+	 *
+	 * @return whether any characters were read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the underlying reader
+	 */
+	private boolean fill() throws IOException {
+		// shift unconsumed input to the front of the buffer
+		int remaining = limit - position;
+		System.arraycopy(buffer, position, buffer, 0, remaining);
+		position = 0;
+		limit = remaining;
+
+		// grow the buffer if a single line has filled it
+		if (limit == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		} // end if block
+
+		return read();
+	} // end method fill
+
+	/**
+	 * reads more characters after the unconsumed input without moving the
+	 * current line, so that its bounds stay valid
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the underlying reader
+	 */
+	private void fillKeepingLine() throws IOException {
+		if (limit == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		} // end if block
+		read();
+	} // end method fillKeepingLine
+
+	/**
+	 * reads as many characters as fit after limit
+	 *
+	 * @return whether any characters were read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the underlying reader
+	 */
+	private boolean read() throws IOException {
+		if (endOfInput) {
+			return false;
+		} // end if block
+
+		int count = in.read(buffer, limit, buffer.length - limit);
+		if (count < 0) {
+			endOfInput = true;
+			return false;
+		} // end if block
+		limit += count;
+		return true;
+	} // end method read
+
+	/**
+	 * parses a float from a range of characters, giving the same result as
+	 * Float.parseFloat; plain decimals short enough to be converted exactly
+	 * are handled directly and anything else falls back to the library
+	 *
+	 * @param chars characters to parse
+	 * @param start index of the first character
+	 * @param end index one past the last character
+	 * @return the parsed value
+	 * @throws NumberFormatException
+	 * 			  thrown if the characters are not a valid float
+	 */
+	static float parseFloat(char[] chars, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+			negative = chars[i] == '-';
+			++i;
+		} // end if block
+
+		// accumulate digits on either side of the decimal point
+		int mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for (; i < end; ++i) {
+			char c = chars[i];
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				++digits;
+				if (fractionDigits >= 0) {
+					++fractionDigits;
+				} // end if block
+				if (mantissa >= MAX_EXACT_FLOAT_MANTISSA) {
+					break;
+				} // end if block
+			} // end if block
+			else if (c == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+			} // end else-if block
+			else {
+				break;
+			} // end else block
+		} // end for loop
+
+		// both operands are exact, so a single division rounds correctly
+		if (i == end && digits > 0 &&
+				fractionDigits < FLOAT_POWERS_OF_TEN.length) {
+			float value = fractionDigits > 0 ?
+					mantissa / FLOAT_POWERS_OF_TEN[fractionDigits] : mantissa;
+			return negative ? -value : value;
+		} // end if block
+
+		return Float.parseFloat(new String(chars, start, end - start));
+	} // end method parseFloat
+
+	/**
+	 * parses a base 10 int from a range of characters, giving the same
+	 * result as Integer.parseInt
+	 *
+	 * @param chars characters to parse
+	 * @param start index of the first character
+	 * @param end index one past the last character
+	 * @return the parsed value
+	 * @throws NumberFormatException
+	 * 			  thrown if the characters are not a valid int
+	 */
+	static int parseInt(char[] chars, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+			negative = chars[i] == '-';
+			++i;
+		} // end if block
+
+		// values of up to nine digits cannot overflow
+		if (i < end && end - i <= 9) {
+			int value = 0;
+			for (; i < end; ++i) {
+				char c = chars[i];
+				if (c < '0' || c > '9') {
+					break;
+				} // end if block
+				value = value * 10 + (c - '0');
+			} // end for loop
+			if (i == end) {
+				return negative ? -value : value;
+			} // end if block
+		} // end if block
+
+		return Integer.parseInt(new String(chars, start, end - start), 10);
+	} // end method parseInt
+} // end class GradeBookTokenizer
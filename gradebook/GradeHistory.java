@@ -0,0 +1,409 @@
+package gradebook;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * GradeHistory is an append-only, in-memory log of every grade change made
+ * to a MyGradeBook, from which the grade of any cell at any past time can
+ * be recovered. Each change is stored as a compact delta in parallel
+ * primitive arrays: the cell's ordinal, the grade it replaced, the new
+ * grade and the time in milliseconds. Every so many changes the log takes
+ * a checkpoint, a GradeMatrix sharing the gradebook's columns as a snapshot
+ * does, so only the columns written since the previous checkpoint are ever
+ * copied. A past grade is read from whichever checkpoint is nearer the
+ * wanted time, in changes logged: it is brought forward from the one
+ * before by the new grades of the changes between, or back from the one
+ * after by their old grades, so at most half an interval is replayed
+ * unless the time is after the last checkpoint.
+ * Methods are synchronized, since writers of different assignments may
+ * record changes at once when used through a ConcurrentGradeBook
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class GradeHistory {
+	/** number of changes allocated in a fresh log */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** number of changes between checkpoints */
+	private final int checkpointInterval;
+
+	/** time the history began, in milliseconds since the epoch */
+	private final long startMillis;
+
+	/** ordinal of each change's cell: the column above the row */
+	private long[] cells = new long[INITIAL_CAPACITY];
+
+	/** grade each change replaced */
+	private float[] oldGrades = new float[INITIAL_CAPACITY];
+
+	/** grade each change stored */
+	private float[] newGrades = new float[INITIAL_CAPACITY];
+
+	/** time of each change, never decreasing along the log */
+	private long[] times = new long[INITIAL_CAPACITY];
+
+	/** number of changes in the log */
+	private int size = 0;
+
+	/** checkpoints in the order they were taken */
+	private final ArrayList<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+
+	/**
+	 * time each row was added, for rows added after the history began,
+	 * indexed by row minus firstNewRow
+	 */
+	private long[] rowTimes = new long[16];
+
+	/** first row added after the history began */
+	private final int firstNewRow;
+
+	/** number of rows added after the history began */
+	private int newRows = 0;
+
+	/**
+	 * time each column was added, for columns added after the history
+	 * began, indexed by column minus firstNewColumn
+	 */
+	private long[] columnTimes = new long[4];
+
+	/** first column added after the history began */
+	private final int firstNewColumn;
+
+	/** number of columns added after the history began */
+	private int newColumns = 0;
+
+	/**
+	 * constructor to begin a history from the current grades
+	 *
+	 * @param grades shared view of the gradebook's grades as they are now
+	 * @param checkpointInterval number of changes between checkpoints
+	 */
+	GradeHistory(GradeMatrix grades, int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+		this.startMillis = System.currentTimeMillis();
+		this.firstNewRow = grades.rowCount();
+		this.firstNewColumn = grades.columnCount();
+		checkpoints.add(new Checkpoint(0, startMillis, grades));
+	} // end constructor GradeHistory
+
+	/**
+	 * appends a grade change to the log
+	 *
+	 * @param column index of the assignment
+	 * @param row index of the student
+	 * @param oldGrade the grade being replaced
+	 * @param newGrade the new grade
+	 */
+	synchronized void record(int column, int row, float oldGrade,
+			float newGrade) {
+		if (size == cells.length) {
+			int capacity = size * 2;
+			cells = Arrays.copyOf(cells, capacity);
+			oldGrades = Arrays.copyOf(oldGrades, capacity);
+			newGrades = Arrays.copyOf(newGrades, capacity);
+			times = Arrays.copyOf(times, capacity);
+		} // end if block
+		cells[size] = cell(column, row);
+		oldGrades[size] = oldGrade;
+		newGrades[size] = newGrade;
+		times[size] = now();
+		++size;
+	} // end method record
+
+	/**
+	 * notes the time the next row was added
+	 */
+	synchronized void addRow() {
+		if (newRows == rowTimes.length) {
+			rowTimes = Arrays.copyOf(rowTimes, newRows * 2);
+		} // end if block
+		rowTimes[newRows++] = now();
+	} // end method addRow
+
+	/**
+	 * notes the time the next column was added
+	 */
+	synchronized void addColumn() {
+		if (newColumns == columnTimes.length) {
+			columnTimes = Arrays.copyOf(columnTimes, newColumns * 2);
+		} // end if block
+		columnTimes[newColumns++] = now();
+	} // end method addColumn
+
+	/**
+	 * checks whether enough changes have been logged since the last
+	 * checkpoint that another should be taken
+	 *
+	 * @return whether a checkpoint is due
+	 */
+	synchronized boolean checkpointDue() {
+		Checkpoint last = checkpoints.get(checkpoints.size() - 1);
+		return size - last.position >= checkpointInterval;
+	} // end method checkpointDue
+
+	/**
+	 * takes a checkpoint of the grades after every change logged so far;
+	 * no grade may change while it is taken
+	 *
+	 * @param grades shared view of the gradebook's grades as they are now
+	 */
+	synchronized void checkpoint(GradeMatrix grades) {
+		checkpoints.add(new Checkpoint(size, now(), grades));
+	} // end method checkpoint
+
+	/**
+	 * recovers the grade of a cell at a past time
+	 *
+	 * @param column index of the assignment
+	 * @param row index of the student
+	 * @param millis the time, in milliseconds since the epoch
+	 * @return the grade of the cell after every change made up to and
+	 *         including millis
+	 * @throws IllegalArgumentException
+	 * 			  thrown if the time is before the history began, or the
+	 * 			  student or assignment had not been added by then
+	 */
+	synchronized float grade(int column, int row, long millis) {
+		checkExisted(row, millis);
+		if (columnsAt(millis) <= column) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+
+		int index = checkpointAt(millis);
+		Checkpoint before = checkpoints.get(index);
+		int end = changesUpTo(millis);
+		long cell = cell(column, row);
+		if (index + 1 < checkpoints.size()) {
+			Checkpoint after = checkpoints.get(index + 1);
+			if (after.position - end < end - before.position) {
+				// start from the later checkpoint and undo the changes since
+				float grade = after.grade(column, row);
+				for (int i = after.position - 1; i >= end; --i) {
+					if (cells[i] == cell) {
+						grade = oldGrades[i];
+					} // end if block
+				} // end for loop
+				return grade;
+			} // end if block
+		} // end if block
+
+		// start from the earlier checkpoint and redo the changes since
+		float grade = before.grade(column, row);
+		for (int i = before.position; i < end; ++i) {
+			if (cells[i] == cell) {
+				grade = newGrades[i];
+			} // end if block
+		} // end for loop
+		return grade;
+	} // end method grade
+
+	/**
+	 * recovers the grades of a row at a past time
+	 *
+	 * @param row index of the student
+	 * @param millis the time, in milliseconds since the epoch
+	 * @return the student's grade in each assignment which had been added
+	 *         by millis, after every change made up to and including it
+	 * @throws IllegalArgumentException
+	 * 			  thrown if the time is before the history began, or the
+	 * 			  student had not been added by then
+	 */
+	synchronized float[] rowGrades(int row, long millis) {
+		checkExisted(row, millis);
+		float[] grades = new float[columnsAt(millis)];
+
+		int index = checkpointAt(millis);
+		Checkpoint before = checkpoints.get(index);
+		int end = changesUpTo(millis);
+		if (index + 1 < checkpoints.size()) {
+			Checkpoint after = checkpoints.get(index + 1);
+			if (after.position - end < end - before.position) {
+				// start from the later checkpoint and undo the changes since
+				for (int column = 0; column < grades.length; ++column) {
+					grades[column] = after.grade(column, row);
+				} // end for loop
+				for (int i = after.position - 1; i >= end; --i) {
+					int column = (int) (cells[i] >>> 32);
+					if ((int) cells[i] == row && column < grades.length) {
+						grades[column] = oldGrades[i];
+					} // end if block
+				} // end for loop
+				return grades;
+			} // end if block
+		} // end if block
+
+		// start from the earlier checkpoint and redo the changes since
+		for (int column = 0; column < grades.length; ++column) {
+			grades[column] = before.grade(column, row);
+		} // end for loop
+		for (int i = before.position; i < end; ++i) {
+			int column = (int) (cells[i] >>> 32);
+			if ((int) cells[i] == row && column < grades.length) {
+				grades[column] = newGrades[i];
+			} // end if block
+		} // end for loop
+		return grades;
+	} // end method rowGrades
+
+	/**
+	 * accessor for the number of changes logged
+	 *
+	 * @return number of changes
+	 */
+	synchronized int size() {
+		return size;
+	} // end method size
+
+	/**
+	 * checks that the history covers a time and that a row existed then
+	 *
+	 * @param row index of the student
+	 * @param millis the time, in milliseconds since the epoch
+	 * @throws IllegalArgumentException
+	 * 			  thrown if the time is before the history began, or the
+	 * 			  student had not been added by then
+	 */
+	private void checkExisted(int row, long millis) {
+		if (millis < startMillis) {
+			throw new IllegalArgumentException("No history before " +
+					Instant.ofEpochMilli(startMillis));
+		} // end if block
+		if (row >= firstNewRow && rowTimes[row - firstNewRow] > millis) {
+			throw new IllegalArgumentException("Student not found");
+		} // end if block
+	} // end method checkExisted
+
+	/**
+	 * counts the columns which had been added by a time; columns are only
+	 * ever appended, so they are the first ones
+	 *
+	 * @param millis the time, in milliseconds since the epoch
+	 * @return number of columns
+	 */
+	private int columnsAt(long millis) {
+		int added = 0;
+		while (added < newColumns && columnTimes[added] <= millis) {
+			++added;
+		} // end while loop
+		return firstNewColumn + added;
+	} // end method columnsAt
+
+	/**
+	 * counts the changes logged at or before a time
+	 *
+	 * @param millis the time, in milliseconds since the epoch
+	 * @return index of the first change logged after millis
+	 */
+	private int changesUpTo(long millis) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] <= millis) {
+				low = middle + 1;
+			} // end if block
+			else {
+				high = middle;
+			} // end else block
+		} // end while loop
+		return low;
+	} // end method changesUpTo
+
+	/**
+	 * finds the last checkpoint taken at or before a time
+	 *
+	 * @param millis the time, in milliseconds since the epoch
+	 * @return index of the checkpoint
+	 */
+	private int checkpointAt(long millis) {
+		int low = 0;
+		int high = checkpoints.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (checkpoints.get(middle).millis <= millis) {
+				low = middle;
+			} // end if block
+			else {
+				high = middle - 1;
+			} // end else block
+		} // end while loop
+		return low;
+	} // end method checkpointAt
+
+	/**
+	 * reads the clock, never going back past the last time logged so that
+	 * times stay ordered along the log
+	 *
+	 * @return the time, in milliseconds since the epoch
+	 */
+	private long now() {
+		long millis = System.currentTimeMillis();
+		if (size > 0 && millis < times[size - 1]) {
+			millis = times[size - 1];
+		} // end if block
+		Checkpoint last = checkpoints.isEmpty()
+				? null : checkpoints.get(checkpoints.size() - 1);
+		if (last != null && millis < last.millis) {
+			millis = last.millis;
+		} // end if block
+		return millis;
+	} // end method now
+
+	/**
+	 * combines a column and row into a cell ordinal
+	 *
+	 * @param column index of the assignment
+	 * @param row index of the student
+	 * @return the cell's ordinal
+	 */
+	private static long cell(int column, int row) {
+		return (long) column << 32 | row;
+	} // end method cell
+
+	/**
+	 * the grades as they were after a prefix of the log
+	 */
+	private static class Checkpoint {
+		/** number of changes logged before the checkpoint */
+		final int position;
+
+		/** time the checkpoint was taken, in milliseconds since the epoch */
+		final long millis;
+
+		/** the grades, shared with the gradebook until it changes them */
+		final GradeMatrix grades;
+
+		/**
+		 * constructor to initialize Checkpoint fields
+		 *
+		 * @param position number of changes logged before the checkpoint
+		 * @param millis time the checkpoint was taken
+		 * @param grades the grades
+		 */
+		Checkpoint(int position, long millis, GradeMatrix grades) {
+			this.position = position;
+			this.millis = millis;
+			this.grades = grades;
+		} // end constructor Checkpoint
+
+		/**
+		 * reads a grade, which is 0 for a cell added after the checkpoint
+		 *
+		 * @param column index of the assignment
+		 * @param row index of the student
+		 * @return the cell's grade at the checkpoint
+		 */
+		float grade(int column, int row) {
+			if (column < grades.columnCount() && row < grades.rowCount()) {
+				return grades.get(column, row);
+			} // end if block
+			return 0;
+		} // end method grade
+	} // end class Checkpoint
+} // end class GradeHistory
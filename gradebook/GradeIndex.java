@@ -0,0 +1,364 @@
+package gradebook;
+
+import java.util.Arrays;
+
+/**
+ * GradeIndex is an order-statistic multiset of grades, kept as a treap of
+ * distinct values in which every node also knows how many grades its
+ * subtree holds; adding, removing and selecting the grade of a given rank
+ * all take logarithmic time. Nodes are stored in parallel primitive
+ * arrays, so a column with few distinct grades stays small no matter how
+ * many students share them
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class GradeIndex {
+	/** number of nodes allocated in a fresh index */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** node index standing in for an empty subtree */
+	private static final int NIL = 0;
+
+	/** grade held by each node */
+	private float[] keys = new float[INITIAL_CAPACITY];
+
+	/** number of copies of each node's grade */
+	private int[] counts = new int[INITIAL_CAPACITY];
+
+	/** number of grades in each node's subtree, copies included */
+	private int[] sizes = new int[INITIAL_CAPACITY];
+
+	/** left child of each node, or the next free node for freed nodes */
+	private int[] lefts = new int[INITIAL_CAPACITY];
+
+	/** right child of each node */
+	private int[] rights = new int[INITIAL_CAPACITY];
+
+	/** random heap priority of each node */
+	private int[] priorities = new int[INITIAL_CAPACITY];
+
+	/** root of the treap */
+	private int root = NIL;
+
+	/** number of node slots handed out so far, including NIL */
+	private int allocated = 1;
+
+	/** head of the list of freed nodes */
+	private int free = NIL;
+
+	/** state of the priority generator */
+	private int seed = 0x2545F491;
+
+	/**
+	 * adds copies of a grade to the index
+	 *
+	 * @param grade the grade to add
+	 * @param copies number of copies to add
+	 */
+	void add(float grade, int copies) {
+		if (copies > 0) {
+			root = insert(root, grade, copies);
+		} // end if block
+	} // end method add
+
+	/**
+	 * removes one copy of a grade from the index
+	 *
+	 * @param grade the grade to remove
+	 * @throws IllegalStateException
+	 * 			  thrown if the grade is not in the index
+	 */
+	void remove(float grade) {
+		root = delete(root, grade);
+	} // end method remove
+
+	/**
+	 * accessor for the number of grades in the index
+	 *
+	 * @return number of grades
+	 */
+	int size() {
+		return sizes[root];
+	} // end method size
+
+	/**
+	 * finds the grade of the given rank
+	 *
+	 * @param rank number of grades which sort before the wanted one
+	 * @return the grade of the given rank
+	 * @throws IndexOutOfBoundsException
+	 * 			  thrown if rank is not less than size()
+	 */
+	float select(int rank) {
+		if (rank < 0 || rank >= sizes[root]) {
+			throw new IndexOutOfBoundsException("Rank " + rank);
+		} // end if block
+
+		int node = root;
+		while (true) {
+			int leftSize = sizes[lefts[node]];
+			if (rank < leftSize) {
+				node = lefts[node];
+			} // end if block
+			else if (rank < leftSize + counts[node]) {
+				return keys[node];
+			} // end else-if block
+			else {
+				rank -= leftSize + counts[node];
+				node = rights[node];
+			} // end else block
+		} // end while loop
+	} // end method select
+
+	/**
+	 * lists every grade in the index in ascending order, copies included
+	 *
+	 * @return array of the size() grades
+	 */
+	float[] toArray() {
+		float[] grades = new float[sizes[root]];
+		fill(root, grades, 0);
+		return grades;
+	} // end method toArray
+
+	/**
+	 * makes an independent copy of the index
+	 *
+	 * @return an index holding the same grades
+	 */
+	GradeIndex copy() {
+		GradeIndex copy = new GradeIndex();
+		copy.keys = keys.clone();
+		copy.counts = counts.clone();
+		copy.sizes = sizes.clone();
+		copy.lefts = lefts.clone();
+		copy.rights = rights.clone();
+		copy.priorities = priorities.clone();
+		copy.root = root;
+		copy.allocated = allocated;
+		copy.free = free;
+		copy.seed = seed;
+		return copy;
+	} // end method copy
+
+	/**
+	 * counts the copies of a grade in the index
+	 *
+	 * @param grade the grade to count
+	 * @return number of copies of grade
+	 */
+	int count(float grade) {
+		int node = root;
+		while (node != NIL && keys[node] != grade) {
+			node = grade < keys[node] ? lefts[node] : rights[node];
+		} // end while loop
+		return counts[node];
+	} // end method count
+
+	/**
+	 * writes the grades of a subtree into an array in ascending order
+	 *
+	 * @param node root of the subtree
+	 * @param grades array to write into
+	 * @param offset index at which to write the smallest grade
+	 * @return index one past the largest grade written
+	 */
+	private int fill(int node, float[] grades, int offset) {
+		if (node == NIL) {
+			return offset;
+		} // end if block
+		offset = fill(lefts[node], grades, offset);
+		Arrays.fill(grades, offset, offset + counts[node], keys[node]);
+		return fill(rights[node], grades, offset + counts[node]);
+	} // end method fill
+
+	/**
+	 * inserts copies of a grade into a subtree
+	 *
+	 * @param node root of the subtree
+	 * @param grade the grade to insert
+	 * @param copies number of copies to insert
+	 * @return the new root of the subtree
+	 */
+	private int insert(int node, float grade, int copies) {
+		if (node == NIL) {
+			return allocate(grade, copies);
+		} // end if block
+
+		// the arrays may be reallocated by the recursive call, so its result
+		// must not be stored until it has returned
+		if (grade == keys[node]) {
+			counts[node] += copies;
+		} // end if block
+		else if (grade < keys[node]) {
+			int child = insert(lefts[node], grade, copies);
+			lefts[node] = child;
+			if (priorities[lefts[node]] > priorities[node]) {
+				node = rotateRight(node);
+			} // end if block
+		} // end else-if block
+		else {
+			int child = insert(rights[node], grade, copies);
+			rights[node] = child;
+			if (priorities[rights[node]] > priorities[node]) {
+				node = rotateLeft(node);
+			} // end if block
+		} // end else block
+
+		resize(node);
+		return node;
+	} // end method insert
+
+	/**
+	 * deletes one copy of a grade from a subtree
+	 *
+	 * @param node root of the subtree
+	 * @param grade the grade to delete
+	 * @return the new root of the subtree
+	 */
+	private int delete(int node, float grade) {
+		if (node == NIL) {
+			throw new IllegalStateException("Grade not indexed: " + grade);
+		} // end if block
+
+		if (grade == keys[node]) {
+			// unlink the node once its last copy is gone
+			if (--counts[node] == 0) {
+				int merged = merge(lefts[node], rights[node]);
+				release(node);
+				return merged;
+			} // end if block
+		} // end if block
+		else if (grade < keys[node]) {
+			lefts[node] = delete(lefts[node], grade);
+		} // end else-if block
+		else {
+			rights[node] = delete(rights[node], grade);
+		} // end else block
+
+		resize(node);
+		return node;
+	} // end method delete
+
+	/**
+	 * joins two subtrees whose grades are all ordered before one another
+	 *
+	 * @param left root of the subtree with the smaller grades
+	 * @param right root of the subtree with the larger grades
+	 * @return root of the joined subtree
+	 */
+	private int merge(int left, int right) {
+		if (left == NIL) {
+			return right;
+		} // end if block
+		if (right == NIL) {
+			return left;
+		} // end if block
+
+		if (priorities[left] > priorities[right]) {
+			rights[left] = merge(rights[left], right);
+			resize(left);
+			return left;
+		} // end if block
+		else {
+			lefts[right] = merge(left, lefts[right]);
+			resize(right);
+			return right;
+		} // end else block
+	} // end method merge
+
+	/**
+	 * rotates a node's left child above it
+	 *
+	 * @param node the node to rotate down
+	 * @return the node which replaced it
+	 */
+	private int rotateRight(int node) {
+		int child = lefts[node];
+		lefts[node] = rights[child];
+		rights[child] = node;
+		resize(node);
+		resize(child);
+		return child;
+	} // end method rotateRight
+
+	/**
+	 * rotates a node's right child above it
+	 *
+	 * @param node the node to rotate down
+	 * @return the node which replaced it
+	 */
+	private int rotateLeft(int node) {
+		int child = rights[node];
+		rights[node] = lefts[child];
+		lefts[child] = node;
+		resize(node);
+		resize(child);
+		return child;
+	} // end method rotateLeft
+
+	/**
+	 * recomputes the size of a node's subtree from its children
+	 *
+	 * @param node the node to update
+	 */
+	private void resize(int node) {
+		sizes[node] = sizes[lefts[node]] + counts[node] + sizes[rights[node]];
+	} // end method resize
+
+	/**
+	 * takes a node from the free list, or a fresh slot if there is none
+	 *
+	 * @param grade grade to store in the node
+	 * @param copies number of copies of the grade
+	 * @return the new node
+	 */
+	private int allocate(float grade, int copies) {
+		int node = free;
+		if (node != NIL) {
+			free = lefts[node];
+		} // end if block
+		else {
+			if (allocated == keys.length) {
+				int capacity = keys.length * 2;
+				keys = Arrays.copyOf(keys, capacity);
+				counts = Arrays.copyOf(counts, capacity);
+				sizes = Arrays.copyOf(sizes, capacity);
+				lefts = Arrays.copyOf(lefts, capacity);
+				rights = Arrays.copyOf(rights, capacity);
+				priorities = Arrays.copyOf(priorities, capacity);
+			} // end if block
+			node = allocated++;
+		} // end else block
+
+		// draw the next xorshift priority
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+
+		keys[node] = grade;
+		counts[node] = copies;
+		sizes[node] = copies;
+		lefts[node] = NIL;
+		rights[node] = NIL;
+		priorities[node] = seed;
+		return node;
+	} // end method allocate
+
+	/**
+	 * returns a node to the free list
+	 *
+	 * @param node the node to release
+	 */
+	private void release(int node) {
+		counts[node] = 0;
+		sizes[node] = 0;
+		rights[node] = NIL;
+		lefts[node] = free;
+		free = node;
+	} // end method release
+} // end class GradeIndex
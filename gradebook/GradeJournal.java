@@ -0,0 +1,708 @@
+package gradebook;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * GradeJournal is an append-only write-ahead log of the mutations made to
+ * a MyGradeBook. The journal directory holds numbered generations: the
+ * base snapshot of generation n is the state of the gradebook when the
+ * journal segment of generation n was started, so recovery loads the
+ * newest complete base and replays every segment from its generation on.
+ * Once a segment grows past a threshold, compaction becomes due; the
+ * gradebook then calls compact between mutations, which takes a
+ * copy-on-write snapshot of the gradebook, starts a new segment, and writes
+ * the snapshot out as the next base on a background thread, after which
+ * older generations are deleted. The snapshot must be taken while no
+ * mutation is between being logged and being applied, or the mutation
+ * would be in neither the new base nor the new segment, which is why the
+ * journal never compacts from inside a log call. Each record is framed by its length and a
+ * CRC32, so a record torn by a crash ends replay instead of corrupting the
+ * gradebook. The gradebook logs each mutation before applying it, so a
+ * mutation whose record could not be written is never applied
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class GradeJournal {
+	/** record of an added assignment */
+	private static final byte ADD_ASSIGNMENT = 1;
+
+	/** record of an added student */
+	private static final byte ADD_STUDENT = 2;
+
+	/** record of a changed grade */
+	private static final byte CHANGE_GRADE = 3;
+
+	/** largest record length accepted during replay */
+	private static final int MAX_RECORD_LENGTH = 1 << 24;
+
+	/** name of a base snapshot file */
+	private static final Pattern BASE_FILE =
+			Pattern.compile("base-(\\d+)\\.snapshot");
+
+	/** name of a journal segment file */
+	private static final Pattern SEGMENT_FILE =
+			Pattern.compile("journal-(\\d+)\\.log");
+
+	/** gradebook whose mutations are journaled */
+	private final MyGradeBook book;
+
+	/** directory holding the base snapshots and journal segments */
+	private final Path directory;
+
+	/** how eagerly records are forced to disk */
+	private final JournalDurability durability;
+
+	/** segment size in bytes past which the journal is compacted */
+	private final long compactionBytes;
+
+	/** thread running group commits and compactions */
+	private final ScheduledExecutorService worker;
+
+	/** record being assembled before it is framed */
+	private ByteBuffer record = ByteBuffer.allocate(256);
+
+	/** checksum of each record */
+	private final CRC32 checksum = new CRC32();
+
+	/** generation of the current segment */
+	private long generation;
+
+	/** channel of the current segment */
+	private FileChannel channel;
+
+	/** buffered writer over channel */
+	private ChannelOutput out;
+
+	/** number of bytes written to the current segment */
+	private long segmentBytes = 0;
+
+	/** whether a compaction is being written in the background */
+	private boolean compacting = false;
+
+	/** failure of the most recent background task, reported on next use */
+	private IOException failure = null;
+
+	/** whether the journal has been closed */
+	private boolean closed = false;
+
+	/**
+	 * constructor to start journaling a gradebook; a new base snapshot of
+	 * its current state is written before the first segment is started
+	 *
+	 * @param book gradebook whose mutations are journaled
+	 * @param directory directory to hold the journal
+	 * @param durability how eagerly records are forced to disk
+	 * @param groupCommitMillis interval between group commits
+	 * @param compactionBytes segment size past which to compact
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the base or segment
+	 */
+	GradeJournal(MyGradeBook book, Path directory,
+			JournalDurability durability, long groupCommitMillis,
+			long compactionBytes) throws IOException {
+		this.book = book;
+		this.directory = directory;
+		this.durability = durability;
+		this.compactionBytes = compactionBytes;
+
+		// start a generation past any left in the directory
+		Files.createDirectories(directory);
+		ArrayList<Long> existing = generations(directory, BASE_FILE);
+		existing.addAll(generations(directory, SEGMENT_FILE));
+		generation = existing.isEmpty() ? 0 : Collections.max(existing) + 1;
+		writeBase(directory, generation, book);
+		deleteBefore(directory, generation);
+		openSegment();
+
+		// run background work on a daemon thread so it never holds up exit
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+				1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "gradebook-journal");
+				thread.setDaemon(true);
+				return thread;
+			} // end method newThread
+		});
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		worker = executor;
+		if (durability == JournalDurability.GROUP) {
+			worker.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					groupCommit();
+				} // end method run
+			}, groupCommitMillis, groupCommitMillis, TimeUnit.MILLISECONDS);
+		} // end if block
+	} // end constructor GradeJournal
+
+	/**
+	 * records an added assignment; must be called before the gradebook
+	 * applies the mutation
+	 *
+	 * @param a the added assignment
+	 * @throws UncheckedIOException
+	 * 			  thrown if error occurs writing the record
+	 */
+	synchronized void logAddAssignment(Assignment a) {
+		begin(ADD_ASSIGNMENT);
+		putString(a.getName());
+		record.putFloat(a.getTotalPoints());
+		record.putFloat(a.getPercentOfGrade());
+		commit();
+	} // end method logAddAssignment
+
+	/**
+	 * records an added student; must be called before the gradebook
+	 * applies the mutation
+	 *
+	 * @param s the added student
+	 * @throws UncheckedIOException
+	 * 			  thrown if error occurs writing the record
+	 */
+	synchronized void logAddStudent(Student s) {
+		begin(ADD_STUDENT);
+		putString(s.getUsername());
+		putString(s.getFirstName());
+		putString(s.getLastName());
+		putString(s.getAdvisor());
+		record.putInt(s.getGradYear());
+		commit();
+	} // end method logAddStudent
+
+	/**
+	 * records a changed grade; must be called before the gradebook
+	 * applies the mutation
+	 *
+	 * @param column index of the assignment
+	 * @param row index of the student
+	 * @param grade the new grade
+	 * @throws UncheckedIOException
+	 * 			  thrown if error occurs writing the record
+	 */
+	synchronized void logChangeGrade(int column, int row, float grade) {
+		begin(CHANGE_GRADE);
+		record.putInt(column);
+		record.putInt(row);
+		record.putFloat(grade);
+		commit();
+	} // end method logChangeGrade
+
+	/**
+	 * checks whether the current segment has grown past the compaction
+	 * threshold and no compaction is running
+	 *
+	 * @return whether compact should be called
+	 */
+	synchronized boolean compactionDue() {
+		return !closed && !compacting && segmentBytes >= compactionBytes;
+	} // end method compactionDue
+
+	/**
+	 * captures the gradebook as the base of a new generation, whether or
+	 * not the segment has grown past the threshold; does nothing if a
+	 * compaction is already running. No mutation may be logged or applied
+	 * while this runs, so every journaled mutation is either in the capture
+	 * or in a later segment
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs starting the new segment
+	 */
+	synchronized void compact() throws IOException {
+		checkOpen();
+		if (!compacting) {
+			startCompaction();
+		} // end if block
+	} // end method compact
+
+	/**
+	 * forces every record to disk, waits for any compaction to finish and
+	 * releases the journal
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs flushing the segment or a
+	 * 			  background task failed
+	 */
+	void close() throws IOException {
+		synchronized (this) {
+			if (closed) {
+				return;
+			} // end if block
+			closed = true;
+			out.flush();
+			channel.force(false);
+			channel.close();
+		} // end synchronized block
+
+		worker.shutdown();
+		try {
+			worker.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} // end try block
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} // end catch block
+
+		synchronized (this) {
+			if (failure != null) {
+				throw failure;
+			} // end if block
+		} // end synchronized block
+	} // end method close
+
+	/**
+	 * rebuilds a gradebook from a journal directory by loading the newest
+	 * complete base snapshot and replaying the segments written after it
+	 *
+	 * @param directory directory holding the journal
+	 * @return the recovered gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the journal
+	 */
+	static MyGradeBook recover(Path directory) throws IOException {
+		ArrayList<Long> bases = generations(directory, BASE_FILE);
+		long base = bases.isEmpty() ? 0 : Collections.max(bases);
+		MyGradeBook book = bases.isEmpty() ?
+				MyGradeBook.initialize() :
+				MyGradeBook.loadSnapshot(basePath(directory, base));
+
+		// replay the segments in order, stopping at the first torn record
+		ArrayList<Long> segments = generations(directory, SEGMENT_FILE);
+		Collections.sort(segments);
+		for (long segment : segments) {
+			if (segment >= base && !replay(book, segmentPath(directory, segment))) {
+				break;
+			} // end if block
+		} // end for loop
+		return book;
+	} // end method recover
+
+	/**
+	 * starts a record of the given type
+	 *
+	 * @param type type of the record
+	 */
+	private void begin(byte type) {
+		checkOpen();
+		record.clear();
+		record.put(type);
+	} // end method begin
+
+	/**
+	 * adds a String to the current record as its UTF-8 length and bytes
+	 *
+	 * @param value the String to add
+	 */
+	private void putString(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (record.remaining() < bytes.length + 16) {
+			ByteBuffer larger = ByteBuffer.allocate(
+					Math.max(record.capacity() * 2, record.position() + bytes.length + 64));
+			record.flip();
+			larger.put(record);
+			record = larger;
+		} // end if block
+		record.putInt(bytes.length);
+		record.put(bytes);
+	} // end method putString
+
+	/**
+	 * frames the current record with its length and checksum and writes it
+	 * to the segment; unless records are group committed it is handed to
+	 * the operating system at once, and forced to disk as well under SYNC
+	 *
+	 * @throws UncheckedIOException
+	 * 			  thrown if error occurs writing the record
+	 */
+	private void commit() {
+		try {
+			checksum.reset();
+			checksum.update(record.array(), 0, record.position());
+			out.writeInt(record.position());
+			out.writeBytes(record.array(), 0, record.position());
+			out.writeInt((int) checksum.getValue());
+			segmentBytes += record.position() + 8;
+
+			if (durability != JournalDurability.GROUP) {
+				out.flush();
+			} // end if block
+			if (durability == JournalDurability.SYNC) {
+				channel.force(false);
+			} // end if block
+		} // end try block
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} // end catch block
+	} // end method commit
+
+	/**
+	 * writes buffered records to the segment and forces them to disk; the
+	 * force happens outside the lock so mutations are not held up by it
+	 */
+	private void groupCommit() {
+		FileChannel target;
+		synchronized (this) {
+			if (closed) {
+				return;
+			} // end if block
+			try {
+				out.flush();
+			} // end try block
+			catch (IOException e) {
+				failure = e;
+				return;
+			} // end catch block
+			target = channel;
+		} // end synchronized block
+
+		try {
+			target.force(false);
+		} // end try block
+		catch (ClosedChannelException e) {
+			// the segment was rotated, which forces it before closing
+		} // end catch block
+		catch (IOException e) {
+			synchronized (this) {
+				failure = e;
+			} // end synchronized block
+		} // end catch block
+	} // end method groupCommit
+
+	/**
+	 * captures the gradebook, starts the next segment and writes the
+	 * capture as the next base in the background; taking the capture only
+	 * shares the gradebook's columns, so serializing it is left to the
+	 * background thread
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs starting the next segment
+	 */
+	private void startCompaction() throws IOException {
+		// the capture is exactly the state at the start of the next segment
+		final MyGradeBook capture = book.snapshot();
+		out.flush();
+		if (durability != JournalDurability.NO_SYNC) {
+			channel.force(false);
+		} // end if block
+		channel.close();
+		++generation;
+		openSegment();
+
+		final long baseGeneration = generation;
+		compacting = true;
+		worker.execute(new Runnable() {
+			@Override
+			public void run() {
+				finishCompaction(baseGeneration, capture);
+			} // end method run
+		});
+	} // end method startCompaction
+
+	/**
+	 * writes a captured gradebook as the base of a generation and deletes
+	 * the generations it replaces
+	 *
+	 * @param baseGeneration generation of the new base
+	 * @param capture read-only snapshot of the gradebook
+	 */
+	private void finishCompaction(long baseGeneration, MyGradeBook capture) {
+		try {
+			writeBase(directory, baseGeneration, capture);
+			deleteBefore(directory, baseGeneration);
+		} // end try block
+		catch (IOException e) {
+			synchronized (this) {
+				failure = e;
+			} // end synchronized block
+		} // end catch block
+		finally {
+			synchronized (this) {
+				compacting = false;
+			} // end synchronized block
+		} // end finally block
+	} // end method finishCompaction
+
+	/**
+	 * opens the segment file of the current generation
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs creating the file
+	 */
+	private void openSegment() throws IOException {
+		channel = FileChannel.open(segmentPath(directory, generation),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		out = new ChannelOutput(channel);
+		segmentBytes = 0;
+	} // end method openSegment
+
+	/**
+	 * makes sure the journal can still be written to
+	 *
+	 * @throws IllegalStateException
+	 * 			  thrown if the journal is closed
+	 * @throws UncheckedIOException
+	 * 			  thrown if a background task failed
+	 */
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Journal closed");
+		} // end if block
+		if (failure != null) {
+			IOException e = failure;
+			failure = null;
+			throw new UncheckedIOException(e);
+		} // end if block
+	} // end method checkOpen
+
+	/**
+	 * applies the records of a segment to a gradebook
+	 *
+	 * @param book gradebook to apply the records to
+	 * @param path path of the segment
+	 * @return whether the whole segment was intact
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the segment
+	 */
+	private static boolean replay(MyGradeBook book, Path path)
+			throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ChannelInput in = new ChannelInput(channel);
+			CRC32 checksum = new CRC32();
+			while (!in.atEnd()) {
+				// read one framed record, treating a short or corrupt one as
+				// the torn end of the journal
+				byte[] bytes;
+				try {
+					int length = in.readInt();
+					if (length <= 0 || length > MAX_RECORD_LENGTH) {
+						return false;
+					} // end if block
+					bytes = new byte[length];
+					in.readBytes(bytes, 0, length);
+					checksum.reset();
+					checksum.update(bytes, 0, length);
+					if (in.readInt() != (int) checksum.getValue()) {
+						return false;
+					} // end if block
+				} // end try block
+				catch (EOFException e) {
+					return false;
+				} // end catch block
+
+				apply(book, ByteBuffer.wrap(bytes));
+			} // end while loop
+			return true;
+		} // end try block
+		finally {
+			channel.close();
+		} // end finally block
+	} // end method replay
+
+	/**
+	 * applies one record to a gradebook
+	 *
+	 * @param book gradebook to apply the record to
+	 * @param record the record's type and fields
+	 * @throws IOException
+	 * 			  thrown if the record is of an unknown type
+	 */
+	private static void apply(MyGradeBook book, ByteBuffer record)
+			throws IOException {
+		byte type = record.get();
+		if (type == ADD_ASSIGNMENT) {
+			book.addAssignment(new Assignment(
+					getString(record), // assignment name
+					record.getFloat(), // total points
+					record.getFloat())); // percent of semester grade
+		} // end if block
+		else if (type == ADD_STUDENT) {
+			book.addStudent(new Student(
+					getString(record), // username
+					getString(record), // first name
+					getString(record), // last name
+					getString(record), // advisor
+					record.getInt())); // expected graduation year
+		} // end else-if block
+		else if (type == CHANGE_GRADE) {
+			book.changeGrade(
+					record.getInt(), // assignment column
+					record.getInt(), // student row
+					record.getFloat()); // grade
+		} // end else-if block
+		else {
+			throw new IOException("Unknown journal record " + type);
+		} // end else block
+	} // end method apply
+
+	/**
+	 * reads a String stored as its UTF-8 length and bytes
+	 *
+	 * @param record buffer holding the String
+	 * @return the String read
+	 */
+	private static String getString(ByteBuffer record) {
+		int length = record.getInt();
+		String value = new String(record.array(), record.position(), length,
+				StandardCharsets.UTF_8);
+		record.position(record.position() + length);
+		return value;
+	} // end method getString
+
+	/**
+	 * writes the current state of a gradebook as the base of a generation
+	 *
+	 * @param directory directory holding the journal
+	 * @param generation generation of the base
+	 * @param book gradebook to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the base
+	 */
+	private static void writeBase(Path directory, long generation,
+			MyGradeBook book) throws IOException {
+		Path temporary = directory.resolve("base-" + generation + ".tmp");
+		FileChannel target = FileChannel.open(temporary,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		try {
+			book.writeSnapshot(new ChannelOutput(target));
+			target.force(true);
+		} // end try block
+		finally {
+			target.close();
+		} // end finally block
+		publishBase(directory, temporary, generation);
+	} // end method writeBase
+
+	/**
+	 * atomically renames a fully written base into place
+	 *
+	 * @param directory directory holding the journal
+	 * @param temporary path the base was written to
+	 * @param generation generation of the base
+	 * @throws IOException
+	 * 			  thrown if error occurs renaming the base
+	 */
+	private static void publishBase(Path directory, Path temporary,
+			long generation) throws IOException {
+		Files.move(temporary, basePath(directory, generation),
+				StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+
+		// make the rename itself durable where the platform allows it
+		try {
+			FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ);
+			try {
+				dir.force(true);
+			} // end try block
+			finally {
+				dir.close();
+			} // end finally block
+		} // end try block
+		catch (IOException e) {
+			// directories cannot be opened for syncing on every platform
+		} // end catch block
+	} // end method publishBase
+
+	/**
+	 * deletes every base and segment older than a generation
+	 *
+	 * @param directory directory holding the journal
+	 * @param generation oldest generation to keep
+	 * @throws IOException
+	 * 			  thrown if error occurs deleting a file
+	 */
+	private static void deleteBefore(Path directory, long generation)
+			throws IOException {
+		for (long older : generations(directory, BASE_FILE)) {
+			if (older < generation) {
+				Files.deleteIfExists(basePath(directory, older));
+			} // end if block
+		} // end for loop
+		for (long older : generations(directory, SEGMENT_FILE)) {
+			if (older < generation) {
+				Files.deleteIfExists(segmentPath(directory, older));
+			} // end if block
+		} // end for loop
+	} // end method deleteBefore
+
+	/**
+	 * lists the generations of the files in a directory matching a pattern
+	 *
+	 * @param directory directory to list
+	 * @param pattern pattern whose first group is the generation
+	 * @return generations of the matching files
+	 * @throws IOException
+	 * 			  thrown if error occurs listing the directory
+	 */
+	private static ArrayList<Long> generations(Path directory, Pattern pattern)
+			throws IOException {
+		ArrayList<Long> found = new ArrayList<Long>();
+		if (!Files.isDirectory(directory)) {
+			return found;
+		} // end if block
+
+		DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+		try {
+			for (Path file : files) {
+				Matcher m = pattern.matcher(file.getFileName().toString());
+				if (m.matches()) {
+					found.add(Long.parseLong(m.group(1)));
+				} // end if block
+			} // end for loop
+		} // end try block
+		finally {
+			files.close();
+		} // end finally block
+		return found;
+	} // end method generations
+
+	/**
+	 * builds the path of a generation's base snapshot
+	 *
+	 * @param directory directory holding the journal
+	 * @param generation generation of the base
+	 * @return path of the base
+	 */
+	private static Path basePath(Path directory, long generation) {
+		return directory.resolve("base-" + generation + ".snapshot");
+	} // end method basePath
+
+	/**
+	 * builds the path of a generation's journal segment
+	 *
+	 * @param directory directory holding the journal
+	 * @param generation generation of the segment
+	 * @return path of the segment
+	 */
+	private static Path segmentPath(Path directory, long generation) {
+		return directory.resolve("journal-" + generation + ".log");
+	} // end method segmentPath
+} // end class GradeJournal
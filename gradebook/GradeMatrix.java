@@ -0,0 +1,180 @@
+package gradebook;
+
+/**
+ * GradeMatrix is a dense, column-oriented store of grades; each assignment
+ * is a column and each student is a row, both addressed by the integer
+ * ordinal they were given when added to the gradebook. Subclasses decide
+ * where the columns live, while the matrix keeps their shape: every
+ * column has room for the same number of rows, which doubles whenever
+ * the last one is taken
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+abstract class GradeMatrix {
+	/** number of rows allocated in a fresh, empty matrix */
+	private static final int INITIAL_ROW_CAPACITY = 16;
+
+	/** number of columns currently in use */
+	private int columnCount = 0;
+
+	/** number of rows currently in use */
+	private int rowCount = 0;
+
+	/** number of rows each column has room for */
+	private int rowCapacity = INITIAL_ROW_CAPACITY;
+
+	/**
+	 * factory method to construct an empty matrix kept in the given place
+	 *
+	 * @param storage where the columns live
+	 * @return an empty matrix
+	 */
+	static GradeMatrix create(GradeStorage storage) {
+		if (storage == GradeStorage.OFF_HEAP) {
+			return new DirectGradeMatrix();
+		} // end if block
+		return new HeapGradeMatrix();
+	} // end method create
+
+	/**
+	 * adds a column of 0s for every existing row
+	 *
+	 * @return the ordinal of the new column
+	 */
+	int addColumn() {
+		appendColumn(rowCapacity);
+		return columnCount++;
+	} // end method addColumn
+
+	/**
+	 * adds a row of 0s to every existing column, growing the columns if
+	 * they have run out of room
+	 *
+	 * @return the ordinal of the new row
+	 */
+	int addRow() {
+		// double the capacity of every column when the last slot is taken
+		if (rowCount == rowCapacity) {
+			rowCapacity *= 2;
+			resizeColumns(rowCapacity);
+		} // end if block
+
+		return rowCount++;
+	} // end method addRow
+
+	/**
+	 * accessor for a single grade
+	 *
+	 * @param column ordinal of the assignment
+	 * @param row ordinal of the student
+	 * @return the grade stored in the given cell
+	 */
+	abstract float get(int column, int row);
+
+	/**
+	 * mutator for a single grade
+	 *
+	 * @param column ordinal of the assignment
+	 * @param row ordinal of the student
+	 * @param grade value to store in the given cell
+	 */
+	abstract void set(int column, int row, float grade);
+
+	/**
+	 * copies the first rowCount() grades of a column into an array
+	 *
+	 * @param column ordinal of the assignment
+	 * @param grades array of at least rowCount() elements to fill
+	 */
+	abstract void getColumn(int column, float[] grades);
+
+	/**
+	 * overwrites the first rowCount() grades of a column from an array
+	 *
+	 * @param column ordinal of the assignment
+	 * @param grades array of at least rowCount() grades
+	 */
+	abstract void setColumn(int column, float[] grades);
+
+	/**
+	 * makes a matrix sharing this one's columns, for a snapshot;
+	 * copyColumn must be called before a shared column is next written, so
+	 * that the snapshot never sees the change
+	 *
+	 * @return a matrix of the same grades
+	 */
+	abstract GradeMatrix snapshot();
+
+	/**
+	 * replaces a column with a copy of itself, leaving the original to
+	 * whichever snapshot shares it
+	 *
+	 * @param column ordinal of the assignment
+	 */
+	abstract void copyColumn(int column);
+
+	/**
+	 * gives back whatever memory the columns hold outside the Java heap;
+	 * the matrix must not be used afterwards, though snapshots of it may
+	 */
+	abstract void close();
+
+	/**
+	 * allocates storage for a new column of 0s
+	 *
+	 * @param capacity number of rows the column must have room for
+	 */
+	abstract void appendColumn(int capacity);
+
+	/**
+	 * moves every column to storage with room for more rows, the new rows
+	 * being 0
+	 *
+	 * @param capacity number of rows each column must have room for
+	 */
+	abstract void resizeColumns(int capacity);
+
+	/**
+	 * gives a snapshot the same shape as this matrix
+	 *
+	 * @param copy the snapshot
+	 * @return the snapshot
+	 */
+	GradeMatrix shapeCopy(GradeMatrix copy) {
+		copy.columnCount = columnCount;
+		copy.rowCount = rowCount;
+		copy.rowCapacity = rowCapacity;
+		return copy;
+	} // end method shapeCopy
+
+	/**
+	 * accessor for the number of columns in use
+	 *
+	 * @return number of columns
+	 */
+	int columnCount() {
+		return columnCount;
+	} // end method columnCount
+
+	/**
+	 * accessor for the number of rows in use
+	 *
+	 * @return number of rows
+	 */
+	int rowCount() {
+		return rowCount;
+	} // end method rowCount
+
+	/**
+	 * accessor for the number of rows each column has room for
+	 *
+	 * @return the row capacity
+	 */
+	int rowCapacity() {
+		return rowCapacity;
+	} // end method rowCapacity
+} // end class GradeMatrix
@@ -0,0 +1,25 @@
+package gradebook;
+
+/**
+ * GradeStorage is an enumeration of the places a MyGradeBook can keep its
+ * grade matrix
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public enum GradeStorage {
+	/** one float array per assignment on the Java heap */
+	HEAP,
+
+	/**
+	 * one direct buffer per assignment outside the Java heap, so that even
+	 * millions of students' grades add nothing for the garbage collector
+	 * to trace or copy; the memory is given back when the gradebook is
+	 * closed, and the JVM must be allowed enough of it through
+	 * -XX:MaxDirectMemorySize
+	 */
+	OFF_HEAP
+} // end enum GradeStorage
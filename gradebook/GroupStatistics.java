@@ -0,0 +1,88 @@
+package gradebook;
+
+/**
+ * GroupStatistics is a class holding the count, mean, minimum and maximum
+ * of one grade over a group of students, such as the students of one
+ * advisor or one graduation year
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public class GroupStatistics {
+	/** number of students in the group */
+	private final int count;
+
+	/** average grade of the group */
+	private final double mean;
+
+	/** lowest grade in the group */
+	private final double min;
+
+	/** highest grade in the group */
+	private final double max;
+
+	/**
+	 * constructor to initialize GroupStatistics fields
+	 *
+	 * @param count number of students in the group
+	 * @param mean average grade of the group
+	 * @param min lowest grade in the group
+	 * @param max highest grade in the group
+	 */
+	public GroupStatistics(int count, double mean, double min, double max) {
+		this.count = count;
+		this.mean = mean;
+		this.min = min;
+		this.max = max;
+	} // end constructor GroupStatistics
+
+	/**
+	 * accessor for count field
+	 *
+	 * @return number of students in the group
+	 */
+	public int getCount() {
+		return count;
+	} // end method getCount
+
+	/**
+	 * accessor for mean field
+	 *
+	 * @return average grade of the group
+	 */
+	public double getMean() {
+		return mean;
+	} // end method getMean
+
+	/**
+	 * accessor for min field
+	 *
+	 * @return lowest grade in the group
+	 */
+	public double getMin() {
+		return min;
+	} // end method getMin
+
+	/**
+	 * accessor for max field
+	 *
+	 * @return highest grade in the group
+	 */
+	public double getMax() {
+		return max;
+	} // end method getMax
+
+	/**
+	 * describes the statistics for display
+	 *
+	 * @return the count, mean, min and max
+	 */
+	@Override
+	public String toString() {
+		return "count=" + count + " mean=" + mean + " min=" + min +
+				" max=" + max;
+	} // end method toString
+} // end class GroupStatistics
@@ -0,0 +1,100 @@
+package gradebook;
+
+import java.util.Arrays;
+
+/**
+ * HeapGradeMatrix is a GradeMatrix keeping one primitive float array per
+ * column on the Java heap
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class HeapGradeMatrix extends GradeMatrix {
+	/** one primitive array of grades per assignment, indexed by student */
+	private float[][] columns = new float[0][];
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	float get(int column, int row) {
+		return columns[column][row];
+	} // end method get
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void set(int column, int row, float grade) {
+		columns[column][row] = grade;
+	} // end method set
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void getColumn(int column, float[] grades) {
+		System.arraycopy(columns[column], 0, grades, 0, rowCount());
+	} // end method getColumn
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void setColumn(int column, float[] grades) {
+		System.arraycopy(grades, 0, columns[column], 0, rowCount());
+	} // end method setColumn
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	GradeMatrix snapshot() {
+		HeapGradeMatrix copy = new HeapGradeMatrix();
+		copy.columns = Arrays.copyOf(columns, columnCount());
+		return shapeCopy(copy);
+	} // end method snapshot
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void copyColumn(int column) {
+		columns[column] = columns[column].clone();
+	} // end method copyColumn
+
+	/**
+	 * {@inheritDoc}; the arrays are left to the garbage collector
+	 */
+	@Override
+	void close() {
+		columns = new float[0][];
+	} // end method close
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void appendColumn(int capacity) {
+		// make room for another column reference if necessary
+		int count = columnCount();
+		if (count == columns.length) {
+			columns = Arrays.copyOf(columns, Math.max(4, count * 2));
+		} // end if block
+
+		columns[count] = new float[capacity];
+	} // end method appendColumn
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void resizeColumns(int capacity) {
+		for (int i = 0; i < columnCount(); ++i) {
+			columns[i] = Arrays.copyOf(columns[i], capacity);
+		} // end for loop
+	} // end method resizeColumns
+} // end class HeapGradeMatrix
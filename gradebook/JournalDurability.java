@@ -0,0 +1,29 @@
+package gradebook;
+
+/**
+ * JournalDurability is an enumeration of how eagerly a gradebook journal
+ * forces its records to disk
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public enum JournalDurability {
+	/** force every record to disk before the mutation returns */
+	SYNC,
+
+	/**
+	 * buffer records and force them to disk together on a fixed interval,
+	 * so at most one interval of mutations can be lost
+	 */
+	GROUP,
+
+	/**
+	 * hand every record to the operating system before the mutation
+	 * returns without forcing it, so a crash of the machine (but not of
+	 * the process) can lose mutations
+	 */
+	NO_SYNC
+} // end enum JournalDurability
@@ -0,0 +1,142 @@
+package gradebook;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram is a class counting latencies in logarithmic buckets,
+ * so that any number of them can be recorded in constant space and
+ * percentiles read back to within a quarter of their value. Each power of
+ * two is split into four equal buckets; recording is a single atomic
+ * increment, so many threads can record into one histogram at once
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class LatencyHistogram {
+	/** number of bits of each latency below its leading bit kept in the bucket */
+	private static final int SUB_BUCKET_BITS = 2;
+
+	/** number of buckets each power of two is split into */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** number of buckets needed to cover every non-negative long */
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	/** number of latencies recorded in each bucket */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	/** number of latencies recorded */
+	private final LongAdder count = new LongAdder();
+
+	/** sum of every latency recorded, in nanoseconds */
+	private final LongAdder total = new LongAdder();
+
+	/**
+	 * records one latency
+	 *
+	 * @param nanos the latency in nanoseconds; negative values count as 0
+	 */
+	void record(long nanos) {
+		long value = Math.max(0, nanos);
+		buckets.incrementAndGet(bucket(value));
+		count.increment();
+		total.add(value);
+	} // end method record
+
+	/**
+	 * accessor for the number of latencies recorded
+	 *
+	 * @return number of latencies
+	 */
+	long count() {
+		return count.sum();
+	} // end method count
+
+	/**
+	 * accessor for the sum of every latency recorded
+	 *
+	 * @return total latency in nanoseconds
+	 */
+	long total() {
+		return total.sum();
+	} // end method total
+
+	/**
+	 * estimates a percentile of the recorded latencies as the upper bound of
+	 * the bucket holding it
+	 *
+	 * @param percent percentile to estimate, from 0 to 100
+	 * @return the latency in nanoseconds, or 0 if nothing was recorded
+	 */
+	long percentile(double percent) {
+		// read the buckets once so the rank and the walk agree
+		long[] counts = new long[BUCKETS];
+		long recorded = 0;
+		for (int i = 0; i < BUCKETS; ++i) {
+			counts[i] = buckets.get(i);
+			recorded += counts[i];
+		} // end for loop
+		if (recorded == 0) {
+			return 0;
+		} // end if block
+
+		long rank = Math.max(1, (long) Math.ceil(percent / 100 * recorded));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; ++i) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return upperBound(i);
+			} // end if block
+		} // end for loop
+		return upperBound(BUCKETS - 1);
+	} // end method percentile
+
+	/**
+	 * forgets every recorded latency; latencies recorded meanwhile may be
+	 * partly kept
+	 */
+	void reset() {
+		for (int i = 0; i < BUCKETS; ++i) {
+			buckets.set(i, 0);
+		} // end for loop
+		count.reset();
+		total.reset();
+	} // end method reset
+
+	/**
+	 * finds the bucket a latency is counted in
+	 *
+	 * @param value the latency, not negative
+	 * @return index of the bucket
+	 */
+	private static int bucket(long value) {
+		// the smallest values each get a bucket of their own
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		} // end if block
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) &
+				(SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	} // end method bucket
+
+	/**
+	 * finds the largest latency counted in a bucket
+	 *
+	 * @param bucket index of the bucket
+	 * @return the bucket's largest latency
+	 */
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		} // end if block
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+		return lower + (width - 1);
+	} // end method upperBound
+} // end class LatencyHistogram
@@ -0,0 +1,74 @@
+package gradebook;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * LoadEvent is a Java Flight Recorder event spanning one call of
+ * processFile or processString, recording what kind of input was loaded,
+ * how it was read and how much of it there was; the LoadPhaseEvents
+ * committed during the load break its duration down further
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@Name("gradebook.Load")
+@Label("Gradebook Load")
+@Category("Gradebook")
+@Description("Loading of a gradebook file or string")
+class LoadEvent extends Event {
+	/** header line of the input, such as GRADEBOOK or STUDENT */
+	@Label("Input Type")
+	String inputType;
+
+	/** how the input was read: string, file, mapped file or parallel file */
+	@Label("Source")
+	String source;
+
+	/** size of the input */
+	@Label("Bytes Consumed")
+	@Description("Bytes of a file, or characters of a string")
+	@DataAmount
+	long bytes;
+
+	/**
+	 * number of lines read from the input, or 0 if they were read on
+	 * worker threads
+	 */
+	@Label("Lines Parsed")
+	long lines;
+
+	/** number of student rows or records added */
+	@Label("Records Added")
+	long records;
+
+	/**
+	 * constructor to begin timing a load
+	 *
+	 * @param source how the input is read
+	 */
+	LoadEvent(String source) {
+		this.source = source;
+		begin();
+	} // end constructor LoadEvent
+
+	/**
+	 * commits the event if the recording wants it
+	 *
+	 * @param bytes size of the input
+	 */
+	void finish(long bytes) {
+		end();
+		if (shouldCommit()) {
+			this.bytes = bytes;
+			commit();
+		} // end if block
+	} // end method finish
+} // end class LoadEvent
@@ -0,0 +1,26 @@
+package gradebook;
+
+/**
+ * LoadMode is an enumeration of the strategies available for reading a
+ * gradebook file into a MyGradeBook
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public enum LoadMode {
+	/** read the file through a buffered input stream */
+	STREAM,
+
+	/** decode the file straight from memory-mapped windows of the file */
+	MEMORY_MAPPED,
+
+	/**
+	 * split the student rows of a GRADEBOOK file into ranges which are
+	 * parsed on worker threads and then added in file order; other files
+	 * are read as with STREAM
+	 */
+	PARALLEL
+} // end enum LoadMode
@@ -0,0 +1,82 @@
+package gradebook;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * LoadPhaseEvent is a Java Flight Recorder event spanning one phase of a
+ * load: the assignment header of a full gradebook, a batch of its student
+ * rows, or the records of an ASSIGNMENT, STUDENT or GRADES_FOR_* input.
+ * Student rows are reported in batches rather than one event per row, with
+ * the time the batch spent parsing, adding students and changing grades
+ * accumulated separately; a parallel load reports each range parsed on a
+ * worker thread as rows and the adding of it to the gradebook as a merge
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@Name("gradebook.LoadPhase")
+@Label("Gradebook Load Phase")
+@Category("Gradebook")
+@Description("Header, row or record phase of a gradebook load")
+class LoadPhaseEvent extends Event {
+	/** largest number of student rows reported in one event */
+	static final int ROWS_PER_EVENT = 8192;
+
+	/**
+	 * name of the phase: header, rows, merge, assignments, students or
+	 * grades
+	 */
+	@Label("Phase")
+	String phase;
+
+	/** number of rows, records or grades handled in the phase */
+	@Label("Records")
+	long records;
+
+	/** time spent tokenizing and parsing fields */
+	@Label("Parse Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long parseTime;
+
+	/** time spent in addStudent filling in new rows */
+	@Label("Add Student Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long addStudentTime;
+
+	/** time spent validating and storing grades */
+	@Label("Change Grade Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long changeGradeTime;
+
+	/** number of grades rejected as out of range or unmatched */
+	@Label("Rejected Grades")
+	long rejectedGrades;
+
+	/**
+	 * constructor to begin timing a phase
+	 *
+	 * @param phase name of the phase
+	 */
+	LoadPhaseEvent(String phase) {
+		this.phase = phase;
+		begin();
+	} // end constructor LoadPhaseEvent
+
+	/**
+	 * commits the event if the recording wants it
+	 */
+	void finish() {
+		end();
+		if (shouldCommit()) {
+			commit();
+		} // end if block
+	} // end method finish
+} // end class LoadPhaseEvent
@@ -0,0 +1,187 @@
+package gradebook;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedFileReader is a Reader which decodes a UTF-8 file straight out of
+ * memory-mapped windows of the file, so the bytes are never copied through
+ * an intermediate stream buffer; files larger than a single mapping can
+ * address are read one window at a time, and a reader can be limited to a
+ * range of the file so that several threads can decode parts of it
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class MappedFileReader extends Reader {
+	/** default largest number of bytes mapped at once */
+	static final long WINDOW_SIZE = 1L << 28;
+
+	/** largest number of bytes mapped at once */
+	private final long windowSize;
+
+	/** channel the windows are mapped from */
+	private final FileChannel channel;
+
+	/** file offset one past the last byte to read */
+	private final long end;
+
+	/** decoder carrying state between reads */
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	/** file offset of the start of the current window */
+	private long windowStart = 0;
+
+	/** currently mapped window of the file */
+	private MappedByteBuffer window;
+
+	/** whether the decoder has been flushed at the end of the file */
+	private boolean flushed = false;
+
+	/**
+	 * surrogate pair decoded when the caller had room for only one char,
+	 * holding the chars not yet returned
+	 */
+	private final CharBuffer pair = CharBuffer.allocate(2).flip();
+
+	/**
+	 * constructor to open and map the first window of a file
+	 *
+	 * @param filename name of the file to read
+	 * @throws IOException
+	 * 			  thrown if error occurs opening or mapping the file
+	 */
+	MappedFileReader(String filename) throws IOException {
+		this(filename, WINDOW_SIZE);
+	} // end constructor MappedFileReader
+
+	/**
+	 * constructor to open and map the first window of a file using windows
+	 * of the given size
+	 *
+	 * @param filename name of the file to read
+	 * @param windowSize largest number of bytes to map at once
+	 * @throws IOException
+	 * 			  thrown if error occurs opening or mapping the file
+	 */
+	MappedFileReader(String filename, long windowSize) throws IOException {
+		this.windowSize = windowSize;
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		end = channel.size();
+		window = map(0);
+	} // end constructor MappedFileReader
+
+	/**
+	 * constructor to open a file and map the first window of a range of it;
+	 * the range should start at the beginning of a character
+	 *
+	 * @param filename name of the file to read
+	 * @param start file offset of the first byte to read
+	 * @param end file offset one past the last byte to read
+	 * @throws IOException
+	 * 			  thrown if error occurs opening or mapping the file
+	 */
+	MappedFileReader(String filename, long start, long end)
+			throws IOException {
+		this.windowSize = WINDOW_SIZE;
+		this.end = end;
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		window = map(start);
+	} // end constructor MappedFileReader
+
+	/**
+	 * decodes up to len characters from the mapped file into cbuf
+	 *
+	 * @param cbuf destination buffer
+	 * @param off offset at which to start storing characters
+	 * @param len maximum number of characters to read
+	 * @return the number of characters read, or -1 at the end of the file
+	 * @throws IOException
+	 * 			  thrown if error occurs mapping the next window
+	 */
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		} // end if block
+		if (pair.hasRemaining()) {
+			cbuf[off] = pair.get();
+			return 1;
+		} // end if block
+		if (flushed) {
+			return -1;
+		} // end if block
+
+		CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+		while (out.position() == off) {
+			boolean lastWindow = windowStart + window.limit() == end;
+			CoderResult result = decoder.decode(window, out, lastWindow);
+
+			// a surrogate pair does not fit in one char, so decode it aside
+			// and hand it over a char at a time
+			if (result.isOverflow() && out.position() == off) {
+				pair.clear();
+				decoder.decode(window, pair, lastWindow);
+				pair.flip();
+				cbuf[off] = pair.get();
+				return 1;
+			} // end if block
+
+			// stop once the whole file has been decoded and flushed
+			if (lastWindow && !window.hasRemaining()) {
+				flushed = decoder.flush(out).isUnderflow();
+				if (flushed && out.position() == off) {
+					return -1;
+				} // end if block
+				break;
+			} // end if block
+
+			// move on once the window is exhausted or ends mid-character
+			if (result.isUnderflow() && out.position() == off) {
+				window = map(windowStart + window.position());
+			} // end if block
+		} // end while loop
+
+		return out.position() - off;
+	} // end method read
+
+	/**
+	 * releases the file channel; the mapped windows are released by the
+	 * garbage collector
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs closing the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	} // end method close
+
+	/**
+	 * maps the window of the file beginning at the given offset
+	 *
+	 * @param start file offset of the first byte to map
+	 * @return the mapped window
+	 * @throws IOException
+	 * 			  thrown if error occurs mapping the file
+	 */
+	private MappedByteBuffer map(long start) throws IOException {
+		windowStart = start;
+		return channel.map(FileChannel.MapMode.READ_ONLY, start,
+				Math.min(windowSize, end - start));
+	} // end method map
+} // end class MappedFileReader
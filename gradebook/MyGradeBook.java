@@ -1,14 +1,35 @@
 package gradebook;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Scanner;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * MyGradeBook is a class containing all functions related to creating,
@@ -22,34 +43,140 @@ import java.util.TreeMap;
  * @author Ryan Cebulko
  * @version 2014-04-11
  */
-public class MyGradeBook {
+public class MyGradeBook implements AutoCloseable {
+	/** first four bytes of a binary snapshot file, "GBSN" */
+	private static final int SNAPSHOT_MAGIC = 0x4742534E;
+	
+	/** version of the binary snapshot format written by saveSnapshot */
+	private static final int SNAPSHOT_VERSION = 1;
+	
 	/**
 	 * list of assignments in the order they were added, for index-based retrieval
 	 */
 	private ArrayList<Assignment> assignments = new ArrayList<Assignment>();
 	
 	/**
-	 * map relating usernames to their associated students
+	 * map to look up an assignment's index in assignments for name-based retrieval
 	 */
-	private TreeMap<String, Student> students = new TreeMap<String, Student>();
+	private TreeMap<String, Integer> assignmentNameToIndex = new TreeMap<String, Integer>();
 	
 	/**
-	 * map to look up an assignment's index in assignments for name-based retrieval
+	 * dictionary of the usernames, names and advisors of the students,
+	 * which the students refer to by id so each distinct String is held once
 	 */
-	private TreeMap<String, Integer> assignmentNameToIndex = new TreeMap<String, Integer>();
+	private StringDictionary studentStrings = new StringDictionary();
+	
+	/**
+	 * list of students in the order they were added, for row-based retrieval
+	 */
+	private ArrayList<Student> studentRows = new ArrayList<Student>();
+	
+	/**
+	 * array to look up a student's row in grades for name-based retrieval;
+	 * indexed by the id of the username in studentStrings, it holds the
+	 * row plus 1, or 0 for ids which are not usernames
+	 */
+	private int[] usernameRows = new int[16];
 	
 	/**
-	 * map relating assignment names and usernames to grades;
-	 * the first key is the assignment name and the second is the username;
-	 * this association tables allows the Assignment and Student classes to
-	 * operate completely independently with know knowledge of or need for
+	 * rows of the students in username order, for the reports which list
+	 * students that way, or null until a report next needs them
+	 */
+	private int[] sortedRows = null;
+
+	/**
+	 * matrix relating assignment and student ordinals to grades;
+	 * the column is the assignment's index in assignments and the row is
+	 * the student's index from usernameRows;
+	 * this association table allows the Assignment and Student classes to
+	 * operate completely independently with no knowledge of or need for
 	 * the other
 	 */
-	private HashMap<String, HashMap<String, Float>> grades = new HashMap<String, HashMap<String, Float>>();
+	private GradeMatrix grades = GradeMatrix.create(GradeStorage.HEAP);
+	
+	/**
+	 * running aggregates of each column of grades, indexed the same as
+	 * assignments
+	 */
+	private ArrayList<AssignmentStats> assignmentStats = new ArrayList<AssignmentStats>();
+	
+	/**
+	 * running sum of each student's relative assignment grades weighted by
+	 * percent of semester, indexed by the student's row in grades
+	 */
+	private double[] weightedTotals = new double[16];
+	
+	/**
+	 * ranking of the students by weighted total, which orders them the
+	 * same as current grade; null until a rank query first needs it, and
+	 * kept up to date from then on
+	 */
+	private RankIndex currentRanking = null;
+	
+	/**
+	 * ranking of the students by grade in each assignment, indexed the same
+	 * as assignments; an entry is null until a query of that assignment
+	 * first needs it, and kept up to date from then on
+	 */
+	private ArrayList<RankIndex> assignmentRankings = new ArrayList<RankIndex>();
+	
+	/**
+	 * students grouped by advisor with running aggregates of each group;
+	 * null until a group query first needs it, and kept up to date from
+	 * then on along with gradYearGroups
+	 */
+	private StudentGroups<String> advisorGroups = null;
+	
+	/** students grouped by expected graduation year, like advisorGroups */
+	private StudentGroups<Integer> gradYearGroups = null;
 	
 	/** total of percentage values of all assignments */
 	private float percentOfSemester = 0;
 	
+	/** write-ahead journal of mutations, or null when not journaling */
+	private GradeJournal journal = null;
+	
+	/** operation counters and latencies, or null when not recording them */
+	private GradeBookMetrics metrics = null;
+	
+	/** log of past grades, or null when not keeping history */
+	private GradeHistory history = null;
+	
+	/**
+	 * whether setGrade may take a history checkpoint, and a mutation may
+	 * compact the journal, when one is due; a ConcurrentGradeBook turns
+	 * this off outside its exclusive sections and does both itself
+	 */
+	private boolean inlineCheckpoints = true;
+	
+	/** whether this is a snapshot, which may not be changed */
+	private boolean readOnly = false;
+	
+	/**
+	 * whether the student and assignment maps and lists are shared with a
+	 * snapshot, and must be copied before they are next changed
+	 */
+	private boolean sharedStructure = false;
+	
+	/**
+	 * whether weightedTotals is shared with a snapshot, and must be copied
+	 * before it is next changed
+	 */
+	private boolean sharedTotals = false;
+	
+	/**
+	 * whether each column of grades is shared with a snapshot, indexed the
+	 * same as assignments; columns past the end of the array are not shared
+	 */
+	private boolean[] sharedColumns = new boolean[0];
+	
+	/**
+	 * whether each entry of assignmentStats is shared with a snapshot,
+	 * indexed the same as assignments; entries past the end of the array
+	 * are not shared
+	 */
+	private boolean[] sharedStats = new boolean[0];
+	
 	/**
 	 * factory method to construct an empty MyGradebook
 	 * 
@@ -59,6 +186,21 @@ public class MyGradeBook {
 		return new MyGradeBook();
 	} // end method initialize
 
+	/**
+	 * factory method to construct an empty MyGradebook whose grades are
+	 * kept in the given place; a gradebook kept OFF_HEAP should be closed
+	 * once it is no longer needed
+	 * 
+	 * @param storage
+	 *            where the grade matrix lives
+	 * @return an empty MyGradeBook
+	 */
+	public static MyGradeBook initialize(GradeStorage storage) {
+		MyGradeBook mgb = new MyGradeBook();
+		mgb.grades = GradeMatrix.create(storage);
+		return mgb;
+	} // end method initialize
+
 	/**
 	 * factory method to construct a MyGradebook that contains the grade book
 	 * from filename
@@ -82,6 +224,90 @@ public class MyGradeBook {
 		return mgb;
 	} // end method initializeWithFile
 
+	/**
+	 * factory method to construct a MyGradebook that contains the grade book
+	 * from filename, reading the file with the given strategy
+	 * 
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @param mode
+	 *            strategy used to read the file
+	 * @return a MyGradebook that contains the grade book from filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file
+	 */
+	public static MyGradeBook initializeWithFile(String filename,
+			LoadMode mode)
+			throws IOException {
+		// initialize an empty gradebook
+		MyGradeBook mgb = initialize();
+		
+		// fill new gradebook with data from file
+		mgb.processFile(filename, mode);
+		
+		// return populated gradebook
+		return mgb;
+	} // end method initializeWithFile
+
+	/**
+	 * factory method to construct a MyGradebook that contains the grade book
+	 * from filename, with its grades kept in the given place
+	 * 
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @param storage
+	 *            where the grade matrix lives
+	 * @return a MyGradebook that contains the grade book from filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public static MyGradeBook initializeWithFile(String filename,
+			GradeStorage storage)
+			throws IOException {
+		return initializeWithFile(filename, LoadMode.STREAM, storage);
+	} // end method initializeWithFile
+
+	/**
+	 * factory method to construct a MyGradebook that contains the grade book
+	 * from filename, reading the file with the given strategy and keeping
+	 * its grades in the given place
+	 * 
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @param mode
+	 *            strategy used to read the file
+	 * @param storage
+	 *            where the grade matrix lives
+	 * @return a MyGradebook that contains the grade book from filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file
+	 */
+	public static MyGradeBook initializeWithFile(String filename,
+			LoadMode mode, GradeStorage storage)
+			throws IOException {
+		// initialize an empty gradebook
+		MyGradeBook mgb = initialize(storage);
+		
+		// fill new gradebook with data from file, giving back the grade
+		// storage if it cannot be loaded
+		boolean loaded = false;
+		try {
+			mgb.processFile(filename, mode);
+			loaded = true;
+		} // end try block
+		finally {
+			if (!loaded) {
+				mgb.grades.close();
+			} // end if block
+		} // end finally block
+		
+		// return populated gradebook
+		return mgb;
+	} // end method initializeWithFile
+
 	/**
 	 * factory method to construct a MyGradebook that contains the grade book
 	 * from startingString
@@ -106,6 +332,35 @@ public class MyGradeBook {
 		return mgb;
 	} // end method initializeWithString
 
+	/**
+	 * factory method to construct a MyGradebook that contains the grade book
+	 * saved to path by saveSnapshot
+	 * 
+	 * @param path
+	 *            the path of the binary snapshot file
+	 * @return a MyGradebook that contains the grade book from path
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file or it is not a
+	 * 			  supported snapshot
+	 */
+	public static MyGradeBook loadSnapshot(Path path)
+			throws IOException {
+		// initialize an empty gradebook
+		MyGradeBook mgb = initialize();
+		
+		// fill new gradebook with data from the snapshot
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			mgb.readSnapshot(new ChannelInput(channel));
+		} // end try block
+		finally {
+			channel.close();
+		} // end finally block
+		
+		// return populated gradebook
+		return mgb;
+	} // end method loadSnapshot
+
 	/**
 	 * add to the state of this grade book---new assignments, new students, new
 	 * grades---by processing filename
@@ -122,15 +377,100 @@ public class MyGradeBook {
 	 */
 	public void processFile(String filename) 
 			throws IOException {
+		long start = startTimer();
+		LoadEvent event = new LoadEvent("file");
+		readFile(filename, event);
+		finishLoad(start, event, filename);
+	} // end method processFile
+
+	/**
+	 * add to the state of this grade book---new assignments, new students, new
+	 * grades---by processing filename with the given strategy
+	 * 
+	 * @param filename
+	 *            the filename for a file that contains information that will be
+	 *            added to the grade book, formatted like addAssignments.txt,
+	 *            addStudents.txt, gradesForAssignment1.txt, and
+	 *            gradesForStudent.txt.
+	 * @param mode
+	 *            strategy used to read the file
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file
+	 */
+	public void processFile(String filename, LoadMode mode)
+			throws IOException {
+		long start = startTimer();
+		
+		// decode straight from mapped windows of the file if requested
+		LoadEvent event;
+		if (mode == LoadMode.MEMORY_MAPPED) {
+			event = new LoadEvent("mapped file");
+			processReader(new MappedFileReader(filename), event);
+		} // end if block
+		// parse the rows of a full gradebook on worker threads if requested
+		else if (mode == LoadMode.PARALLEL) {
+			event = new LoadEvent("parallel file");
+			ParallelGradebookLoader loader = new ParallelGradebookLoader(this,
+					filename, Runtime.getRuntime().availableProcessors());
+			if (loader.load()) {
+				event.inputType = "GRADEBOOK";
+				event.records = loader.rows();
+			} // end if block
+			else {
+				readFile(filename, event);
+			} // end else block
+		} // end else-if block
+		else {
+			event = new LoadEvent("file");
+			readFile(filename, event);
+		} // end else block
+		
+		finishLoad(start, event, filename);
+	} // end method processFile
+
+	/**
+	 * add to the state of this grade book by streaming filename
+	 * 
+	 * @param filename
+	 *            the filename for a file that contains information that will be
+	 *            added to the grade book
+	 * @param event
+	 *            flight recorder event spanning the load
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	private void readFile(String filename, LoadEvent event)
+			throws IOException {
 		// load input stream from file
 		InputStream input = new FileInputStream(filename);
 		
 		// process input stream
-		processStream(input);
+		processStream(input, event);
 		
 		// release resources associated with input stream
 		input.close();
-	} // end method processFile
+	} // end method readFile
+
+	/**
+	 * records a completed file load in the metrics and the flight
+	 * recording, looking up the size of the file only if either wants it
+	 * 
+	 * @param start
+	 *            value returned by startTimer() when the load began
+	 * @param event
+	 *            flight recorder event spanning the load
+	 * @param filename
+	 *            the filename of the loaded file
+	 */
+	private void finishLoad(long start, LoadEvent event, String filename) {
+		if (metrics != null || event.isEnabled()) {
+			long bytes = new File(filename).length();
+			if (metrics != null) {
+				metrics.recordParse(start, bytes);
+			} // end if block
+			event.finish(bytes);
+		} // end if block
+	} // end method finishLoad
 
 	/**
 	 * add to the state of this grade book---new assignments, new students, new
@@ -144,19 +484,20 @@ public class MyGradeBook {
 	 *            addStudents.txt, gradesForAssignment1.txt, and
 	 *            gradesForStudent.txt.
 	 * @throws IOException
-	 * 			  thrown if error occurs processing or closing string byte-stream
+	 * 			  thrown if error occurs processing or closing string reader
 	 */
 	public void processString(String additionalString)
 			throws IOException {
-		// load input stream from string
-		InputStream input = new ByteArrayInputStream(
-				additionalString.getBytes("UTF-8")) ;
+		long start = startTimer();
+		LoadEvent event = new LoadEvent("string");
 		
-		// process input stream
-		processStream(input);
+		// process characters straight from the string
+		processReader(new StringReader(additionalString), event);
 		
-		// release resources associated with input stream
-		input.close();
+		if (metrics != null) {
+			metrics.recordParse(start, additionalString.length());
+		} // end if block
+		event.finish(additionalString.length());
 	} // end method processString
 	
 	/**
@@ -170,391 +511,2444 @@ public class MyGradeBook {
 	 * 			  grades. The String will be formatted like addAssignments.txt,
 	 *            addStudents.txt, gradesForAssignment1.txt, and
 	 *            gradesForStudent.txt.
+	 * @param event
+	 * 			  flight recorder event spanning the load
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing input stream
 	 */
-	private void processStream(InputStream input) {
-		// initialize scanner resource
-		Scanner in = new Scanner(input);
-		
-		// get input type header
-		String inputType = in.nextLine().trim();
+	private void processStream(InputStream input, LoadEvent event)
+			throws IOException {
+		// decode the stream as UTF-8, matching processString
+		processReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+				event);
+	} // end method processStream
+	
+	/**
+	 * add to the state of this grade book---new assignments, new students, new
+	 * grades---by processing input
+	 * 
+	 * @param input
+	 * 			  Reader that contains information that will be added to the
+	 * 			  grade book, formatted like addAssignments.txt,
+	 *            addStudents.txt, gradesForAssignment1.txt, and
+	 *            gradesForStudent.txt.
+	 * @param event
+	 * 			  flight recorder event spanning the load, which is given the
+	 * 			  input type and the number of lines and records read
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing reader
+	 */
+	private void processReader(Reader input, LoadEvent event)
+			throws IOException {
+		// initialize tokenizer resource
+		GradeBookTokenizer in = new GradeBookTokenizer(input);
 		
-		// handle inputs containing a full gradebook
-		if (inputType.equals("GRADEBOOK")) {
-			// collect all assignment data, splitting on tabs
-			String[] assignmentsName = in.nextLine().trim().split("\\t");
-			String[] assignmentsTotalPoints = in.nextLine().trim().split("\\t");
-			String[] assignmentsPercentOfGrade = in.nextLine().trim().split("\\t");
+		try {
+			// get input type header
+			in.nextLine();
 			
-			// iterate through assignment input data
-			for (int i = 0; i < assignmentsName.length; ++i) {
-				addAssignment(new Assignment(
-						assignmentsName[i],
-						new Float(assignmentsTotalPoints[i].trim()),
-						new Float(assignmentsPercentOfGrade[i].trim())));
-			} // end for loop
-
-			// iterate through lines containing user data
-			while (in.hasNextLine()) {
-				// split line by tabs
-				String[] userData = in.nextLine().trim().split("\\t");
+			// handle inputs containing a full gradebook
+			if (in.lineEquals("GRADEBOOK")) {
+				event.inputType = "GRADEBOOK";
+				event.records = processGradebook(in);
+			} // end if block
+			
+			// handle inputs listing assignments
+			else if (in.lineEquals("ASSIGNMENT")) {
+				event.inputType = "ASSIGNMENT";
+				LoadPhaseEvent phase = new LoadPhaseEvent("assignments");
 				
-				// create and add a student object with input data
-				addStudent(new Student(
-						userData[0], // username
-						userData[1], // first name
-						userData[2], // last name
-						userData[3], // advisor
-						Integer.parseInt(
-								userData[4], // expected graduation year
-								10)));
-                
-                // add student entry to grade lookup table with 0s for all grades
-                for (int i = 0; i < userData.length - 5; ++i) {
-                	changeGrade(
-                			assignmentsName[i],
-                			userData[0],
-                			new Float(userData[i + 5]));
-                } // end for loop
-			} // end while loop
-		} // end if block
-		
-		// handle inputs listing assignments
-		else if (inputType.equals("ASSIGNMENT")) {
-			// process at least one record, more if they are present
-			do {
-				// create and add an assignment object with input data
-				addAssignment(new Assignment(
-						in.nextLine().trim(), // assignment name
-						in.nextFloat(), // total points
-						in.nextFloat())); // percent of semester grade
-			} while (in.hasNextLine() && in.nextLine().trim().equals("ASSIGNMENT"));
-			// end do-while block
-		} // end if block
-		
-		// handle inputs listing students
-		else if (inputType.equals("STUDENT")) {
-			do {
-				// create and add a student object with input data
-				addStudent(new Student(
-						in.nextLine().trim(), // username
-						in.nextLine().trim(), // first name
-						in.nextLine().trim(), // last name
-						in.nextLine().trim(), // advisor
-						in.nextInt(10))); // expected graduation year
-			} while (in.hasNextLine() && in.nextLine().trim().equals("STUDENT"));
-			// end do-while block
-		} // end else-if block
-		
-		// handle inputs listing grades for an assignment
-		else if (inputType.equals("GRADES_FOR_ASSIGNMENT")) {
-			String assignmentName = in.nextLine().trim(); // assignment name
-			while (in.hasNextLine()) {
-				changeGrade(
-						assignmentName, // assignment name
-						in.nextLine().trim(), // username
-						in.nextFloat()); // grade
-			} // end while loop
-		} // end else-if block
+				// process at least one record, more if they are present
+				do {
+					// create and add an assignment object with input data
+					in.nextLine();
+					String name = in.line(); // assignment name
+					in.nextLine();
+					float totalPoints = in.lineFloat(); // total points
+					in.nextLine();
+					float percentOfGrade = in.lineFloat(); // percent of semester grade
+					addAssignment(new Assignment(name, totalPoints, percentOfGrade));
+					++phase.records;
+				} while (in.nextLineEquals("ASSIGNMENT"));
+				// end do-while block
+				
+				phase.finish();
+				event.records = phase.records;
+			} // end else-if block
+			
+			// handle inputs listing students
+			else if (in.lineEquals("STUDENT")) {
+				event.inputType = "STUDENT";
+				LoadPhaseEvent phase = new LoadPhaseEvent("students");
+				boolean timed = phase.isEnabled();
+				
+				do {
+					// create and add a student object with input data
+					in.nextLine();
+					String username = in.line();
+					in.nextLine();
+					String firstName = in.line();
+					in.nextLine();
+					String lastName = in.line();
+					in.nextLine();
+					String advisor = in.line();
+					in.nextLine();
+					int gradYear = in.lineInt(); // expected graduation year
+					long addStart = timed ? System.nanoTime() : 0;
+					addStudent(newStudent(
+							username, firstName, lastName, advisor, gradYear));
+					if (timed) {
+						phase.addStudentTime += System.nanoTime() - addStart;
+					} // end if block
+					++phase.records;
+				} while (in.nextLineEquals("STUDENT"));
+				// end do-while block
+				
+				phase.finish();
+				event.records = phase.records;
+			} // end else-if block
+			
+			// handle inputs listing grades for an assignment
+			else if (in.lineEquals("GRADES_FOR_ASSIGNMENT")) {
+				event.inputType = "GRADES_FOR_ASSIGNMENT";
+				LoadPhaseEvent phase = new LoadPhaseEvent("grades");
+				long parseStart = phase.isEnabled() ? System.nanoTime() : 0;
+				in.nextLine();
+				String assignmentName = in.line(); // assignment name
+				
+				// collect every username and grade, then apply them at once
+				ArrayList<String> usernames = new ArrayList<String>();
+				double[] newGrades = new double[16];
+				while (in.hasNextLine()) {
+					in.nextLine();
+					usernames.add(in.line()); // username
+					in.nextLine();
+					if (usernames.size() > newGrades.length) {
+						newGrades = Arrays.copyOf(newGrades, newGrades.length * 2);
+					} // end if block
+					newGrades[usernames.size() - 1] = in.lineFloat(); // grade
+				} // end while loop
+				long changeStart = phase.isEnabled() ? System.nanoTime() : 0;
+				List<String> rejected = changeGrades(assignmentName,
+						usernames.toArray(new String[usernames.size()]),
+						newGrades, false);
+				finishGradesPhase(phase, parseStart, changeStart,
+						usernames.size(), rejected.size());
+				event.records = usernames.size();
+			} // end else-if block
+			
+			// handle inputs listing grades for a student
+			else if (in.lineEquals("GRADES_FOR_STUDENT")) {
+				event.inputType = "GRADES_FOR_STUDENT";
+				LoadPhaseEvent phase = new LoadPhaseEvent("grades");
+				long parseStart = phase.isEnabled() ? System.nanoTime() : 0;
+				in.nextLine();
+				String username = in.line(); // username
+				
+				// collect every assignment name and grade, then apply them at once
+				ArrayList<String> assignmentNames = new ArrayList<String>();
+				double[] newGrades = new double[16];
+				while (in.hasNextLine()) {
+					in.nextLine();
+					assignmentNames.add(in.line()); // assignment name
+					in.nextLine();
+					if (assignmentNames.size() > newGrades.length) {
+						newGrades = Arrays.copyOf(newGrades, newGrades.length * 2);
+					} // end if block
+					newGrades[assignmentNames.size() - 1] = in.lineFloat(); // grade
+				} // end while loop
+				long changeStart = phase.isEnabled() ? System.nanoTime() : 0;
+				List<String> rejected = changeStudentGrades(username,
+						assignmentNames.toArray(new String[assignmentNames.size()]),
+						newGrades, false);
+				finishGradesPhase(phase, parseStart, changeStart,
+						assignmentNames.size(), rejected.size());
+				event.records = assignmentNames.size();
+			} // end else-if block
+			
+			// handle invalid input formats
+			else {
+				// throw exception identifying input format error
+				throw new IllegalArgumentException("Invalid input header");
+			} // end else block
+			
+			event.lines = in.lineCount();
+		} // end try block
+		finally {
+			// release resources associated with input
+			in.close();
+		} // end finally block
+	} // end method processReader
+	
+	/**
+	 * commits the flight recorder event of a GRADES_FOR_* input
+	 * 
+	 * @param phase
+	 * 			  event spanning the input's records
+	 * @param parseStart
+	 * 			  value of System.nanoTime() when parsing began, if recording
+	 * @param changeStart
+	 * 			  value of System.nanoTime() when the grades began to be
+	 * 			  changed, if recording
+	 * @param records
+	 * 			  number of grades read
+	 * @param rejected
+	 * 			  number of grades not changed
+	 */
+	private static void finishGradesPhase(LoadPhaseEvent phase,
+			long parseStart, long changeStart, int records, int rejected) {
+		if (phase.isEnabled()) {
+			phase.parseTime = changeStart - parseStart;
+			phase.changeGradeTime = System.nanoTime() - changeStart;
+			phase.records = records;
+			phase.rejectedGrades = rejected;
+		} // end if block
+		phase.finish();
+	} // end method finishGradesPhase
+	
+	/**
+	 * add the assignments and students of a full gradebook to this grade
+	 * book; the GRADEBOOK header must already have been read
+	 * 
+	 * @param in
+	 * 			  tokenizer positioned after the GRADEBOOK header, formatted
+	 * 			  like gradebook.txt
+	 * @return the number of student rows read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the tokenizer
+	 */
+	private int processGradebook(GradeBookTokenizer in)
+			throws IOException {
+		int[] columns = processGradebookAssignments(in);
+		float[] rowGrades = new float[columns.length];
+		int rows = 0;
 		
-		// handle inputs listing grades for a student
-		else if (inputType.equals("GRADES_FOR_STUDENT")) {
-			String username = in.nextLine().trim(); // username
-			while (in.hasNextLine()) {
-				changeGrade(
-						in.nextLine().trim(), // assignment name
-						username, // username
-						in.nextFloat()); // grade
-			} // end while loop
-		} // end else-if block
+		// report the rows in batches, reading the clock only when recording
+		LoadPhaseEvent batch = new LoadPhaseEvent("rows");
+		boolean timed = batch.isEnabled();
 		
-		// handle invalid input formats
-		else {
-			// release resources associated with input stream
-			in.close();
+		// iterate through lines containing user data
+		while (in.hasNextLine()) {
+			long parseStart = timed ? System.nanoTime() : 0;
+			in.nextLine();
 			
-			// throw exception identifying input format error
-			throw new IllegalArgumentException("Invalid input header");
-		} // end else block
-
-		// release resources associated with input stream
-		in.close();
-	} // end method processStream
+			// parse the student and their grades from the line's fields
+			Student s = newStudent(
+					in.nextField(), // username
+					in.nextField(), // first name
+					in.nextField(), // last name
+					in.nextField(), // advisor
+					in.nextIntField()); // expected graduation year
+			int count = 0;
+			RuntimeException error = null;
+			try {
+				for (; in.hasNextField(); ++count) {
+					rowGrades[count] = in.nextFloatField();
+				} // end for loop
+			} // end try block
+			catch (RuntimeException e) {
+				// keep the grades before a malformed one, to be stored first
+				error = e;
+			} // end catch block
+			
+			// create and add a student object with input data
+			long addStart = timed ? System.nanoTime() : 0;
+			int row = addStudent(s);
+			
+			// fill in the student's grades
+			long changeStart = timed ? System.nanoTime() : 0;
+			for (int i = 0; i < count; ++i) {
+				if (!changeGrade(columns[i], row, rowGrades[i])) {
+					++batch.rejectedGrades;
+				} // end if block
+			} // end for loop
+			if (error != null) {
+				throw error;
+			} // end if block
+			
+			if (timed) {
+				batch.parseTime += addStart - parseStart;
+				batch.addStudentTime += changeStart - addStart;
+				batch.changeGradeTime += System.nanoTime() - changeStart;
+			} // end if block
+			++rows;
+			
+			// start a new batch once this one is full
+			if (++batch.records == LoadPhaseEvent.ROWS_PER_EVENT) {
+				batch.finish();
+				batch = new LoadPhaseEvent("rows");
+			} // end if block
+		} // end while loop
+		
+		if (batch.records > 0) {
+			batch.finish();
+		} // end if block
+		return rows;
+	} // end method processGradebook
 	
-	private void addAssignment(Assignment newAssignment) {
-		// add assignment to list of assignments
-		assignments.add(newAssignment);
+	/**
+	 * add the assignments listed in the three header lines of a full
+	 * gradebook to this grade book
+	 * 
+	 * @param in
+	 * 			  tokenizer positioned after the GRADEBOOK header
+	 * @return the grade matrix column of each assignment, in the order
+	 *         they are listed
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the tokenizer
+	 */
+	int[] processGradebookAssignments(GradeBookTokenizer in)
+			throws IOException {
+		LoadPhaseEvent phase = new LoadPhaseEvent("header");
 		
-		// add map from assignment name to index
-		assignmentNameToIndex.put(
-				newAssignment.getName(),
-				assignments.size() - 1);
+		// collect all assignment data, splitting on tabs
+		ArrayList<String> assignmentsName = new ArrayList<String>();
+		in.nextLine();
+		while (in.hasNextField()) {
+			assignmentsName.add(in.nextField());
+		} // end while loop
+		float[] assignmentsTotalPoints = new float[assignmentsName.size()];
+		in.nextLine();
+		for (int i = 0; i < assignmentsTotalPoints.length; ++i) {
+			assignmentsTotalPoints[i] = in.nextFloatField();
+		} // end for loop
+		float[] assignmentsPercentOfGrade = new float[assignmentsName.size()];
+		in.nextLine();
+		for (int i = 0; i < assignmentsPercentOfGrade.length; ++i) {
+			assignmentsPercentOfGrade[i] = in.nextFloatField();
+		} // end for loop
 		
-		// add assignment to grade lookup table with 0s for all grades
-		HashMap<String, Float> assignmentGrades = new HashMap<String, Float>();
-		for (String username : students.keySet()) {
-			assignmentGrades.put(username, 0f);
+		// iterate through assignment input data
+		for (int i = 0; i < assignmentsName.size(); ++i) {
+			addAssignment(new Assignment(
+					assignmentsName.get(i),
+					assignmentsTotalPoints[i],
+					assignmentsPercentOfGrade[i]));
 		} // end for loop
-		grades.put(newAssignment.getName(), assignmentGrades);
 		
-		// keep track of increasing total semester percentage
-		percentOfSemester += newAssignment.getPercentOfGrade();
-	}
+		// resolve each grade column once rather than once per student
+		int[] columns = new int[assignmentsName.size()];
+		for (int i = 0; i < columns.length; ++i) {
+			columns[i] = assignmentNameToIndex.get(assignmentsName.get(i));
+		} // end for loop
+		
+		phase.records = columns.length;
+		phase.finish();
+		return columns;
+	} // end method processGradebookAssignments
 	
 	/**
-	 * adds a student record to the gradebook
+	 * save the state of this grade book to path in a compact binary format
+	 * which can be read back with loadSnapshot
 	 * 
-	 * @param newStudent student to add to the gradebook
+	 * @param path
+	 *            the path of the file to write, replacing any existing file
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the file
+	 */
+	public void saveSnapshot(Path path)
+			throws IOException {
+		FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		try {
+			writeSnapshot(new ChannelOutput(channel));
+		} // end try block
+		finally {
+			channel.close();
+		} // end finally block
+	} // end method saveSnapshot
+	
+	/**
+	 * write the state of this grade book in the binary snapshot format: a
+	 * header, a table of every distinct String, the assignments, the
+	 * students in row order, and then each column of grades as raw floats
+	 * 
+	 * @param out
+	 *            destination for the snapshot
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
 	 */
-	private void addStudent(Student newStudent) {
-		// add student to map of students
-		students.put(newStudent.getUsername(), newStudent);
+	void writeSnapshot(ChannelOutput out)
+			throws IOException {
+		// number every distinct String so records can refer to them by id
+		HashMap<String, Integer> stringIds = new HashMap<String, Integer>();
+		ArrayList<String> strings = new ArrayList<String>();
+		for (Assignment a : assignments) {
+			internString(a.getName(), stringIds, strings);
+		} // end for loop
+		for (Student s : studentRows) {
+			internString(s.getUsername(), stringIds, strings);
+			internString(s.getFirstName(), stringIds, strings);
+			internString(s.getLastName(), stringIds, strings);
+			internString(s.getAdvisor(), stringIds, strings);
+		} // end for loop
+		
+		// output header and string table
+		out.writeInt(SNAPSHOT_MAGIC);
+		out.writeInt(SNAPSHOT_VERSION);
+		out.writeInt(strings.size());
+		for (String string : strings) {
+			out.writeString(string);
+		} // end for loop
 		
-		// add student entry to grade lookup table with 0s for all grades
+		// output assignment and student records
+		out.writeInt(assignments.size());
 		for (Assignment a : assignments) {
-			grades.get(a.getName()).put(newStudent.getUsername(), 0f);
+			out.writeInt(stringIds.get(a.getName()));
+			out.writeFloat(a.getTotalPoints());
+			out.writeFloat(a.getPercentOfGrade());
 		} // end for loop
+		out.writeInt(studentRows.size());
+		for (Student s : studentRows) {
+			out.writeInt(stringIds.get(s.getUsername()));
+			out.writeInt(stringIds.get(s.getFirstName()));
+			out.writeInt(stringIds.get(s.getLastName()));
+			out.writeInt(stringIds.get(s.getAdvisor()));
+			out.writeInt(s.getGradYear());
+		} // end for loop
+		
+		// output the grade matrix one column at a time
+		float[] gradesForAssignment = new float[grades.rowCount()];
+		for (int column = 0; column < grades.columnCount(); ++column) {
+			grades.getColumn(column, gradesForAssignment);
+			out.writeFloats(gradesForAssignment, 0, gradesForAssignment.length);
+		} // end for loop
+		out.flush();
+	} // end method writeSnapshot
+	
+	/**
+	 * add a String to a table of distinct Strings if it is not already there
+	 * 
+	 * @param string
+	 *            the String to add
+	 * @param ids
+	 *            map from each String in the table to its index
+	 * @param table
+	 *            the table of distinct Strings
+	 */
+	private static void internString(String string,
+			HashMap<String, Integer> ids, ArrayList<String> table) {
+		if (!ids.containsKey(string)) {
+			ids.put(string, table.size());
+			table.add(string);
+		} // end if block
+	} // end method internString
+	
+	/**
+	 * fill this empty grade book from a binary snapshot; students are added
+	 * before assignments so that every column is created at its final size,
+	 * and the column aggregates are then built once from the loaded grades
+	 * 
+	 * @param in
+	 *            source of the snapshot
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from in or it is not a
+	 * 			  supported snapshot
+	 */
+	private void readSnapshot(ChannelInput in)
+			throws IOException {
+		// check header
+		if (in.readInt() != SNAPSHOT_MAGIC) {
+			throw new IOException("Not a gradebook snapshot");
+		} // end if block
+		int version = in.readInt();
+		if (version != SNAPSHOT_VERSION) {
+			throw new IOException("Unsupported snapshot version " + version);
+		} // end if block
+		
+		// collect string table
+		String[] strings = new String[in.readInt()];
+		for (int i = 0; i < strings.length; ++i) {
+			strings[i] = in.readString();
+		} // end for loop
+		
+		// collect assignment records until the students are in place
+		Assignment[] newAssignments = new Assignment[in.readInt()];
+		for (int i = 0; i < newAssignments.length; ++i) {
+			newAssignments[i] = new Assignment(
+					strings[in.readInt()], // assignment name
+					in.readFloat(), // total points
+					in.readFloat()); // percent of semester grade
+		} // end for loop
+		int studentCount = in.readInt();
+		for (int i = 0; i < studentCount; ++i) {
+			addStudent(new Student(studentStrings,
+					strings[in.readInt()], // username
+					strings[in.readInt()], // first name
+					strings[in.readInt()], // last name
+					strings[in.readInt()], // advisor
+					in.readInt())); // expected graduation year
+		} // end for loop
+		for (Assignment a : newAssignments) {
+			addAssignment(a);
+		} // end for loop
+		
+		// read each column into the grade matrix
+		int rows = grades.rowCount();
+		float[] gradesForAssignment = new float[rows];
+		for (int column = 0; column < grades.columnCount(); ++column) {
+			in.readFloats(gradesForAssignment, 0, rows);
+			grades.setColumn(column, gradesForAssignment);
+			assignmentStats.set(column,
+					new AssignmentStats(gradesForAssignment, rows));
+			
+			// fold the column into every student's weighted total
+			Assignment a = assignments.get(column);
+			for (int row = 0; row < rows; ++row) {
+				weightedTotals[row] += (double) gradesForAssignment[row] *
+						a.getPercentOfGrade() / a.getTotalPoints();
+			} // end for loop
+		} // end for loop
+		
+		// rankings and groups are rebuilt from the loaded grades when next
+		// queried
+		currentRanking = null;
+		for (int column = 0; column < assignmentRankings.size(); ++column) {
+			assignmentRankings.set(column, null);
+		} // end for loop
+		advisorGroups = null;
+		gradYearGroups = null;
+	} // end method readSnapshot
+	
+	/**
+	 * take a read-only view of this grade book as it is now, which answers
+	 * every statistics and output method while this grade book goes on
+	 * changing, possibly on another thread. Nothing is copied up front: the
+	 * view shares the grade columns, running aggregates, weighted totals
+	 * and student and assignment records, and this grade book copies each
+	 * of them the first time it changes them afterwards, so taking a
+	 * snapshot costs time in the number of assignments. Rankings and
+	 * groups are not shared, and are built for the view if it is queried
+	 * for them. Like any MyGradeBook, the view is for one thread at a time
+	 * 
+	 * @return a snapshot of this grade book, whose methods which would
+	 *         change it throw UnsupportedOperationException
+	 */
+	public MyGradeBook snapshot() {
+		MyGradeBook view = new MyGradeBook();
+		view.readOnly = true;
+		
+		// hand over the records, which are only ever replaced, not changed
+		view.assignments = assignments;
+		view.assignmentNameToIndex = assignmentNameToIndex;
+		view.studentStrings = studentStrings;
+		view.studentRows = studentRows;
+		view.usernameRows = usernameRows;
+		view.sortedRows = sortedRows;
+		view.percentOfSemester = percentOfSemester;
+		sharedStructure = true;
+		
+		// share every column and its aggregates until it is next written
+		int columns = grades.columnCount();
+		view.grades = shareGrades();
+		view.assignmentStats = new ArrayList<AssignmentStats>(assignmentStats);
+		for (int column = 0; column < columns; ++column) {
+			view.assignmentRankings.add(null);
+		} // end for loop
+		view.weightedTotals = weightedTotals;
+		sharedTotals = true;
+		sharedStats = new boolean[columns];
+		Arrays.fill(sharedStats, true);
+		
+		return view;
+	} // end method snapshot
+	
+	/**
+	 * makes a matrix sharing every column of grades, each of which is
+	 * copied before it is next written
+	 * 
+	 * @return a read-only matrix of the grades as they are now
+	 */
+	private GradeMatrix shareGrades() {
+		sharedColumns = new boolean[grades.columnCount()];
+		Arrays.fill(sharedColumns, true);
+		return grades.snapshot();
+	} // end method shareGrades
+	
+	/**
+	 * checks that this grade book may be changed
+	 * 
+	 * @throws UnsupportedOperationException
+	 * 			  thrown if this grade book is a snapshot
+	 */
+	private void checkWritable() {
+		if (readOnly) {
+			throw new UnsupportedOperationException(
+					"Gradebook snapshot is read-only");
+		} // end if block
+	} // end method checkWritable
+	
+	/**
+	 * copies the student and assignment maps, lists and dictionary if a
+	 * snapshot shares them, so they can be changed
+	 */
+	private void unshareStructure() {
+		if (sharedStructure) {
+			assignments = new ArrayList<Assignment>(assignments);
+			assignmentNameToIndex =
+					new TreeMap<String, Integer>(assignmentNameToIndex);
+			studentStrings = studentStrings.copy();
+			studentRows = new ArrayList<Student>(studentRows);
+			usernameRows = Arrays.copyOf(usernameRows, usernameRows.length);
+			sharedStructure = false;
+		} // end if block
+	} // end method unshareStructure
+	
+	/**
+	 * copies weightedTotals if a snapshot shares it, so it can be changed;
+	 * a ConcurrentGradeBook calls this as soon as it takes a snapshot,
+	 * since writers of different rows change weightedTotals at once
+	 */
+	void unshareTotals() {
+		if (sharedTotals) {
+			weightedTotals = weightedTotals.clone();
+			sharedTotals = false;
+		} // end if block
+	} // end method unshareTotals
+	
+	/**
+	 * copies the aggregates of a column if a snapshot shares them, so they
+	 * can be changed
+	 * 
+	 * @param column
+	 *            index of the assignment
+	 */
+	private void unshareStats(int column) {
+		if (column < sharedStats.length && sharedStats[column]) {
+			assignmentStats.set(column, assignmentStats.get(column).copy());
+			sharedStats[column] = false;
+		} // end if block
+	} // end method unshareStats
+	
+	/**
+	 * start recording every change to this grade book in a write-ahead
+	 * journal in directory, so the grade book can be rebuilt with recover
+	 * after a crash; group commits run every 100 milliseconds and the
+	 * journal is compacted once it grows past 64 megabytes
+	 * 
+	 * @param directory
+	 *            the directory to hold the journal, created if needed
+	 * @param durability
+	 *            how eagerly changes are forced to disk
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the journal
+	 * @throws IllegalStateException
+	 * 			  thrown if a journal is already open
+	 */
+	public void openJournal(Path directory, JournalDurability durability)
+			throws IOException {
+		openJournal(directory, durability, 100, 64L << 20);
+	} // end method openJournal
+	
+	/**
+	 * start recording every change to this grade book in a write-ahead
+	 * journal in directory, so the grade book can be rebuilt with recover
+	 * after a crash
+	 * 
+	 * @param directory
+	 *            the directory to hold the journal, created if needed
+	 * @param durability
+	 *            how eagerly changes are forced to disk
+	 * @param groupCommitMillis
+	 *            milliseconds between group commits when durability is
+	 *            GROUP
+	 * @param compactionBytes
+	 *            size in bytes past which the journal is folded into a new
+	 *            base snapshot
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the journal
+	 * @throws IllegalStateException
+	 * 			  thrown if a journal is already open
+	 */
+	public void openJournal(Path directory, JournalDurability durability,
+			long groupCommitMillis, long compactionBytes)
+			throws IOException {
+		checkWritable();
+		if (journal != null) {
+			throw new IllegalStateException("Journal already open");
+		} // end if block
+		journal = new GradeJournal(this, directory, durability,
+				groupCommitMillis, compactionBytes);
+	} // end method openJournal
+	
+	/**
+	 * fold the journal into a new base snapshot now rather than waiting for
+	 * it to grow past its compaction size; the snapshot is written in the
+	 * background
+	 * 
+	 * @throws IOException
+	 * 			  thrown if error occurs starting the compaction
+	 * @throws IllegalStateException
+	 * 			  thrown if no journal is open
+	 */
+	public void compactJournal()
+			throws IOException {
+		if (journal == null) {
+			throw new IllegalStateException("No journal open");
+		} // end if block
+		journal.compact();
+	} // end method compactJournal
+	
+	/**
+	 * checks whether the journal has grown past its compaction size and
+	 * should be compacted
+	 * 
+	 * @return whether compactJournal should be called
+	 */
+	boolean journalCompactionDue() {
+		return journal != null && journal.compactionDue();
+	} // end method journalCompactionDue
+	
+	/**
+	 * compacts the journal if it is due and no other thread can be
+	 * changing this grade book; called once a mutation has been applied,
+	 * so the captured base holds every journaled change
+	 * 
+	 * @throws UncheckedIOException
+	 * 			  thrown if error occurs starting the compaction
+	 */
+	private void compactJournalIfDue() {
+		if (inlineCheckpoints && journalCompactionDue()) {
+			try {
+				journal.compact();
+			} // end try block
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} // end catch block
+		} // end if block
+	} // end method compactJournalIfDue
+	
+	/**
+	 * force every journaled change to disk and stop journaling; does
+	 * nothing if no journal is open
+	 * 
+	 * @throws IOException
+	 * 			  thrown if error occurs flushing the journal
+	 */
+	public void closeJournal()
+			throws IOException {
+		if (journal != null) {
+			GradeJournal closing = journal;
+			journal = null;
+			closing.close();
+		} // end if block
+	} // end method closeJournal
+	
+	/**
+	 * close any journal and give back the memory the grade matrix holds
+	 * outside the Java heap, if it is kept OFF_HEAP; this grade book must
+	 * not be used afterwards, though snapshots taken of it stay readable
+	 * 
+	 * @throws IOException
+	 * 			  thrown if error occurs flushing the journal
+	 */
+	@Override
+	public void close()
+			throws IOException {
+		try {
+			closeJournal();
+		} // end try block
+		finally {
+			grades.close();
+		} // end finally block
+	} // end method close
+	
+	/**
+	 * factory method to construct a MyGradebook from the journal written to
+	 * directory by openJournal, containing every change whose record
+	 * reached the disk intact; the recovered grade book is not journaled
+	 * until openJournal is called on it
+	 * 
+	 * @param directory
+	 *            the directory holding the journal
+	 * @return a MyGradebook rebuilt from the journal
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the journal
+	 */
+	public static MyGradeBook recover(Path directory)
+			throws IOException {
+		return GradeJournal.recover(directory);
+	} // end method recover
+
+	/**
+	 * start recording operation counters and latencies for this grade book;
+	 * until this is called, recording costs each operation one null check
+	 * 
+	 * @return the metrics being recorded, which are kept if metrics were
+	 *         already enabled
+	 */
+	public GradeBookMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new GradeBookMetrics(this);
+		} // end if block
+		return metrics;
+	} // end method enableMetrics
+
+	/**
+	 * start recording operation counters and latencies for this grade book
+	 * and publish them over JMX as gradebook:type=GradeBookMetrics,name=name
+	 * 
+	 * @param name
+	 *            name distinguishing this grade book from others in the
+	 *            same JVM
+	 * @return the metrics being recorded, which replace any metrics already
+	 *         being recorded
+	 * @throws IllegalArgumentException
+	 * 			  thrown if metrics are already registered under the name
+	 */
+	public GradeBookMetrics enableMetrics(String name)
+			throws IllegalArgumentException {
+		GradeBookMetrics m = new GradeBookMetrics(this);
+		m.register(name);
+		disableMetrics();
+		metrics = m;
+		return m;
+	} // end method enableMetrics
+
+	/**
+	 * stop recording operation metrics and withdraw them from JMX
+	 */
+	public void disableMetrics() {
+		if (metrics != null) {
+			metrics.unregister();
+			metrics = null;
+		} // end if block
+	} // end method disableMetrics
+
+	/**
+	 * start keeping a history of every grade change, so grades can be
+	 * looked up as they were at any time since, taking a checkpoint every
+	 * 65536 changes
+	 * 
+	 * @throws IllegalStateException
+	 * 			  thrown if history is already being kept
+	 */
+	public void enableHistory()
+			throws IllegalStateException {
+		enableHistory(65536);
+	} // end method enableHistory
+
+	/**
+	 * start keeping a history of every grade change, so grades can be
+	 * looked up as they were at any time since. Each change costs 24 bytes
+	 * of log; each checkpoint keeps a copy of the assignment columns written
+	 * since the one before, and bounds how many changes a lookup replays
+	 * 
+	 * @param checkpointInterval
+	 *            number of changes between checkpoints, at least 1
+	 * @throws IllegalArgumentException
+	 * 			  thrown if checkpointInterval is less than 1
+	 * @throws IllegalStateException
+	 * 			  thrown if history is already being kept
+	 */
+	public void enableHistory(int checkpointInterval)
+			throws IllegalArgumentException, IllegalStateException {
+		checkWritable();
+		if (checkpointInterval < 1) {
+			throw new IllegalArgumentException("Checkpoint interval too small");
+		} // end if block
+		if (history != null) {
+			throw new IllegalStateException("History already enabled");
+		} // end if block
+		history = new GradeHistory(shareGrades(), checkpointInterval);
+	} // end method enableHistory
+
+	/**
+	 * stop keeping a history of grade changes and discard the history kept
+	 * so far
+	 */
+	public void disableHistory() {
+		history = null;
+	} // end method disableHistory
+
+	/**
+	 * checks whether enough grade changes have been logged since the last
+	 * history checkpoint that another should be taken
+	 * 
+	 * @return whether a checkpoint is due
+	 */
+	boolean historyCheckpointDue() {
+		return history != null && history.checkpointDue();
+	} // end method historyCheckpointDue
+
+	/**
+	 * takes a history checkpoint of the grades as they are now; no grade
+	 * may change while it is taken
+	 */
+	void checkpointHistory() {
+		history.checkpoint(shareGrades());
+	} // end method checkpointHistory
+
+	/**
+	 * allows or forbids setGrade to take history checkpoints, and
+	 * mutations to compact the journal, themselves
+	 * 
+	 * @param inline
+	 *            whether no other thread can be changing grades
+	 */
+	void setInlineCheckpoints(boolean inline) {
+		inlineCheckpoints = inline;
+	} // end method setInlineCheckpoints
+
+	/**
+	 * accessor for the metrics being recorded
+	 * 
+	 * @return the metrics, or null if they are disabled
+	 */
+	public GradeBookMetrics metrics() {
+		return metrics;
+	} // end method metrics
+
+	/**
+	 * reads the clock for timing an operation, if metrics are enabled
+	 * 
+	 * @return the value of System.nanoTime(), or 0 when metrics are disabled
+	 */
+	private long startTimer() {
+		return metrics == null ? 0 : System.nanoTime();
+	} // end method startTimer
+
+	/**
+	 * records a completed call of an operation, if metrics are enabled
+	 * 
+	 * @param operation
+	 *            one of the GradeBookMetrics operation constants
+	 * @param start
+	 *            value returned by startTimer() when the call began
+	 */
+	private void stopTimer(int operation, long start) {
+		if (metrics != null) {
+			metrics.record(operation, start);
+		} // end if block
+	} // end method stopTimer
+	
+	/**
+	 * adds an assignment record to the gradebook with a 0 for every student
+	 * 
+	 * @param newAssignment assignment to add to the gradebook
+	 */
+	void addAssignment(Assignment newAssignment) {
+		checkWritable();
+		
+		// record the change before applying it, so it is not applied if
+		// the record cannot be written
+		if (journal != null) {
+			journal.logAddAssignment(newAssignment);
+		} // end if block
+		unshareStructure();
+		
+		// add assignment to list of assignments
+		assignments.add(newAssignment);
+		
+		// add map from assignment name to index
+		assignmentNameToIndex.put(
+				newAssignment.getName(),
+				assignments.size() - 1);
+		
+		// add assignment to grade lookup table with 0s for all grades
+		grades.addColumn();
+		assignmentStats.add(new AssignmentStats(grades.rowCount()));
+		assignmentRankings.add(null);
+		if (history != null) {
+			history.addColumn();
+		} // end if block
+		if (advisorGroups != null) {
+			advisorGroups.addColumn();
+			gradYearGroups.addColumn();
+		} // end if block
+		
+		// keep track of increasing total semester percentage
+		percentOfSemester += newAssignment.getPercentOfGrade();
+		compactJournalIfDue();
+	} // end method addAssignment
+	
+	/**
+	 * makes a student whose names are interned straight into this grade
+	 * book's dictionary, so adding them copies nothing
+	 * 
+	 * @param username username for student
+	 * @param firstName student first name
+	 * @param lastName student last name
+	 * @param advisor name of student's advisor
+	 * @param gradYear expected year of graduation
+	 * @return the student, ready for addStudent
+	 */
+	Student newStudent(String username, String firstName,
+			String lastName, String advisor, int gradYear) {
+		checkWritable();
+		unshareStructure();
+		return new Student(studentStrings,
+				username, firstName, lastName, advisor, gradYear);
+	} // end method newStudent
+	
+	/**
+	 * adds a student record to the gradebook
+	 * 
+	 * @param newStudent student to add to the gradebook
+	 * @return the student's row in the grade matrix
+	 */
+	int addStudent(Student newStudent) {
+		checkWritable();
+		
+		// record the change before applying it, so it is not applied if
+		// the record cannot be written
+		if (journal != null) {
+			journal.logAddStudent(newStudent);
+		} // end if block
+		unshareStructure();
+		unshareTotals();
+		
+		// move the student's names into this grade book's dictionary
+		if (newStudent.strings() != studentStrings) {
+			newStudent = new Student(studentStrings,
+					newStudent.getUsername(), newStudent.getFirstName(),
+					newStudent.getLastName(), newStudent.getAdvisor(),
+					newStudent.getGradYear());
+		} // end if block
+		int id = newStudent.usernameId();
+		if (id >= usernameRows.length) {
+			usernameRows = Arrays.copyOf(usernameRows,
+					Math.max(id + 1, usernameRows.length * 2));
+		} // end if block
+		
+		// add student entry to grade lookup table with 0s for all grades,
+		// reusing the existing row if the student is being replaced
+		int row = usernameRows[id] - 1;
+		if (row < 0) {
+			row = grades.addRow();
+			usernameRows[id] = row + 1;
+			studentRows.add(newStudent);
+			sortedRows = null;
+			for (int column = 0; column < assignmentStats.size(); ++column) {
+				unshareStats(column);
+				assignmentStats.get(column).add(0f);
+			} // end for loop
+			for (RankIndex ranking : assignmentRankings) {
+				if (ranking != null) {
+					ranking.insert(row, 0);
+				} // end if block
+			} // end for loop
+			if (row == weightedTotals.length) {
+				weightedTotals = Arrays.copyOf(weightedTotals, row * 2);
+			} // end if block
+			weightedTotals[row] = 0;
+			if (currentRanking != null) {
+				currentRanking.insert(row, 0);
+			} // end if block
+			if (history != null) {
+				history.addRow();
+			} // end if block
+		} // end if block
+		else {
+			studentRows.set(row, newStudent);
+			for (int column = 0; column < grades.columnCount(); ++column) {
+				setGrade(column, row, 0f);
+			} // end for loop
+			
+			// start from an exact 0 rather than the sum of the cleared deltas
+			double clearedTotal = weightedTotals[row];
+			weightedTotals[row] = 0;
+			if (currentRanking != null) {
+				currentRanking.update(row, 0);
+			} // end if block
+			if (advisorGroups != null) {
+				advisorGroups.changeTotal(row, clearedTotal, 0);
+				gradYearGroups.changeTotal(row, clearedTotal, 0);
+			} // end if block
+		} // end else block
+		
+		// file the student under their advisor and year, which may have
+		// changed if they are being replaced
+		if (advisorGroups != null) {
+			advisorGroups.put(row, newStudent.getAdvisor());
+			gradYearGroups.put(row, newStudent.getGradYear());
+		} // end if block
+		
+		compactJournalIfDue();
+		return row;
 	} // end method addStudent
 
 	/**
-	 * changes the assignment (named assignmentName) grade for student (whose
-	 * username is equal to username) to newGrade
+	 * changes the assignment (named assignmentName) grade for student (whose
+	 * username is equal to username) to newGrade
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param username
+	 *            username for the student
+	 * @param newGrade
+	 *            the new grade for the given assignment and student
+	 * @return whether there was a grade to change. Returns true if the given
+	 *         assignment/student combination exists and usernames 
+	 *         assignmentName grade is now newGrade, returns false otherwise
+	 */
+	public boolean changeGrade(String assignmentName,
+	        String username, double newGrade) {
+		// look up the grade matrix coordinates
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		int row = studentRow(username);
+		
+		// check that the assignment and student exist before changing
+		if (column == null || row < 0) {
+			if (metrics != null) {
+				metrics.rejectGradeChanges(1);
+			} // end if block
+			return false;
+		} // end if block
+		
+		long start = startTimer();
+		boolean changed = changeGrade(column, row, newGrade);
+		stopTimer(GradeBookMetrics.CHANGE_GRADE, start);
+		return changed;
+	} // end method changeGrade
+
+	/**
+	 * changes the grades of many students for one assignment, applying
+	 * every valid entry and skipping the rest
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param newGrades
+	 *            map from each student's username to their new grade
+	 * @return the usernames whose grades were not changed, because the
+	 *         student or assignment does not exist or the grade is out of
+	 *         range, in the iteration order of newGrades
+	 */
+	public List<String> changeGrades(String assignmentName,
+			Map<String, Double> newGrades) {
+		return changeGrades(assignmentName, newGrades, false);
+	} // end method changeGrades
+
+	/**
+	 * changes the grades of many students for one assignment; the
+	 * assignment is looked up and every entry is validated before any grade
+	 * is changed
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param newGrades
+	 *            map from each student's username to their new grade
+	 * @param allOrNothing
+	 *            whether to leave every grade unchanged if any entry is
+	 *            invalid, rather than applying the valid ones
+	 * @return the usernames whose entries were invalid, because the student
+	 *         or assignment does not exist or the grade is out of range, in
+	 *         the iteration order of newGrades
+	 */
+	public List<String> changeGrades(String assignmentName,
+			Map<String, Double> newGrades, boolean allOrNothing) {
+		// flatten the map into the parallel-array form
+		String[] usernames = new String[newGrades.size()];
+		double[] grades = new double[newGrades.size()];
+		int i = 0;
+		for (Map.Entry<String, Double> entry : newGrades.entrySet()) {
+			usernames[i] = entry.getKey();
+			grades[i] = entry.getValue();
+			++i;
+		} // end for loop
+		
+		return changeGrades(assignmentName, usernames, grades, allOrNothing);
+	} // end method changeGrades
+
+	/**
+	 * changes the grades of many students for one assignment, where
+	 * newGrades[i] is the new grade of usernames[i]; the assignment is looked
+	 * up and every entry is validated before any grade is changed, and a
+	 * username listed more than once ends up with its last grade
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param usernames
+	 *            usernames for the students
+	 * @param newGrades
+	 *            the new grades, at least as many as usernames
+	 * @param allOrNothing
+	 *            whether to leave every grade unchanged if any entry is
+	 *            invalid, rather than applying the valid ones
+	 * @return the usernames whose entries were invalid, because the student
+	 *         or assignment does not exist or the grade is out of range, in
+	 *         the order given
+	 * @throws IllegalArgumentException
+	 * 			  thrown when there are fewer grades than usernames
+	 */
+	public List<String> changeGrades(String assignmentName,
+			String[] usernames, double[] newGrades, boolean allOrNothing)
+			throws IllegalArgumentException {
+		long start = startTimer();
+		
+		// check that every username has a grade
+		if (newGrades.length < usernames.length) {
+			throw new IllegalArgumentException("Missing grades");
+		} // end if block
+		
+		// reject everything if the assignment does not exist
+		ArrayList<String> rejected = new ArrayList<String>();
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		if (column == null) {
+			rejected.addAll(Arrays.asList(usernames));
+			return finishBatch(start, rejected);
+		} // end if block
+		float totalPoints = assignments.get(column).getTotalPoints();
+		
+		// resolve and validate every entry before changing anything
+		int[] rows = new int[usernames.length];
+		for (int i = 0; i < usernames.length; ++i) {
+			int row = studentRow(usernames[i]);
+			if (row < 0 ||
+					!(newGrades[i] <= totalPoints && newGrades[i] >= 0)) {
+				rows[i] = -1;
+				rejected.add(usernames[i]);
+			} // end if block
+			else {
+				rows[i] = row;
+			} // end else block
+		} // end for loop
+		if (allOrNothing && !rejected.isEmpty()) {
+			return finishBatch(start, rejected);
+		} // end if block
+		
+		// apply the valid entries in order
+		for (int i = 0; i < usernames.length; ++i) {
+			if (rows[i] >= 0) {
+				changeGrade(column, rows[i], newGrades[i]);
+			} // end if block
+		} // end for loop
+		return finishBatch(start, rejected);
+	} // end method changeGrades
+
+	/**
+	 * changes the grades of one student for many assignments, applying
+	 * every valid entry and skipping the rest
+	 * 
+	 * @param username
+	 *            username for the student
+	 * @param newGrades
+	 *            map from each assignment's name to the new grade
+	 * @return the assignment names whose grades were not changed, because
+	 *         the student or assignment does not exist or the grade is out
+	 *         of range, in the iteration order of newGrades
+	 */
+	public List<String> changeStudentGrades(String username,
+			Map<String, Double> newGrades) {
+		return changeStudentGrades(username, newGrades, false);
+	} // end method changeStudentGrades
+
+	/**
+	 * changes the grades of one student for many assignments; the student
+	 * is looked up and every entry is validated before any grade is changed
+	 * 
+	 * @param username
+	 *            username for the student
+	 * @param newGrades
+	 *            map from each assignment's name to the new grade
+	 * @param allOrNothing
+	 *            whether to leave every grade unchanged if any entry is
+	 *            invalid, rather than applying the valid ones
+	 * @return the assignment names whose entries were invalid, because the
+	 *         student or assignment does not exist or the grade is out of
+	 *         range, in the iteration order of newGrades
+	 */
+	public List<String> changeStudentGrades(String username,
+			Map<String, Double> newGrades, boolean allOrNothing) {
+		// flatten the map into the parallel-array form
+		String[] assignmentNames = new String[newGrades.size()];
+		double[] grades = new double[newGrades.size()];
+		int i = 0;
+		for (Map.Entry<String, Double> entry : newGrades.entrySet()) {
+			assignmentNames[i] = entry.getKey();
+			grades[i] = entry.getValue();
+			++i;
+		} // end for loop
+		
+		return changeStudentGrades(username, assignmentNames, grades,
+				allOrNothing);
+	} // end method changeStudentGrades
+
+	/**
+	 * changes the grades of one student for many assignments, where
+	 * newGrades[i] is the new grade for assignmentNames[i]; the student is
+	 * looked up and every entry is validated before any grade is changed,
+	 * and an assignment listed more than once ends up with its last grade
+	 * 
+	 * @param username
+	 *            username for the student
+	 * @param assignmentNames
+	 *            names of the assignments
+	 * @param newGrades
+	 *            the new grades, at least as many as assignmentNames
+	 * @param allOrNothing
+	 *            whether to leave every grade unchanged if any entry is
+	 *            invalid, rather than applying the valid ones
+	 * @return the assignment names whose entries were invalid, because the
+	 *         student or assignment does not exist or the grade is out of
+	 *         range, in the order given
+	 * @throws IllegalArgumentException
+	 * 			  thrown when there are fewer grades than assignment names
+	 */
+	public List<String> changeStudentGrades(String username,
+			String[] assignmentNames, double[] newGrades, boolean allOrNothing)
+			throws IllegalArgumentException {
+		long start = startTimer();
+		
+		// check that every assignment has a grade
+		if (newGrades.length < assignmentNames.length) {
+			throw new IllegalArgumentException("Missing grades");
+		} // end if block
+		
+		// reject everything if the student does not exist
+		ArrayList<String> rejected = new ArrayList<String>();
+		int row = studentRow(username);
+		if (row < 0) {
+			rejected.addAll(Arrays.asList(assignmentNames));
+			return finishBatch(start, rejected);
+		} // end if block
+		
+		// resolve and validate every entry before changing anything
+		int[] columns = new int[assignmentNames.length];
+		for (int i = 0; i < assignmentNames.length; ++i) {
+			Integer column = assignmentNameToIndex.get(assignmentNames[i]);
+			if (column == null || !(newGrades[i] >= 0 && newGrades[i] <=
+					assignments.get(column).getTotalPoints())) {
+				columns[i] = -1;
+				rejected.add(assignmentNames[i]);
+			} // end if block
+			else {
+				columns[i] = column;
+			} // end else block
+		} // end for loop
+		if (allOrNothing && !rejected.isEmpty()) {
+			return finishBatch(start, rejected);
+		} // end if block
+		
+		// apply the valid entries in order
+		for (int i = 0; i < assignmentNames.length; ++i) {
+			if (columns[i] >= 0) {
+				changeGrade(columns[i], row, newGrades[i]);
+			} // end if block
+		} // end for loop
+		return finishBatch(start, rejected);
+	} // end method changeStudentGrades
+
+	/**
+	 * records a completed batch of grade changes, if metrics are enabled
+	 * 
+	 * @param start
+	 *            value returned by startTimer() when the batch began
+	 * @param rejected
+	 *            the entries of the batch which were not applied
+	 * @return rejected
+	 */
+	private List<String> finishBatch(long start, List<String> rejected) {
+		if (metrics != null) {
+			metrics.rejectGradeChanges(rejected.size());
+			metrics.record(GradeBookMetrics.CHANGE_GRADES, start);
+		} // end if block
+		return rejected;
+	} // end method finishBatch
+
+	/**
+	 * changes the grade in the given grade matrix cell to newGrade
+	 * 
+	 * @param column
+	 *            index of the assignment
+	 * @param row
+	 *            index of the student
+	 * @param newGrade
+	 *            the new grade for the given assignment and student
+	 * @return whether the grade was changed. Returns false if newGrade is
+	 *         out of range for the assignment
+	 */
+	boolean changeGrade(int column, int row, double newGrade) {
+		// make sure the new grade is valid
+		if (newGrade <= assignments.get(column).getTotalPoints() &&
+				newGrade >= 0) {
+			// record the change before applying it, so it is not applied
+			// if the record cannot be written
+			if (journal != null) {
+				journal.logChangeGrade(column, row, (float) newGrade);
+			} // end if block
+			
+			// assign new grade
+			setGrade(column, row, (float) newGrade);
+			compactJournalIfDue();
+			
+			// return true if new grade has been assigned
+			return true;
+		} // end if block
+		
+		// return false if the grade is out of range
+		if (metrics != null) {
+			metrics.rejectGradeChanges(1);
+		} // end if block
+		return false;
+	} // end method changeGrade
+
+	/**
+	 * stores a grade in the given grade matrix cell, keeping the column's
+	 * running aggregates and the student's weighted total up to date
+	 * 
+	 * @param column
+	 *            index of the assignment
+	 * @param row
+	 *            index of the student
+	 * @param newGrade
+	 *            the new grade for the given assignment and student
+	 */
+	private void setGrade(int column, int row, float newGrade) {
+		checkWritable();
+		
+		// copy whatever is shared with a snapshot before changing it
+		if (column < sharedColumns.length && sharedColumns[column]) {
+			grades.copyColumn(column);
+			sharedColumns[column] = false;
+		} // end if block
+		unshareStats(column);
+		unshareTotals();
+		
+		float oldGrade = grades.get(column, row);
+		grades.set(column, row, newGrade);
+		assignmentStats.get(column).replace(oldGrade, newGrade);
+		
+		// apply only the change in this assignment's weighted contribution
+		Assignment a = assignments.get(column);
+		double oldTotal = weightedTotals[row];
+		weightedTotals[row] += ((double) newGrade - oldGrade) *
+				a.getPercentOfGrade() / a.getTotalPoints();
+		
+		// move the student within whichever rankings have been built
+		RankIndex ranking = assignmentRankings.get(column);
+		if (ranking != null) {
+			ranking.update(row, newGrade);
+		} // end if block
+		if (currentRanking != null) {
+			// changes to different assignments may reach here at once when
+			// used through a ConcurrentGradeBook, and they all share this
+			synchronized (currentRanking) {
+				currentRanking.update(row, weightedTotals[row]);
+			} // end synchronized block
+		} // end if block
+		if (advisorGroups != null) {
+			advisorGroups.change(row, column, oldGrade, newGrade,
+					oldTotal, weightedTotals[row]);
+			gradYearGroups.change(row, column, oldGrade, newGrade,
+					oldTotal, weightedTotals[row]);
+		} // end if block
+		
+		// log the change, checkpointing once enough have built up
+		if (history != null && oldGrade != newGrade) {
+			history.record(column, row, oldGrade, newGrade);
+			if (inlineCheckpoints && history.checkpointDue()) {
+				checkpointHistory();
+			} // end if block
+		} // end if block
+	} // end method setGrade
+
+	/**
+	 * looks up the grade matrix column of an assignment
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @return the assignment's column, or -1 if there is no such assignment
+	 */
+	int assignmentColumn(String assignmentName) {
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		return column == null ? -1 : column;
+	} // end method assignmentColumn
+
+	/**
+	 * looks up the grade matrix row of a student
+	 * 
+	 * @param username
+	 *            username for the student
+	 * @return the student's row, or -1 if there is no such student
+	 */
+	int studentRow(String username) {
+		int id = studentStrings.find(username);
+		return id < 0 || id >= usernameRows.length ? -1 : usernameRows[id] - 1;
+	} // end method studentRow
+	
+	/**
+	 * lists the rows of the students in username order, sorting them the
+	 * first time they are needed after a student is added; synchronized
+	 * since reports run at once through a ConcurrentGradeBook
+	 * 
+	 * @return the rows, ordered by username
+	 */
+	synchronized int[] sortedRows() {
+		if (sortedRows == null) {
+			Integer[] rows = new Integer[studentRows.size()];
+			for (int row = 0; row < rows.length; ++row) {
+				rows[row] = row;
+			} // end for loop
+			Arrays.sort(rows, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return studentRows.get(a).getUsername().compareTo(
+							studentRows.get(b).getUsername());
+				} // end method compare
+			});
+			int[] sorted = new int[rows.length];
+			for (int i = 0; i < rows.length; ++i) {
+				sorted[i] = rows[i];
+			} // end for loop
+			sortedRows = sorted;
+		} // end if block
+		return sortedRows;
+	} // end method sortedRows
+
+	/**
+	 * accessor for the number of assignments
+	 * 
+	 * @return the number of assignments, which is also the number of columns
+	 *         in the grade matrix
+	 */
+	int assignmentCount() {
+		return assignments.size();
+	} // end method assignmentCount
+
+	/**
+	 * accessor for the number of students
+	 * 
+	 * @return the number of students, which is also the number of rows in
+	 *         the grade matrix
+	 */
+	int studentCount() {
+		return studentRows.size();
+	} // end method studentCount
+
+	/**
+	 * accessor for the username of a student
+	 * 
+	 * @param row
+	 *            the student's row in the grade matrix
+	 * @return the student's username
+	 */
+	String username(int row) {
+		return studentRows.get(row).getUsername();
+	} // end method username
+
+	/**
+	 * accessor for the running aggregates of an assignment's grades
+	 * 
+	 * @param column
+	 *            the assignment's column in the grade matrix
+	 * @return the aggregates, which must not be changed
+	 */
+	AssignmentStats statsOf(int column) {
+		return assignmentStats.get(column);
+	} // end method statsOf
+
+	/**
+	 * checks whether the ranking by current grade has been built
+	 * 
+	 * @return whether rank queries of current grades are ready to answer
+	 */
+	boolean hasCurrentRanking() {
+		return currentRanking != null;
+	} // end method hasCurrentRanking
+
+	/**
+	 * builds the ranking by current grade if it has not been built yet; no
+	 * grade may change while it is built
+	 * 
+	 * @return the ranking
+	 */
+	RankIndex currentRanking() {
+		if (currentRanking == null) {
+			RankIndex ranking = new RankIndex();
+			for (int row = 0; row < studentRows.size(); ++row) {
+				ranking.insert(row, weightedTotals[row]);
+			} // end for loop
+			currentRanking = ranking;
+		} // end if block
+		return currentRanking;
+	} // end method currentRanking
+
+	/**
+	 * checks whether the ranking by grade in an assignment has been built
+	 * 
+	 * @param column
+	 *            index of the assignment
+	 * @return whether rank queries of the assignment are ready to answer
+	 */
+	boolean hasAssignmentRanking(int column) {
+		return assignmentRankings.get(column) != null;
+	} // end method hasAssignmentRanking
+
+	/**
+	 * builds the ranking by grade in an assignment if it has not been built
+	 * yet; no grade of the assignment may change while it is built
+	 * 
+	 * @param column
+	 *            index of the assignment
+	 * @return the ranking
+	 */
+	RankIndex assignmentRanking(int column) {
+		RankIndex ranking = assignmentRankings.get(column);
+		if (ranking == null) {
+			ranking = new RankIndex();
+			for (int row = 0; row < studentRows.size(); ++row) {
+				ranking.insert(row, grades.get(column, row));
+			} // end for loop
+			assignmentRankings.set(column, ranking);
+		} // end if block
+		return ranking;
+	} // end method assignmentRanking
+
+	/**
+	 * checks whether the students have been grouped by advisor and year
+	 * 
+	 * @return whether group queries are ready to answer
+	 */
+	boolean hasStudentGroups() {
+		return advisorGroups != null;
+	} // end method hasStudentGroups
+
+	/**
+	 * groups the students by advisor and by year if that has not been done
+	 * yet; no student or grade may change while they are grouped
+	 */
+	void buildStudentGroups() {
+		if (advisorGroups != null) {
+			return;
+		} // end if block
+		
+		StudentGroups<String> byAdvisor =
+				new StudentGroups<String>(grades.columnCount());
+		StudentGroups<Integer> byGradYear =
+				new StudentGroups<Integer>(grades.columnCount());
+		for (int row = 0; row < studentRows.size(); ++row) {
+			Student s = studentRows.get(row);
+			byAdvisor.put(row, s.getAdvisor());
+			byGradYear.put(row, s.getGradYear());
+			
+			// fold the row's values into its groups as if changed from 0
+			for (int column = 0; column < grades.columnCount(); ++column) {
+				float grade = grades.get(column, row);
+				byAdvisor.change(row, column, 0f, grade, 0, 0);
+				byGradYear.change(row, column, 0f, grade, 0, 0);
+			} // end for loop
+			byAdvisor.changeTotal(row, 0, weightedTotals[row]);
+			byGradYear.changeTotal(row, 0, weightedTotals[row]);
+		} // end for loop
+		advisorGroups = byAdvisor;
+		gradYearGroups = byGradYear;
+	} // end method buildStudentGroups
+
+	/**
+	 * calculates the average across all students for a given assignment
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the average across all students for assignmentName
+	 */
+	public double average(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		long start = startTimer();
+		
+		// check that the assignment exists
+		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// the median is undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no average");
+		} // end if block
+
+		// divide the running total of the assignment grades by their count
+		AssignmentStats stats = assignmentStats.get(
+				assignmentNameToIndex.get(assignmentName));
+		double average = stats.sum() / stats.count();
+		stopTimer(GradeBookMetrics.AVERAGE, start);
+		return average;
+	} // end method average
+
+	/**
+	 * calculates the median across all students for a given assignment
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the median across all students for assignmentName
+	 */
+	public double median(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		long start = startTimer();
+		
+		// check that the assignment exists
+		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// the median is undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no median");
+		} // end if block
+
+		// select the middle grades from the assignment's order-statistic index
+		double median = assignmentStats.get(
+				assignmentNameToIndex.get(assignmentName)).median();
+		stopTimer(GradeBookMetrics.MEDIAN, start);
+		return median;
+	} // end method median
+
+	/**
+	 * calculates a percentile across all students for a given assignment,
+	 * interpolating linearly between the two closest grades
 	 * 
 	 * @param assignmentName
 	 *            name of the assignment
-	 * @param username
-	 *            username for the student
-	 * @param newGrade
-	 *            the new grade for the given assignment and student
-	 * @return whether there was a grade to change. Returns true if the given
-	 *         assignment/student combination exists and usernames 
-	 *         assignmentName grade is now newGrade, returns false otherwise
+	 * @param percent
+	 *            percentile to calculate, from 0 to 100; 50 gives the median
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or percent is out of range
+	 * @return the given percentile across all students for assignmentName
 	 */
-	public boolean changeGrade(String assignmentName,
-	        String username, double newGrade) {
+	public double percentile(String assignmentName, double percent)
+			throws IllegalArgumentException, ArithmeticException {
+		long start = startTimer();
+		
 		// check that the assignment exists
-		if (assignmentNameToIndex.containsKey(assignmentName)) {
-			// cache the assignment object for clarity of code
-			Assignment a = assignments.get(assignmentNameToIndex.get(assignmentName));
-			
-			// check if the student exists and make sure the new grade is valid
-			if (grades.get(assignmentName).containsKey(username) &&
-					newGrade <= a.getTotalPoints() && newGrade >= 0) {
-				// assign new grade
-				grades.get(assignmentName).put(username, (float) newGrade);
-				
-				// return true if new grade has been assigned
-				return true;
-			} // end if block
+		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// check that the percentile is meaningful
+		if (!(percent >= 0 && percent <= 100)) {
+			throw new IllegalArgumentException("Percentile out of range");
 		} // end if block
+		// percentiles are undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no percentile");
+		} // end if block
+
+		// select the nearest grades from the assignment's order-statistic index
+		double grade = assignmentStats.get(
+				assignmentNameToIndex.get(assignmentName)).percentile(percent);
+		stopTimer(GradeBookMetrics.PERCENTILE, start);
+		return grade;
+	} // end method percentile
+
+	/**
+	 * calculates several percentiles across all students for a given
+	 * assignment, each interpolated the same way as percentile; the grades
+	 * are sorted once and the sorted copy is reused by later calls until a
+	 * grade of the assignment changes
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param percents
+	 *            percentiles to calculate, each from 0 to 100
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or a percentile is out of range
+	 * @return the grade at each percentile, in the order given
+	 */
+	public double[] percentiles(String assignmentName, double... percents)
+			throws IllegalArgumentException, ArithmeticException {
+		long start = startTimer();
 		
-		// return false if any of the conditions failed
-		return false;
-	} // end method changeGrade
+		// check that the assignment exists
+		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// check that every percentile is meaningful
+		for (double percent : percents) {
+			if (!(percent >= 0 && percent <= 100)) {
+				throw new IllegalArgumentException("Percentile out of range");
+			} // end if block
+		} // end for loop
+		// percentiles are undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no percentile");
+		} // end if block
+
+		// interpolate every percentile from one sorted copy of the grades
+		double[] grades = assignmentStats.get(
+				assignmentNameToIndex.get(assignmentName)).percentiles(percents);
+		stopTimer(GradeBookMetrics.PERCENTILES, start);
+		return grades;
+	} // end method percentiles
 
 	/**
-	 * calculates the average across all students for a given assignment
+	 * calculates the interquartile range across all students for a given
+	 * assignment
 	 * 
 	 * @param assignmentName
 	 *            name of the assignment
 	 * @throws IllegalArgumentException
 	 * 			  thrown when parameter does not match an existing assignment
-	 * @return the average across all students for assignmentName
+	 * @return the 75th percentile minus the 25th percentile for
+	 *         assignmentName
 	 */
-	public double average(String assignmentName)
+	public double interquartileRange(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		double[] quartiles = percentiles(assignmentName, 25, 75);
+		return quartiles[1] - quartiles[0];
+	} // end method interquartileRange
+
+	/**
+	 * calculates the population standard deviation across all students for
+	 * a given assignment; it is computed from the same sorted copy of the
+	 * grades as percentiles, so it is only recomputed after a grade of the
+	 * assignment changes
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the standard deviation across all students for assignmentName
+	 */
+	public double standardDeviation(String assignmentName)
 			throws IllegalArgumentException, ArithmeticException {
+		long start = startTimer();
+		
 		// check that the assignment exists
 		if (!assignmentNameToIndex.containsKey(assignmentName)) {
 			throw new IllegalArgumentException("Assignment not found");
 		} // end if block
-		// the median is undefined for empty lists
-		if (students.size() == 0) {
-			throw new ArithmeticException("Empty list has no average");
+		// the standard deviation is undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no deviation");
 		} // end if block
 
-		// iterate through the assignment grades, accumulating a total
-		float total = 0;
-		HashMap<String, Float> gradesForAssignment = grades.get(assignmentName);
-		for (Float grade : gradesForAssignment.values()) {
-			total += grade;
-		} // end for loop
+		double deviation = assignmentStats.get(
+				assignmentNameToIndex.get(assignmentName)).standardDeviation();
+		stopTimer(GradeBookMetrics.STANDARD_DEVIATION, start);
+		return deviation;
+	} // end method standardDeviation
+
+	/**
+	 * counts how many students' grades for a given assignment fall in each
+	 * of a number of equal-width ranges from 0 to the assignment's total
+	 * points; each range includes its lower bound, and the last range also
+	 * includes the total points
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param buckets
+	 *            number of ranges, at least 1
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or buckets is less than 1
+	 * @return the number of grades in each range, lowest range first
+	 */
+	public int[] distribution(String assignmentName, int buckets)
+			throws IllegalArgumentException {
+		long start = startTimer();
 		
-		// return the average of all grades
-		return total / gradesForAssignment.size();
-	} // end method average
+		// check that the assignment exists
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		if (column == null) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// check that there is at least one range
+		if (buckets < 1) {
+			throw new IllegalArgumentException("Too few buckets");
+		} // end if block
+
+		// count each range by searching the sorted grades for its bounds
+		int[] counts = assignmentStats.get(column).distribution(
+				assignments.get(column).getTotalPoints(), buckets);
+		stopTimer(GradeBookMetrics.DISTRIBUTION, start);
+		return counts;
+	} // end method distribution
 
 	/**
-	 * calculates the median across all students for a given assignment
+	 * calculates the min across all students for a given assignment
 	 * 
 	 * @param assignmentName
 	 *            name of the assignment
 	 * @throws IllegalArgumentException
 	 * 			  thrown when parameter does not match an existing assignment
-	 * @return the median across all students for assignmentName
+	 * @return the min across all students for assignmentName
 	 */
-	public double median(String assignmentName)
+	public double min(String assignmentName)
 			throws IllegalArgumentException, ArithmeticException {
+		long start = startTimer();
+		
 		// check that the assignment exists
 		if (!assignmentNameToIndex.containsKey(assignmentName)) {
 			throw new IllegalArgumentException("Assignment not found");
 		} // end if block
-		// the median is undefined for empty lists
-		if (students.size() == 0) {
-			throw new ArithmeticException("Empty list has no median");
+		// the minimum is undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no minimum");
 		} // end if block
 
-		// iterate through the assignment grades, accumulating building an
-		// array of grades to be sorted
-		HashMap<String, Float> gradesForAssignment = grades.get(assignmentName);
-		float[] pointsOnAssignment = new float[gradesForAssignment.size()];
-		int i = 0;
-		for (Float grade : gradesForAssignment.values()) {
-			pointsOnAssignment[i] = grade;
+		// return the running minimum of all grades
+		double min = assignmentStats.get(
+				assignmentNameToIndex.get(assignmentName)).min();
+		stopTimer(GradeBookMetrics.MIN, start);
+		return min;
+	} // end method min
+
+	/**
+	 * calculates the max across all students for a given assignment
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the max across all students for assignmentName
+	 */
+	public double max(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		long start = startTimer();
+		
+		// check that the assignment exists
+		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// the maximum is undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no maximum");
+		} // end if block
+
+		// return the running maximum of all grades
+		double max = assignmentStats.get(
+				assignmentNameToIndex.get(assignmentName)).max();
+		stopTimer(GradeBookMetrics.MAX, start);
+		return max;
+	} // end method max
+
+	/**
+	 * calculates the current grade for the given student
+	 * 
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @return the current grade for student with username. The current grade is
+	 *         calculated based on the current assignment grades, assignment
+	 *         total points, assignment percent of semester. The current grade
+	 *         for a student is the sum of the relative assignment grades
+	 *         divided by the current percent of semester time 100. Since all
+	 *         grades may not currently be entered, we have to divide by the
+	 *         current percent. The relative assignment grade is the student's
+	 *         assignment grade divide by total point value for the assignment
+	 *         times the percent of semester.
+	 */
+	public double currentGrade(String username)
+			throws IllegalArgumentException {
+		long start = startTimer();
+		
+		// check that the student exists
+		int row = studentRow(username);
+		if (row < 0) {
+			throw new IllegalArgumentException("Student not found");
+		} // end if block
+
+		// return the average of all grades from the running weighted total
+		double grade = weightedTotals[row] * 100 / currentGradeDivisor();
+		stopTimer(GradeBookMetrics.CURRENT_GRADE, start);
+		return grade;
+	} // end method currentGrade
+
+	/**
+	 * calculates the current grade the given student had at a past time,
+	 * from the history of grade changes; the grade is calculated as
+	 * currentGrade would have then, over the assignments which had been
+	 * added by then
+	 * 
+	 * @param username
+	 *            username for the student
+	 * @param asOf
+	 *            the time, at millisecond resolution; changes made during
+	 *            that millisecond are included
+	 * @throws IllegalArgumentException
+	 * 			  thrown when username does not match a student who existed
+	 * 			  at asOf, or asOf is before history was enabled
+	 * @throws IllegalStateException
+	 * 			  thrown if history is not being kept
+	 * @return the current grade for student with username as of asOf
+	 */
+	public double currentGrade(String username, Instant asOf)
+			throws IllegalArgumentException, IllegalStateException {
+		long start = startTimer();
+		
+		// check that there is a history to consult
+		if (history == null) {
+			throw new IllegalStateException("History not enabled");
+		} // end if block
+		// check that the student exists
+		int row = studentRow(username);
+		if (row < 0) {
+			throw new IllegalArgumentException("Student not found");
+		} // end if block
+
+		// weight the grades of every assignment which existed then
+		float[] rowGrades = history.rowGrades(row, asOf.toEpochMilli());
+		double weightedTotal = 0;
+		double percent = 0;
+		for (int column = 0; column < rowGrades.length; ++column) {
+			Assignment a = assignments.get(column);
+			weightedTotal += (double) rowGrades[column] *
+					a.getPercentOfGrade() / a.getTotalPoints();
+			percent += a.getPercentOfGrade();
+		} // end for loop
+		double grade = weightedTotal * 100 / (rowGrades.length * percent);
+		stopTimer(GradeBookMetrics.CURRENT_GRADE, start);
+		return grade;
+	} // end method currentGrade
+
+	/**
+	 * calculates the divisor converting a weighted total into a current grade
+	 * 
+	 * @return the current percent of semester times the number of assignments
+	 */
+	private double currentGradeDivisor() {
+		return (double) assignmentNameToIndex.size() * percentOfSemester;
+	} // end method currentGradeDivisor
+
+	/**
+	 * calculates the current grade for all students
+	 * 
+	 * @return HashMap of the current grades for all students. The key of the
+	 *         HashMap is the username of the student. The value is the current
+	 *         grade for the associated student. The current grade is calculated
+	 *         based on the current assignment grades, assignment total points,
+	 *         assignment percent of semester. The current grade for a student
+	 *         is the sum of the relative assignment grades divided by the
+	 *         current percent of semester time 100. Since all grades may not
+	 *         currently be entered, we have to divide by the current percent.
+	 *         The relative assignment grade is the student's assignment grade
+	 *         divide by total point value for the assignment times the percent
+	 *         of semester.
+	 */
+	public HashMap<String, Double> currentGrades() {
+		long start = startTimer();
+		
+		// create a map relating students to their current grades
+		HashMap<String, Double> currentGrades = new HashMap<String, Double>(
+				studentRows.size() * 4 / 3 + 1);
+		
+		// iterate through users, storing their current grades
+		double divisor = currentGradeDivisor();
+		for (int row = 0; row < studentRows.size(); ++row) {
+			currentGrades.put(
+					studentRows.get(row).getUsername(),
+					weightedTotals[row] * 100 / divisor);
+		} // end for loop
+		
+		// return the built-up map of current grades
+		stopTimer(GradeBookMetrics.CURRENT_GRADES, start);
+		return currentGrades;
+	} // end method currentGrades()
+
+	/**
+	 * calculates the current grade for all students, splitting the roster
+	 * into chunks which are computed on the common ForkJoinPool
+	 * 
+	 * @return HashMap of the current grades for all students, the same as
+	 *         currentGrades()
+	 * @throws InterruptedException
+	 * 			  thrown if interrupted while waiting for the chunks
+	 */
+	public HashMap<String, Double> currentGradesInParallel()
+			throws InterruptedException {
+		return currentGradesInParallel(ForkJoinPool.commonPool(),
+				ForkJoinPool.getCommonPoolParallelism());
+	} // end method currentGradesInParallel
+
+	/**
+	 * calculates the current grade for all students, splitting the roster
+	 * into chunks which are computed on the given executor
+	 * 
+	 * @param executor
+	 *            executor on which to compute the chunks
+	 * @param parallelism
+	 *            number of threads expected to work on the chunks
+	 * @return HashMap of the current grades for all students, the same as
+	 *         currentGrades()
+	 * @throws InterruptedException
+	 * 			  thrown if interrupted while waiting for the chunks
+	 */
+	public HashMap<String, Double> currentGradesInParallel(
+			ExecutorService executor, int parallelism)
+			throws InterruptedException {
+		long start = startTimer();
+		
+		// cut the rows into a few chunks per thread to even out the load
+		final int size = studentRows.size();
+		final double divisor = currentGradeDivisor();
+		int chunkCount = Math.max(1, Math.min(size, parallelism * 4));
+		List<Callable<HashMap<String, Double>>> chunks =
+				new ArrayList<Callable<HashMap<String, Double>>>(chunkCount);
+		for (int i = 0; i < chunkCount; ++i) {
+			final int from = (int) ((long) size * i / chunkCount);
+			final int to = (int) ((long) size * (i + 1) / chunkCount);
+			
+			// each chunk fills a map of its own, so workers never share state
+			chunks.add(new Callable<HashMap<String, Double>>() {
+				@Override
+				public HashMap<String, Double> call() {
+					HashMap<String, Double> chunk =
+							new HashMap<String, Double>((to - from) * 4 / 3 + 1);
+					for (int row = from; row < to; ++row) {
+						chunk.put(
+								studentRows.get(row).getUsername(),
+								weightedTotals[row] * 100 / divisor);
+					} // end for loop
+					return chunk;
+				} // end method call
+			});
 		} // end for loop
 		
-		// sort list of grades
-		Arrays.sort(pointsOnAssignment);
-		// cache list size for reuse
-		int size = pointsOnAssignment.length;
+		// merge the finished chunks into one presized map
+		HashMap<String, Double> currentGrades =
+				new HashMap<String, Double>(size * 4 / 3 + 1);
+		try {
+			for (Future<HashMap<String, Double>> chunk : executor.invokeAll(chunks)) {
+				currentGrades.putAll(chunk.get());
+			} // end for loop
+		} // end try block
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} // end catch block
+		
+		// return the merged map of current grades
+		stopTimer(GradeBookMetrics.CURRENT_GRADES, start);
+		return currentGrades;
+	} // end method currentGradesInParallel
+
+	/**
+	 * finds the class rank of the given student by current grade; the
+	 * first call builds a ranking of every student, which is then moved
+	 * along with each grade change so later calls take logarithmic time
+	 * 
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @return 1 plus the number of students with a strictly higher current
+	 *         grade, so students with equal grades share a rank
+	 */
+	public int rankOf(String username)
+			throws IllegalArgumentException {
+		long start = startTimer();
 		
-		// if the list has an odd number of elements, return the middle value
-		if (size % 2 == 1) {
-			return pointsOnAssignment[size / 2];
+		// check that the student exists
+		int row = studentRow(username);
+		if (row < 0) {
+			throw new IllegalArgumentException("Student not found");
 		} // end if block
-		// otherwise, return the average of the two middle values
-		else {
-			return (pointsOnAssignment[size / 2 - 1] + pointsOnAssignment[size / 2]) / 2; 
-		} // end else block
-	} // end method median
+
+		RankIndex ranking = currentRanking();
+		int rank;
+		synchronized (ranking) {
+			rank = ranking.rank(row, 100, currentGradeDivisor());
+		} // end synchronized block
+		stopTimer(GradeBookMetrics.RANK_OF, start);
+		return rank;
+	} // end method rankOf
+
+	/**
+	 * lists the students with the highest current grades, from the ranking
+	 * kept by rankOf
+	 * 
+	 * @param k
+	 *            number of students wanted
+	 * @throws IllegalArgumentException
+	 * 			  thrown when k is negative
+	 * @return LinkedHashMap from the username of each of the k best students,
+	 *         or every student if there are fewer, to their current grade,
+	 *         iterating from the highest grade down; students with equal
+	 *         grades are listed in the order they were added
+	 */
+	public LinkedHashMap<String, Double> topK(int k)
+			throws IllegalArgumentException {
+		long start = startTimer();
+		
+		// check that the count is meaningful
+		if (k < 0) {
+			throw new IllegalArgumentException("Negative count");
+		} // end if block
+
+		LinkedHashMap<String, Double> top;
+		RankIndex ranking = currentRanking();
+		synchronized (ranking) {
+			top = rankedGrades(ranking, ranking.highest(k), 100,
+					currentGradeDivisor());
+		} // end synchronized block
+		stopTimer(GradeBookMetrics.TOP_K, start);
+		return top;
+	} // end method topK
+
+	/**
+	 * lists the students with the lowest current grades, from the ranking
+	 * kept by rankOf
+	 * 
+	 * @param k
+	 *            number of students wanted
+	 * @throws IllegalArgumentException
+	 * 			  thrown when k is negative
+	 * @return LinkedHashMap from the username of each of the k worst
+	 *         students, or every student if there are fewer, to their
+	 *         current grade, iterating from the lowest grade up; this is the
+	 *         reverse of the order of topK, so students with equal grades are
+	 *         listed latest added first
+	 */
+	public LinkedHashMap<String, Double> bottomK(int k)
+			throws IllegalArgumentException {
+		long start = startTimer();
+		
+		// check that the count is meaningful
+		if (k < 0) {
+			throw new IllegalArgumentException("Negative count");
+		} // end if block
+
+		LinkedHashMap<String, Double> bottom;
+		RankIndex ranking = currentRanking();
+		synchronized (ranking) {
+			bottom = rankedGrades(ranking, ranking.lowest(k), 100,
+					currentGradeDivisor());
+		} // end synchronized block
+		stopTimer(GradeBookMetrics.TOP_K, start);
+		return bottom;
+	} // end method bottomK
+
+	/**
+	 * lists the students with the highest grades in the given assignment;
+	 * the first call for an assignment builds a ranking of its grades,
+	 * which is then moved along with each grade change
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param k
+	 *            number of students wanted
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or k is negative
+	 * @return LinkedHashMap from the username of each of the k best students,
+	 *         or every student if there are fewer, to their grade in
+	 *         assignmentName, iterating from the highest grade down;
+	 *         students with equal grades are listed in the order they were
+	 *         added
+	 */
+	public LinkedHashMap<String, Double> topK(String assignmentName, int k)
+			throws IllegalArgumentException {
+		long start = startTimer();
+		
+		// check that the assignment exists
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		if (column == null) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// check that the count is meaningful
+		if (k < 0) {
+			throw new IllegalArgumentException("Negative count");
+		} // end if block
+
+		RankIndex ranking = assignmentRanking(column);
+		LinkedHashMap<String, Double> top =
+				rankedGrades(ranking, ranking.highest(k), 1, 1);
+		stopTimer(GradeBookMetrics.TOP_K, start);
+		return top;
+	} // end method topK
+
+	/**
+	 * calculates the count, mean, min and max of the current grades of each
+	 * advisor's students; the first group query groups every student, and
+	 * the aggregates of each group are then kept up to date with each
+	 * change, so later calls take time in the number of groups
+	 * 
+	 * @return TreeMap from each advisor to the statistics of their
+	 *         students' current grades
+	 */
+	public TreeMap<String, GroupStatistics> currentGradesByAdvisor() {
+		long start = startTimer();
+		buildStudentGroups();
+		TreeMap<String, GroupStatistics> statistics =
+				advisorGroups.totalStatistics(weightedTotalValues(), 100,
+						currentGradeDivisor());
+		stopTimer(GradeBookMetrics.GROUP_STATISTICS, start);
+		return statistics;
+	} // end method currentGradesByAdvisor
 
 	/**
-	 * calculates the min across all students for a given assignment
+	 * calculates the count, mean, min and max of the current grades of the
+	 * students expected to graduate in each year, the same way as
+	 * currentGradesByAdvisor
+	 * 
+	 * @return TreeMap from each expected graduation year to the statistics
+	 *         of its students' current grades
+	 */
+	public TreeMap<Integer, GroupStatistics> currentGradesByGradYear() {
+		long start = startTimer();
+		buildStudentGroups();
+		TreeMap<Integer, GroupStatistics> statistics =
+				gradYearGroups.totalStatistics(weightedTotalValues(), 100,
+						currentGradeDivisor());
+		stopTimer(GradeBookMetrics.GROUP_STATISTICS, start);
+		return statistics;
+	} // end method currentGradesByGradYear
+
+	/**
+	 * calculates the count, mean, min and max of each advisor's students'
+	 * grades in the given assignment, the same way as
+	 * currentGradesByAdvisor
 	 * 
 	 * @param assignmentName
 	 *            name of the assignment
 	 * @throws IllegalArgumentException
 	 * 			  thrown when parameter does not match an existing assignment
-	 * @return the min across all students for assignmentName
+	 * @return TreeMap from each advisor to the statistics of their
+	 *         students' grades in assignmentName
 	 */
-	public double min(String assignmentName)
-			throws IllegalArgumentException, ArithmeticException {
+	public TreeMap<String, GroupStatistics> assignmentGradesByAdvisor(
+			String assignmentName) throws IllegalArgumentException {
+		long start = startTimer();
+		
 		// check that the assignment exists
-		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		if (column == null) {
 			throw new IllegalArgumentException("Assignment not found");
 		} // end if block
-		// the minimum is undefined for empty lists
-		if (students.size() == 0) {
-			throw new ArithmeticException("Empty list has no minimum");
-		} // end if block
 
-		// iterate through the assignment grades, keeping track of the smallest
-		// value
-		HashMap<String, Float> gradesForAssignment = grades.get(assignmentName);
-		float min = Float.MAX_VALUE;
-		for (Float grade : gradesForAssignment.values()) {			
-			// store the current value if it is less than the current minimum
-			min = Math.min(min, grade);
-		} // end for loop
-		
-		// return the minimum of all grades
-		return min;
-	} // end method min
+		buildStudentGroups();
+		TreeMap<String, GroupStatistics> statistics =
+				advisorGroups.columnStatistics(column, gradeValues(column));
+		stopTimer(GradeBookMetrics.GROUP_STATISTICS, start);
+		return statistics;
+	} // end method assignmentGradesByAdvisor
 
 	/**
-	 * calculates the max across all students for a given assignment
+	 * calculates the count, mean, min and max of the grades in the given
+	 * assignment of the students expected to graduate in each year, the
+	 * same way as currentGradesByAdvisor
 	 * 
 	 * @param assignmentName
 	 *            name of the assignment
 	 * @throws IllegalArgumentException
 	 * 			  thrown when parameter does not match an existing assignment
-	 * @return the max across all students for assignmentName
+	 * @return TreeMap from each expected graduation year to the statistics
+	 *         of its students' grades in assignmentName
 	 */
-	public double max(String assignmentName)
-			throws IllegalArgumentException, ArithmeticException {
+	public TreeMap<Integer, GroupStatistics> assignmentGradesByGradYear(
+			String assignmentName) throws IllegalArgumentException {
+		long start = startTimer();
+		
 		// check that the assignment exists
-		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		if (column == null) {
 			throw new IllegalArgumentException("Assignment not found");
 		} // end if block
-		// the maximum is undefined for empty lists
-		if (students.size() == 0) {
-			throw new ArithmeticException("Empty list has no maximum");
-		} // end if block
 
-		// iterate through the assignment grades, keeping track of the largest
-		// value
-		HashMap<String, Float> gradesForAssignment = grades.get(assignmentName);
-		float max = Float.MIN_NORMAL;
-		for (Float grade : gradesForAssignment.values()) {			
-			// store the current value if it is more than the current maximum
-			max = Math.max(max, grade);
-		} // end for loop
-		
-		// return the maximum of all grades
-		return max;
-	} // end method max
+		buildStudentGroups();
+		TreeMap<Integer, GroupStatistics> statistics =
+				gradYearGroups.columnStatistics(column, gradeValues(column));
+		stopTimer(GradeBookMetrics.GROUP_STATISTICS, start);
+		return statistics;
+	} // end method assignmentGradesByGradYear
 
 	/**
-	 * calculates the current grade for the given student
+	 * lists the students of the given advisor from the advisor index
 	 * 
-	 * @param username
-	 *            username for the student
-	 * @throws IllegalArgumentException
-	 * 			  thrown when parameter does not match an existing student
-	 * @return the current grade for student with username. The current grade is
-	 *         calculated based on the current assignment grades, assignment
-	 *         total points, assignment percent of semester. The current grade
-	 *         for a student is the sum of the relative assignment grades
-	 *         divided by the current percent of semester time 100. Since all
-	 *         grades may not currently be entered, we have to divide by the
-	 *         current percent. The relative assignment grade is the student's
-	 *         assignment grade divide by total point value for the assignment
-	 *         times the percent of semester.
+	 * @param advisor
+	 *            name of the advisor
+	 * @return the usernames of the advisor's students in alphabetical order,
+	 *         empty if there are none
 	 */
-	public double currentGrade(String username)
-			throws IllegalArgumentException {
-		// check that the student exists
-		if (!students.containsKey(username)) {
-			throw new IllegalArgumentException("Student not found");
-		} // end if block
+	public List<String> studentsOfAdvisor(String advisor) {
+		long start = startTimer();
+		buildStudentGroups();
+		List<String> usernames = usernamesOf(advisorGroups.rows(advisor));
+		stopTimer(GradeBookMetrics.GROUP_MEMBERS, start);
+		return usernames;
+	} // end method studentsOfAdvisor
 
-		// iterate through the assignments, accumulating a total
-		float total = 0;
-		for (Assignment a : assignments) {
-			float relativeGrade =
-					grades.get(a.getName()).get(username) / a.getTotalPoints();
-			total += a.getPercentOfGrade() * relativeGrade;					
+	/**
+	 * lists the students expected to graduate in the given year from the
+	 * graduation year index
+	 * 
+	 * @param gradYear
+	 *            expected graduation year
+	 * @return the usernames of the year's students in alphabetical order,
+	 *         empty if there are none
+	 */
+	public List<String> studentsOfGradYear(int gradYear) {
+		long start = startTimer();
+		buildStudentGroups();
+		List<String> usernames = usernamesOf(gradYearGroups.rows(gradYear));
+		stopTimer(GradeBookMetrics.GROUP_MEMBERS, start);
+		return usernames;
+	} // end method studentsOfGradYear
+
+	/**
+	 * looks up the usernames of rows
+	 * 
+	 * @param rows
+	 *            indexes of the students
+	 * @return the usernames in alphabetical order
+	 */
+	private List<String> usernamesOf(int[] rows) {
+		String[] usernames = new String[rows.length];
+		for (int i = 0; i < rows.length; ++i) {
+			usernames[i] = studentRows.get(rows[i]).getUsername();
 		} // end for loop
-		
-		// return the average of all grades
-		return total * 100 / (grades.size() * percentOfSemester);
-	} // end method currentGrade
+		Arrays.sort(usernames);
+		return Arrays.asList(usernames);
+	} // end method usernamesOf
 
 	/**
-	 * calculates the current grade for all students
+	 * provides the weighted total of each row, for groups to rescan
 	 * 
-	 * @return HashMap of the current grades for all students. The key of the
-	 *         HashMap is the username of the student. The value is the current
-	 *         grade for the associated student. The current grade is calculated
-	 *         based on the current assignment grades, assignment total points,
-	 *         assignment percent of semester. The current grade for a student
-	 *         is the sum of the relative assignment grades divided by the
-	 *         current percent of semester time 100. Since all grades may not
-	 *         currently be entered, we have to divide by the current percent.
-	 *         The relative assignment grade is the student's assignment grade
-	 *         divide by total point value for the assignment times the percent
-	 *         of semester.
+	 * @return the weighted totals as row values
 	 */
-	public HashMap<String, Double> currentGrades() {
-		// create a map relating students to their current grades
-		HashMap<String, Double> currentGrades = new HashMap<String, Double>();
-		
-		// iterate through users, storing their current grades
-		for (String username : students.keySet()) {
-			currentGrades.put(username, currentGrade(username));
+	private StudentGroups.RowValues weightedTotalValues() {
+		return new StudentGroups.RowValues() {
+			@Override
+			double of(int row) {
+				return weightedTotals[row];
+			} // end method of
+		};
+	} // end method weightedTotalValues
+
+	/**
+	 * provides each row's grade in an assignment, for groups to rescan
+	 * 
+	 * @param column
+	 *            index of the assignment
+	 * @return the column's grades as row values
+	 */
+	private StudentGroups.RowValues gradeValues(final int column) {
+		return new StudentGroups.RowValues() {
+			@Override
+			double of(int row) {
+				return grades.get(column, row);
+			} // end method of
+		};
+	} // end method gradeValues
+
+	/**
+	 * maps the usernames of ranked rows to their scores, in the given order
+	 * 
+	 * @param ranking
+	 *            ranking the rows were listed from
+	 * @param rows
+	 *            the rows, in the order to iterate them
+	 * @param scale
+	 *            factor to multiply each score by
+	 * @param divisor
+	 *            number to divide each scaled score by
+	 * @return LinkedHashMap from each row's username to its score times
+	 *         scale divided by divisor
+	 */
+	private LinkedHashMap<String, Double> rankedGrades(RankIndex ranking,
+			int[] rows, double scale, double divisor) {
+		LinkedHashMap<String, Double> ranked =
+				new LinkedHashMap<String, Double>(rows.length * 4 / 3 + 1);
+		for (int row : rows) {
+			ranked.put(studentRows.get(row).getUsername(),
+					ranking.score(row) * scale / divisor);
 		} // end for loop
-		
-		// return the built-up map of current grades
-		return currentGrades;
-	} // end method currentGrades()
+		return ranked;
+	} // end method rankedGrades
 
 	/**
 	 * provides the grade earned by the given student for the given assignment
@@ -570,16 +2964,66 @@ public class MyGradeBook {
 	 */
 	public double assignmentGrade(String assignmentName, String username)
 			throws IllegalArgumentException {
+		long start = startTimer();
+		
 		// check that the assignment exists
-		if (!assignmentNameToIndex.containsKey(assignmentName)) {
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		if (column == null) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// check that the student exists
+		int row = studentRow(username);
+		if (row < 0) {
+			throw new IllegalArgumentException("Student not found");
+		} // end if block
+		
+		double grade = grades.get(column, row);
+		stopTimer(GradeBookMetrics.ASSIGNMENT_GRADE, start);
+		return grade;
+	} // end method assignmentGrade
+
+	/**
+	 * provides the grade the given student had for the given assignment at
+	 * a past time, from the history of grade changes
+	 * 
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param username
+	 *            username for the student
+	 * @param asOf
+	 *            the time, at millisecond resolution; changes made during
+	 *            that millisecond are included
+	 * @throws IllegalArgumentException
+	 * 			  thrown when the parameters do not match an assignment and
+	 * 			  student which existed at asOf, or asOf is before history
+	 * 			  was enabled
+	 * @throws IllegalStateException
+	 * 			  thrown if history is not being kept
+	 * @return the grade earned by username for assignmentName as of asOf
+	 */
+	public double assignmentGrade(String assignmentName, String username,
+			Instant asOf) throws IllegalArgumentException,
+			IllegalStateException {
+		long start = startTimer();
+		
+		// check that there is a history to consult
+		if (history == null) {
+			throw new IllegalStateException("History not enabled");
+		} // end if block
+		// check that the assignment exists
+		Integer column = assignmentNameToIndex.get(assignmentName);
+		if (column == null) {
 			throw new IllegalArgumentException("Assignment not found");
 		} // end if block
 		// check that the student exists
-		if (!students.containsKey(username)) {
+		int row = studentRow(username);
+		if (row < 0) {
 			throw new IllegalArgumentException("Student not found");
 		} // end if block
 		
-		return grades.get(assignmentName).get(username);
+		double grade = history.grade(column, row, asOf.toEpochMilli());
+		stopTimer(GradeBookMetrics.ASSIGNMENT_GRADE, start);
+		return grade;
 	} // end method assignmentGrade
 
 	/**
@@ -594,17 +3038,79 @@ public class MyGradeBook {
 	 */
 	public String outputCurrentGrades() {
 		// create a string builder for iterative string concatenation
-		StringBuilder sb = new StringBuilder("CURRENT_GRADES");
+		StringBuilder sb = new StringBuilder();
 		
 		// build output string
-		for (String username : students.keySet()) {
-			sb.append("\n" + username + " " + currentGrade(username));
-		} // end for loop
+		try {
+			outputCurrentGrades(sb);
+		} // end try block
+		catch (IOException e) {
+			// appending to a StringBuilder never fails
+			throw new IllegalStateException(e);
+		} // end catch block
 		
 		// return output string
 		return sb.toString();
 	} // end method outputCurrentGrades
 
+	/**
+	 * write the current grades of all students in the course to out, in the
+	 * same format as outputCurrentGrades()
+	 * 
+	 * @param out
+	 *            destination for the report
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputCurrentGrades(Appendable out)
+			throws IOException {
+		long start = startTimer();
+		ReportEvent event = new ReportEvent("outputCurrentGrades", null);
+		out.append("CURRENT_GRADES");
+		
+		// write one row per student
+		for (int row : sortedRows()) {
+			outputCurrentGradeRow(row, out);
+		} // end for loop
+		stopTimer(GradeBookMetrics.OUTPUT_CURRENT_GRADES, start);
+		event.finish(studentRows.size(), 0);
+	} // end method outputCurrentGrades
+
+	/**
+	 * write one student's line of outputCurrentGrades() to out, starting
+	 * with the line break before it
+	 * 
+	 * @param row
+	 *            the student's row in the grade matrix
+	 * @param out
+	 *            destination for the line
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	void outputCurrentGradeRow(int row, Appendable out)
+			throws IOException {
+		out.append('\n').append(studentRows.get(row).getUsername())
+				.append(' ').append(String.valueOf(
+						weightedTotals[row] * 100 / currentGradeDivisor()));
+	} // end method outputCurrentGradeRow
+
+	/**
+	 * write the current grades of all students in the course to out as
+	 * UTF-8, in the same format as outputCurrentGrades(); out is flushed
+	 * but not closed
+	 * 
+	 * @param out
+	 *            destination for the report
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputCurrentGrades(OutputStream out)
+			throws IOException {
+		Writer writer = openWriter(out);
+		outputCurrentGrades(writer);
+		writer.flush();
+	} // end method outputCurrentGrades
+
 	/**
 	 * provide a String that contains the current grades of the given student
 	 * 
@@ -620,38 +3126,91 @@ public class MyGradeBook {
 	 */
 	public String outputStudentGrades(String username)
 			throws IllegalArgumentException {
+		// create a string builder for iterative string concatenation
+		StringBuilder sb = new StringBuilder();
+		
+		// build output string
+		try {
+			outputStudentGrades(username, sb);
+		} // end try block
+		catch (IOException e) {
+			// appending to a StringBuilder never fails
+			throw new IllegalStateException(e);
+		} // end catch block
+		
+		// return output string
+		return sb.toString();
+	} // end method outputStudentGrades
+
+	/**
+	 * write the current grades of the given student to out, in the same
+	 * format as outputStudentGrades(username)
+	 * 
+	 * @param username
+	 *            username for student
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputStudentGrades(String username, Appendable out)
+			throws IllegalArgumentException, IOException {
+		long start = startTimer();
+		ReportEvent event = new ReportEvent("outputStudentGrades", username);
+		
 		// check that the student exists
-		if (!students.containsKey(username)) {
+		int row = studentRow(username);
+		if (row < 0) {
 			throw new IllegalArgumentException("Student not found");
 		} // end if block
 		
-		// create a string builder for iterative string concatenation
-		StringBuilder sb = new StringBuilder("STUDENT_GRADES");
-		
 		// get student to be output
-		Student s = students.get(username);
+		Student s = studentRows.get(row);
 		
 		// output student data
-		sb.append(
-				"\n" + username +
-				"\n" + s.getFirstName() +
-				"\n" + s.getLastName() +
-				"\n" + s.getAdvisor() +
-				"\n" + s.getGradYear() +
-				"\n----");
+		out.append("STUDENT_GRADES")
+				.append('\n').append(username)
+				.append('\n').append(s.getFirstName())
+				.append('\n').append(s.getLastName())
+				.append('\n').append(s.getAdvisor())
+				.append('\n').append(String.valueOf(s.getGradYear()))
+				.append("\n----");
 		
-		// iterate through assignments and append each to the output string
-		for (String assignmentName : assignmentNameToIndex.keySet()) {
-			sb.append(
-					"\n" + assignmentName +
-					"\t" + assignmentGrade(assignmentName, username));
+		// iterate through assignments in the order given and output each
+		for (int column = 0; column < assignments.size(); ++column) {
+			out.append('\n').append(assignments.get(column).getName())
+					.append('\t').append(String.valueOf(
+							(double) grades.get(column, row)));
 		} // end for loop
 		
 		// output current average grade
-		sb.append("\n----\nCURRENT GRADE\t" + currentGrade(username));
-		
-		// return output string
-		return sb.toString();
+		out.append("\n----\nCURRENT GRADE\t").append(String.valueOf(
+				weightedTotals[row] * 100 / currentGradeDivisor()));
+		stopTimer(GradeBookMetrics.OUTPUT_STUDENT_GRADES, start);
+		event.finish(1, assignments.size());
+	} // end method outputStudentGrades
+
+	/**
+	 * write the current grades of the given student to out as UTF-8, in the
+	 * same format as outputStudentGrades(username); out is flushed but not
+	 * closed
+	 * 
+	 * @param username
+	 *            username for student
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputStudentGrades(String username, OutputStream out)
+			throws IllegalArgumentException, IOException {
+		Writer writer = openWriter(out);
+		outputStudentGrades(username, writer);
+		writer.flush();
 	} // end method outputStudentGrades
 
 	/**
@@ -672,43 +3231,157 @@ public class MyGradeBook {
 	 */
 	public String outputAssignmentGrades(String assignName)
 			throws IllegalArgumentException {
+		// create a string builder for iterative string concatenation
+		StringBuilder sb = new StringBuilder();
+		
+		// build output string
+		try {
+			outputAssignmentGrades(assignName, sb);
+		} // end try block
+		catch (IOException e) {
+			// appending to a StringBuilder never fails
+			throw new IllegalStateException(e);
+		} // end catch block
+		
+		// return output string
+		return sb.toString();
+	} // end method outputAssignmentGrades
+
+	/**
+	 * write the assignment grades of all students in the course for the given
+	 * assignment to out, in the same format as outputAssignmentGrades(assignName)
+	 * 
+	 * @param assignName
+	 *            name of the assignment
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputAssignmentGrades(String assignName, Appendable out)
+			throws IllegalArgumentException, IOException {
+		long start = startTimer();
+		ReportEvent event = new ReportEvent("outputAssignmentGrades",
+				assignName);
+		
 		// check that the student exists
 		if (!assignmentNameToIndex.containsKey(assignName)) {
 			throw new IllegalArgumentException("Student not found");
 		} // end if block
-		
-		// create a string builder for iterative string concatenation
-		StringBuilder sb = new StringBuilder("ASSIGNMENT_GRADES");
+		// the statistics are undefined for empty lists
+		if (studentRows.isEmpty()) {
+			throw new ArithmeticException("Empty list has no average");
+		} // end if block
 		
 		// get assignment to be output
-		Assignment a = assignments.get(assignmentNameToIndex.get(assignName));
+		int column = assignmentNameToIndex.get(assignName);
+		AssignmentStats stats = assignmentStats.get(column);
 		
 		// output assignment data
-		sb.append(
-				"\n" + a.getName() +
-				"\n" + a.getTotalPoints() +
-				"\n" + a.getPercentOfGrade() +
-				"\n----");
-		
-		// iterate through students and append each to the output string
-		for (Student s : students.values()) {
-			sb.append(
-					"\n" + s.getUsername() +
-					"\n" + s.getFirstName() +
-					"\n" + s.getLastName() +
-					"\n" + s.getAdvisor() +
-					"\n" + s.getGradYear());
+		outputAssignmentHeader(column, out);
+		
+		// iterate through students and output each
+		for (int row : sortedRows()) {
+			outputAssignmentRow(row, out);
 		} // end for loop
 		
 		// output statistical data for the assignment
-		sb.append(
-				"\n----\nSTATS\nAverage " + average(assignName) +
-				"\nMedian " + median(assignName) +
-				"\nMax " + max(assignName) +
-				"\nMin " + min(assignName));
+		outputAssignmentStats(stats.sum() / stats.count(), stats.median(),
+				stats.max(), stats.min(), out);
+		stopTimer(GradeBookMetrics.OUTPUT_ASSIGNMENT_GRADES, start);
+		event.finish(studentRows.size(), 1);
+	} // end method outputAssignmentGrades
 
-		// return output string
-		return sb.toString();
+	/**
+	 * write the heading and assignment data of outputAssignmentGrades(assignName)
+	 * to out, up to the first divider
+	 * 
+	 * @param column
+	 *            the assignment's column in the grade matrix
+	 * @param out
+	 *            destination for the heading
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	void outputAssignmentHeader(int column, Appendable out)
+			throws IOException {
+		Assignment a = assignments.get(column);
+		out.append("ASSIGNMENT_GRADES")
+				.append('\n').append(a.getName())
+				.append('\n').append(String.valueOf(a.getTotalPoints()))
+				.append('\n').append(String.valueOf(a.getPercentOfGrade()))
+				.append("\n----");
+	} // end method outputAssignmentHeader
+
+	/**
+	 * write one student's lines of outputAssignmentGrades(assignName) to out,
+	 * starting with the line break before them
+	 * 
+	 * @param row
+	 *            the student's row in the grade matrix
+	 * @param out
+	 *            destination for the lines
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	void outputAssignmentRow(int row, Appendable out)
+			throws IOException {
+		Student s = studentRows.get(row);
+		out.append('\n').append(s.getUsername())
+				.append('\n').append(s.getFirstName())
+				.append('\n').append(s.getLastName())
+				.append('\n').append(s.getAdvisor())
+				.append('\n').append(String.valueOf(s.getGradYear()));
+	} // end method outputAssignmentRow
+
+	/**
+	 * write the closing divider and statistics of
+	 * outputAssignmentGrades(assignName) to out
+	 * 
+	 * @param average
+	 *            average of the assignment's grades
+	 * @param median
+	 *            median of the assignment's grades
+	 * @param max
+	 *            largest of the assignment's grades
+	 * @param min
+	 *            smallest of the assignment's grades
+	 * @param out
+	 *            destination for the statistics
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	static void outputAssignmentStats(double average, float median,
+			float max, float min, Appendable out)
+			throws IOException {
+		out.append("\n----\nSTATS\nAverage ")
+				.append(String.valueOf(average))
+				.append("\nMedian ").append(String.valueOf((double) median))
+				.append("\nMax ").append(String.valueOf((double) max))
+				.append("\nMin ").append(String.valueOf((double) min));
+	} // end method outputAssignmentStats
+
+	/**
+	 * write the assignment grades of all students in the course for the given
+	 * assignment to out as UTF-8, in the same format as
+	 * outputAssignmentGrades(assignName); out is flushed but not closed
+	 * 
+	 * @param assignName
+	 *            name of the assignment
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputAssignmentGrades(String assignName, OutputStream out)
+			throws IllegalArgumentException, IOException {
+		Writer writer = openWriter(out);
+		outputAssignmentGrades(assignName, writer);
+		writer.flush();
 	} // end method outputAssignmentGrades
 
 	/**
@@ -722,42 +3395,128 @@ public class MyGradeBook {
 	 */
 	public String outputGradebook() {
 		// create a string builder for iterative string concatenation
-		StringBuilder sb = new StringBuilder("GRADEBOOK");
+		StringBuilder sb = new StringBuilder();
+		
+		// build output string
+		try {
+			outputGradebook(sb);
+		} // end try block
+		catch (IOException e) {
+			// appending to a StringBuilder never fails
+			throw new IllegalStateException(e);
+		} // end catch block
+		
+		// return output string
+		return sb.toString();
+	} // end method outputGradebook
+
+	/**
+	 * write the current grade book to out, in the same format as
+	 * outputGradebook(); only one row is held in memory at a time, so any
+	 * size of grade book can be exported in constant space
+	 * 
+	 * @param out
+	 *            destination for the grade book
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputGradebook(Appendable out)
+			throws IOException {
+		long start = startTimer();
+		ReportEvent event = new ReportEvent("outputGradebook", null);
+		outputGradebookHeader(out);
+		
+		// iterate through students and output each
+		for (int row : sortedRows()) {
+			outputGradebookRow(row, out);
+		} // end for loop
+		stopTimer(GradeBookMetrics.OUTPUT_GRADEBOOK, start);
+		event.finish(studentRows.size(), assignments.size());
+	} // end method outputGradebook
+
+	/**
+	 * write the heading and the three assignment lines of outputGradebook()
+	 * to out
+	 * 
+	 * @param out
+	 *            destination for the header
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	void outputGradebookHeader(Appendable out)
+			throws IOException {
+		out.append("GRADEBOOK");
 		
 		// output header
-		sb.append("\n\t\t\t\t");
+		out.append("\n\t\t\t\t");
 		
-		// iterate through assignments and append each to the output string
+		// iterate through assignments and output each
 		for (Assignment a : assignments) {
-			sb.append("\t" + a.getName());
+			out.append('\t').append(a.getName());
 		} // end for loop
-		sb.append("\n\t\t\t\t");
+		out.append("\n\t\t\t\t");
 		for (Assignment a : assignments) {
-			sb.append("\t" + a.getTotalPoints());
+			out.append('\t').append(String.valueOf(a.getTotalPoints()));
 		} // end for loop
-		sb.append("\n\t\t\t\t");
+		out.append("\n\t\t\t\t");
 		for (Assignment a : assignments) {
-			sb.append("\t" + a.getPercentOfGrade());
+			out.append('\t').append(String.valueOf(a.getPercentOfGrade()));
 		} // end for loop
+	} // end method outputGradebookHeader
+
+	/**
+	 * write one student's line of outputGradebook() to out, starting with
+	 * the line break before it
+	 * 
+	 * @param row
+	 *            the student's row in the grade matrix
+	 * @param out
+	 *            destination for the line
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	void outputGradebookRow(int row, Appendable out)
+			throws IOException {
+		Student s = studentRows.get(row);
+		out.append('\n').append(s.getUsername())
+				.append('\t').append(s.getFirstName())
+				.append('\t').append(s.getLastName())
+				.append('\t').append(s.getAdvisor())
+				.append('\t').append(String.valueOf(s.getGradYear()));
 		
-		// iterate through students and append each to the output string
-		for (Student s : students.values()) {
-			sb.append(
-					"\n" + s.getUsername() +
-					"\t" + s.getFirstName() +
-					"\t" + s.getLastName() +
-					"\t" + s.getAdvisor() +
-					"\t" + s.getGradYear());
-			
-			// iterate through assignments and append each to the output string
-			for (String assignmentName : assignmentNameToIndex.keySet()) {
-				sb.append("\t" + assignmentGrade(
-						assignmentName,
-						s.getUsername().toString()));
-			} // end for loop
+		// output grades in the same order as the assignment header
+		for (int column = 0; column < assignments.size(); ++column) {
+			out.append('\t').append(String.valueOf(
+					(double) grades.get(column, row)));
 		} // end for loop
-		
-		// return output string
-		return sb.toString();
+	} // end method outputGradebookRow
+
+	/**
+	 * write the current grade book to out as UTF-8, in the same format as
+	 * outputGradebook(); out is flushed but not closed
+	 * 
+	 * @param out
+	 *            destination for the grade book
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputGradebook(OutputStream out)
+			throws IOException {
+		Writer writer = openWriter(out);
+		outputGradebook(writer);
+		writer.flush();
 	} // end method outputGradebook
+
+	/**
+	 * wraps an output stream in a buffered UTF-8 writer for the report
+	 * methods
+	 * 
+	 * @param out
+	 *            stream to wrap
+	 * @return a writer over out
+	 */
+	private static Writer openWriter(OutputStream out) {
+		return new BufferedWriter(
+				new OutputStreamWriter(out, StandardCharsets.UTF_8));
+	} // end method openWriter
 } // end class MyGradeBook
\ No newline at end of file
@@ -0,0 +1,414 @@
+package gradebook;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelGradebookLoader is a class which adds a GRADEBOOK file to a
+ * MyGradeBook by parsing its student rows on worker threads. The header is
+ * read first, then the rows are split into byte ranges ending on line
+ * boundaries, each range is parsed into a local buffer, and the buffers are
+ * added to the gradebook in file order with the same calls the sequential
+ * loader makes. A malformed row is reported once every row before it has
+ * been added, along with whatever part of the row the sequential loader
+ * would have added, so the gradebook ends up exactly as if it had been
+ * loaded sequentially
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class ParallelGradebookLoader {
+	/** smallest range of rows worth parsing on its own thread */
+	private static final long MIN_CHUNK_BYTES = 1L << 20;
+
+	/** number of ranges per worker, so uneven ranges balance out */
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	/** number of bytes read at a time while looking for a line end */
+	private static final int SCAN_BYTES = 1 << 16;
+
+	/** gradebook the file is added to */
+	private final MyGradeBook book;
+
+	/** name of the file to load */
+	private final String filename;
+
+	/** number of ranges parsed at once */
+	private final int parallelism;
+
+	/** channel used to find the header and range boundaries */
+	private FileChannel channel;
+
+	/** total number of bytes in the file */
+	private long size;
+
+	/** number of student rows added so far */
+	private long rows = 0;
+
+	/**
+	 * constructor to initialize ParallelGradebookLoader fields
+	 *
+	 * @param book gradebook the file is added to
+	 * @param filename name of the file to load
+	 * @param parallelism number of ranges parsed at once
+	 */
+	ParallelGradebookLoader(MyGradeBook book, String filename,
+			int parallelism) {
+		this.book = book;
+		this.filename = filename;
+		this.parallelism = Math.max(1, parallelism);
+	} // end constructor ParallelGradebookLoader
+
+	/**
+	 * adds the file to the gradebook if it is a full gradebook
+	 *
+	 * @return whether the file was a full gradebook; otherwise nothing has
+	 *         been added and the file should be loaded sequentially
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	boolean load() throws IOException {
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try {
+			size = channel.size();
+
+			// parse the header line and the three assignment lines on this
+			// thread, exactly as the sequential loader would
+			long rowsStart = skipLines(0, 4);
+			GradeBookTokenizer header = new GradeBookTokenizer(
+					new StringReader(decode(0, rowsStart)));
+			header.nextLine();
+			if (!header.lineEquals("GRADEBOOK")) {
+				return false;
+			} // end if block
+			int[] columns = book.processGradebookAssignments(header);
+
+			loadRows(splitRows(rowsStart), columns);
+			return true;
+		} // end try block
+		finally {
+			channel.close();
+		} // end finally block
+	} // end method load
+
+	/**
+	 * accessor for the number of student rows added by load
+	 *
+	 * @return number of rows added
+	 */
+	long rows() {
+		return rows;
+	} // end method rows
+
+	/**
+	 * parses ranges of rows on worker threads, adding each range to the
+	 * gradebook in file order as soon as it and every range before it have
+	 * been parsed; only a bounded number of ranges are parsed ahead
+	 *
+	 * @param bounds offsets of the range boundaries, from the start of the
+	 *            first row to the end of the file
+	 * @param columns grade matrix column of each listed assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	private void loadRows(long[] bounds, final int[] columns)
+			throws IOException {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		ArrayDeque<Future<ParsedRows>> pending = new ArrayDeque<Future<ParsedRows>>();
+		int next = 0;
+		int chunks = bounds.length - 1;
+		try {
+			while (next < chunks || !pending.isEmpty()) {
+				// keep a bounded number of ranges parsing ahead of the merge
+				while (next < chunks && pending.size() < parallelism * 2) {
+					final long start = bounds[next];
+					final long end = bounds[next + 1];
+					pending.add(pool.submit(new Callable<ParsedRows>() {
+						@Override
+						public ParsedRows call() throws IOException {
+							return parse(start, end, columns);
+						} // end method call
+					}));
+					++next;
+				} // end while loop
+
+				rows += pending.peek().get().addTo(book);
+				pending.remove();
+			} // end while loop
+		} // end try block
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while loading");
+		} // end catch block
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} // end if block
+			throw new IllegalStateException(e.getCause());
+		} // end catch block
+		finally {
+			// stop parsing ranges which will never be added
+			for (Future<ParsedRows> f : pending) {
+				f.cancel(true);
+			} // end for loop
+		} // end finally block
+	} // end method loadRows
+
+	/**
+	 * parses a range of student rows into a local buffer, stopping at the
+	 * first malformed row
+	 *
+	 * @param start file offset of the first row
+	 * @param end file offset one past the last row
+	 * @param columns grade matrix column of each listed assignment
+	 * @return the parsed rows
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	private ParsedRows parse(long start, long end, int[] columns)
+			throws IOException {
+		ParsedRows rows = new ParsedRows();
+		LoadPhaseEvent phase = new LoadPhaseEvent("rows");
+		long parseStart = phase.isEnabled() ? System.nanoTime() : 0;
+		GradeBookTokenizer in = new GradeBookTokenizer(
+				new MappedFileReader(filename, start, end));
+		try {
+			while (in.hasNextLine()) {
+				in.nextLine();
+				rows.addStudent(new Student(rows.strings,
+						in.nextField(), // username
+						in.nextField(), // first name
+						in.nextField(), // last name
+						in.nextField(), // advisor
+						in.nextIntField())); // expected graduation year
+
+				// parse the grade before indexing its column, as the
+				// sequential loader does, so extra fields fail the same way
+				for (int i = 0; in.hasNextField(); ++i) {
+					float grade = in.nextFloatField();
+					rows.addGrade(columns[i], grade);
+				} // end for loop
+			} // end while loop
+		} // end try block
+		catch (RuntimeException e) {
+			// keep what was parsed so far, to be added before reporting it
+			rows.error = e;
+		} // end catch block
+		finally {
+			in.close();
+		} // end finally block
+
+		// the whole range was spent parsing, off the merging thread
+		if (phase.isEnabled()) {
+			phase.parseTime = System.nanoTime() - parseStart;
+			phase.records = rows.students.size();
+		} // end if block
+		phase.finish();
+		return rows;
+	} // end method parse
+
+	/**
+	 * splits the rows into ranges of roughly equal size which each end
+	 * with a complete line
+	 *
+	 * @param rowsStart file offset of the first row
+	 * @return offsets of the range boundaries, from rowsStart to the end of
+	 *         the file
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	private long[] splitRows(long rowsStart) throws IOException {
+		long length = size - rowsStart;
+		long chunks = Math.max(1, Math.min(
+				(long) parallelism * CHUNKS_PER_WORKER,
+				length / MIN_CHUNK_BYTES));
+
+		long[] bounds = new long[(int) chunks + 1];
+		int count = 0;
+		bounds[count++] = rowsStart;
+		for (long i = 1; i < chunks; ++i) {
+			long bound = skipLines(rowsStart + length * i / chunks, 1);
+			if (bound > bounds[count - 1] && bound < size) {
+				bounds[count++] = bound;
+			} // end if block
+		} // end for loop
+		bounds[count++] = size;
+		return Arrays.copyOf(bounds, count);
+	} // end method splitRows
+
+	/**
+	 * finds the offset just past the given number of line terminators,
+	 * treating \r\n as one terminator like GradeBookTokenizer
+	 *
+	 * @param from file offset to start looking at
+	 * @param lines number of line terminators to pass
+	 * @return offset after the last terminator passed, or the end of the
+	 *         file if there are too few
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	private long skipLines(long from, int lines) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(SCAN_BYTES);
+		long offset = from;
+		boolean afterReturn = false;
+		while (offset < size) {
+			bytes.clear();
+			int count = channel.read(bytes, offset);
+			if (count <= 0) {
+				break;
+			} // end if block
+
+			for (int i = 0; i < count; ++i) {
+				byte b = bytes.get(i);
+				if (afterReturn) {
+					// a \n straight after \r belongs to the same terminator
+					afterReturn = false;
+					if (--lines == 0) {
+						return b == '\n' ? offset + i + 1 : offset + i;
+					} // end if block
+					if (b == '\n') {
+						continue;
+					} // end if block
+				} // end if block
+				if (b == '\r') {
+					afterReturn = true;
+				} // end if block
+				else if (b == '\n' && --lines == 0) {
+					return offset + i + 1;
+				} // end else-if block
+			} // end for loop
+			offset += count;
+		} // end while loop
+		return size;
+	} // end method skipLines
+
+	/**
+	 * decodes a range of the file as UTF-8
+	 *
+	 * @param start file offset of the first byte
+	 * @param end file offset one past the last byte
+	 * @return the decoded text
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	private String decode(long start, long end) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+		while (bytes.hasRemaining() &&
+				channel.read(bytes, start + bytes.position()) > 0) {
+			// keep reading until the range is buffered
+		} // end while loop
+		bytes.flip();
+		return StandardCharsets.UTF_8.decode(bytes).toString();
+	} // end method decode
+
+	/**
+	 * ParsedRows is a buffer of the student rows parsed from one range,
+	 * holding each student and its grades in file order
+	 */
+	private static class ParsedRows {
+		/**
+		 * names of the parsed students, shared among them so repeated
+		 * advisors are held once until the students are added
+		 */
+		final StringDictionary strings = new StringDictionary();
+
+		/** students in the order their rows were parsed */
+		private ArrayList<Student> students = new ArrayList<Student>();
+
+		/** index into gradeColumns one past each student's last grade */
+		private int[] gradeEnds = new int[64];
+
+		/** grade matrix column of each parsed grade */
+		private int[] gradeColumns = new int[256];
+
+		/** value of each parsed grade */
+		private float[] gradeValues = new float[256];
+
+		/** number of parsed grades */
+		private int gradeCount = 0;
+
+		/** error which ended parsing, or null if the range was well formed */
+		private RuntimeException error = null;
+
+		/**
+		 * starts a new row
+		 *
+		 * @param s the row's student
+		 */
+		void addStudent(Student s) {
+			if (students.size() == gradeEnds.length) {
+				gradeEnds = Arrays.copyOf(gradeEnds, gradeEnds.length * 2);
+			} // end if block
+			gradeEnds[students.size()] = gradeCount;
+			students.add(s);
+		} // end method addStudent
+
+		/**
+		 * adds a grade to the current row
+		 *
+		 * @param column grade matrix column of the grade
+		 * @param grade value of the grade
+		 */
+		void addGrade(int column, float grade) {
+			if (gradeCount == gradeColumns.length) {
+				gradeColumns = Arrays.copyOf(gradeColumns, gradeCount * 2);
+				gradeValues = Arrays.copyOf(gradeValues, gradeCount * 2);
+			} // end if block
+			gradeColumns[gradeCount] = column;
+			gradeValues[gradeCount] = grade;
+			++gradeCount;
+			gradeEnds[students.size() - 1] = gradeCount;
+		} // end method addGrade
+
+		/**
+		 * adds every parsed row to a gradebook, then reports the error which
+		 * ended parsing, if any
+		 *
+		 * @param book gradebook to add the rows to
+		 * @return the number of rows added
+		 */
+		int addTo(MyGradeBook book) {
+			LoadPhaseEvent phase = new LoadPhaseEvent("merge");
+			boolean timed = phase.isEnabled();
+			int grade = 0;
+			for (int i = 0; i < students.size(); ++i) {
+				long addStart = timed ? System.nanoTime() : 0;
+				int row = book.addStudent(students.get(i));
+				long changeStart = timed ? System.nanoTime() : 0;
+				for (; grade < gradeEnds[i]; ++grade) {
+					if (!book.changeGrade(gradeColumns[grade], row,
+							gradeValues[grade])) {
+						++phase.rejectedGrades;
+					} // end if block
+				} // end for loop
+				if (timed) {
+					phase.addStudentTime += changeStart - addStart;
+					phase.changeGradeTime += System.nanoTime() - changeStart;
+				} // end if block
+			} // end for loop
+			if (error != null) {
+				throw error;
+			} // end if block
+
+			phase.records = students.size();
+			phase.finish();
+			return students.size();
+		} // end method addTo
+	} // end class ParsedRows
+} // end class ParallelGradebookLoader
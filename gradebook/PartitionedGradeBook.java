@@ -0,0 +1,1263 @@
+package gradebook;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * PartitionedGradeBook is a grade book spread over several MyGradeBook
+ * shards, each holding the students whose usernames hash to it, so no one
+ * shard has to hold the whole roster. Every shard holds every assignment,
+ * so adding an assignment is broadcast to all of them, while adding a
+ * student or changing a grade goes only to the student's shard. Queries
+ * are answered by gathering from the shards: averages, minimums and
+ * maximums merge each shard's running aggregates, medians and percentiles
+ * select ranks across each shard's sorted grades, and the reports merge
+ * each shard's rows in username order. Like MyGradeBook, it is not safe
+ * for concurrent use
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public class PartitionedGradeBook implements AutoCloseable {
+	/** the shards, indexed by the hash of the usernames they hold */
+	private final MyGradeBook[] shards;
+
+	/**
+	 * constructor to initialize an empty PartitionedGradeBook
+	 *
+	 * @param shardCount number of shards to spread the students over
+	 * @param storage where the grade matrix of each shard lives
+	 * @throws IllegalArgumentException
+	 * 			  thrown if shardCount is less than 1
+	 */
+	public PartitionedGradeBook(int shardCount, GradeStorage storage)
+			throws IllegalArgumentException {
+		if (shardCount < 1) {
+			throw new IllegalArgumentException("Too few shards");
+		} // end if block
+		shards = new MyGradeBook[shardCount];
+		for (int i = 0; i < shardCount; ++i) {
+			shards[i] = MyGradeBook.initialize(storage);
+		} // end for loop
+	} // end constructor PartitionedGradeBook
+
+	/**
+	 * factory method to construct an empty PartitionedGradeBook
+	 *
+	 * @param shardCount number of shards to spread the students over
+	 * @return an empty PartitionedGradeBook
+	 */
+	public static PartitionedGradeBook initialize(int shardCount) {
+		return new PartitionedGradeBook(shardCount, GradeStorage.HEAP);
+	} // end method initialize
+
+	/**
+	 * factory method to construct an empty PartitionedGradeBook whose
+	 * grades are kept in the given place
+	 *
+	 * @param shardCount number of shards to spread the students over
+	 * @param storage where the grade matrix of each shard lives
+	 * @return an empty PartitionedGradeBook
+	 */
+	public static PartitionedGradeBook initialize(int shardCount,
+			GradeStorage storage) {
+		return new PartitionedGradeBook(shardCount, storage);
+	} // end method initialize
+
+	/**
+	 * factory method to construct a PartitionedGradeBook that contains the
+	 * grade book from filename
+	 *
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @param shardCount
+	 *            number of shards to spread the students over
+	 * @return a PartitionedGradeBook that contains the grade book from
+	 *         filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public static PartitionedGradeBook initializeWithFile(String filename,
+			int shardCount) throws IOException {
+		return initializeWithFile(filename, shardCount, GradeStorage.HEAP);
+	} // end method initializeWithFile
+
+	/**
+	 * factory method to construct a PartitionedGradeBook that contains the
+	 * grade book from filename, with its grades kept in the given place
+	 *
+	 * @param filename
+	 *            the filename for the file that contains the initial grade
+	 *            book, which is formatted like initial.txt
+	 * @param shardCount
+	 *            number of shards to spread the students over
+	 * @param storage
+	 *            where the grade matrix of each shard lives
+	 * @return a PartitionedGradeBook that contains the grade book from
+	 *         filename
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public static PartitionedGradeBook initializeWithFile(String filename,
+			int shardCount, GradeStorage storage) throws IOException {
+		PartitionedGradeBook pgb = new PartitionedGradeBook(shardCount, storage);
+
+		// give back the grade storage if the file cannot be loaded
+		boolean loaded = false;
+		try {
+			pgb.processFile(filename);
+			loaded = true;
+		} // end try block
+		finally {
+			if (!loaded) {
+				pgb.close();
+			} // end if block
+		} // end finally block
+		return pgb;
+	} // end method initializeWithFile
+
+	/**
+	 * factory method to construct a PartitionedGradeBook that contains the
+	 * grade book from startingString
+	 *
+	 * @param startingString
+	 *            String that contains the initial grade book, which is
+	 *            formatted like initial.txt
+	 * @param shardCount
+	 *            number of shards to spread the students over
+	 * @return a PartitionedGradeBook that contains the grade book from
+	 *         startingString
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the String
+	 */
+	public static PartitionedGradeBook initializeWithString(
+			String startingString, int shardCount) throws IOException {
+		PartitionedGradeBook pgb = initialize(shardCount);
+		pgb.processString(startingString);
+		return pgb;
+	} // end method initializeWithString
+
+	/**
+	 * accessor for the number of shards
+	 *
+	 * @return the number of shards the students are spread over
+	 */
+	public int shardCount() {
+		return shards.length;
+	} // end method shardCount
+
+	/**
+	 * add to the state of this grade book---new assignments, new students,
+	 * new grades---by processing filename
+	 *
+	 * @param filename
+	 *            the filename for a file that contains information that
+	 *            will be added to the grade book, formatted like
+	 *            addAssignments.txt, addStudents.txt,
+	 *            gradesForAssignment1.txt, and gradesForStudent.txt
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing file-stream
+	 */
+	public void processFile(String filename)
+			throws IOException {
+		processReader(new InputStreamReader(new FileInputStream(filename),
+				StandardCharsets.UTF_8));
+	} // end method processFile
+
+	/**
+	 * add to the state of this grade book---new assignments, new students,
+	 * new grades---by processing additionalString
+	 *
+	 * @param additionalString
+	 *            String that contains information that will be added to the
+	 *            grade book, formatted like addAssignments.txt,
+	 *            addStudents.txt, gradesForAssignment1.txt, and
+	 *            gradesForStudent.txt
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the String
+	 */
+	public void processString(String additionalString)
+			throws IOException {
+		processReader(new StringReader(additionalString));
+	} // end method processString
+
+	/**
+	 * parses input once, handing each record to the shards it concerns:
+	 * assignments go to every shard, and students and grades to the shard
+	 * of their student
+	 *
+	 * @param input
+	 *            Reader that contains information that will be added to the
+	 *            grade book, formatted like the inputs of MyGradeBook
+	 * @throws IOException
+	 * 			  thrown if error occurs processing or closing reader
+	 */
+	private void processReader(Reader input)
+			throws IOException {
+		GradeBookTokenizer in = new GradeBookTokenizer(input);
+		try {
+			// get input type header
+			in.nextLine();
+
+			// handle inputs containing a full gradebook
+			if (in.lineEquals("GRADEBOOK")) {
+				processGradebook(in);
+			} // end if block
+
+			// handle inputs listing assignments
+			else if (in.lineEquals("ASSIGNMENT")) {
+				do {
+					in.nextLine();
+					String name = in.line(); // assignment name
+					in.nextLine();
+					float totalPoints = in.lineFloat(); // total points
+					in.nextLine();
+					float percentOfGrade = in.lineFloat(); // percent of semester grade
+					addAssignment(name, totalPoints, percentOfGrade);
+				} while (in.nextLineEquals("ASSIGNMENT"));
+				// end do-while block
+			} // end else-if block
+
+			// handle inputs listing students
+			else if (in.lineEquals("STUDENT")) {
+				do {
+					in.nextLine();
+					String username = in.line();
+					in.nextLine();
+					String firstName = in.line();
+					in.nextLine();
+					String lastName = in.line();
+					in.nextLine();
+					String advisor = in.line();
+					in.nextLine();
+					int gradYear = in.lineInt(); // expected graduation year
+					MyGradeBook shard = shardOf(username);
+					shard.addStudent(shard.newStudent(
+							username, firstName, lastName, advisor, gradYear));
+				} while (in.nextLineEquals("STUDENT"));
+				// end do-while block
+			} // end else-if block
+
+			// handle inputs listing grades for an assignment
+			else if (in.lineEquals("GRADES_FOR_ASSIGNMENT")) {
+				in.nextLine();
+				String assignmentName = in.line(); // assignment name
+
+				// collect every username and grade, then apply each shard's
+				// share of them at once
+				ArrayList<String> usernames = new ArrayList<String>();
+				double[] newGrades = new double[16];
+				while (in.hasNextLine()) {
+					in.nextLine();
+					usernames.add(in.line()); // username
+					in.nextLine();
+					if (usernames.size() > newGrades.length) {
+						newGrades = Arrays.copyOf(newGrades, newGrades.length * 2);
+					} // end if block
+					newGrades[usernames.size() - 1] = in.lineFloat(); // grade
+				} // end while loop
+				changeGrades(assignmentName, usernames, newGrades);
+			} // end else-if block
+
+			// handle inputs listing grades for a student
+			else if (in.lineEquals("GRADES_FOR_STUDENT")) {
+				in.nextLine();
+				String username = in.line(); // username
+
+				// every grade belongs to the one student's shard
+				ArrayList<String> assignmentNames = new ArrayList<String>();
+				double[] newGrades = new double[16];
+				while (in.hasNextLine()) {
+					in.nextLine();
+					assignmentNames.add(in.line()); // assignment name
+					in.nextLine();
+					if (assignmentNames.size() > newGrades.length) {
+						newGrades = Arrays.copyOf(newGrades, newGrades.length * 2);
+					} // end if block
+					newGrades[assignmentNames.size() - 1] = in.lineFloat(); // grade
+				} // end while loop
+				shardOf(username).changeStudentGrades(username,
+						assignmentNames.toArray(new String[assignmentNames.size()]),
+						newGrades, false);
+			} // end else-if block
+
+			// handle invalid input formats
+			else {
+				throw new IllegalArgumentException("Invalid input header");
+			} // end else block
+		} // end try block
+		finally {
+			// release resources associated with input
+			in.close();
+		} // end finally block
+	} // end method processReader
+
+	/**
+	 * add the assignments and students of a full gradebook to the shards;
+	 * the GRADEBOOK header must already have been read
+	 *
+	 * @param in
+	 *            tokenizer positioned after the GRADEBOOK header, formatted
+	 *            like gradebook.txt
+	 * @throws IOException
+	 * 			  thrown if error occurs reading from the tokenizer
+	 */
+	private void processGradebook(GradeBookTokenizer in)
+			throws IOException {
+		// collect all assignment data, splitting on tabs
+		ArrayList<String> assignmentsName = new ArrayList<String>();
+		in.nextLine();
+		while (in.hasNextField()) {
+			assignmentsName.add(in.nextField());
+		} // end while loop
+		float[] assignmentsTotalPoints = new float[assignmentsName.size()];
+		in.nextLine();
+		for (int i = 0; i < assignmentsTotalPoints.length; ++i) {
+			assignmentsTotalPoints[i] = in.nextFloatField();
+		} // end for loop
+		float[] assignmentsPercentOfGrade = new float[assignmentsName.size()];
+		in.nextLine();
+		for (int i = 0; i < assignmentsPercentOfGrade.length; ++i) {
+			assignmentsPercentOfGrade[i] = in.nextFloatField();
+		} // end for loop
+		for (int i = 0; i < assignmentsName.size(); ++i) {
+			addAssignment(assignmentsName.get(i), assignmentsTotalPoints[i],
+					assignmentsPercentOfGrade[i]);
+		} // end for loop
+
+		// every shard has had the same assignments added in the same
+		// order, so their columns agree
+		int[] columns = new int[assignmentsName.size()];
+		for (int i = 0; i < columns.length; ++i) {
+			columns[i] = shards[0].assignmentColumn(assignmentsName.get(i));
+		} // end for loop
+
+		// iterate through lines containing user data
+		float[] rowGrades = new float[columns.length];
+		while (in.hasNextLine()) {
+			in.nextLine();
+			String username = in.nextField();
+			MyGradeBook shard = shardOf(username);
+
+			// parse the student and their grades from the line's fields
+			Student s = shard.newStudent(
+					username,
+					in.nextField(), // first name
+					in.nextField(), // last name
+					in.nextField(), // advisor
+					in.nextIntField()); // expected graduation year
+			int count = 0;
+			RuntimeException error = null;
+			try {
+				for (; in.hasNextField(); ++count) {
+					rowGrades[count] = in.nextFloatField();
+				} // end for loop
+			} // end try block
+			catch (RuntimeException e) {
+				// keep the grades before a malformed one, to be stored first
+				error = e;
+			} // end catch block
+
+			// add the student and their grades to their shard
+			int row = shard.addStudent(s);
+			for (int i = 0; i < count; ++i) {
+				shard.changeGrade(columns[i], row, rowGrades[i]);
+			} // end for loop
+			if (error != null) {
+				throw error;
+			} // end if block
+		} // end while loop
+	} // end method processGradebook
+
+	/**
+	 * adds an assignment to every shard
+	 *
+	 * @param name name of the assignment
+	 * @param totalPoints total points of the assignment
+	 * @param percentOfGrade percent of the semester grade
+	 */
+	private void addAssignment(String name, float totalPoints,
+			float percentOfGrade) {
+		for (MyGradeBook shard : shards) {
+			shard.addAssignment(new Assignment(name, totalPoints, percentOfGrade));
+		} // end for loop
+	} // end method addAssignment
+
+	/**
+	 * changes the grades of many students for one assignment, giving each
+	 * shard the entries of its own students in the order listed
+	 *
+	 * @param assignmentName name of the assignment
+	 * @param usernames usernames for the students
+	 * @param newGrades the new grades, at least as many as usernames
+	 */
+	private void changeGrades(String assignmentName,
+			ArrayList<String> usernames, double[] newGrades) {
+		// find each entry's shard and count the entries of every shard
+		int[] owners = new int[usernames.size()];
+		int[] counts = new int[shards.length];
+		for (int i = 0; i < owners.length; ++i) {
+			owners[i] = shardIndex(usernames.get(i));
+			++counts[owners[i]];
+		} // end for loop
+
+		for (int shard = 0; shard < shards.length; ++shard) {
+			if (counts[shard] == 0) {
+				continue;
+			} // end if block
+			String[] shardUsernames = new String[counts[shard]];
+			double[] shardGrades = new double[counts[shard]];
+			int count = 0;
+			for (int i = 0; i < owners.length; ++i) {
+				if (owners[i] == shard) {
+					shardUsernames[count] = usernames.get(i);
+					shardGrades[count] = newGrades[i];
+					++count;
+				} // end if block
+			} // end for loop
+			shards[shard].changeGrades(assignmentName, shardUsernames,
+					shardGrades, false);
+		} // end for loop
+	} // end method changeGrades
+
+	/**
+	 * finds the shard holding a student; usernames are spread by their
+	 * hash codes, which are the same in every run
+	 *
+	 * @param username username for the student
+	 * @return index of the student's shard
+	 */
+	private int shardIndex(String username) {
+		// spread the high bits of the hash over the low bits, as the
+		// dictionaries of the shards do
+		int hash = username.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+	} // end method shardIndex
+
+	/**
+	 * finds the shard holding a student
+	 *
+	 * @param username username for the student
+	 * @return the student's shard
+	 */
+	private MyGradeBook shardOf(String username) {
+		return shards[shardIndex(username)];
+	} // end method shardOf
+
+	/**
+	 * changes the assignment grade for the given student
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param username
+	 *            username for the student
+	 * @param newGrade
+	 *            the new grade for the given assignment
+	 * @return whether the grade was changed, which it is not if the
+	 *         assignment or student does not exist or the grade is out of
+	 *         range
+	 */
+	public boolean changeGrade(String assignmentName, String username,
+			double newGrade) {
+		return shardOf(username).changeGrade(assignmentName, username, newGrade);
+	} // end method changeGrade
+
+	/**
+	 * calculates the average across all students for a given assignment,
+	 * from the running sums and counts of the shards
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the average across all students for assignmentName
+	 */
+	public double average(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		int column = checkColumn(assignmentName, "Empty list has no average");
+		double sum = 0;
+		int count = 0;
+		for (MyGradeBook shard : shards) {
+			AssignmentStats stats = shard.statsOf(column);
+			sum += stats.sum();
+			count += stats.count();
+		} // end for loop
+		return sum / count;
+	} // end method average
+
+	/**
+	 * calculates the median across all students for a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the median across all students for assignmentName
+	 */
+	public double median(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		int column = checkColumn(assignmentName, "Empty list has no median");
+		return median(sortedRuns(column));
+	} // end method median
+
+	/**
+	 * calculates a percentile across all students for a given assignment,
+	 * interpolating linearly between the two closest grades
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param percent
+	 *            percentile to calculate, from 0 to 100; 50 gives the median
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or percent is out of range
+	 * @return the given percentile across all students for assignmentName
+	 */
+	public double percentile(String assignmentName, double percent)
+			throws IllegalArgumentException, ArithmeticException {
+		return percentiles(assignmentName, percent)[0];
+	} // end method percentile
+
+	/**
+	 * calculates several percentiles across all students for a given
+	 * assignment, each interpolated the same way as percentile
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param percents
+	 *            percentiles to calculate, each from 0 to 100
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or a percentile is out of range
+	 * @return the grade at each percentile, in the order given
+	 */
+	public double[] percentiles(String assignmentName, double... percents)
+			throws IllegalArgumentException, ArithmeticException {
+		// check that the assignment exists
+		int column = shards[0].assignmentColumn(assignmentName);
+		if (column < 0) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		// check that every percentile is meaningful
+		for (double percent : percents) {
+			if (!(percent >= 0 && percent <= 100)) {
+				throw new IllegalArgumentException("Percentile out of range");
+			} // end if block
+		} // end for loop
+		// percentiles are undefined for empty lists
+		if (studentCount() == 0) {
+			throw new ArithmeticException("Empty list has no percentile");
+		} // end if block
+
+		// select the nearest grades from the shards' sorted grades
+		float[][] runs = sortedRuns(column);
+		int count = studentCount();
+		double[] results = new double[percents.length];
+		for (int i = 0; i < percents.length; ++i) {
+			double rank = percents[i] / 100 * (count - 1);
+			int lower = (int) Math.floor(rank);
+			float lowerGrade = select(runs, lower);
+			if (lower == rank) {
+				results[i] = lowerGrade;
+			} // end if block
+			else {
+				float upperGrade = select(runs, lower + 1);
+				results[i] = lowerGrade + (rank - lower) * (upperGrade - lowerGrade);
+			} // end else block
+		} // end for loop
+		return results;
+	} // end method percentiles
+
+	/**
+	 * calculates the interquartile range across all students for a given
+	 * assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the 75th percentile minus the 25th percentile for
+	 *         assignmentName
+	 */
+	public double interquartileRange(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		double[] quartiles = percentiles(assignmentName, 25, 75);
+		return quartiles[1] - quartiles[0];
+	} // end method interquartileRange
+
+	/**
+	 * counts how many students' grades for a given assignment fall in each
+	 * of a number of equal-width ranges, the same as MyGradeBook, by adding
+	 * up the counts of every shard
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param buckets
+	 *            number of ranges, at least 1
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment or buckets is less than 1
+	 * @return the number of grades in each range, lowest range first
+	 */
+	public int[] distribution(String assignmentName, int buckets)
+			throws IllegalArgumentException {
+		int[] counts = new int[Math.max(buckets, 0)];
+		for (MyGradeBook shard : shards) {
+			int[] shardCounts = shard.distribution(assignmentName, buckets);
+			for (int i = 0; i < counts.length; ++i) {
+				counts[i] += shardCounts[i];
+			} // end for loop
+		} // end for loop
+		return counts;
+	} // end method distribution
+
+	/**
+	 * calculates the min across all students for a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the min across all students for assignmentName
+	 */
+	public double min(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		int column = checkColumn(assignmentName, "Empty list has no minimum");
+		return min(column);
+	} // end method min
+
+	/**
+	 * calculates the max across all students for a given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return the max across all students for assignmentName
+	 */
+	public double max(String assignmentName)
+			throws IllegalArgumentException, ArithmeticException {
+		int column = checkColumn(assignmentName, "Empty list has no maximum");
+		return max(column);
+	} // end method max
+
+	/**
+	 * calculates the current grade for the given student, as
+	 * MyGradeBook.currentGrade does
+	 *
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @return the current grade for student with username
+	 */
+	public double currentGrade(String username)
+			throws IllegalArgumentException {
+		return shardOf(username).currentGrade(username);
+	} // end method currentGrade
+
+	/**
+	 * calculates the current grade for all students
+	 *
+	 * @return HashMap of the current grades for all students, keyed by
+	 *         username, the same as MyGradeBook.currentGrades()
+	 */
+	public HashMap<String, Double> currentGrades() {
+		HashMap<String, Double> currentGrades = new HashMap<String, Double>(
+				studentCount() * 4 / 3 + 1);
+		for (MyGradeBook shard : shards) {
+			currentGrades.putAll(shard.currentGrades());
+		} // end for loop
+		return currentGrades;
+	} // end method currentGrades
+
+	/**
+	 * provides the grade earned by the given student for the given assignment
+	 *
+	 * @param assignmentName
+	 *            name of the assignment
+	 * @param username
+	 *            username for the student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when the parameters do not match an existing
+	 * 			  assignment or student
+	 * @return the grade earned by username for assignmentName
+	 */
+	public double assignmentGrade(String assignmentName, String username)
+			throws IllegalArgumentException {
+		return shardOf(username).assignmentGrade(assignmentName, username);
+	} // end method assignmentGrade
+
+	/**
+	 * provide a String that contains the current grades of all students in
+	 * the course, formatted like MyGradeBook.outputCurrentGrades()
+	 *
+	 * @return a String that contains the current grades of all students,
+	 *         with the usernames listed alphabetically
+	 */
+	public String outputCurrentGrades() {
+		StringBuilder sb = new StringBuilder();
+		try {
+			outputCurrentGrades(sb);
+		} // end try block
+		catch (IOException e) {
+			// appending to a StringBuilder never fails
+			throw new IllegalStateException(e);
+		} // end catch block
+		return sb.toString();
+	} // end method outputCurrentGrades
+
+	/**
+	 * write the current grades of all students in the course to out, in the
+	 * same format as outputCurrentGrades()
+	 *
+	 * @param out
+	 *            destination for the report
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputCurrentGrades(Appendable out)
+			throws IOException {
+		out.append("CURRENT_GRADES");
+		mergeRows(out, new RowWriter() {
+			@Override
+			public void write(MyGradeBook shard, int row, Appendable out)
+					throws IOException {
+				shard.outputCurrentGradeRow(row, out);
+			} // end method write
+		});
+	} // end method outputCurrentGrades
+
+	/**
+	 * write the current grades of all students in the course to out as
+	 * UTF-8, in the same format as outputCurrentGrades(); out is flushed
+	 * but not closed
+	 *
+	 * @param out
+	 *            destination for the report
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputCurrentGrades(OutputStream out)
+			throws IOException {
+		Writer writer = openWriter(out);
+		outputCurrentGrades(writer);
+		writer.flush();
+	} // end method outputCurrentGrades
+
+	/**
+	 * provide a String that contains the current grades of the given
+	 * student, formatted like MyGradeBook.outputStudentGrades(username)
+	 *
+	 * @param username
+	 *            username for student
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @return a String that contains the current grades of username
+	 */
+	public String outputStudentGrades(String username)
+			throws IllegalArgumentException {
+		return shardOf(username).outputStudentGrades(username);
+	} // end method outputStudentGrades
+
+	/**
+	 * write the current grades of the given student to out, in the same
+	 * format as outputStudentGrades(username)
+	 *
+	 * @param username
+	 *            username for student
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputStudentGrades(String username, Appendable out)
+			throws IllegalArgumentException, IOException {
+		shardOf(username).outputStudentGrades(username, out);
+	} // end method outputStudentGrades
+
+	/**
+	 * write the current grades of the given student to out as UTF-8, in the
+	 * same format as outputStudentGrades(username); out is flushed but not
+	 * closed
+	 *
+	 * @param username
+	 *            username for student
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing student
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputStudentGrades(String username, OutputStream out)
+			throws IllegalArgumentException, IOException {
+		shardOf(username).outputStudentGrades(username, out);
+	} // end method outputStudentGrades
+
+	/**
+	 * provide a String that contains the assignment grades of all students
+	 * in the course for the given assignment, formatted like
+	 * MyGradeBook.outputAssignmentGrades(assignName)
+	 *
+	 * @param assignName
+	 *            name of the assignment
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @return a String that contains the assignment grades of all students
+	 *         for assignName, with the usernames listed alphabetically
+	 */
+	public String outputAssignmentGrades(String assignName)
+			throws IllegalArgumentException {
+		StringBuilder sb = new StringBuilder();
+		try {
+			outputAssignmentGrades(assignName, sb);
+		} // end try block
+		catch (IOException e) {
+			// appending to a StringBuilder never fails
+			throw new IllegalStateException(e);
+		} // end catch block
+		return sb.toString();
+	} // end method outputAssignmentGrades
+
+	/**
+	 * write the assignment grades of all students in the course for the
+	 * given assignment to out, in the same format as
+	 * outputAssignmentGrades(assignName)
+	 *
+	 * @param assignName
+	 *            name of the assignment
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputAssignmentGrades(String assignName, Appendable out)
+			throws IllegalArgumentException, IOException {
+		final int column = checkColumn(assignName, "Empty list has no average");
+
+		// every shard holds the same assignment, so any can give its data
+		shards[0].outputAssignmentHeader(column, out);
+		mergeRows(out, new RowWriter() {
+			@Override
+			public void write(MyGradeBook shard, int row, Appendable out)
+					throws IOException {
+				shard.outputAssignmentRow(row, out);
+			} // end method write
+		});
+		MyGradeBook.outputAssignmentStats(average(assignName),
+				median(sortedRuns(column)), max(column), min(column), out);
+	} // end method outputAssignmentGrades
+
+	/**
+	 * write the assignment grades of all students in the course for the
+	 * given assignment to out as UTF-8, in the same format as
+	 * outputAssignmentGrades(assignName); out is flushed but not closed
+	 *
+	 * @param assignName
+	 *            name of the assignment
+	 * @param out
+	 *            destination for the report
+	 * @throws IllegalArgumentException
+	 * 			  thrown when parameter does not match an existing assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputAssignmentGrades(String assignName, OutputStream out)
+			throws IllegalArgumentException, IOException {
+		Writer writer = openWriter(out);
+		outputAssignmentGrades(assignName, writer);
+		writer.flush();
+	} // end method outputAssignmentGrades
+
+	/**
+	 * provide a String that contains the current grade book, formatted like
+	 * gradebook.txt, which could be used to initialize a new grade book
+	 *
+	 * @return a String that contains the current grade book, with the
+	 *         usernames listed alphabetically
+	 */
+	public String outputGradebook() {
+		StringBuilder sb = new StringBuilder();
+		try {
+			outputGradebook(sb);
+		} // end try block
+		catch (IOException e) {
+			// appending to a StringBuilder never fails
+			throw new IllegalStateException(e);
+		} // end catch block
+		return sb.toString();
+	} // end method outputGradebook
+
+	/**
+	 * write the current grade book to out, in the same format as
+	 * outputGradebook(); the shards' rows are merged one at a time, so any
+	 * size of grade book can be exported in constant space
+	 *
+	 * @param out
+	 *            destination for the grade book
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	public void outputGradebook(Appendable out)
+			throws IOException {
+		// every shard holds the same assignments, so any can give the header
+		shards[0].outputGradebookHeader(out);
+		mergeRows(out, new RowWriter() {
+			@Override
+			public void write(MyGradeBook shard, int row, Appendable out)
+					throws IOException {
+				shard.outputGradebookRow(row, out);
+			} // end method write
+		});
+	} // end method outputGradebook
+
+	/**
+	 * write the current grade book to out as UTF-8, in the same format as
+	 * outputGradebook(); out is flushed but not closed
+	 *
+	 * @param out
+	 *            destination for the grade book
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void outputGradebook(OutputStream out)
+			throws IOException {
+		Writer writer = openWriter(out);
+		outputGradebook(writer);
+		writer.flush();
+	} // end method outputGradebook
+
+	/**
+	 * closes every shard, giving back any grade storage held outside the
+	 * heap; the grade book must not be used afterwards
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs closing a shard; the rest are
+	 * 			  still closed
+	 */
+	@Override
+	public void close()
+			throws IOException {
+		IOException error = null;
+		for (MyGradeBook shard : shards) {
+			try {
+				shard.close();
+			} // end try block
+			catch (IOException e) {
+				if (error == null) {
+					error = e;
+				} // end if block
+			} // end catch block
+		} // end for loop
+		if (error != null) {
+			throw error;
+		} // end if block
+	} // end method close
+
+	/**
+	 * counts the students in every shard
+	 *
+	 * @return the number of students
+	 */
+	int studentCount() {
+		int count = 0;
+		for (MyGradeBook shard : shards) {
+			count += shard.studentCount();
+		} // end for loop
+		return count;
+	} // end method studentCount
+
+	/**
+	 * looks up the column of an assignment for a statistic, checking that
+	 * the statistic is defined
+	 *
+	 * @param assignmentName name of the assignment
+	 * @param emptyMessage message of the exception thrown if there are no
+	 *            students
+	 * @return the assignment's column, which is the same in every shard
+	 * @throws IllegalArgumentException
+	 * 			  thrown when assignmentName does not match an existing
+	 * 			  assignment
+	 * @throws ArithmeticException
+	 * 			  thrown when there are no students
+	 */
+	private int checkColumn(String assignmentName, String emptyMessage)
+			throws IllegalArgumentException, ArithmeticException {
+		int column = shards[0].assignmentColumn(assignmentName);
+		if (column < 0) {
+			throw new IllegalArgumentException("Assignment not found");
+		} // end if block
+		if (studentCount() == 0) {
+			throw new ArithmeticException(emptyMessage);
+		} // end if block
+		return column;
+	} // end method checkColumn
+
+	/**
+	 * finds the smallest grade of an assignment over the shards which have
+	 * students
+	 *
+	 * @param column the assignment's column
+	 * @return the smallest grade
+	 */
+	private float min(int column) {
+		float min = Float.POSITIVE_INFINITY;
+		for (MyGradeBook shard : shards) {
+			AssignmentStats stats = shard.statsOf(column);
+			if (stats.count() > 0 && stats.min() < min) {
+				min = stats.min();
+			} // end if block
+		} // end for loop
+		return min;
+	} // end method min
+
+	/**
+	 * finds the largest grade of an assignment over the shards which have
+	 * students
+	 *
+	 * @param column the assignment's column
+	 * @return the largest grade
+	 */
+	private float max(int column) {
+		float max = Float.NEGATIVE_INFINITY;
+		for (MyGradeBook shard : shards) {
+			AssignmentStats stats = shard.statsOf(column);
+			if (stats.count() > 0 && stats.max() > max) {
+				max = stats.max();
+			} // end if block
+		} // end for loop
+		return max;
+	} // end method max
+
+	/**
+	 * gathers the sorted grades of an assignment from every shard
+	 *
+	 * @param column the assignment's column
+	 * @return each shard's grades in ascending order
+	 */
+	private float[][] sortedRuns(int column) {
+		float[][] runs = new float[shards.length][];
+		for (int i = 0; i < shards.length; ++i) {
+			runs[i] = shards[i].statsOf(column).sorted();
+		} // end for loop
+		return runs;
+	} // end method sortedRuns
+
+	/**
+	 * calculates the median of sorted runs the same way as AssignmentStats,
+	 * averaging the two middle grades of an even number
+	 *
+	 * @param runs grades in ascending order, at least one in all
+	 * @return the median grade
+	 */
+	private static float median(float[][] runs) {
+		int count = 0;
+		for (float[] run : runs) {
+			count += run.length;
+		} // end for loop
+		if (count % 2 == 1) {
+			return select(runs, count / 2);
+		} // end if block
+		else {
+			return (select(runs, count / 2 - 1) + select(runs, count / 2)) / 2;
+		} // end else block
+	} // end method median
+
+	/**
+	 * finds the grade of a given rank among all the grades of several
+	 * sorted runs without merging them; the grade must appear in some run,
+	 * so each run is binary searched for a grade with exactly rank grades
+	 * below it, counting those across every run by binary search as well
+	 *
+	 * @param runs grades in ascending order
+	 * @param rank number of grades which come before the one wanted
+	 * @return the grade at that rank
+	 */
+	private static float select(float[][] runs, int rank) {
+		for (float[] run : runs) {
+			int low = 0;
+			int high = run.length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				float candidate = run[middle];
+				int below = 0;
+				int notAbove = 0;
+				for (float[] other : runs) {
+					below += bound(other, candidate, false);
+					notAbove += bound(other, candidate, true);
+				} // end for loop
+				if (below > rank) {
+					high = middle;
+				} // end if block
+				else if (notAbove <= rank) {
+					low = middle + 1;
+				} // end else-if block
+				else {
+					return candidate;
+				} // end else block
+			} // end while loop
+		} // end for loop
+		throw new IllegalArgumentException("Rank out of range");
+	} // end method select
+
+	/**
+	 * counts the grades of a sorted run below, or not above, a value
+	 *
+	 * @param run grades in ascending order
+	 * @param value value to compare against
+	 * @param inclusive whether to count grades equal to value
+	 * @return the number of grades counted
+	 */
+	private static int bound(float[] run, float value, boolean inclusive) {
+		int low = 0;
+		int high = run.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (run[middle] < value || (inclusive && run[middle] == value)) {
+				low = middle + 1;
+			} // end if block
+			else {
+				high = middle;
+			} // end else block
+		} // end while loop
+		return low;
+	} // end method bound
+
+	/**
+	 * writes the rows of every shard in username order by merging the
+	 * shards' own username-sorted rows; a username lives in one shard
+	 * only, so no two rows compare equal
+	 *
+	 * @param out destination for the rows
+	 * @param writer writes one row of the report
+	 * @throws IOException
+	 * 			  thrown if error occurs appending to out
+	 */
+	private void mergeRows(Appendable out, RowWriter writer)
+			throws IOException {
+		PriorityQueue<Cursor> heads = new PriorityQueue<Cursor>(shards.length);
+		for (MyGradeBook shard : shards) {
+			Cursor cursor = new Cursor(shard);
+			if (cursor.username != null) {
+				heads.add(cursor);
+			} // end if block
+		} // end for loop
+		while (!heads.isEmpty()) {
+			Cursor cursor = heads.poll();
+			writer.write(cursor.shard, cursor.row(), out);
+			if (cursor.advance()) {
+				heads.add(cursor);
+			} // end if block
+		} // end while loop
+	} // end method mergeRows
+
+	/**
+	 * wraps an output stream in a buffered UTF-8 writer for the report
+	 * methods
+	 *
+	 * @param out stream to wrap
+	 * @return a writer over out
+	 */
+	private static Writer openWriter(OutputStream out) {
+		return new BufferedWriter(
+				new OutputStreamWriter(out, StandardCharsets.UTF_8));
+	} // end method openWriter
+
+	/**
+	 * RowWriter writes one student's part of a report from their shard
+	 */
+	private interface RowWriter {
+		/**
+		 * writes a student's part of the report
+		 *
+		 * @param shard the student's shard
+		 * @param row the student's row in the shard
+		 * @param out destination for the row
+		 * @throws IOException
+		 * 			  thrown if error occurs appending to out
+		 */
+		void write(MyGradeBook shard, int row, Appendable out)
+				throws IOException;
+	} // end interface RowWriter
+
+	/**
+	 * Cursor is a position in one shard's rows in username order, ordered
+	 * by the username it is on
+	 */
+	private static class Cursor implements Comparable<Cursor> {
+		/** shard whose rows are walked */
+		final MyGradeBook shard;
+
+		/** the shard's rows, ordered by username */
+		private final int[] rows;
+
+		/** index into rows of the current row */
+		private int position = 0;
+
+		/** username of the current row, or null past the last row */
+		String username;
+
+		/**
+		 * constructor to start a cursor on the first row of a shard
+		 *
+		 * @param shard shard whose rows are walked
+		 */
+		Cursor(MyGradeBook shard) {
+			this.shard = shard;
+			rows = shard.sortedRows();
+			username = rows.length > 0 ? shard.username(rows[0]) : null;
+		} // end constructor Cursor
+
+		/**
+		 * accessor for the current row
+		 *
+		 * @return the current row in the shard
+		 */
+		int row() {
+			return rows[position];
+		} // end method row
+
+		/**
+		 * moves to the next row
+		 *
+		 * @return whether there is a next row
+		 */
+		boolean advance() {
+			if (++position == rows.length) {
+				username = null;
+				return false;
+			} // end if block
+			username = shard.username(rows[position]);
+			return true;
+		} // end method advance
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int compareTo(Cursor other) {
+			return username.compareTo(other.username);
+		} // end method compareTo
+	} // end class Cursor
+} // end class PartitionedGradeBook
@@ -0,0 +1,365 @@
+package gradebook;
+
+import java.util.Arrays;
+
+/**
+ * RankIndex is an order-statistic ranking of student rows by a score, kept
+ * as a treap in which every node also knows how many rows its subtree
+ * holds; moving a row to a new score, finding a row's rank and listing the
+ * k highest or lowest rows all take logarithmic time plus k. Rows are
+ * ordered by descending score, and rows with equal scores by ascending row
+ * so that students tied on a score are listed in the order they were
+ * added. Each row is its own node, one past its index, so the parallel
+ * node arrays grow with the number of rows and need no free list
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class RankIndex {
+	/** number of nodes allocated in a fresh index */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** node index standing in for an empty subtree */
+	private static final int NIL = 0;
+
+	/** score of each node's row */
+	private double[] keys = new double[INITIAL_CAPACITY];
+
+	/** number of rows in each node's subtree, or 0 for unused nodes */
+	private int[] sizes = new int[INITIAL_CAPACITY];
+
+	/** left child of each node, holding the higher scores */
+	private int[] lefts = new int[INITIAL_CAPACITY];
+
+	/** right child of each node, holding the lower scores */
+	private int[] rights = new int[INITIAL_CAPACITY];
+
+	/** random heap priority of each node */
+	private int[] priorities = new int[INITIAL_CAPACITY];
+
+	/** root of the treap */
+	private int root = NIL;
+
+	/** state of the priority generator */
+	private int seed = 0x2545F491;
+
+	/**
+	 * adds a row to the ranking
+	 *
+	 * @param row index of the student
+	 * @param score the row's score
+	 * @throws IllegalStateException
+	 * 			  thrown if the row is already ranked
+	 */
+	void insert(int row, double score) {
+		int node = row + 1;
+		if (node >= keys.length) {
+			grow(node + 1);
+		} // end if block
+		if (sizes[node] != 0) {
+			throw new IllegalStateException("Row already ranked: " + row);
+		} // end if block
+
+		// draw the next xorshift priority
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+
+		keys[node] = score;
+		sizes[node] = 1;
+		lefts[node] = NIL;
+		rights[node] = NIL;
+		priorities[node] = seed;
+		root = insert(root, node);
+	} // end method insert
+
+	/**
+	 * moves a ranked row to a new score
+	 *
+	 * @param row index of the student
+	 * @param score the row's new score
+	 * @throws IllegalStateException
+	 * 			  thrown if the row is not ranked
+	 */
+	void update(int row, double score) {
+		int node = row + 1;
+		if (node >= keys.length || sizes[node] == 0) {
+			throw new IllegalStateException("Row not ranked: " + row);
+		} // end if block
+		if (keys[node] == score) {
+			return;
+		} // end if block
+
+		// unlink the node, then link it back in at its new position
+		root = delete(root, node);
+		keys[node] = score;
+		sizes[node] = 1;
+		lefts[node] = NIL;
+		rights[node] = NIL;
+		root = insert(root, node);
+	} // end method update
+
+	/**
+	 * accessor for the number of ranked rows
+	 *
+	 * @return number of rows
+	 */
+	int size() {
+		return sizes[root];
+	} // end method size
+
+	/**
+	 * accessor for the score a row is ranked by
+	 *
+	 * @param row index of a ranked student
+	 * @return the row's score
+	 */
+	double score(int row) {
+		return keys[row + 1];
+	} // end method score
+
+	/**
+	 * finds the rank of a row, counting from 1 for the highest score, with
+	 * scores compared once they are multiplied by scale and divided by
+	 * divisor; that keeps their order, but may round scores which differ
+	 * only in their last bits to the same value, so rows share a rank
+	 * exactly when the values reported for them are equal
+	 *
+	 * @param row index of a ranked student
+	 * @param scale positive factor to multiply each score by
+	 * @param divisor positive number to divide each scaled score by
+	 * @return 1 plus the number of rows with a strictly higher scaled score
+	 */
+	int rank(int row, double scale, double divisor) {
+		double score = keys[row + 1] * scale / divisor;
+		int higher = 0;
+		int node = root;
+		while (node != NIL) {
+			if (keys[node] * scale / divisor > score) {
+				higher += sizes[lefts[node]] + 1;
+				node = rights[node];
+			} // end if block
+			else {
+				node = lefts[node];
+			} // end else block
+		} // end while loop
+		return higher + 1;
+	} // end method rank
+
+	/**
+	 * lists the rows with the highest scores, highest first
+	 *
+	 * @param k number of rows wanted
+	 * @return the first min(k, size()) rows in rank order
+	 */
+	int[] highest(int k) {
+		int[] rows = new int[Math.min(k, sizes[root])];
+		fillHighest(root, rows, 0);
+		return rows;
+	} // end method highest
+
+	/**
+	 * lists the rows with the lowest scores, lowest first; this is the
+	 * reverse of rank order, so tied rows come latest added first
+	 *
+	 * @param k number of rows wanted
+	 * @return the last min(k, size()) rows in reverse rank order
+	 */
+	int[] lowest(int k) {
+		int[] rows = new int[Math.min(k, sizes[root])];
+		fillLowest(root, rows, 0);
+		return rows;
+	} // end method lowest
+
+	/**
+	 * writes the rows of a subtree into an array in rank order, stopping
+	 * once the array is full
+	 *
+	 * @param node root of the subtree
+	 * @param rows array to write into
+	 * @param offset index at which to write the first row
+	 * @return index one past the last row written
+	 */
+	private int fillHighest(int node, int[] rows, int offset) {
+		if (node == NIL || offset == rows.length) {
+			return offset;
+		} // end if block
+		offset = fillHighest(lefts[node], rows, offset);
+		if (offset == rows.length) {
+			return offset;
+		} // end if block
+		rows[offset] = node - 1;
+		return fillHighest(rights[node], rows, offset + 1);
+	} // end method fillHighest
+
+	/**
+	 * writes the rows of a subtree into an array in reverse rank order,
+	 * stopping once the array is full
+	 *
+	 * @param node root of the subtree
+	 * @param rows array to write into
+	 * @param offset index at which to write the first row
+	 * @return index one past the last row written
+	 */
+	private int fillLowest(int node, int[] rows, int offset) {
+		if (node == NIL || offset == rows.length) {
+			return offset;
+		} // end if block
+		offset = fillLowest(rights[node], rows, offset);
+		if (offset == rows.length) {
+			return offset;
+		} // end if block
+		rows[offset] = node - 1;
+		return fillLowest(lefts[node], rows, offset + 1);
+	} // end method fillLowest
+
+	/**
+	 * decides whether one node ranks ahead of another
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @return whether a has the higher score, or the same score and the
+	 *         earlier row
+	 */
+	private boolean ahead(int a, int b) {
+		return keys[a] > keys[b] || (keys[a] == keys[b] && a < b);
+	} // end method ahead
+
+	/**
+	 * links a detached node into a subtree
+	 *
+	 * @param node root of the subtree
+	 * @param added the node to link in
+	 * @return the new root of the subtree
+	 */
+	private int insert(int node, int added) {
+		if (node == NIL) {
+			return added;
+		} // end if block
+
+		if (ahead(added, node)) {
+			lefts[node] = insert(lefts[node], added);
+			if (priorities[lefts[node]] > priorities[node]) {
+				node = rotateRight(node);
+			} // end if block
+		} // end if block
+		else {
+			rights[node] = insert(rights[node], added);
+			if (priorities[rights[node]] > priorities[node]) {
+				node = rotateLeft(node);
+			} // end if block
+		} // end else block
+
+		resize(node);
+		return node;
+	} // end method insert
+
+	/**
+	 * unlinks a node from a subtree
+	 *
+	 * @param node root of the subtree
+	 * @param removed the node to unlink
+	 * @return the new root of the subtree
+	 */
+	private int delete(int node, int removed) {
+		if (node == NIL) {
+			throw new IllegalStateException("Row not ranked: " + (removed - 1));
+		} // end if block
+
+		if (node == removed) {
+			return merge(lefts[node], rights[node]);
+		} // end if block
+		else if (ahead(removed, node)) {
+			lefts[node] = delete(lefts[node], removed);
+		} // end else-if block
+		else {
+			rights[node] = delete(rights[node], removed);
+		} // end else block
+
+		resize(node);
+		return node;
+	} // end method delete
+
+	/**
+	 * joins two subtrees whose rows all rank ahead of one another
+	 *
+	 * @param left root of the subtree ranked ahead
+	 * @param right root of the subtree ranked behind
+	 * @return root of the joined subtree
+	 */
+	private int merge(int left, int right) {
+		if (left == NIL) {
+			return right;
+		} // end if block
+		if (right == NIL) {
+			return left;
+		} // end if block
+
+		if (priorities[left] > priorities[right]) {
+			rights[left] = merge(rights[left], right);
+			resize(left);
+			return left;
+		} // end if block
+		else {
+			lefts[right] = merge(left, lefts[right]);
+			resize(right);
+			return right;
+		} // end else block
+	} // end method merge
+
+	/**
+	 * rotates a node's left child above it
+	 *
+	 * @param node the node to rotate down
+	 * @return the node which replaced it
+	 */
+	private int rotateRight(int node) {
+		int child = lefts[node];
+		lefts[node] = rights[child];
+		rights[child] = node;
+		resize(node);
+		resize(child);
+		return child;
+	} // end method rotateRight
+
+	/**
+	 * rotates a node's right child above it
+	 *
+	 * @param node the node to rotate down
+	 * @return the node which replaced it
+	 */
+	private int rotateLeft(int node) {
+		int child = rights[node];
+		rights[node] = lefts[child];
+		lefts[child] = node;
+		resize(node);
+		resize(child);
+		return child;
+	} // end method rotateLeft
+
+	/**
+	 * recomputes the size of a node's subtree from its children
+	 *
+	 * @param node the node to update
+	 */
+	private void resize(int node) {
+		sizes[node] = sizes[lefts[node]] + 1 + sizes[rights[node]];
+	} // end method resize
+
+	/**
+	 * enlarges the node arrays to hold at least the given number of nodes
+	 *
+	 * @param minimum number of nodes needed, including NIL
+	 */
+	private void grow(int minimum) {
+		int capacity = Math.max(minimum, keys.length * 2);
+		keys = Arrays.copyOf(keys, capacity);
+		sizes = Arrays.copyOf(sizes, capacity);
+		lefts = Arrays.copyOf(lefts, capacity);
+		rights = Arrays.copyOf(rights, capacity);
+		priorities = Arrays.copyOf(priorities, capacity);
+	} // end method grow
+} // end class RankIndex
@@ -0,0 +1,67 @@
+package gradebook;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ReportEvent is a Java Flight Recorder event spanning one call of an
+ * output method, naming the report and the assignment or student it was
+ * about, so a recording shows which reports use the most time
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@Name("gradebook.Report")
+@Label("Gradebook Report")
+@Category("Gradebook")
+@Description("Output of a gradebook report")
+class ReportEvent extends Event {
+	/** name of the output method */
+	@Label("Report")
+	String report;
+
+	/** assignment name or username the report is about, if any */
+	@Label("Subject")
+	String subject;
+
+	/** number of student rows written */
+	@Label("Rows")
+	long rows;
+
+	/** number of assignment columns written per row */
+	@Label("Columns")
+	long columns;
+
+	/**
+	 * constructor to begin timing a report
+	 *
+	 * @param report name of the output method
+	 * @param subject assignment name or username, or null
+	 */
+	ReportEvent(String report, String subject) {
+		this.report = report;
+		this.subject = subject;
+		begin();
+	} // end constructor ReportEvent
+
+	/**
+	 * commits the event if the recording wants it
+	 *
+	 * @param rows number of student rows written
+	 * @param columns number of assignment columns written per row
+	 */
+	void finish(long rows, long columns) {
+		end();
+		if (shouldCommit()) {
+			this.rows = rows;
+			this.columns = columns;
+			commit();
+		} // end if block
+	} // end method finish
+} // end class ReportEvent
@@ -0,0 +1,152 @@
+package gradebook;
+
+import java.util.Arrays;
+
+/**
+ * StringDictionary is a table of distinct Strings, each numbered by a
+ * compact int id in the order it was first interned, so records which
+ * repeat the same text, such as the advisors and first names of many
+ * students, can hold a 4-byte id and share one String. Ids are looked up
+ * through an open-addressing hash table of ids rather than a map of boxed
+ * entries, and never change or go away, so a copy of the dictionary
+ * answers for every id handed out before it was made
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class StringDictionary {
+	/** number of Strings a fresh dictionary has room for */
+	private static final int INITIAL_CAPACITY = 4;
+
+	/** the Strings, indexed by id, in the first size elements */
+	private String[] strings;
+
+	/** number of Strings interned */
+	private int size = 0;
+
+	/**
+	 * hash table of ids, each stored plus 1 so 0 marks an empty slot; its
+	 * length is a power of 2 at least twice the capacity of strings, which
+	 * keeps probe sequences short
+	 */
+	private int[] slots;
+
+	/**
+	 * constructor to initialize an empty StringDictionary
+	 */
+	StringDictionary() {
+		strings = new String[INITIAL_CAPACITY];
+		slots = new int[INITIAL_CAPACITY * 2];
+	} // end constructor StringDictionary
+
+	/**
+	 * constructor to initialize a StringDictionary holding the same ids as
+	 * another
+	 *
+	 * @param other the dictionary to copy
+	 */
+	private StringDictionary(StringDictionary other) {
+		strings = Arrays.copyOf(other.strings, other.strings.length);
+		size = other.size;
+		slots = Arrays.copyOf(other.slots, other.slots.length);
+	} // end constructor StringDictionary
+
+	/**
+	 * makes a copy of the dictionary which can be interned into without
+	 * affecting this one
+	 *
+	 * @return a dictionary with the same Strings under the same ids
+	 */
+	StringDictionary copy() {
+		return new StringDictionary(this);
+	} // end method copy
+
+	/**
+	 * looks up the id of a String, adding it if it is not already present
+	 *
+	 * @param string the String to intern
+	 * @return the String's id
+	 */
+	int intern(String string) {
+		int slot = slot(string);
+		if (slots[slot] != 0) {
+			return slots[slot] - 1;
+		} // end if block
+
+		// make room first, which moves every slot
+		if (size == strings.length) {
+			grow();
+			slot = slot(string);
+		} // end if block
+		strings[size] = string;
+		slots[slot] = ++size;
+		return size - 1;
+	} // end method intern
+
+	/**
+	 * looks up the id of a String without adding it
+	 *
+	 * @param string the String to look up
+	 * @return the String's id, or -1 if it has not been interned
+	 */
+	int find(String string) {
+		return slots[slot(string)] - 1;
+	} // end method find
+
+	/**
+	 * accessor for the String with an id
+	 *
+	 * @param id id handed out by intern
+	 * @return the String
+	 */
+	String get(int id) {
+		return strings[id];
+	} // end method get
+
+	/**
+	 * accessor for the number of Strings interned
+	 *
+	 * @return number of Strings, which is also one past the highest id
+	 */
+	int size() {
+		return size;
+	} // end method size
+
+	/**
+	 * finds the slot holding a String's id, or the empty slot where it
+	 * belongs
+	 *
+	 * @param string the String to look for
+	 * @return index into slots
+	 */
+	private int slot(String string) {
+		// spread the high bits of the hash over the masked low bits
+		int hash = string.hashCode();
+		int mask = slots.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (slots[slot] != 0 && !strings[slots[slot] - 1].equals(string)) {
+			slot = (slot + 1) & mask;
+		} // end while loop
+		return slot;
+	} // end method slot
+
+	/**
+	 * doubles the capacity of the dictionary and rehashes every id
+	 */
+	private void grow() {
+		strings = Arrays.copyOf(strings, strings.length * 2);
+		slots = new int[strings.length * 2];
+		int mask = slots.length - 1;
+		for (int id = 0; id < size; ++id) {
+			int hash = strings[id].hashCode();
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			} // end while loop
+			slots[slot] = id + 1;
+		} // end for loop
+	} // end method grow
+} // end class StringDictionary
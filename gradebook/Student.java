@@ -2,7 +2,9 @@ package gradebook;
 
 /**
  * Student is a class containing all data related to a student in
- * a school-system
+ * a school-system. The names are held as ids in a StringDictionary, which
+ * a gradebook shares among all of its students so each distinct name,
+ * such as an advisor many students have, is stored once
  * 
  * @author Kosi Gizdarski
  * @author Cameron Sun
@@ -11,17 +13,20 @@ package gradebook;
  * @version 2014-04-11
  */
 public class Student {
-	/** username for student */
-    private String username;
+    /** dictionary holding the student's names */
+    private StringDictionary strings;
     
-    /** student first name */
-    private String firstName;
+	/** id of username for student */
+    private int username;
     
-    /** student last name */
-    private String lastName;
+    /** id of student first name */
+    private int firstName;
     
-    /** name of student's advisor */
-    private String advisor;
+    /** id of student last name */
+    private int lastName;
+    
+    /** id of name of student's advisor */
+    private int advisor;
     
     /** expected year of graduation */
     private int gradYear;
@@ -37,20 +42,56 @@ public class Student {
      */
     public Student(String username, String firstName, String lastName,
             String advisor, int gradYear) {
-        this.username = username;
-        this.firstName = firstName;
-        this.lastName = lastName;
-        this.advisor = advisor;
+        this(new StringDictionary(), username, firstName, lastName, advisor,
+                gradYear);
+    } // end constructor Student
+
+    /**
+     * constructor to initialize Student fields, interning the names into
+     * a shared dictionary
+     * 
+     * @param strings dictionary to hold the names
+     * @param username username for student
+     * @param firstName student first name
+     * @param lastName student last name
+     * @param advisor name of student's advisor
+     * @param gradYear expected year of graduation
+     */
+    Student(StringDictionary strings, String username, String firstName,
+            String lastName, String advisor, int gradYear) {
+        this.strings = strings;
+        this.username = strings.intern(username);
+        this.firstName = strings.intern(firstName);
+        this.lastName = strings.intern(lastName);
+        this.advisor = strings.intern(advisor);
         this.gradYear = gradYear;
     } // end constructor Student
 
+    /**
+     * accessor for the dictionary holding the names
+     * 
+     * @return the dictionary
+     */
+    StringDictionary strings() {
+        return strings;
+    } // end method strings
+
+    /**
+     * accessor for the id of the username
+     * 
+     * @return id of username in strings()
+     */
+    int usernameId() {
+        return username;
+    } // end method usernameId
+
     /**
      * accessor for username field
      * 
      * @return value of username
      */
     public String getUsername() {
-        return username;
+        return strings.get(username);
     } // end method getUsername
     
     /**
@@ -59,7 +100,7 @@ public class Student {
      * @param username value to set for username field
      */
     public void setUsername(String username) {
-        this.username = username;
+        this.username = strings.intern(username);
     } // end method setUsername
     
     /**
@@ -68,7 +109,7 @@ public class Student {
      * @return value of firstName
      */
     public String getFirstName() {
-        return firstName;
+        return strings.get(firstName);
     } // end method getFirstName
     
     /**
@@ -77,7 +118,7 @@ public class Student {
      * @param firstName value to set for firstName field
      */
     public void setFirstName(String firstName) {
-        this.firstName = firstName;
+        this.firstName = strings.intern(firstName);
     } // end method setFirstName
     
     /**
@@ -86,7 +127,7 @@ public class Student {
      * @return value of lastName
      */
     public String getLastName() {
-        return lastName;
+        return strings.get(lastName);
     } // end method getLastName
     
     /**
@@ -95,7 +136,7 @@ public class Student {
      * @param lastName value to set for lastName field
      */
     public void setLastName(String lastName) {
-        this.lastName = lastName;
+        this.lastName = strings.intern(lastName);
     } // end method setLastName
     
     /**
@@ -104,7 +145,7 @@ public class Student {
      * @return value of advisor
      */
     public String getAdvisor() {
-        return advisor;
+        return strings.get(advisor);
     } // end method getAdvisor
     
     /**
@@ -113,7 +154,7 @@ public class Student {
      * @param advisor value to set for advisor field
      */
     public void setAdvisor(String advisor) {
-        this.advisor = advisor;
+        this.advisor = strings.intern(advisor);
     } // end method setAdvisor
     
     /**
@@ -147,10 +188,10 @@ public class Student {
         }
         
         Student s = (Student) obj;
-        return s.username.equals(username) &&
-                s.firstName.equals(firstName) &&
-                s.lastName.equals(lastName) &&
-                s.advisor.equals(advisor) &&
+        return s.getUsername().equals(getUsername()) &&
+                s.getFirstName().equals(getFirstName()) &&
+                s.getLastName().equals(getLastName()) &&
+                s.getAdvisor().equals(getAdvisor()) &&
                 s.gradYear == gradYear;
     } // end method equals
     
@@ -161,10 +202,10 @@ public class Student {
      */
     @Override
     public int hashCode() {
-        return username.hashCode() * 11 +
-                firstName.hashCode() * 13 +
-                lastName.hashCode() * 17 +
-                advisor.hashCode() * 19 +
+        return getUsername().hashCode() * 11 +
+                getFirstName().hashCode() * 13 +
+                getLastName().hashCode() * 17 +
+                getAdvisor().hashCode() * 19 +
                 ((Integer) gradYear) * 23;
     } // end method hashCode
 } // end class Student
\ No newline at end of file
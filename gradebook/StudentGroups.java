@@ -0,0 +1,420 @@
+package gradebook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * StudentGroups is a secondary index partitioning the student rows by an
+ * attribute such as advisor or graduation year, with running aggregates of
+ * every group's weighted totals and of its grades in each assignment.
+ * Sums and counts move with every change; as in AssignmentStats, the
+ * multiplicity of each group's minimum and maximum is tracked so they are
+ * only looked up again, by scanning the group's own rows, once the last
+ * value holding an extreme is overwritten. Every method is synchronized,
+ * since grade changes to different assignments may update one group's
+ * weighted totals at once when used through a ConcurrentGradeBook
+ *
+ * @param <K> type of the attribute the rows are grouped by
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class StudentGroups<K extends Comparable<K>> {
+	/**
+	 * a per-row value which a group's aggregate can be recomputed from
+	 */
+	abstract static class RowValues {
+		/**
+		 * reads the value of a row
+		 *
+		 * @param row index of the student
+		 * @return the row's value
+		 */
+		abstract double of(int row);
+	} // end class RowValues
+
+	/** group of each attribute value */
+	private final HashMap<K, Group<K>> groups = new HashMap<K, Group<K>>();
+
+	/** group of each row */
+	private final ArrayList<Group<K>> rowGroups = new ArrayList<Group<K>>();
+
+	/** position of each row within its group's rows */
+	private int[] positions = new int[16];
+
+	/** number of assignment columns aggregated */
+	private int columns;
+
+	/**
+	 * constructor to initialize an empty StudentGroups
+	 *
+	 * @param columns number of assignment columns to aggregate
+	 */
+	StudentGroups(int columns) {
+		this.columns = columns;
+	} // end constructor StudentGroups
+
+	/**
+	 * adds a row whose weighted total and grades are all 0 to the group of
+	 * key, or moves an existing row there, in which case its weighted total
+	 * and grades must have been set to 0 already
+	 *
+	 * @param row index of the student
+	 * @param key the student's attribute value
+	 */
+	synchronized void put(int row, K key) {
+		if (row < rowGroups.size()) {
+			Group<K> old = rowGroups.get(row);
+			if (old.key.equals(key)) {
+				return;
+			} // end if block
+			removeRow(old, row);
+			rowGroups.set(row, addRow(key, row));
+		} // end if block
+		else {
+			rowGroups.add(addRow(key, row));
+		} // end else block
+	} // end method put
+
+	/**
+	 * adds an assignment column in which every row's grade is 0
+	 */
+	synchronized void addColumn() {
+		++columns;
+		for (Group<K> group : groups.values()) {
+			group.columns.add(new Aggregate(group.size));
+		} // end for loop
+	} // end method addColumn
+
+	/**
+	 * applies a grade change to the aggregates of the row's group
+	 *
+	 * @param row index of the student
+	 * @param column index of the assignment
+	 * @param oldGrade the grade being replaced
+	 * @param newGrade the new grade
+	 * @param oldTotal the row's weighted total before the change
+	 * @param newTotal the row's weighted total after the change
+	 */
+	synchronized void change(int row, int column, float oldGrade,
+			float newGrade, double oldTotal, double newTotal) {
+		Group<K> group = rowGroups.get(row);
+		group.columns.get(column).replace(oldGrade, newGrade);
+		group.totals.replace(oldTotal, newTotal);
+	} // end method change
+
+	/**
+	 * applies a change of a row's weighted total alone, such as rounding
+	 * it to exactly 0
+	 *
+	 * @param row index of the student
+	 * @param oldTotal the row's weighted total before the change
+	 * @param newTotal the row's weighted total after the change
+	 */
+	synchronized void changeTotal(int row, double oldTotal, double newTotal) {
+		rowGroups.get(row).totals.replace(oldTotal, newTotal);
+	} // end method changeTotal
+
+	/**
+	 * lists the rows in the group of key
+	 *
+	 * @param key the attribute value
+	 * @return the group's rows in no particular order, empty if there are
+	 *         none
+	 */
+	synchronized int[] rows(K key) {
+		Group<K> group = groups.get(key);
+		return group == null
+				? new int[0] : Arrays.copyOf(group.rows, group.size);
+	} // end method rows
+
+	/**
+	 * reads the aggregates of every group's weighted totals
+	 *
+	 * @param totals weighted total of each row, for groups whose minimum or
+	 * 			  maximum must be looked up again
+	 * @param scale factor to multiply each total by
+	 * @param divisor number to divide each scaled total by
+	 * @return map from each attribute value to its group's statistics
+	 */
+	synchronized TreeMap<K, GroupStatistics> totalStatistics(
+			RowValues totals, double scale, double divisor) {
+		TreeMap<K, GroupStatistics> statistics =
+				new TreeMap<K, GroupStatistics>();
+		for (Map.Entry<K, Group<K>> entry : groups.entrySet()) {
+			Group<K> group = entry.getValue();
+			statistics.put(entry.getKey(),
+					group.totals.statistics(group, totals, scale, divisor));
+		} // end for loop
+		return statistics;
+	} // end method totalStatistics
+
+	/**
+	 * reads the aggregates of every group's grades in an assignment
+	 *
+	 * @param column index of the assignment
+	 * @param grades grade of each row in the assignment, for groups whose
+	 * 			  minimum or maximum must be looked up again
+	 * @return map from each attribute value to its group's statistics
+	 */
+	synchronized TreeMap<K, GroupStatistics> columnStatistics(int column,
+			RowValues grades) {
+		TreeMap<K, GroupStatistics> statistics =
+				new TreeMap<K, GroupStatistics>();
+		for (Map.Entry<K, Group<K>> entry : groups.entrySet()) {
+			Group<K> group = entry.getValue();
+			statistics.put(entry.getKey(),
+					group.columns.get(column).statistics(group, grades, 1, 1));
+		} // end for loop
+		return statistics;
+	} // end method columnStatistics
+
+	/**
+	 * appends a row with all-0 values to the group of key, making the
+	 * group if it does not exist
+	 *
+	 * @param key the attribute value
+	 * @param row index of the student
+	 * @return the group
+	 */
+	private Group<K> addRow(K key, int row) {
+		Group<K> group = groups.get(key);
+		if (group == null) {
+			group = new Group<K>(key, columns);
+			groups.put(key, group);
+		} // end if block
+
+		if (row >= positions.length) {
+			positions = Arrays.copyOf(positions,
+					Math.max(row + 1, positions.length * 2));
+		} // end if block
+		if (group.size == group.rows.length) {
+			group.rows = Arrays.copyOf(group.rows, group.size * 2);
+		} // end if block
+		positions[row] = group.size;
+		group.rows[group.size++] = row;
+
+		group.totals.add(0);
+		for (Aggregate aggregate : group.columns) {
+			aggregate.add(0);
+		} // end for loop
+		return group;
+	} // end method addRow
+
+	/**
+	 * removes a row with all-0 values from its group, dropping the group
+	 * once it is empty
+	 *
+	 * @param group the row's group
+	 * @param row index of the student
+	 */
+	private void removeRow(Group<K> group, int row) {
+		// move the last row into the removed row's place
+		int position = positions[row];
+		int last = group.rows[--group.size];
+		group.rows[position] = last;
+		positions[last] = position;
+
+		if (group.size == 0) {
+			groups.remove(group.key);
+			return;
+		} // end if block
+		group.totals.remove(0);
+		for (Aggregate aggregate : group.columns) {
+			aggregate.remove(0);
+		} // end for loop
+	} // end method removeRow
+
+	/**
+	 * the rows sharing one attribute value and their aggregates
+	 *
+	 * @param <K> type of the attribute
+	 */
+	private static class Group<K> {
+		/** the attribute value */
+		final K key;
+
+		/** rows in the group, in the first size elements */
+		int[] rows = new int[4];
+
+		/** number of rows in the group */
+		int size = 0;
+
+		/** aggregate of the rows' weighted totals */
+		final Aggregate totals = new Aggregate(0);
+
+		/** aggregate of the rows' grades, indexed by assignment column */
+		final ArrayList<Aggregate> columns;
+
+		/**
+		 * constructor to initialize an empty Group
+		 *
+		 * @param key the attribute value
+		 * @param columns number of assignment columns
+		 */
+		Group(K key, int columns) {
+			this.key = key;
+			this.columns = new ArrayList<Aggregate>(columns);
+			for (int i = 0; i < columns; ++i) {
+				this.columns.add(new Aggregate(0));
+			} // end for loop
+		} // end constructor Group
+	} // end class Group
+
+	/**
+	 * running sum, count and extremes of one value over a group's rows
+	 */
+	private static class Aggregate {
+		/** sum of the values */
+		private double sum = 0;
+
+		/** number of values */
+		private int count;
+
+		/** smallest value */
+		private double min = 0;
+
+		/** number of values equal to min */
+		private int minCount;
+
+		/** largest value */
+		private double max = 0;
+
+		/** number of values equal to max */
+		private int maxCount;
+
+		/** whether min or max must be looked up again */
+		private boolean stale = false;
+
+		/**
+		 * constructor to initialize an Aggregate of 0s
+		 *
+		 * @param count number of values
+		 */
+		Aggregate(int count) {
+			this.count = count;
+			this.minCount = count;
+			this.maxCount = count;
+		} // end constructor Aggregate
+
+		/**
+		 * adds a value
+		 *
+		 * @param value the value to add
+		 */
+		void add(double value) {
+			sum += value;
+			if (++count == 1) {
+				min = value;
+				minCount = 1;
+				max = value;
+				maxCount = 1;
+				stale = false;
+				return;
+			} // end if block
+			if (stale) {
+				return;
+			} // end if block
+
+			if (value < min) {
+				min = value;
+				minCount = 1;
+			} // end if block
+			else if (value == min) {
+				++minCount;
+			} // end else-if block
+			if (value > max) {
+				max = value;
+				maxCount = 1;
+			} // end if block
+			else if (value == max) {
+				++maxCount;
+			} // end else-if block
+		} // end method add
+
+		/**
+		 * removes a value
+		 *
+		 * @param value the value to remove
+		 */
+		void remove(double value) {
+			sum -= value;
+			if (--count == 0) {
+				sum = 0;
+			} // end if block
+			if (stale) {
+				return;
+			} // end if block
+
+			// the extreme must be found again once its last copy is gone
+			if (value == min && --minCount == 0) {
+				stale = true;
+			} // end if block
+			if (value == max && --maxCount == 0) {
+				stale = true;
+			} // end if block
+		} // end method remove
+
+		/**
+		 * replaces one value with another
+		 *
+		 * @param oldValue the value to remove
+		 * @param newValue the value to add
+		 */
+		void replace(double oldValue, double newValue) {
+			if (oldValue != newValue) {
+				remove(oldValue);
+				add(newValue);
+			} // end if block
+		} // end method replace
+
+		/**
+		 * reads the aggregate, first scanning the group's rows if an
+		 * extreme was lost
+		 *
+		 * @param group the group whose values are aggregated
+		 * @param values value of each row
+		 * @param scale factor to multiply each value by
+		 * @param divisor number to divide each scaled value by
+		 * @return the count, mean, min and max of the scaled values
+		 */
+		GroupStatistics statistics(Group<?> group, RowValues values,
+				double scale, double divisor) {
+			if (stale) {
+				// the scan also resets the sum, shedding accumulated error
+				sum = 0;
+				min = Double.POSITIVE_INFINITY;
+				max = Double.NEGATIVE_INFINITY;
+				for (int i = 0; i < group.size; ++i) {
+					double value = values.of(group.rows[i]);
+					sum += value;
+					if (value < min) {
+						min = value;
+						minCount = 1;
+					} // end if block
+					else if (value == min) {
+						++minCount;
+					} // end else-if block
+					if (value > max) {
+						max = value;
+						maxCount = 1;
+					} // end if block
+					else if (value == max) {
+						++maxCount;
+					} // end else-if block
+				} // end for loop
+				stale = false;
+			} // end if block
+			return new GroupStatistics(count,
+					sum * scale / divisor / count,
+					min * scale / divisor,
+					max * scale / divisor);
+		} // end method statistics
+	} // end class Aggregate
+} // end class StudentGroups
@@ -0,0 +1,26 @@
+package gradebook.bench;
+
+/**
+ * GradeDistribution is an enumeration of the shapes of the grades written
+ * by WorkloadGenerator, each describing grades as a fraction of an
+ * assignment's total points
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public enum GradeDistribution {
+	/** every grade from 0 to the total points is equally likely */
+	UNIFORM,
+
+	/** grades cluster around 78% with a standard deviation of 12% */
+	NORMAL,
+
+	/**
+	 * two clusters of grades, around 88% and around 55%, as in a class
+	 * split between students who keep up and students who do not
+	 */
+	BIMODAL
+} // end enum GradeDistribution
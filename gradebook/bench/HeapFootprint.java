@@ -0,0 +1,116 @@
+package gradebook.bench;
+
+import gradebook.GradeStorage;
+import gradebook.MyGradeBook;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HeapFootprint is a class which measures how much heap a loaded
+ * MyGradeBook retains, by comparing the used heap after full collections
+ * before and after loading a synthetic gradebook from WorkloadGenerator.
+ * The grades themselves take 4 bytes a cell, so the report also gives
+ * what remains per student once they are taken away, which is the cost
+ * of the student records and the indexes over them. With OFF_HEAP storage
+ * the grades are not on the heap at all, so they are not subtracted.
+ *
+ * Run as a program it generates and loads a gradebook of the given shape:
+ *
+ * <pre>
+ * java -Xmx2g -cp out gradebook.bench.HeapFootprint [--students n]
+ *     [--assignments n] [--seed n] [--storage HEAP|OFF_HEAP]
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public class HeapFootprint {
+	/** number of full collections run before reading the heap */
+	private static final int COLLECTIONS = 4;
+
+	/**
+	 * reads the used heap once garbage has been collected
+	 *
+	 * @return bytes of heap in use
+	 */
+	static long usedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < COLLECTIONS; ++i) {
+			System.gc();
+		} // end for loop
+		return memory.getHeapMemoryUsage().getUsed();
+	} // end method usedHeap
+
+	/**
+	 * generates a gradebook file, loads it and reports the heap it retains
+	 *
+	 * @param args options as shown in the class comment
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or reading the gradebook
+	 */
+	public static void main(String[] args) throws IOException {
+		long seed = 1;
+		int students = 500000;
+		int assignments = 20;
+		GradeStorage storage = GradeStorage.HEAP;
+		for (int i = 0; i < args.length; i += 2) {
+			if (args[i].equals("--students")) {
+				students = Integer.parseInt(args[i + 1]);
+			} // end if block
+			else if (args[i].equals("--assignments")) {
+				assignments = Integer.parseInt(args[i + 1]);
+			} // end else-if block
+			else if (args[i].equals("--seed")) {
+				seed = Long.parseLong(args[i + 1]);
+			} // end else-if block
+			else if (args[i].equals("--storage")) {
+				storage = GradeStorage.valueOf(args[i + 1]);
+			} // end else-if block
+			else {
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			} // end else block
+		} // end for loop
+
+		// write the gradebook out first so the text is not on the heap
+		File file = File.createTempFile("footprint", ".txt");
+		file.deleteOnExit();
+		Writer out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file), StandardCharsets.UTF_8));
+		try {
+			new WorkloadGenerator(seed, students, assignments,
+					GradeDistribution.NORMAL, 0).writeGradebook(out);
+		} // end try block
+		finally {
+			out.close();
+		} // end finally block
+
+		long before = usedHeap();
+		MyGradeBook book = MyGradeBook.initializeWithFile(file.getPath(),
+				storage);
+		long retained = usedHeap() - before;
+		Reference.reachabilityFence(book);
+		book.close();
+		long gradeBytes = storage == GradeStorage.HEAP
+				? (long) students * assignments * 4 : 0;
+
+		System.out.printf("students %d, assignments %d, %s%n",
+				students, assignments, storage);
+		System.out.printf("retained heap  %,d bytes%n", retained);
+		System.out.printf("per student    %,.1f bytes%n",
+				(double) retained / Math.max(1, students));
+		System.out.printf("less grades    %,.1f bytes%n",
+				(double) (retained - gradeBytes) / Math.max(1, students));
+	} // end method main
+} // end class HeapFootprint
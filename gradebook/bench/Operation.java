@@ -0,0 +1,56 @@
+package gradebook.bench;
+
+/**
+ * Operation is an enumeration of the kinds of operations in a workload
+ * replayed by ReplayDriver; each operation is written as one line holding
+ * the operation's name followed by its tab-separated arguments
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public enum Operation {
+	/** add an assignment: name, total points, percent of semester */
+	ADD_ASSIGNMENT,
+
+	/**
+	 * add a student: username, first name, last name, advisor, graduation
+	 * year
+	 */
+	ADD_STUDENT,
+
+	/** change a grade: assignment name, username, new grade */
+	CHANGE_GRADE,
+
+	/** average of an assignment: assignment name */
+	AVERAGE,
+
+	/** median of an assignment: assignment name */
+	MEDIAN,
+
+	/** minimum of an assignment: assignment name */
+	MIN,
+
+	/** maximum of an assignment: assignment name */
+	MAX,
+
+	/** current grade of a student: username */
+	CURRENT_GRADE,
+
+	/** current grades of every student: no arguments */
+	CURRENT_GRADES,
+
+	/** report of a student's grades: username */
+	OUTPUT_STUDENT_GRADES,
+
+	/** report of an assignment's grades: assignment name */
+	OUTPUT_ASSIGNMENT_GRADES,
+
+	/** report of every current grade: no arguments */
+	OUTPUT_CURRENT_GRADES,
+
+	/** export of the whole gradebook: no arguments */
+	OUTPUT_GRADEBOOK
+} // end enum Operation
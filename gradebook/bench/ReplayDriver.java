@@ -0,0 +1,318 @@
+package gradebook.bench;
+
+import gradebook.MyGradeBook;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+
+/**
+ * ReplayDriver is a class which runs a stream of operations against a
+ * MyGradeBook, as written by WorkloadGenerator or recorded from real use,
+ * and reports the overall throughput along with latency percentiles for
+ * each kind of operation. The whole stream is parsed before the replay
+ * starts, so the timings only include the gradebook's own work; an
+ * operation rejected by the gradebook, such as one naming an unknown
+ * student, is timed and counted as an error.
+ *
+ * Run as a program it loads a gradebook file and replays an operations
+ * file against it:
+ *
+ * <pre>
+ * java -cp out gradebook.bench.ReplayDriver gradebook.txt operations.txt
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public class ReplayDriver {
+	/** gradebook the operations are run against */
+	private final MyGradeBook book;
+
+	/**
+	 * constructor to initialize ReplayDriver fields
+	 *
+	 * @param book gradebook the operations are run against
+	 */
+	public ReplayDriver(MyGradeBook book) {
+		this.book = book;
+	} // end constructor ReplayDriver
+
+	/**
+	 * parses and then runs every operation in a stream
+	 *
+	 * @param operations stream of operations, one per line
+	 * @return throughput and latencies of the replay
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the stream
+	 * @throws IllegalArgumentException
+	 * 			  thrown if a line is not a valid operation
+	 */
+	public Report replay(Reader operations) throws IOException {
+		// parse the whole stream up front
+		ArrayList<Operation> kinds = new ArrayList<Operation>();
+		ArrayList<String[]> arguments = new ArrayList<String[]>();
+		BufferedReader in = new BufferedReader(operations);
+		String line;
+		while ((line = in.readLine()) != null) {
+			if (line.isEmpty()) {
+				continue;
+			} // end if block
+			String[] fields = line.split("\t");
+			kinds.add(Operation.valueOf(fields[0]));
+			arguments.add(Arrays.copyOfRange(fields, 1, fields.length));
+		} // end while loop
+
+		// run and time each operation
+		Report report = new Report();
+		long start = System.nanoTime();
+		for (int i = 0; i < kinds.size(); ++i) {
+			long opStart = System.nanoTime();
+			boolean ok;
+			try {
+				ok = run(kinds.get(i), arguments.get(i));
+			} // end try block
+			catch (IllegalArgumentException e) {
+				ok = false;
+			} // end catch block
+			catch (ArithmeticException e) {
+				ok = false;
+			} // end catch block
+			report.record(kinds.get(i), System.nanoTime() - opStart, ok);
+		} // end for loop
+		report.elapsedNanos = System.nanoTime() - start;
+		return report;
+	} // end method replay
+
+	/**
+	 * runs one operation
+	 *
+	 * @param op kind of the operation
+	 * @param args the operation's arguments
+	 * @return whether the gradebook accepted the operation
+	 * @throws IOException
+	 * 			  thrown if error occurs adding to the gradebook
+	 * @throws IllegalArgumentException
+	 * 			  thrown if the gradebook rejects the arguments
+	 */
+	private boolean run(Operation op, String[] args) throws IOException {
+		switch (op) {
+		case ADD_ASSIGNMENT:
+			book.processString("ASSIGNMENT\n" + args[0] + "\n" + args[1]
+					+ "\n" + args[2]);
+			return true;
+		case ADD_STUDENT:
+			book.processString("STUDENT\n" + args[0] + "\n" + args[1] + "\n"
+					+ args[2] + "\n" + args[3] + "\n" + args[4]);
+			return true;
+		case CHANGE_GRADE:
+			return book.changeGrade(args[0], args[1],
+					Double.parseDouble(args[2]));
+		case AVERAGE:
+			book.average(args[0]);
+			return true;
+		case MEDIAN:
+			book.median(args[0]);
+			return true;
+		case MIN:
+			book.min(args[0]);
+			return true;
+		case MAX:
+			book.max(args[0]);
+			return true;
+		case CURRENT_GRADE:
+			book.currentGrade(args[0]);
+			return true;
+		case CURRENT_GRADES:
+			book.currentGrades();
+			return true;
+		case OUTPUT_STUDENT_GRADES:
+			book.outputStudentGrades(args[0]);
+			return true;
+		case OUTPUT_ASSIGNMENT_GRADES:
+			book.outputAssignmentGrades(args[0]);
+			return true;
+		case OUTPUT_CURRENT_GRADES:
+			book.outputCurrentGrades();
+			return true;
+		default:
+			book.outputGradebook();
+			return true;
+		} // end switch block
+	} // end method run
+
+	/**
+	 * loads a gradebook file and replays an operations file against it,
+	 * printing the report
+	 *
+	 * @param args the gradebook file and the operations file
+	 * @throws IOException
+	 * 			  thrown if error occurs reading either file
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: ReplayDriver gradebook operations");
+			System.exit(2);
+		} // end if block
+
+		long start = System.nanoTime();
+		MyGradeBook book = MyGradeBook.initializeWithFile(args[0]);
+		System.out.printf("loaded %s in %.1f ms%n", args[0],
+				(System.nanoTime() - start) / 1e6);
+
+		Reader operations = new InputStreamReader(
+				new FileInputStream(args[1]), StandardCharsets.UTF_8);
+		try {
+			new ReplayDriver(book).replay(operations).print(System.out);
+		} // end try block
+		finally {
+			operations.close();
+		} // end finally block
+	} // end method main
+
+	/**
+	 * Report is the throughput and latencies of one replay
+	 */
+	public static class Report {
+		/** latency of each operation of each kind, in nanoseconds */
+		private final EnumMap<Operation, LatencyList> latencies =
+				new EnumMap<Operation, LatencyList>(Operation.class);
+
+		/** number of operations the gradebook rejected, by kind */
+		private final EnumMap<Operation, Integer> errors =
+				new EnumMap<Operation, Integer>(Operation.class);
+
+		/** total number of operations */
+		private long operations = 0;
+
+		/** time taken by the whole replay, in nanoseconds */
+		private long elapsedNanos = 0;
+
+		/**
+		 * records one operation
+		 *
+		 * @param op kind of the operation
+		 * @param nanos how long it took
+		 * @param ok whether the gradebook accepted it
+		 */
+		void record(Operation op, long nanos, boolean ok) {
+			LatencyList list = latencies.get(op);
+			if (list == null) {
+				list = new LatencyList();
+				latencies.put(op, list);
+				errors.put(op, 0);
+			} // end if block
+			list.add(nanos);
+			if (!ok) {
+				errors.put(op, errors.get(op) + 1);
+			} // end if block
+			++operations;
+		} // end method record
+
+		/**
+		 * accessor for the number of operations replayed
+		 *
+		 * @return number of operations
+		 */
+		public long operations() {
+			return operations;
+		} // end method operations
+
+		/**
+		 * calculates the number of operations replayed per second
+		 *
+		 * @return the throughput of the replay
+		 */
+		public double throughput() {
+			return operations / (elapsedNanos / 1e9);
+		} // end method throughput
+
+		/**
+		 * looks up a latency percentile of one kind of operation
+		 *
+		 * @param op kind of operation
+		 * @param percent percentile to look up, from 0 to 100
+		 * @return the latency in nanoseconds, or 0 if no such operation was
+		 *         replayed
+		 */
+		public long latency(Operation op, double percent) {
+			LatencyList list = latencies.get(op);
+			return list == null ? 0 : list.percentile(percent);
+		} // end method latency
+
+		/**
+		 * prints the throughput and a table of latency percentiles in
+		 * microseconds
+		 *
+		 * @param out destination for the report
+		 */
+		public void print(PrintStream out) {
+			out.printf("%d operations in %.1f ms: %.0f ops/s%n", operations,
+					elapsedNanos / 1e6, throughput());
+			out.printf("%-26s %9s %7s %10s %10s %10s %10s %10s%n",
+					"operation", "count", "errors", "p50 us", "p90 us",
+					"p99 us", "p99.9 us", "max us");
+			for (Operation op : latencies.keySet()) {
+				LatencyList list = latencies.get(op);
+				out.printf("%-26s %9d %7d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+						op, list.size, errors.get(op),
+						list.percentile(50) / 1e3, list.percentile(90) / 1e3,
+						list.percentile(99) / 1e3, list.percentile(99.9) / 1e3,
+						list.percentile(100) / 1e3);
+			} // end for loop
+		} // end method print
+	} // end class Report
+
+	/**
+	 * LatencyList is a growable list of latencies which is sorted the first
+	 * time a percentile is asked for
+	 */
+	private static class LatencyList {
+		/** the latencies */
+		private long[] values = new long[64];
+
+		/** number of latencies */
+		private int size = 0;
+
+		/** whether values is sorted */
+		private boolean sorted = true;
+
+		/**
+		 * adds a latency
+		 *
+		 * @param nanos the latency
+		 */
+		void add(long nanos) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			} // end if block
+			values[size++] = nanos;
+			sorted = false;
+		} // end method add
+
+		/**
+		 * looks up a percentile using the nearest-rank method
+		 *
+		 * @param percent percentile to look up, from 0 to 100
+		 * @return the latency at that percentile
+		 */
+		long percentile(double percent) {
+			if (!sorted) {
+				Arrays.sort(values, 0, size);
+				sorted = true;
+			} // end if block
+			int rank = (int) Math.ceil(percent / 100 * size);
+			return values[Math.max(0, Math.min(size - 1, rank - 1))];
+		} // end method percentile
+	} // end class LatencyList
+} // end class ReplayDriver
@@ -0,0 +1,601 @@
+package gradebook.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * WorkloadGenerator is a class which writes synthetic gradebook inputs, in
+ * exactly the formats MyGradeBook processes, and streams of mixed
+ * operations for ReplayDriver. Everything written is determined by the
+ * seed, the number of students and assignments, the shape of the grades,
+ * and the skew: with a skew of 0 every student and assignment is equally
+ * likely to be the target of an operation, while larger skews concentrate
+ * operations on a few of them following a Zipf distribution with the skew
+ * as its exponent.
+ *
+ * Run as a program it writes a full set of inputs to a directory:
+ *
+ * <pre>
+ * java -cp out gradebook.bench.WorkloadGenerator directory [--seed n]
+ *     [--students n] [--assignments n] [--distribution UNIFORM|NORMAL|BIMODAL]
+ *     [--skew s] [--operations n]
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+public class WorkloadGenerator {
+	/** first names students are given */
+	private static final String[] FIRST_NAMES = {
+		"Alex", "Sam", "Jordan", "Taylor", "Morgan", "Casey", "Riley", "Jamie",
+		"Avery", "Quinn", "Drew", "Reese", "Skyler", "Rowan", "Emery", "Kai"
+	};
+
+	/** last names students are given */
+	private static final String[] LAST_NAMES = {
+		"Smith", "Nguyen", "Garcia", "Chen", "Okafor", "Kowalski", "Haddad",
+		"Silva", "Ivanova", "Murphy", "Tanaka", "Mensah", "Larsen", "Rossi"
+	};
+
+	/** total points assignments may be worth */
+	private static final int[] TOTAL_POINTS = { 10, 20, 25, 50, 100 };
+
+	/** number of advisors students are spread over */
+	private static final int ADVISORS = 50;
+
+	/** earliest expected graduation year */
+	private static final int FIRST_GRAD_YEAR = 2025;
+
+	/** seed every random choice is derived from */
+	private final long seed;
+
+	/** number of students in the gradebook */
+	private final int students;
+
+	/** number of assignments in the gradebook */
+	private final int assignments;
+
+	/** shape of the grades */
+	private final GradeDistribution distribution;
+
+	/** exponent of the Zipf distribution of operation targets */
+	private final double skew;
+
+	/** total points of each assignment */
+	private final int[] totalPoints;
+
+	/** percent of semester grade of each assignment */
+	private final double[] percentOfGrade;
+
+	/**
+	 * constructor to describe a synthetic gradebook
+	 *
+	 * @param seed seed every random choice is derived from
+	 * @param students number of students in the gradebook
+	 * @param assignments number of assignments in the gradebook
+	 * @param distribution shape of the grades
+	 * @param skew how strongly operations favour a few students and
+	 *            assignments; 0 for none
+	 * @throws IllegalArgumentException
+	 * 			  thrown if a count or the skew is negative
+	 */
+	public WorkloadGenerator(long seed, int students, int assignments,
+			GradeDistribution distribution, double skew)
+			throws IllegalArgumentException {
+		if (students < 0 || assignments < 0 || !(skew >= 0)) {
+			throw new IllegalArgumentException("Invalid workload shape");
+		} // end if block
+		this.seed = seed;
+		this.students = students;
+		this.assignments = assignments;
+		this.distribution = distribution;
+		this.skew = skew;
+
+		// pick each assignment's worth, with percents adding up to 100
+		Random random = random(0);
+		totalPoints = new int[assignments];
+		percentOfGrade = new double[assignments];
+		double weights = 0;
+		for (int i = 0; i < assignments; ++i) {
+			totalPoints[i] = TOTAL_POINTS[random.nextInt(TOTAL_POINTS.length)];
+			percentOfGrade[i] = 1 + random.nextInt(4);
+			weights += percentOfGrade[i];
+		} // end for loop
+		for (int i = 0; i < assignments; ++i) {
+			percentOfGrade[i] =
+					Math.round(percentOfGrade[i] * 10000 / weights) / 100.0;
+		} // end for loop
+	} // end constructor WorkloadGenerator
+
+	/**
+	 * provides the username of a student
+	 *
+	 * @param row index of the student
+	 * @return the student's username
+	 */
+	public String username(int row) {
+		return "student" + row;
+	} // end method username
+
+	/**
+	 * provides the name of an assignment
+	 *
+	 * @param column index of the assignment
+	 * @return the assignment's name
+	 */
+	public String assignmentName(int column) {
+		return "Assignment " + (column + 1);
+	} // end method assignmentName
+
+	/**
+	 * writes the whole gradebook in the GRADEBOOK format
+	 *
+	 * @param out destination for the gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void writeGradebook(Appendable out) throws IOException {
+		// output the three assignment header lines
+		out.append("GRADEBOOK\n\t\t\t\t");
+		for (int i = 0; i < assignments; ++i) {
+			out.append('\t').append(assignmentName(i));
+		} // end for loop
+		out.append("\n\t\t\t\t");
+		for (int i = 0; i < assignments; ++i) {
+			out.append('\t').append(String.valueOf(totalPoints[i]));
+		} // end for loop
+		out.append("\n\t\t\t\t");
+		for (int i = 0; i < assignments; ++i) {
+			out.append('\t').append(String.valueOf(percentOfGrade[i]));
+		} // end for loop
+		out.append('\n');
+
+		// output one row per student
+		Random random = random(1);
+		for (int row = 0; row < students; ++row) {
+			appendStudent(out, username(row), random, '\t');
+			for (int i = 0; i < assignments; ++i) {
+				out.append('\t').append(grade(random, i));
+			} // end for loop
+			out.append('\n');
+		} // end for loop
+	} // end method writeGradebook
+
+	/**
+	 * writes new assignments in the ASSIGNMENT format; their names do not
+	 * clash with the gradebook's
+	 *
+	 * @param out destination for the assignments
+	 * @param count number of assignments to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void writeAssignments(Appendable out, int count)
+			throws IOException {
+		Random random = random(2);
+		for (int i = 0; i < count; ++i) {
+			out.append("ASSIGNMENT\n")
+					.append(assignmentName(assignments + i)).append('\n')
+					.append(String.valueOf(
+							TOTAL_POINTS[random.nextInt(TOTAL_POINTS.length)]))
+					.append('\n')
+					.append(String.valueOf(1 + random.nextInt(4))).append('\n');
+		} // end for loop
+	} // end method writeAssignments
+
+	/**
+	 * writes new students in the STUDENT format; their usernames do not
+	 * clash with the gradebook's
+	 *
+	 * @param out destination for the students
+	 * @param count number of students to write
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void writeStudents(Appendable out, int count) throws IOException {
+		Random random = random(3);
+		for (int i = 0; i < count; ++i) {
+			out.append("STUDENT\n");
+			appendStudent(out, username(students + i), random, '\n');
+			out.append('\n');
+		} // end for loop
+	} // end method writeStudents
+
+	/**
+	 * writes a fresh grade for every student on one assignment in the
+	 * GRADES_FOR_ASSIGNMENT format
+	 *
+	 * @param out destination for the grades
+	 * @param column index of the assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void writeGradesForAssignment(Appendable out, int column)
+			throws IOException {
+		Random random = random(4);
+		out.append("GRADES_FOR_ASSIGNMENT\n").append(assignmentName(column));
+		for (int row = 0; row < students; ++row) {
+			out.append('\n').append(username(row))
+					.append('\n').append(grade(random, column));
+		} // end for loop
+		out.append('\n');
+	} // end method writeGradesForAssignment
+
+	/**
+	 * writes a fresh grade for every assignment of one student in the
+	 * GRADES_FOR_STUDENT format
+	 *
+	 * @param out destination for the grades
+	 * @param row index of the student
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	public void writeGradesForStudent(Appendable out, int row)
+			throws IOException {
+		Random random = random(5);
+		out.append("GRADES_FOR_STUDENT\n").append(username(row));
+		for (int i = 0; i < assignments; ++i) {
+			out.append('\n').append(assignmentName(i))
+					.append('\n').append(grade(random, i));
+		} // end for loop
+		out.append('\n');
+	} // end method writeGradesForStudent
+
+	/**
+	 * provides a typical mix of operations: mostly grade changes and cheap
+	 * queries, with occasional additions and rare full exports
+	 *
+	 * @return relative weight of each operation
+	 */
+	public static EnumMap<Operation, Double> defaultMix() {
+		EnumMap<Operation, Double> mix =
+				new EnumMap<Operation, Double>(Operation.class);
+		mix.put(Operation.ADD_ASSIGNMENT, 0.05);
+		mix.put(Operation.ADD_STUDENT, 0.5);
+		mix.put(Operation.CHANGE_GRADE, 60.0);
+		mix.put(Operation.AVERAGE, 6.0);
+		mix.put(Operation.MEDIAN, 4.0);
+		mix.put(Operation.MIN, 3.0);
+		mix.put(Operation.MAX, 3.0);
+		mix.put(Operation.CURRENT_GRADE, 15.0);
+		mix.put(Operation.CURRENT_GRADES, 0.1);
+		mix.put(Operation.OUTPUT_STUDENT_GRADES, 5.0);
+		mix.put(Operation.OUTPUT_ASSIGNMENT_GRADES, 0.5);
+		mix.put(Operation.OUTPUT_CURRENT_GRADES, 0.05);
+		mix.put(Operation.OUTPUT_GRADEBOOK, 0.01);
+		return mix;
+	} // end method defaultMix
+
+	/**
+	 * writes a stream of operations on the gradebook, one per line, in the
+	 * format read by ReplayDriver
+	 *
+	 * @param out destination for the operations
+	 * @param count number of operations to write
+	 * @param mix relative weight of each operation; missing operations are
+	 *            never chosen
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 * @throws IllegalArgumentException
+	 * 			  thrown if no operation has a positive weight, or operations
+	 *            on students or assignments are asked of a gradebook
+	 *            without any
+	 */
+	public void writeOperations(Appendable out, int count,
+			Map<Operation, Double> mix) throws IOException {
+		// build the cumulative weights of the operations
+		Operation[] kinds = Operation.values();
+		double[] cumulative = new double[kinds.length];
+		double total = 0;
+		for (int i = 0; i < kinds.length; ++i) {
+			Double weight = mix.get(kinds[i]);
+			if (weight != null && weight > 0) {
+				total += weight;
+			} // end if block
+			cumulative[i] = total;
+		} // end for loop
+		if (!(total > 0)) {
+			throw new IllegalArgumentException("Empty operation mix");
+		} // end if block
+
+		Random random = random(6);
+		ZipfSampler studentTargets = new ZipfSampler(students, skew);
+		ZipfSampler assignmentTargets = new ZipfSampler(assignments, skew);
+		int addedAssignments = 0;
+		int addedStudents = 0;
+		for (int n = 0; n < count; ++n) {
+			// pick the operation, then its targets
+			double draw = random.nextDouble() * total;
+			int pick = 0;
+			while (draw >= cumulative[pick]) {
+				++pick;
+			} // end while loop
+			Operation op = kinds[pick];
+			out.append(op.name());
+			switch (op) {
+			case ADD_ASSIGNMENT:
+				out.append('\t')
+						.append(assignmentName(assignments + addedAssignments++))
+						.append('\t').append(String.valueOf(
+								TOTAL_POINTS[random.nextInt(TOTAL_POINTS.length)]))
+						.append('\t').append(String.valueOf(1 + random.nextInt(4)));
+				break;
+			case ADD_STUDENT:
+				out.append('\t');
+				appendStudent(out, "added" + addedStudents++, random, '\t');
+				break;
+			case CHANGE_GRADE:
+				int column = assignmentTargets.next(random);
+				out.append('\t').append(assignmentName(column))
+						.append('\t').append(username(studentTargets.next(random)))
+						.append('\t').append(grade(random, column));
+				break;
+			case AVERAGE:
+			case MEDIAN:
+			case MIN:
+			case MAX:
+			case OUTPUT_ASSIGNMENT_GRADES:
+				out.append('\t')
+						.append(assignmentName(assignmentTargets.next(random)));
+				break;
+			case CURRENT_GRADE:
+			case OUTPUT_STUDENT_GRADES:
+				out.append('\t').append(username(studentTargets.next(random)));
+				break;
+			default:
+				// the remaining operations take no arguments
+				break;
+			} // end switch block
+			out.append('\n');
+		} // end for loop
+	} // end method writeOperations
+
+	/**
+	 * writes a full set of inputs to a directory: gradebook.txt,
+	 * addAssignments.txt, addStudents.txt, gradesForAssignment1.txt,
+	 * gradesForStudent.txt and operations.txt
+	 *
+	 * @param args the directory followed by options
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the files
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("usage: WorkloadGenerator directory [--seed n]"
+					+ " [--students n] [--assignments n] [--distribution d]"
+					+ " [--skew s] [--operations n]");
+			System.exit(2);
+		} // end if block
+
+		long seed = 1;
+		int students = 1000;
+		int assignments = 20;
+		GradeDistribution distribution = GradeDistribution.NORMAL;
+		double skew = 0;
+		int operations = 100000;
+		for (int i = 1; i < args.length; i += 2) {
+			if (args[i].equals("--seed")) {
+				seed = Long.parseLong(args[i + 1]);
+			} // end if block
+			else if (args[i].equals("--students")) {
+				students = Integer.parseInt(args[i + 1]);
+			} // end else-if block
+			else if (args[i].equals("--assignments")) {
+				assignments = Integer.parseInt(args[i + 1]);
+			} // end else-if block
+			else if (args[i].equals("--distribution")) {
+				distribution = GradeDistribution.valueOf(args[i + 1]);
+			} // end else-if block
+			else if (args[i].equals("--skew")) {
+				skew = Double.parseDouble(args[i + 1]);
+			} // end else-if block
+			else if (args[i].equals("--operations")) {
+				operations = Integer.parseInt(args[i + 1]);
+			} // end else-if block
+			else {
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			} // end else block
+		} // end for loop
+
+		File directory = new File(args[0]);
+		directory.mkdirs();
+		WorkloadGenerator generator = new WorkloadGenerator(
+				seed, students, assignments, distribution, skew);
+
+		Writer out = open(directory, "gradebook.txt");
+		try {
+			generator.writeGradebook(out);
+		} // end try block
+		finally {
+			out.close();
+		} // end finally block
+		out = open(directory, "addAssignments.txt");
+		try {
+			generator.writeAssignments(out, Math.max(1, assignments / 10));
+		} // end try block
+		finally {
+			out.close();
+		} // end finally block
+		out = open(directory, "addStudents.txt");
+		try {
+			generator.writeStudents(out, Math.max(1, students / 10));
+		} // end try block
+		finally {
+			out.close();
+		} // end finally block
+		if (assignments > 0) {
+			out = open(directory, "gradesForAssignment1.txt");
+			try {
+				generator.writeGradesForAssignment(out, 0);
+			} // end try block
+			finally {
+				out.close();
+			} // end finally block
+		} // end if block
+		if (students > 0) {
+			out = open(directory, "gradesForStudent.txt");
+			try {
+				generator.writeGradesForStudent(out, 0);
+			} // end try block
+			finally {
+				out.close();
+			} // end finally block
+		} // end if block
+		if (students > 0 && assignments > 0) {
+			out = open(directory, "operations.txt");
+			try {
+				generator.writeOperations(out, operations, defaultMix());
+			} // end try block
+			finally {
+				out.close();
+			} // end finally block
+		} // end if block
+	} // end method main
+
+	/**
+	 * opens a buffered UTF-8 writer over a new file
+	 *
+	 * @param directory directory to create the file in
+	 * @param name name of the file
+	 * @return a writer over the file
+	 * @throws IOException
+	 * 			  thrown if error occurs creating the file
+	 */
+	private static Writer open(File directory, String name)
+			throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(new File(directory, name)),
+				StandardCharsets.UTF_8));
+	} // end method open
+
+	/**
+	 * creates the source of random choices for one kind of output, so that
+	 * each output is the same whichever others are written
+	 *
+	 * @param stream number identifying the kind of output
+	 * @return the source of random choices
+	 */
+	private Random random(int stream) {
+		return new Random(seed * 31 + stream);
+	} // end method random
+
+	/**
+	 * writes a student's fields separated by the given character
+	 *
+	 * @param out destination for the student
+	 * @param username the student's username
+	 * @param random source of the other fields
+	 * @param separator character written between fields
+	 * @throws IOException
+	 * 			  thrown if error occurs writing to out
+	 */
+	private static void appendStudent(Appendable out, String username,
+			Random random, char separator) throws IOException {
+		out.append(username)
+				.append(separator)
+				.append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+				.append(separator)
+				.append(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+				.append(separator)
+				.append("advisor").append(String.valueOf(random.nextInt(ADVISORS)))
+				.append(separator)
+				.append(String.valueOf(FIRST_GRAD_YEAR + random.nextInt(4)));
+	} // end method appendStudent
+
+	/**
+	 * draws a grade for an assignment from the grade distribution, rounded
+	 * to a tenth of a point
+	 *
+	 * @param random source of the grade
+	 * @param column index of the assignment
+	 * @return the grade as text
+	 */
+	private String grade(Random random, int column) {
+		double fraction;
+		switch (distribution) {
+		case UNIFORM:
+			fraction = random.nextDouble();
+			break;
+		case BIMODAL:
+			fraction = random.nextInt(3) == 0 ?
+					0.55 + 0.12 * random.nextGaussian() :
+					0.88 + 0.06 * random.nextGaussian();
+			break;
+		default:
+			fraction = 0.78 + 0.12 * random.nextGaussian();
+			break;
+		} // end switch block
+
+		// keep the grade within the assignment's range
+		fraction = Math.max(0, Math.min(1, fraction));
+		return String.valueOf(
+				Math.round(fraction * totalPoints[column] * 10) / 10.0);
+	} // end method grade
+
+	/**
+	 * ZipfSampler draws indices from 0 to n - 1 where index k is chosen with
+	 * probability proportional to 1 / (k + 1)^exponent
+	 */
+	private static class ZipfSampler {
+		/** cumulative probability of each index, or null when uniform */
+		private final double[] cumulative;
+
+		/** number of indices */
+		private final int n;
+
+		/**
+		 * constructor to build the cumulative distribution
+		 *
+		 * @param n number of indices
+		 * @param exponent skew of the distribution; 0 for uniform
+		 */
+		ZipfSampler(int n, double exponent) {
+			this.n = n;
+			if (exponent == 0 || n == 0) {
+				cumulative = null;
+				return;
+			} // end if block
+
+			cumulative = new double[n];
+			double total = 0;
+			for (int k = 0; k < n; ++k) {
+				total += 1 / Math.pow(k + 1, exponent);
+				cumulative[k] = total;
+			} // end for loop
+			for (int k = 0; k < n; ++k) {
+				cumulative[k] /= total;
+			} // end for loop
+		} // end constructor ZipfSampler
+
+		/**
+		 * draws an index
+		 *
+		 * @param random source of the draw
+		 * @return the index drawn
+		 * @throws IllegalArgumentException
+		 * 			  thrown if there are no indices to draw
+		 */
+		int next(Random random) {
+			if (n == 0) {
+				throw new IllegalArgumentException("Nothing to target");
+			} // end if block
+			if (cumulative == null) {
+				return random.nextInt(n);
+			} // end if block
+			int k = Arrays.binarySearch(cumulative, random.nextDouble());
+			return Math.min(n - 1, k < 0 ? -k - 1 : k);
+		} // end method next
+	} // end class ZipfSampler
+} // end class WorkloadGenerator
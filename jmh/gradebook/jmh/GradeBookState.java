@@ -0,0 +1,185 @@
+package gradebook.jmh;
+
+import gradebook.MyGradeBook;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * GradeBookState is the data shared by every benchmark of one gradebook
+ * shape: a gradebook of random grades, its GRADEBOOK text and file, and
+ * inputs of the other formats sized to match. The shapes run from 100 to
+ * 1,000,000 cells, each given as students x assignments
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@State(Scope.Benchmark)
+public class GradeBookState {
+	/** number of students and assignments, as studentsxassignments */
+	@Param({ "10x10", "1000x10", "100x100", "100000x10", "10000x100",
+			"1000x1000" })
+	String shape;
+
+	/** number of students */
+	int students;
+
+	/** number of assignments */
+	int assignments;
+
+	/** usernames of the students, in row order */
+	String[] usernames;
+
+	/** names of the assignments, in column order */
+	String[] assignmentNames;
+
+	/** the gradebook in the GRADEBOOK format */
+	String gradebookText;
+
+	/** the gradebook written to a temporary file */
+	File gradebookFile;
+
+	/** an ASSIGNMENT input adding as many new assignments as there are */
+	String assignmentInput;
+
+	/** a STUDENT input adding as many new students as there are */
+	String studentInput;
+
+	/** a GRADES_FOR_ASSIGNMENT input changing every student's grade */
+	String gradesForAssignmentInput;
+
+	/** a GRADES_FOR_STUDENT input changing every grade of one student */
+	String gradesForStudentInput;
+
+	/** gradebook loaded from gradebookText */
+	MyGradeBook book;
+
+	/** source of the operands of the benchmarks */
+	final Random random = new Random(42);
+
+	/**
+	 * builds a gradebook of the shape with random grades, and the inputs
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or loading the gradebook
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		String[] sizes = shape.split("x");
+		students = Integer.parseInt(sizes[0]);
+		assignments = Integer.parseInt(sizes[1]);
+		usernames = new String[students];
+		for (int i = 0; i < students; ++i) {
+			usernames[i] = "student" + i;
+		} // end for loop
+		assignmentNames = new String[assignments];
+		for (int i = 0; i < assignments; ++i) {
+			assignmentNames[i] = "Assignment " + i;
+		} // end for loop
+
+		// output the header lines and then one row per student
+		StringBuilder sb = new StringBuilder("GRADEBOOK\n\t\t\t\t");
+		for (String name : assignmentNames) {
+			sb.append('\t').append(name);
+		} // end for loop
+		sb.append("\n\t\t\t\t");
+		for (int i = 0; i < assignments; ++i) {
+			sb.append('\t').append(totalPoints(i));
+		} // end for loop
+		sb.append("\n\t\t\t\t");
+		for (int i = 0; i < assignments; ++i) {
+			sb.append('\t').append(100.0 / assignments);
+		} // end for loop
+		for (int row = 0; row < students; ++row) {
+			sb.append('\n').append(usernames[row])
+					.append("\tFirst").append(row)
+					.append("\tLast").append(row)
+					.append("\tadvisor").append(row % 50)
+					.append('\t').append(2015 + row % 4);
+			for (int i = 0; i < assignments; ++i) {
+				sb.append('\t').append(random.nextInt(totalPoints(i) + 1));
+			} // end for loop
+		} // end for loop
+		gradebookText = sb.toString();
+
+		gradebookFile = File.createTempFile("gradebook", ".txt");
+		Files.write(gradebookFile.toPath(),
+				gradebookText.getBytes(StandardCharsets.UTF_8));
+		book = MyGradeBook.initializeWithString(gradebookText);
+
+		// inputs of the other formats
+		sb = new StringBuilder();
+		for (int i = 0; i < assignments; ++i) {
+			sb.append("ASSIGNMENT\nNew ").append(i).append("\n10\n1\n");
+		} // end for loop
+		assignmentInput = sb.toString();
+		sb = new StringBuilder();
+		for (int i = 0; i < students; ++i) {
+			sb.append("STUDENT\nnew").append(i)
+					.append("\nFirst\nLast\nadvisor\n2016\n");
+		} // end for loop
+		studentInput = sb.toString();
+		sb = new StringBuilder("GRADES_FOR_ASSIGNMENT\n")
+				.append(assignmentNames[0]);
+		for (String username : usernames) {
+			sb.append('\n').append(username)
+					.append('\n').append(random.nextInt(11));
+		} // end for loop
+		gradesForAssignmentInput = sb.toString();
+		sb = new StringBuilder("GRADES_FOR_STUDENT\n").append(usernames[0]);
+		for (String name : assignmentNames) {
+			sb.append('\n').append(name)
+					.append('\n').append(random.nextInt(11));
+		} // end for loop
+		gradesForStudentInput = sb.toString();
+	} // end method setup
+
+	/**
+	 * deletes the temporary gradebook file
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		gradebookFile.delete();
+	} // end method tearDown
+
+	/**
+	 * provides the total points of an assignment
+	 *
+	 * @param column index of the assignment
+	 * @return the assignment's total points
+	 */
+	static int totalPoints(int column) {
+		return 10 * (1 + column % 10);
+	} // end method totalPoints
+
+	/**
+	 * picks a random student
+	 *
+	 * @return the username of the student
+	 */
+	String randomStudent() {
+		return usernames[random.nextInt(students)];
+	} // end method randomStudent
+
+	/**
+	 * picks a random assignment
+	 *
+	 * @return the name of the assignment
+	 */
+	String randomAssignment() {
+		return assignmentNames[random.nextInt(assignments)];
+	} // end method randomAssignment
+} // end class GradeBookState
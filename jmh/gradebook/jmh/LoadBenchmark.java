@@ -0,0 +1,166 @@
+package gradebook.jmh;
+
+import gradebook.LoadMode;
+import gradebook.MyGradeBook;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LoadBenchmark measures building a gradebook from each input format, over
+ * every shape of GradeBookState. Run it, with the allocation rate of each
+ * case, as
+ *
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar LoadBenchmark -prof gc
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LoadBenchmark {
+	/**
+	 * ModeState is the strategy used to read the gradebook file
+	 */
+	@State(Scope.Benchmark)
+	public static class ModeState {
+		/** strategy used to read the file; every one when left empty */
+		@Param
+		LoadMode mode;
+	} // end class ModeState
+
+	/**
+	 * FreshBook is a gradebook loaded again before every invocation, for
+	 * the benchmarks which grow it
+	 */
+	@State(Scope.Thread)
+	public static class FreshBook {
+		/** gradebook loaded from the shape's GRADEBOOK text */
+		MyGradeBook book;
+
+		/**
+		 * loads the gradebook again
+		 *
+		 * @param state the shape being measured
+		 * @throws IOException
+		 * 			  thrown if error occurs loading the gradebook
+		 */
+		@Setup(Level.Invocation)
+		public void setup(GradeBookState state) throws IOException {
+			book = MyGradeBook.initializeWithString(state.gradebookText);
+		} // end method setup
+	} // end class FreshBook
+
+	/**
+	 * loads the GRADEBOOK text
+	 *
+	 * @param state the shape being measured
+	 * @return the loaded gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs loading the gradebook
+	 */
+	@Benchmark
+	public MyGradeBook initializeWithString(GradeBookState state)
+			throws IOException {
+		return MyGradeBook.initializeWithString(state.gradebookText);
+	} // end method initializeWithString
+
+	/**
+	 * loads the GRADEBOOK file
+	 *
+	 * @param state the shape being measured
+	 * @param mode strategy used to read the file
+	 * @return the loaded gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	@Benchmark
+	public MyGradeBook initializeWithFile(GradeBookState state,
+			ModeState mode) throws IOException {
+		return MyGradeBook.initializeWithFile(state.gradebookFile.getPath(),
+				mode.mode);
+	} // end method initializeWithFile
+
+	/**
+	 * adds as many new assignments as the gradebook has
+	 *
+	 * @param state the shape being measured
+	 * @param fresh the gradebook to grow
+	 * @return the grown gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the input
+	 */
+	@Benchmark
+	public MyGradeBook processAssignments(GradeBookState state,
+			FreshBook fresh) throws IOException {
+		fresh.book.processString(state.assignmentInput);
+		return fresh.book;
+	} // end method processAssignments
+
+	/**
+	 * adds as many new students as the gradebook has
+	 *
+	 * @param state the shape being measured
+	 * @param fresh the gradebook to grow
+	 * @return the grown gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the input
+	 */
+	@Benchmark
+	public MyGradeBook processStudents(GradeBookState state,
+			FreshBook fresh) throws IOException {
+		fresh.book.processString(state.studentInput);
+		return fresh.book;
+	} // end method processStudents
+
+	/**
+	 * changes every student's grade in the first assignment
+	 *
+	 * @param state the shape being measured
+	 * @return the changed gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the input
+	 */
+	@Benchmark
+	public MyGradeBook processGradesForAssignment(GradeBookState state)
+			throws IOException {
+		state.book.processString(state.gradesForAssignmentInput);
+		return state.book;
+	} // end method processGradesForAssignment
+
+	/**
+	 * changes every grade of the first student
+	 *
+	 * @param state the shape being measured
+	 * @return the changed gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs processing the input
+	 */
+	@Benchmark
+	public MyGradeBook processGradesForStudent(GradeBookState state)
+			throws IOException {
+		state.book.processString(state.gradesForStudentInput);
+		return state.book;
+	} // end method processGradesForStudent
+} // end class LoadBenchmark
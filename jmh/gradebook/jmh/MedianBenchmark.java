@@ -0,0 +1,110 @@
+package gradebook.jmh;
+
+import gradebook.MyGradeBook;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MedianBenchmark compares the median kept by the order-statistic index
+ * with sorting a copy of the column, as median did before it, on a
+ * gradebook of a single assignment with 10,000 to 1,000,000 students. Run
+ * it as
+ *
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar MedianBenchmark -prof gc
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class MedianBenchmark {
+	/** name of the only assignment */
+	private static final String ASSIGNMENT = "Assignment 0";
+
+	/** number of students */
+	@Param({ "10000", "100000", "1000000" })
+	int students;
+
+	/** gradebook of the single assignment */
+	MyGradeBook book;
+
+	/** the assignment's grades, in student order */
+	float[] column;
+
+	/**
+	 * builds the gradebook with random grades out of 100
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs loading the gradebook
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		Random random = new Random(42);
+		column = new float[students];
+		StringBuilder sb = new StringBuilder("GRADEBOOK\n\t\t\t\t\t")
+				.append(ASSIGNMENT).append("\n\t\t\t\t\t100\n\t\t\t\t\t100");
+		for (int row = 0; row < students; ++row) {
+			column[row] = random.nextInt(101);
+			sb.append("\nstudent").append(row)
+					.append("\tFirst").append(row)
+					.append("\tLast").append(row)
+					.append("\tadvisor").append(row % 50)
+					.append('\t').append(2015 + row % 4)
+					.append('\t').append((int) column[row]);
+		} // end for loop
+		book = MyGradeBook.initializeWithString(sb.toString());
+	} // end method setup
+
+	/**
+	 * finds the median from the index
+	 *
+	 * @return the median
+	 */
+	@Benchmark
+	public double median() {
+		return book.median(ASSIGNMENT);
+	} // end method median
+
+	/**
+	 * finds the median by sorting a copy of the column
+	 *
+	 * @return the median
+	 */
+	@Benchmark
+	public double medianBySorting() {
+		float[] sorted = column.clone();
+		Arrays.sort(sorted);
+		int middle = sorted.length / 2;
+		if (sorted.length % 2 == 1) {
+			return sorted[middle];
+		} // end if block
+		else {
+			return (sorted[middle - 1] + sorted[middle]) / 2;
+		} // end else block
+	} // end method medianBySorting
+} // end class MedianBenchmark
@@ -0,0 +1,207 @@
+package gradebook.jmh;
+
+import gradebook.MyGradeBook;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ParallelCurrentGradesBenchmark measures currentGradesInParallel on a
+ * fixed pool of 1, 2, 4 and more threads against currentGrades on the
+ * calling thread. Running the class itself runs the benchmark with the gc
+ * profiler and then prints the speedup of every pool size; other JMH
+ * options, such as more pool sizes, may be given as well
+ *
+ * <pre>
+ * java -cp jmh/target/benchmarks.jar \
+ *     gradebook.jmh.ParallelCurrentGradesBenchmark -p threads=1,2,4,8,16,32
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParallelCurrentGradesBenchmark {
+	/**
+	 * Book is a gradebook of ten assignments with random grades
+	 */
+	@State(Scope.Benchmark)
+	public static class Book {
+		/** number of students */
+		@Param({ "100000", "1000000" })
+		int students;
+
+		/** the gradebook */
+		MyGradeBook book;
+
+		/**
+		 * builds the gradebook
+		 *
+		 * @throws IOException
+		 * 			  thrown if error occurs loading the gradebook
+		 */
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			Random random = new Random(42);
+			StringBuilder sb = new StringBuilder("GRADEBOOK\n\t\t\t\t");
+			for (int i = 0; i < 10; ++i) {
+				sb.append("\tAssignment ").append(i);
+			} // end for loop
+			sb.append("\n\t\t\t\t");
+			for (int i = 0; i < 10; ++i) {
+				sb.append('\t').append(GradeBookState.totalPoints(i));
+			} // end for loop
+			sb.append("\n\t\t\t\t");
+			for (int i = 0; i < 10; ++i) {
+				sb.append("\t10");
+			} // end for loop
+			for (int row = 0; row < students; ++row) {
+				sb.append("\nstudent").append(row)
+						.append("\tFirst").append(row)
+						.append("\tLast").append(row)
+						.append("\tadvisor").append(row % 50)
+						.append('\t').append(2015 + row % 4);
+				for (int i = 0; i < 10; ++i) {
+					sb.append('\t').append(
+							random.nextInt(GradeBookState.totalPoints(i) + 1));
+				} // end for loop
+			} // end for loop
+			book = MyGradeBook.initializeWithString(sb.toString());
+		} // end method setup
+	} // end class Book
+
+	/**
+	 * Pool is a fixed pool of threads computing the chunks
+	 */
+	@State(Scope.Benchmark)
+	public static class Pool {
+		/** number of threads in the pool */
+		@Param({ "1", "2", "4", "8", "16" })
+		int threads;
+
+		/** the pool */
+		ExecutorService executor;
+
+		/**
+		 * starts the pool
+		 */
+		@Setup(Level.Trial)
+		public void setup() {
+			executor = Executors.newFixedThreadPool(threads);
+		} // end method setup
+
+		/**
+		 * stops the pool
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			executor.shutdown();
+		} // end method tearDown
+	} // end class Pool
+
+	/**
+	 * calculates every student's current grade on the calling thread
+	 *
+	 * @param book the gradebook
+	 * @return the current grades
+	 */
+	@Benchmark
+	public HashMap<String, Double> currentGrades(Book book) {
+		return book.book.currentGrades();
+	} // end method currentGrades
+
+	/**
+	 * calculates every student's current grade on the pool
+	 *
+	 * @param book the gradebook
+	 * @param pool the pool
+	 * @return the current grades
+	 * @throws InterruptedException
+	 * 			  thrown if interrupted while waiting for the chunks
+	 */
+	@Benchmark
+	public HashMap<String, Double> currentGradesInParallel(Book book,
+			Pool pool) throws InterruptedException {
+		return book.book.currentGradesInParallel(pool.executor, pool.threads);
+	} // end method currentGradesInParallel
+
+	/**
+	 * runs the benchmark and prints the speedup of each pool size over
+	 * currentGrades
+	 *
+	 * @param args further JMH options
+	 * @throws CommandLineOptionException
+	 * 			  thrown if the options cannot be parsed
+	 * @throws RunnerException
+	 * 			  thrown if the benchmark fails
+	 */
+	public static void main(String[] args)
+			throws CommandLineOptionException, RunnerException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(ParallelCurrentGradesBenchmark.class.getName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		// time of currentGrades for each number of students
+		TreeMap<Integer, Double> baselines = new TreeMap<Integer, Double>();
+		for (RunResult result : results) {
+			if (result.getParams().getBenchmark().endsWith(".currentGrades")) {
+				baselines.put(
+						Integer.valueOf(result.getParams().getParam("students")),
+						result.getPrimaryResult().getScore());
+			} // end if block
+		} // end for loop
+
+		System.out.println();
+		System.out.printf("%10s %8s %14s %8s%n",
+				"students", "threads", "us/op", "speedup");
+		for (RunResult result : results) {
+			if (result.getParams().getBenchmark().endsWith(".currentGrades")) {
+				continue;
+			} // end if block
+			int students =
+					Integer.parseInt(result.getParams().getParam("students"));
+			double score = result.getPrimaryResult().getScore();
+			System.out.printf("%10d %8s %14.3f %7.2fx%n", students,
+					result.getParams().getParam("threads"), score,
+					baselines.get(students) / score);
+		} // end for loop
+	} // end method main
+} // end class ParallelCurrentGradesBenchmark
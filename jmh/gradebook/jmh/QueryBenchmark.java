@@ -0,0 +1,137 @@
+package gradebook.jmh;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * QueryBenchmark measures changing a grade and the statistics and current
+ * grade queries, over every shape of GradeBookState, each against a random
+ * assignment or student. Run it as
+ *
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar QueryBenchmark -prof gc
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueryBenchmark {
+	/**
+	 * changes a random grade
+	 *
+	 * @param state the shape being measured
+	 * @return whether the grade was changed
+	 */
+	@Benchmark
+	public boolean changeGrade(GradeBookState state) {
+		return state.book.changeGrade(state.randomAssignment(),
+				state.randomStudent(), state.random.nextInt(11));
+	} // end method changeGrade
+
+	/**
+	 * averages an assignment
+	 *
+	 * @param state the shape being measured
+	 * @return the average
+	 */
+	@Benchmark
+	public double average(GradeBookState state) {
+		return state.book.average(state.randomAssignment());
+	} // end method average
+
+	/**
+	 * finds the median of an assignment
+	 *
+	 * @param state the shape being measured
+	 * @return the median
+	 */
+	@Benchmark
+	public double median(GradeBookState state) {
+		return state.book.median(state.randomAssignment());
+	} // end method median
+
+	/**
+	 * finds the 90th percentile of an assignment
+	 *
+	 * @param state the shape being measured
+	 * @return the percentile
+	 */
+	@Benchmark
+	public double percentile(GradeBookState state) {
+		return state.book.percentile(state.randomAssignment(), 90);
+	} // end method percentile
+
+	/**
+	 * finds the minimum of an assignment
+	 *
+	 * @param state the shape being measured
+	 * @return the minimum
+	 */
+	@Benchmark
+	public double min(GradeBookState state) {
+		return state.book.min(state.randomAssignment());
+	} // end method min
+
+	/**
+	 * finds the maximum of an assignment
+	 *
+	 * @param state the shape being measured
+	 * @return the maximum
+	 */
+	@Benchmark
+	public double max(GradeBookState state) {
+		return state.book.max(state.randomAssignment());
+	} // end method max
+
+	/**
+	 * calculates a student's current grade
+	 *
+	 * @param state the shape being measured
+	 * @return the current grade
+	 */
+	@Benchmark
+	public double currentGrade(GradeBookState state) {
+		return state.book.currentGrade(state.randomStudent());
+	} // end method currentGrade
+
+	/**
+	 * calculates every student's current grade
+	 *
+	 * @param state the shape being measured
+	 * @return the current grades
+	 */
+	@Benchmark
+	public HashMap<String, Double> currentGrades(GradeBookState state) {
+		return state.book.currentGrades();
+	} // end method currentGrades
+
+	/**
+	 * calculates every student's current grade on the common pool
+	 *
+	 * @param state the shape being measured
+	 * @return the current grades
+	 * @throws InterruptedException
+	 * 			  thrown if interrupted while waiting for the chunks
+	 */
+	@Benchmark
+	public HashMap<String, Double> currentGradesInParallel(
+			GradeBookState state) throws InterruptedException {
+		return state.book.currentGradesInParallel();
+	} // end method currentGradesInParallel
+} // end class QueryBenchmark
@@ -0,0 +1,93 @@
+package gradebook.jmh;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ReportBenchmark measures the text reports, over every shape of
+ * GradeBookState; the gradebook is also written to a stream discarding its
+ * bytes, to show the cost of building the whole report as a String. Run it
+ * as
+ *
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar ReportBenchmark -prof gc
+ * </pre>
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReportBenchmark {
+	/**
+	 * reports every student's current grade
+	 *
+	 * @param state the shape being measured
+	 * @return the report
+	 */
+	@Benchmark
+	public String outputCurrentGrades(GradeBookState state) {
+		return state.book.outputCurrentGrades();
+	} // end method outputCurrentGrades
+
+	/**
+	 * reports a random student's grades
+	 *
+	 * @param state the shape being measured
+	 * @return the report
+	 */
+	@Benchmark
+	public String outputStudentGrades(GradeBookState state) {
+		return state.book.outputStudentGrades(state.randomStudent());
+	} // end method outputStudentGrades
+
+	/**
+	 * reports a random assignment's grades
+	 *
+	 * @param state the shape being measured
+	 * @return the report
+	 */
+	@Benchmark
+	public String outputAssignmentGrades(GradeBookState state) {
+		return state.book.outputAssignmentGrades(state.randomAssignment());
+	} // end method outputAssignmentGrades
+
+	/**
+	 * reports the whole gradebook
+	 *
+	 * @param state the shape being measured
+	 * @return the report
+	 */
+	@Benchmark
+	public String outputGradebook(GradeBookState state) {
+		return state.book.outputGradebook();
+	} // end method outputGradebook
+
+	/**
+	 * writes the whole gradebook to a stream which discards it
+	 *
+	 * @param state the shape being measured
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the report
+	 */
+	@Benchmark
+	public void outputGradebookToStream(GradeBookState state)
+			throws IOException {
+		state.book.outputGradebook(OutputStream.nullOutputStream());
+	} // end method outputGradebookToStream
+} // end class ReportBenchmark
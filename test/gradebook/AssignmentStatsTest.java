@@ -0,0 +1,220 @@
+package gradebook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gradebook.bench.GradeDistribution;
+import gradebook.bench.WorkloadGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * AssignmentStatsTest checks the running aggregates of a column against a
+ * scan of the column after random sequences of changes, both on their own
+ * and through the changes a gradebook makes to them
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class AssignmentStatsTest {
+	/**
+	 * every aggregate matches a scan of the column after each random add
+	 * or replace; grades are drawn from a few halves so extremes repeat and
+	 * every sum is exact
+	 */
+	@Test
+	void aggregatesMatchColumnScan() {
+		Random random = new Random(42);
+		for (int run = 0; run < 50; ++run) {
+			int count = random.nextInt(20);
+			float[] column = new float[count + 1000];
+			AssignmentStats stats;
+			if (random.nextBoolean()) {
+				for (int i = 0; i < count; ++i) {
+					column[i] = random.nextInt(21) / 2f;
+				} // end for loop
+				stats = new AssignmentStats(column, count);
+			} // end if block
+			else {
+				// a column of 0s
+				stats = new AssignmentStats(count);
+			} // end else block
+
+			for (int step = 0; step < 1000; ++step) {
+				if (count == 0 || random.nextInt(5) == 0) {
+					float grade = random.nextInt(21) / 2f;
+					column[count++] = grade;
+					stats.add(grade);
+				} // end if block
+				else {
+					int row = random.nextInt(count);
+					float grade = random.nextInt(21) / 2f;
+					stats.replace(column[row], grade);
+					column[row] = grade;
+				} // end else block
+				checkScan(column, count, stats);
+			} // end for loop
+
+			// a copy answers the same and does not follow later changes
+			AssignmentStats copy = stats.copy();
+			checkScan(column, count, copy);
+			stats.replace(column[0], column[0] + 100);
+			checkScan(column, count, copy);
+
+			// so does indexing the column from scratch
+			checkScan(column, count, new AssignmentStats(column, count));
+		} // end for loop
+	} // end method aggregatesMatchColumnScan
+
+	/**
+	 * the aggregates a gradebook keeps match a scan of each assignment
+	 * through random changeGrade, addStudent and addAssignment sequences
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs loading the gradebook
+	 */
+	@Test
+	void gradeBookAggregatesMatchColumnScan() throws IOException {
+		Random random = new Random(42);
+		for (int run = 0; run < 10; ++run) {
+			int students = 1 + random.nextInt(40);
+			int assignments = 1 + random.nextInt(5);
+			StringBuilder sb = new StringBuilder();
+			WorkloadGenerator generator = new WorkloadGenerator(run, students,
+					assignments, GradeDistribution.UNIFORM, 0);
+			generator.writeGradebook(sb);
+			MyGradeBook book = MyGradeBook.initializeWithString(sb.toString());
+			List<String> usernames = new ArrayList<String>();
+			for (int row = 0; row < students; ++row) {
+				usernames.add(generator.username(row));
+			} // end for loop
+			List<String> assignmentNames = new ArrayList<String>();
+			for (int i = 0; i < assignments; ++i) {
+				assignmentNames.add(generator.assignmentName(i));
+			} // end for loop
+
+			for (int step = 0; step < 300; ++step) {
+				int op = random.nextInt(20);
+				if (op == 0) {
+					String username = "added" + step;
+					book.processString("STUDENT\n" + username +
+							"\nFirst\nLast\nadvisor\n2016\n");
+					usernames.add(username);
+				} // end if block
+				else if (op == 1) {
+					String name = "Added " + step;
+					book.processString("ASSIGNMENT\n" + name + "\n10\n1\n");
+					assignmentNames.add(name);
+				} // end else-if block
+				else {
+					// repeat a grade already in use now and then
+					double grade = random.nextInt(3) == 0 ?
+							book.assignmentGrade(
+									pick(random, assignmentNames),
+									pick(random, usernames)) :
+							random.nextInt(201) / 4.0;
+					book.changeGrade(pick(random, assignmentNames),
+							pick(random, usernames), grade);
+				} // end else block
+				for (String name : assignmentNames) {
+					checkScan(book, name, usernames);
+				} // end for loop
+			} // end for loop
+		} // end for loop
+	} // end method gradeBookAggregatesMatchColumnScan
+
+	/**
+	 * compares every aggregate with a scan of the column
+	 *
+	 * @param column the column's grades
+	 * @param count number of grades in the column
+	 * @param stats the aggregates
+	 */
+	private static void checkScan(float[] column, int count,
+			AssignmentStats stats) {
+		float[] sorted = Arrays.copyOf(column, count);
+		Arrays.sort(sorted);
+		double sum = 0;
+		for (float grade : sorted) {
+			sum += grade;
+		} // end for loop
+		assertEquals(count, stats.count());
+		assertEquals(sum, stats.sum());
+		assertEquals(sorted[0], stats.min());
+		assertEquals(sorted[count - 1], stats.max());
+		assertEquals(occurrences(sorted, sorted[0]), stats.minCount());
+		assertEquals(occurrences(sorted, sorted[count - 1]),
+				stats.maxCount());
+		float median = count % 2 == 1 ? sorted[count / 2] :
+				(sorted[count / 2 - 1] + sorted[count / 2]) / 2;
+		assertEquals(median, stats.median());
+		assertEquals(sorted[count - 1], stats.percentile(100));
+		assertEquals(sorted[0], stats.percentile(0));
+	} // end method checkScan
+
+	/**
+	 * compares a gradebook's statistics and aggregates for an assignment
+	 * with a scan of its grades
+	 *
+	 * @param book the gradebook
+	 * @param name name of the assignment
+	 * @param usernames every student in the gradebook
+	 */
+	private static void checkScan(MyGradeBook book, String name,
+			List<String> usernames) {
+		float[] sorted = new float[usernames.size()];
+		double sum = 0;
+		for (int row = 0; row < sorted.length; ++row) {
+			sorted[row] = (float) book.assignmentGrade(name,
+					usernames.get(row));
+			sum += sorted[row];
+		} // end for loop
+		Arrays.sort(sorted);
+		float min = sorted[0];
+		float max = sorted[sorted.length - 1];
+		assertEquals(sum / sorted.length, book.average(name),
+				1e-9 * Math.max(1, Math.abs(sum)), name);
+		assertEquals(min, book.min(name), name);
+		assertEquals(max, book.max(name), name);
+		AssignmentStats stats = book.statsOf(book.assignmentColumn(name));
+		assertEquals(sorted.length, stats.count(), name);
+		assertEquals(occurrences(sorted, min), stats.minCount(), name);
+		assertEquals(occurrences(sorted, max), stats.maxCount(), name);
+	} // end method checkScan
+
+	/**
+	 * counts the grades equal to a value
+	 *
+	 * @param grades the grades
+	 * @param value value to count
+	 * @return number of grades equal to value
+	 */
+	private static int occurrences(float[] grades, float value) {
+		int count = 0;
+		for (float grade : grades) {
+			if (grade == value) {
+				++count;
+			} // end if block
+		} // end for loop
+		return count;
+	} // end method occurrences
+
+	/**
+	 * picks a random element
+	 *
+	 * @param random source of the choice
+	 * @param list elements to pick from
+	 * @return the element
+	 */
+	private static String pick(Random random, List<String> list) {
+		return list.get(random.nextInt(list.size()));
+	} // end method pick
+} // end class AssignmentStatsTest
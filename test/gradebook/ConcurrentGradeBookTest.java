@@ -0,0 +1,357 @@
+package gradebook;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gradebook.bench.GradeDistribution;
+import gradebook.bench.WorkloadGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ConcurrentGradeBookTest runs mixed grade changes, additions, statistics,
+ * rankings and group queries against a ConcurrentGradeBook from several
+ * threads at once, journaling every change and compacting the journal as
+ * it goes, and then checks every aggregate it keeps, and the gradebook
+ * recovered from the journal, against a gradebook loaded fresh from its
+ * output
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class ConcurrentGradeBookTest {
+	/** number of threads changing grades */
+	private static final int WRITERS = 4;
+
+	/** number of threads reading statistics */
+	private static final int READERS = 4;
+
+	/** number of operations run by each thread */
+	private static final int OPERATIONS = 20000;
+
+	/** tolerance for values summed in a different order */
+	private static final double EPSILON = 1e-9;
+
+	/** percentiles compared after the run */
+	private static final double[] PERCENTS = { 0, 10, 25, 50, 75, 90, 100 };
+
+	/** segment size past which the journal is compacted */
+	private static final long COMPACTION_BYTES = 4096;
+
+	/** directory for the journal */
+	@TempDir
+	Path directory;
+
+	/**
+	 * mixed traffic from several threads leaves every aggregate, and the
+	 * journal compacted underneath it, the same as a gradebook loaded from
+	 * the final grades
+	 *
+	 * @throws Exception
+	 * 			  thrown if a thread failed or the gradebook cannot be loaded
+	 */
+	@Test
+	void mixedTrafficKeepsAggregates() throws Exception {
+		WorkloadGenerator generator = new WorkloadGenerator(42, 2000, 20,
+				GradeDistribution.NORMAL, 0);
+		StringBuilder sb = new StringBuilder();
+		generator.writeGradebook(sb);
+		final ConcurrentGradeBook book =
+				ConcurrentGradeBook.initializeWithString(sb.toString());
+		book.openJournal(directory, JournalDurability.NO_SYNC, 100,
+				COMPACTION_BYTES);
+		final List<String> usernames = new CopyOnWriteArrayList<String>();
+		for (int row = 0; row < 2000; ++row) {
+			usernames.add(generator.username(row));
+		} // end for loop
+		final List<String> assignmentNames =
+				new CopyOnWriteArrayList<String>();
+		for (int column = 0; column < 20; ++column) {
+			assignmentNames.add(generator.assignmentName(column));
+		} // end for loop
+
+		// start every thread at once
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor =
+				Executors.newFixedThreadPool(WRITERS + READERS);
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		try {
+			for (int i = 0; i < WRITERS; ++i) {
+				final int writer = i;
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						start.await();
+						write(book, writer, usernames, assignmentNames);
+						return null;
+					} // end method call
+				}));
+			} // end for loop
+			for (int i = 0; i < READERS; ++i) {
+				final int reader = i;
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						start.await();
+						read(book, reader, usernames, assignmentNames);
+						return null;
+					} // end method call
+				}));
+			} // end for loop
+			start.countDown();
+
+			// rethrow the first failure of any thread
+			for (Future<Void> result : results) {
+				result.get();
+			} // end for loop
+		} // end try block
+		finally {
+			executor.shutdownNow();
+			book.closeJournal();
+		} // end finally block
+
+		checkAgainstFresh(book, usernames, assignmentNames);
+		assertEquals(book.outputGradebook(),
+				MyGradeBook.recover(directory).outputGradebook());
+	} // end method mixedTrafficKeepsAggregates
+
+	/**
+	 * changes random grades, with the first writer also adding a student
+	 * or an assignment now and then, and the others compacting the journal
+	 * on top of the compactions its size brings on
+	 *
+	 * @param book the gradebook
+	 * @param writer index of the writer
+	 * @param usernames every student added so far
+	 * @param assignmentNames every assignment added so far
+	 * @throws IOException
+	 * 			  thrown if error occurs adding a student or assignment or
+	 * 			  compacting the journal
+	 */
+	private static void write(ConcurrentGradeBook book, int writer,
+			List<String> usernames, List<String> assignmentNames)
+			throws IOException {
+		Random random = new Random(writer);
+		for (int n = 0; n < OPERATIONS; ++n) {
+			int op = random.nextInt(1000);
+			if (writer == 0 && op == 0) {
+				String username = "added" + n;
+				book.processString("STUDENT\n" + username
+						+ "\nFirst\nLast\nadvisor" + n % 7 + "\n2017\n");
+				usernames.add(username);
+			} // end if block
+			else if (writer == 0 && op == 1) {
+				String name = "Added " + n;
+				book.processString("ASSIGNMENT\n" + name + "\n10\n2\n");
+				assignmentNames.add(name);
+			} // end else-if block
+			else if (writer != 0 && op < 5) {
+				book.compactJournal();
+			} // end else-if block
+			else {
+				assertTrue(book.changeGrade(pick(random, assignmentNames),
+						pick(random, usernames), random.nextInt(41) / 4.0));
+			} // end else block
+		} // end for loop
+	} // end method write
+
+	/**
+	 * runs random queries, checking what each can check on its own while
+	 * grades change underneath it
+	 *
+	 * @param book the gradebook
+	 * @param reader index of the reader
+	 * @param usernames every student added so far
+	 * @param assignmentNames every assignment added so far
+	 */
+	private static void read(ConcurrentGradeBook book, int reader,
+			List<String> usernames, List<String> assignmentNames) {
+		Random random = new Random(100 + reader);
+		for (int n = 0; n < OPERATIONS; ++n) {
+			String name = pick(random, assignmentNames);
+			switch (random.nextInt(8)) {
+			case 0:
+				double min = book.min(name);
+				double max = book.max(name);
+				assertTrue(min <= max, name);
+				break;
+			case 1:
+				double[] percentiles = book.percentiles(name, PERCENTS);
+				for (int i = 1; i < percentiles.length; ++i) {
+					assertTrue(percentiles[i - 1] <= percentiles[i], name);
+				} // end for loop
+				break;
+			case 2:
+				book.average(name);
+				book.median(name);
+				book.standardDeviation(name);
+				break;
+			case 3:
+				String username = pick(random, usernames);
+				assertTrue(book.rankOf(username) >= 1);
+				book.currentGrade(username);
+				break;
+			case 4:
+				double previous = Double.MAX_VALUE;
+				for (double grade : book.topK(10).values()) {
+					assertTrue(grade <= previous);
+					previous = grade;
+				} // end for loop
+				break;
+			case 5:
+				previous = Double.MAX_VALUE;
+				for (double grade : book.topK(name, 10).values()) {
+					assertTrue(grade <= previous, name);
+					previous = grade;
+				} // end for loop
+				break;
+			case 6:
+				int students = 0;
+				for (GroupStatistics group :
+						book.currentGradesByAdvisor().values()) {
+					assertTrue(group.getMin() <= group.getMax());
+					students += group.getCount();
+				} // end for loop
+				assertTrue(students >= 2000);
+				book.assignmentGradesByGradYear(name);
+				break;
+			default:
+				if (n % 100 == 0) {
+					assertTrue(book.currentGrades().size() >= 2000);
+				} // end if block
+				break;
+			} // end switch block
+		} // end for loop
+	} // end method read
+
+	/**
+	 * compares every aggregate of the gradebook with a gradebook loaded
+	 * from its output
+	 *
+	 * @param book the gradebook
+	 * @param usernames every student
+	 * @param assignmentNames every assignment
+	 * @throws IOException
+	 * 			  thrown if error occurs loading the fresh gradebook
+	 */
+	private static void checkAgainstFresh(ConcurrentGradeBook book,
+			List<String> usernames, List<String> assignmentNames)
+			throws IOException {
+		MyGradeBook fresh = MyGradeBook.initializeWithString(
+				book.outputGradebook());
+
+		for (String name : assignmentNames) {
+			assertEquals(fresh.average(name), book.average(name), EPSILON,
+					name);
+			assertEquals(fresh.min(name), book.min(name), name);
+			assertEquals(fresh.max(name), book.max(name), name);
+			assertEquals(fresh.median(name), book.median(name), name);
+			assertArrayEquals(fresh.percentiles(name, PERCENTS),
+					book.percentiles(name, PERCENTS), name);
+			assertEquals(fresh.standardDeviation(name),
+					book.standardDeviation(name), EPSILON, name);
+			assertArrayEquals(fresh.distribution(name, 10),
+					book.distribution(name, 10), name);
+			checkTop(fresh, fresh.topK(name, 25), book.topK(name, 25), name);
+			checkGroups(fresh.assignmentGradesByAdvisor(name),
+					book.assignmentGradesByAdvisor(name));
+			checkGroups(fresh.assignmentGradesByGradYear(name),
+					book.assignmentGradesByGradYear(name));
+		} // end for loop
+
+		HashMap<String, Double> expected = fresh.currentGrades();
+		HashMap<String, Double> actual = book.currentGrades();
+		assertEquals(usernames.size(), expected.size());
+		assertEquals(expected.keySet(), actual.keySet());
+		for (String username : usernames) {
+			assertEquals(expected.get(username), actual.get(username),
+					EPSILON, username);
+			assertEquals(expected.get(username), book.currentGrade(username),
+					EPSILON, username);
+		} // end for loop
+
+		checkTop(fresh, fresh.topK(50), book.topK(50), null);
+		checkGroups(fresh.currentGradesByAdvisor(),
+				book.currentGradesByAdvisor());
+		checkGroups(fresh.currentGradesByGradYear(),
+				book.currentGradesByGradYear());
+	} // end method checkAgainstFresh
+
+	/**
+	 * compares two rankings of the best grades; students whose grades
+	 * differ only by rounding may be listed in either order, so each
+	 * listed student's grade is checked against the fresh gradebook
+	 *
+	 * @param fresh the fresh gradebook
+	 * @param expected ranking from the fresh gradebook
+	 * @param actual ranking from the gradebook under test
+	 * @param name assignment ranked by, or null for current grades
+	 */
+	private static void checkTop(MyGradeBook fresh,
+			Map<String, Double> expected, Map<String, Double> actual,
+			String name) {
+		assertEquals(expected.size(), actual.size());
+		List<Double> expectedGrades = new ArrayList<Double>(expected.values());
+		List<Double> actualGrades = new ArrayList<Double>(actual.values());
+		for (int i = 0; i < expectedGrades.size(); ++i) {
+			assertEquals(expectedGrades.get(i), actualGrades.get(i), EPSILON);
+		} // end for loop
+		for (Map.Entry<String, Double> entry : actual.entrySet()) {
+			double grade = name == null ?
+					fresh.currentGrade(entry.getKey()) :
+					fresh.assignmentGrade(name, entry.getKey());
+			assertEquals(grade, entry.getValue(), EPSILON, entry.getKey());
+		} // end for loop
+	} // end method checkTop
+
+	/**
+	 * compares the statistics of two groupings of the students
+	 *
+	 * @param expected groups from the fresh gradebook
+	 * @param actual groups from the gradebook under test
+	 */
+	private static <K> void checkGroups(TreeMap<K, GroupStatistics> expected,
+			TreeMap<K, GroupStatistics> actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+		for (K key : expected.keySet()) {
+			GroupStatistics e = expected.get(key);
+			GroupStatistics a = actual.get(key);
+			assertEquals(e.getCount(), a.getCount(), String.valueOf(key));
+			assertEquals(e.getMean(), a.getMean(), EPSILON,
+					String.valueOf(key));
+			assertEquals(e.getMin(), a.getMin(), EPSILON, String.valueOf(key));
+			assertEquals(e.getMax(), a.getMax(), EPSILON, String.valueOf(key));
+		} // end for loop
+	} // end method checkGroups
+
+	/**
+	 * picks a random element
+	 *
+	 * @param random source of the choice
+	 * @param list elements to pick from
+	 * @return the element
+	 */
+	private static String pick(Random random, List<String> list) {
+		return list.get(random.nextInt(list.size()));
+	} // end method pick
+} // end class ConcurrentGradeBookTest
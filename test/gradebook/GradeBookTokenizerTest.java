@@ -0,0 +1,402 @@
+package gradebook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import gradebook.bench.GradeDistribution;
+import gradebook.bench.WorkloadGenerator;
+
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * GradeBookTokenizerTest checks the tokenizer's number parsing against
+ * Float.parseFloat and Integer.parseInt, its handling of line terminators
+ * split across buffer refills, and its throughput on a large generated
+ * gradebook
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class GradeBookTokenizerTest {
+	/** inputs at the edges of parseFloat's fast path */
+	private static final String[] FLOATS = {
+		"0", "-0", "+0", "0.0", "-0.0", "1.", "-1.", ".5", "-.5", "+.5",
+		"7", "10.25", "099.50", "0.1", "0.3", "2.675",
+		"16777215", "16777216", "16777217", "16777218", "123456789",
+		"-16777217", "1677721.7", "167772.17", "99999999.5",
+		"0.1234567890", "0.12345678901", "1.0000000001", "3.14159265358979",
+		"1e3", "1E-3", "-2.5e10", ".5e1", "1.e2", "3.4028235E38", "1e39",
+		"1.4e-45", "1e-46", "NaN", "-Infinity", "Infinity", "0x1p3",
+		"1.5f", "2d", " 7", "7 ",
+		"", "-", "+", ".", "-.", "1..2", "1.2.3", "abc", "1e", "1-", "--1",
+		"1,5"
+	};
+
+	/** inputs at the edges of parseInt's fast path */
+	private static final String[] INTS = {
+		"0", "-0", "+0", "007", "7", "-7", "+7", "2015",
+		"123456789", "-123456789", "999999999", "1000000000",
+		"2147483647", "-2147483648", "2147483648", "-2147483649",
+		"99999999999", "", "-", "+", "1.", "1.0", "12a", "a12", " 1", "1 ",
+		"--1", "+-1", "1e3"
+	};
+
+	/**
+	 * parseFloat gives the same float, or the same failure, as
+	 * Float.parseFloat on every edge input
+	 */
+	@Test
+	void parseFloatMatchesFloatParseFloat() {
+		for (String text : FLOATS) {
+			checkFloat(text);
+		} // end for loop
+	} // end method parseFloatMatchesFloatParseFloat
+
+	/**
+	 * parseFloat gives the same float as Float.parseFloat on random
+	 * decimals of every length around the fast path's limits
+	 */
+	@Test
+	void parseFloatMatchesFloatParseFloatOnRandomDecimals() {
+		Random random = new Random(42);
+		for (int n = 0; n < 200000; ++n) {
+			StringBuilder sb = new StringBuilder();
+			if (random.nextInt(4) == 0) {
+				sb.append('-');
+			} // end if block
+			int digits = 1 + random.nextInt(14);
+			int point = random.nextInt(digits + 2) - 1;
+			for (int i = 0; i < digits; ++i) {
+				if (i == point) {
+					sb.append('.');
+				} // end if block
+				sb.append((char) ('0' + random.nextInt(10)));
+			} // end for loop
+			if (point == digits) {
+				sb.append('.');
+			} // end if block
+			checkFloat(sb.toString());
+		} // end for loop
+		for (int n = 0; n < 200000; ++n) {
+			checkFloat(Float.toString(
+					Float.intBitsToFloat(random.nextInt())));
+		} // end for loop
+	} // end method parseFloatMatchesFloatParseFloatOnRandomDecimals
+
+	/**
+	 * parseInt gives the same int, or the same failure, as
+	 * Integer.parseInt on every edge input
+	 */
+	@Test
+	void parseIntMatchesIntegerParseInt() {
+		for (String text : INTS) {
+			checkInt(text);
+		} // end for loop
+		Random random = new Random(42);
+		for (int n = 0; n < 200000; ++n) {
+			checkInt(Integer.toString(random.nextInt() >> random.nextInt(32)));
+		} // end for loop
+	} // end method parseIntMatchesIntegerParseInt
+
+	/**
+	 * numbers are parsed the same from the middle of a larger buffer
+	 */
+	@Test
+	void parseRespectsRange() {
+		char[] chars = "x\t-12.5\t2015\ty".toCharArray();
+		assertEquals(-12.5f, GradeBookTokenizer.parseFloat(chars, 2, 7));
+		assertEquals(2015, GradeBookTokenizer.parseInt(chars, 8, 12));
+	} // end method parseRespectsRange
+
+	/**
+	 * each of \n, \r and \r\n ends one line, and a line may be empty
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the input
+	 */
+	@Test
+	void lineTerminators() throws IOException {
+		assertEquals(List.of("a", "b", "c", "", "d", "e"),
+				lines(new StringReader("a\r\nb\rc\n\r\nd\n  e  \r\n")));
+	} // end method lineTerminators
+
+	/**
+	 * a \r\n split across two reads of the underlying reader, at every
+	 * offset around the end of the first buffer, is still one terminator
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the input
+	 */
+	@Test
+	void crlfSplitAcrossRefills() throws IOException {
+		for (int length = 8180; length <= 8200; ++length) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < length; ++i) {
+				sb.append((char) ('a' + i % 26));
+			} // end for loop
+			String first = sb.toString();
+			String text = first + "\r\nsecond\r\n\r\nfourth\r";
+			List<String> expected = List.of(first, "second", "", "fourth");
+			assertEquals(expected, lines(new StringReader(text)),
+					"line of " + length);
+			assertEquals(expected, lines(new ChunkedReader(text, 8192)),
+					"line of " + length + " read in whole buffers");
+			assertEquals(expected, lines(new ChunkedReader(text, 1)),
+					"line of " + length + " read one character at a time");
+		} // end for loop
+	} // end method crlfSplitAcrossRefills
+
+	/**
+	 * fields of a line split across reads come out whole
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the input
+	 */
+	@Test
+	void fieldsAcrossRefills() throws IOException {
+		String text = "abc\t-1.5\t2015\r\n\t\tx\t\r\n";
+		for (int chunk = 1; chunk <= 4; ++chunk) {
+			GradeBookTokenizer in =
+					new GradeBookTokenizer(new ChunkedReader(text, chunk));
+			in.nextLine();
+			assertEquals("abc", in.nextField());
+			assertEquals(-1.5f, in.nextFloatField());
+			assertEquals(2015, in.nextIntField());
+			assertFalse(in.hasNextField());
+			in.nextLine();
+			assertEquals("x", in.line());
+			assertFalse(in.hasNextLine());
+			assertEquals(2, in.lineCount());
+		} // end for loop
+	} // end method fieldsAcrossRefills
+
+	/**
+	 * the tokenizer reads every field of a large generated gradebook the
+	 * same as String.split with the library parsers, and reports how fast
+	 * each of them goes
+	 *
+	 * @param directory temporary directory for the gradebook file
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or reading the file
+	 */
+	@Test
+	void throughputOnGeneratedGradebook(@TempDir Path directory)
+			throws IOException {
+		Path file = directory.resolve("gradebook.txt");
+		Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+		try {
+			new WorkloadGenerator(42, 20000, 50, GradeDistribution.NORMAL, 0)
+					.writeGradebook(out);
+		} // end try block
+		finally {
+			out.close();
+		} // end finally block
+		double megabytes = Files.size(file) / 1e6;
+
+		// a few passes each, so the last one runs compiled code
+		long tokenizerSum = 0;
+		long splitSum = 0;
+		long tokenizerNanos = 0;
+		long splitNanos = 0;
+		for (int pass = 0; pass < 5; ++pass) {
+			long start = System.nanoTime();
+			tokenizerSum = sumWithTokenizer(file);
+			tokenizerNanos = System.nanoTime() - start;
+			start = System.nanoTime();
+			splitSum = sumWithSplit(file);
+			splitNanos = System.nanoTime() - start;
+			assertEquals(splitSum, tokenizerSum);
+		} // end for loop
+		System.out.printf("tokenizer %.1f MB/s, split %.1f MB/s on %.1f MB%n",
+				megabytes * 1e9 / tokenizerNanos, megabytes * 1e9 / splitNanos,
+				megabytes);
+	} // end method throughputOnGeneratedGradebook
+
+	/**
+	 * checks parseFloat against Float.parseFloat
+	 *
+	 * @param text the input
+	 */
+	private static void checkFloat(String text) {
+		char[] chars = ("#" + text + "#").toCharArray();
+		float expected;
+		try {
+			expected = Float.parseFloat(text);
+		} // end try block
+		catch (NumberFormatException e) {
+			try {
+				float actual = GradeBookTokenizer.parseFloat(chars, 1,
+						chars.length - 1);
+				fail("\"" + text + "\" parsed as " + actual);
+			} // end try block
+			catch (NumberFormatException expectedFailure) {
+				// both rejected it
+			} // end catch block
+			return;
+		} // end catch block
+		float actual = GradeBookTokenizer.parseFloat(chars, 1,
+				chars.length - 1);
+		assertEquals(Float.floatToIntBits(expected),
+				Float.floatToIntBits(actual),
+				"\"" + text + "\" parsed as " + actual + ", not " + expected);
+	} // end method checkFloat
+
+	/**
+	 * checks parseInt against Integer.parseInt
+	 *
+	 * @param text the input
+	 */
+	private static void checkInt(String text) {
+		char[] chars = ("#" + text + "#").toCharArray();
+		int expected;
+		try {
+			expected = Integer.parseInt(text);
+		} // end try block
+		catch (NumberFormatException e) {
+			try {
+				int actual = GradeBookTokenizer.parseInt(chars, 1,
+						chars.length - 1);
+				fail("\"" + text + "\" parsed as " + actual);
+			} // end try block
+			catch (NumberFormatException expectedFailure) {
+				// both rejected it
+			} // end catch block
+			return;
+		} // end catch block
+		assertEquals(expected, GradeBookTokenizer.parseInt(chars, 1,
+				chars.length - 1), "\"" + text + "\"");
+	} // end method checkInt
+
+	/**
+	 * reads every line with a tokenizer
+	 *
+	 * @param reader the input
+	 * @return the trimmed lines
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the input
+	 */
+	private static List<String> lines(Reader reader) throws IOException {
+		GradeBookTokenizer in = new GradeBookTokenizer(reader);
+		List<String> lines = new ArrayList<String>();
+		while (in.hasNextLine()) {
+			in.nextLine();
+			lines.add(in.line());
+		} // end while loop
+		assertEquals(lines.size(), in.lineCount());
+		return lines;
+	} // end method lines
+
+	/**
+	 * adds up the bits of every number in a gradebook file, read with the
+	 * tokenizer
+	 *
+	 * @param file the gradebook file
+	 * @return the total
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	private static long sumWithTokenizer(Path file) throws IOException {
+		GradeBookTokenizer in = new GradeBookTokenizer(
+				Files.newBufferedReader(file, StandardCharsets.UTF_8));
+		try {
+			long sum = 0;
+			for (int i = 0; i < 4; ++i) {
+				in.nextLine();
+			} // end for loop
+			while (in.hasNextLine()) {
+				in.nextLine();
+				for (int i = 0; i < 4; ++i) {
+					sum += in.nextField().length();
+				} // end for loop
+				sum += in.nextIntField();
+				while (in.hasNextField()) {
+					sum += Float.floatToIntBits(in.nextFloatField());
+				} // end while loop
+			} // end while loop
+			return sum;
+		} // end try block
+		finally {
+			in.close();
+		} // end finally block
+	} // end method sumWithTokenizer
+
+	/**
+	 * adds up the bits of every number in a gradebook file, read with
+	 * String.split and the library parsers
+	 *
+	 * @param file the gradebook file
+	 * @return the total
+	 * @throws IOException
+	 * 			  thrown if error occurs reading the file
+	 */
+	private static long sumWithSplit(Path file) throws IOException {
+		BufferedReader in = Files.newBufferedReader(file,
+				StandardCharsets.UTF_8);
+		try {
+			long sum = 0;
+			for (int i = 0; i < 4; ++i) {
+				in.readLine();
+			} // end for loop
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] fields = line.trim().split("\t");
+				for (int i = 0; i < 4; ++i) {
+					sum += fields[i].length();
+				} // end for loop
+				sum += Integer.parseInt(fields[4]);
+				for (int i = 5; i < fields.length; ++i) {
+					sum += Float.floatToIntBits(Float.parseFloat(fields[i]));
+				} // end for loop
+			} // end while loop
+			return sum;
+		} // end try block
+		finally {
+			in.close();
+		} // end finally block
+	} // end method sumWithSplit
+
+	/**
+	 * ChunkedReader is a reader handing out at most a fixed number of
+	 * characters per read, so tests can choose where refills split the
+	 * input
+	 */
+	private static class ChunkedReader extends FilterReader {
+		/** largest number of characters returned by one read */
+		private final int chunk;
+
+		/**
+		 * constructor to initialize ChunkedReader fields
+		 *
+		 * @param text the input
+		 * @param chunk largest number of characters returned by one read
+		 */
+		ChunkedReader(String text, int chunk) {
+			super(new StringReader(text));
+			this.chunk = chunk;
+		} // end constructor ChunkedReader
+
+		@Override
+		public int read(char[] buffer, int offset, int length)
+				throws IOException {
+			return super.read(buffer, offset, Math.min(length, chunk));
+		} // end method read
+	} // end class ChunkedReader
+} // end class GradeBookTokenizerTest
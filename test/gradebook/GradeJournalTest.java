@@ -0,0 +1,358 @@
+package gradebook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gradebook.bench.GradeDistribution;
+import gradebook.bench.WorkloadGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * GradeJournalTest checks that the changes journaled under SYNC and
+ * NO_SYNC can be recovered without the journal being closed, whether or
+ * not the process writing them is still running, that compactions in the
+ * background lose no changes, even while several threads change grades,
+ * and that a change whose record cannot be written is not applied
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class GradeJournalTest {
+	/** gradebook every test starts from */
+	private static final String GRADEBOOK =
+			"GRADEBOOK\n"
+			+ "\t\t\t\t\tA1\tA2\n"
+			+ "\t\t\t\t\t10\t10\n"
+			+ "\t\t\t\t\t50\t50\n"
+			+ "amy\tAmy\tLee\tsmith\t2015\t6.9\t8\n"
+			+ "bo\tBo\tMa\tjones\t2016\t5\t4\n";
+
+	/** number of threads changing grades at once */
+	private static final int WRITERS = 8;
+
+	/** directory for the journal */
+	@TempDir
+	Path directory;
+
+	/**
+	 * a NO_SYNC journal that was never closed still holds every change
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or reading the journal
+	 */
+	@Test
+	void noSyncRecoversWithoutClose() throws IOException {
+		checkRecoversWithoutClose(JournalDurability.NO_SYNC);
+	} // end method noSyncRecoversWithoutClose
+
+	/**
+	 * a SYNC journal that was never closed still holds every change
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or reading the journal
+	 */
+	@Test
+	void syncRecoversWithoutClose() throws IOException {
+		checkRecoversWithoutClose(JournalDurability.SYNC);
+	} // end method syncRecoversWithoutClose
+
+	/**
+	 * the changes of a process killed under NO_SYNC are recovered
+	 *
+	 * @throws Exception
+	 * 			  thrown if the process cannot be run or the journal read
+	 */
+	@Test
+	void noSyncSurvivesKilledProcess() throws Exception {
+		checkSurvivesKilledProcess(JournalDurability.NO_SYNC);
+	} // end method noSyncSurvivesKilledProcess
+
+	/**
+	 * the changes of a process killed under SYNC are recovered
+	 *
+	 * @throws Exception
+	 * 			  thrown if the process cannot be run or the journal read
+	 */
+	@Test
+	void syncSurvivesKilledProcess() throws Exception {
+		checkSurvivesKilledProcess(JournalDurability.SYNC);
+	} // end method syncSurvivesKilledProcess
+
+	/**
+	 * a journal compacted many times while random changes are made
+	 * recovers the same gradebook once closed
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or reading the journal
+	 */
+	@Test
+	void compactionsLoseNoChanges() throws IOException {
+		Random random = new Random(42);
+		MyGradeBook book = MyGradeBook.initializeWithString(GRADEBOOK);
+		book.openJournal(directory, JournalDurability.NO_SYNC, 100, 2048);
+		try {
+			List<String> usernames = new ArrayList<String>(
+					Arrays.asList("amy", "bo"));
+			int assignments = 2;
+			for (int step = 0; step < 5000; ++step) {
+				int op = random.nextInt(50);
+				if (op == 0) {
+					String username = "new" + step;
+					book.processString("STUDENT\n" + username
+							+ "\nFirst\nLast\nadvisor\n2016\n");
+					usernames.add(username);
+				} // end if block
+				else if (op == 1) {
+					book.processString("ASSIGNMENT\nA" + ++assignments
+							+ "\n10\n1\n");
+				} // end else-if block
+				else {
+					book.changeGrade("A" + (1 + random.nextInt(assignments)),
+							usernames.get(random.nextInt(usernames.size())),
+							random.nextInt(41) / 4.0);
+				} // end else block
+			} // end for loop
+		} // end try block
+		finally {
+			book.closeJournal();
+		} // end finally block
+		assertEquals(book.outputGradebook(),
+				MyGradeBook.recover(directory).outputGradebook());
+	} // end method compactionsLoseNoChanges
+
+	/**
+	 * a journal compacted many times while several threads change grades
+	 * holds every change, and the gradebook's weighted totals stay those
+	 * of its grades
+	 *
+	 * @throws Exception
+	 * 			  thrown if a thread failed or the journal cannot be read
+	 */
+	@Test
+	void concurrentCompactionsLoseNoChanges() throws Exception {
+		final WorkloadGenerator generator = new WorkloadGenerator(42, 500,
+				WRITERS, GradeDistribution.UNIFORM, 0);
+		StringBuilder sb = new StringBuilder();
+		generator.writeGradebook(sb);
+		final ConcurrentGradeBook book =
+				ConcurrentGradeBook.initializeWithString(sb.toString());
+		book.openJournal(directory, JournalDurability.NO_SYNC, 100, 4096);
+
+		// each writer changes its own assignment, so they run in parallel
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		try {
+			for (int i = 0; i < WRITERS; ++i) {
+				final int writer = i;
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						Random random = new Random(writer);
+						String name = generator.assignmentName(writer);
+						start.await();
+						for (int n = 0; n < 100000; ++n) {
+							assertTrue(book.changeGrade(name,
+									generator.username(random.nextInt(500)),
+									random.nextInt(41) / 4.0));
+						} // end for loop
+						return null;
+					} // end method call
+				}));
+			} // end for loop
+			start.countDown();
+			for (Future<Void> result : results) {
+				result.get();
+			} // end for loop
+		} // end try block
+		finally {
+			executor.shutdownNow();
+			book.closeJournal();
+		} // end finally block
+
+		String output = book.outputGradebook();
+		HashMap<String, Double> expected =
+				MyGradeBook.initializeWithString(output).currentGrades();
+		HashMap<String, Double> actual = book.currentGrades();
+		for (String username : expected.keySet()) {
+			assertEquals(expected.get(username), actual.get(username), 1e-9,
+					username);
+		} // end for loop
+		assertEquals(output, MyGradeBook.recover(directory).outputGradebook());
+	} // end method concurrentCompactionsLoseNoChanges
+
+	/**
+	 * a change whose record cannot be written throws and leaves the
+	 * gradebook as it was
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the journal or deleting it
+	 */
+	@Test
+	void unloggedChangeIsNotApplied() throws IOException {
+		final MyGradeBook book = MyGradeBook.initializeWithString(GRADEBOOK);
+		Path journal = directory.resolve("journal");
+		book.openJournal(journal, JournalDurability.NO_SYNC);
+		book.changeGrade("A1", "amy", 4);
+		String before = book.outputGradebook();
+
+		// a compaction closes the segment and cannot create the next one
+		// once the directory is gone, so no later record can be written
+		DirectoryStream<Path> files = Files.newDirectoryStream(journal);
+		try {
+			for (Path file : files) {
+				Files.delete(file);
+			} // end for loop
+		} // end try block
+		finally {
+			files.close();
+		} // end finally block
+		Files.delete(journal);
+		assertThrows(IOException.class, new Executable() {
+			@Override
+			public void execute() throws IOException {
+				book.compactJournal();
+			} // end method execute
+		});
+
+		assertThrows(UncheckedIOException.class, new Executable() {
+			@Override
+			public void execute() {
+				book.changeGrade("A1", "amy", 9);
+			} // end method execute
+		});
+		assertThrows(UncheckedIOException.class, new Executable() {
+			@Override
+			public void execute() throws IOException {
+				book.processString("STUDENT\ncy\nCy\nNg\nsmith\n2017\n");
+			} // end method execute
+		});
+		assertThrows(UncheckedIOException.class, new Executable() {
+			@Override
+			public void execute() throws IOException {
+				book.processString("ASSIGNMENT\nA3\n10\n1\n");
+			} // end method execute
+		});
+		assertEquals(before, book.outputGradebook());
+		assertEquals(4.5, book.average("A1"), 1e-6);
+	} // end method unloggedChangeIsNotApplied
+
+	/**
+	 * makes changes through a journal and recovers while it is still open
+	 *
+	 * @param durability how eagerly the journal forces its records
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or reading the journal
+	 */
+	private void checkRecoversWithoutClose(JournalDurability durability)
+			throws IOException {
+		MyGradeBook book = MyGradeBook.initializeWithString(GRADEBOOK);
+		book.openJournal(directory, durability);
+		try {
+			makeChanges(book);
+			checkRecovered(MyGradeBook.recover(directory));
+		} // end try block
+		finally {
+			book.closeJournal();
+		} // end finally block
+	} // end method checkRecoversWithoutClose
+
+	/**
+	 * makes changes through a journal in another process, which halts
+	 * without closing it, and recovers them
+	 *
+	 * @param durability how eagerly the journal forces its records
+	 * @throws Exception
+	 * 			  thrown if the process cannot be run or the journal read
+	 */
+	private void checkSurvivesKilledProcess(JournalDurability durability)
+			throws Exception {
+		Process process = new ProcessBuilder(
+				Paths.get(System.getProperty("java.home"), "bin", "java")
+						.toString(),
+				"-cp", System.getProperty("java.class.path"),
+				Crash.class.getName(), directory.toString(), durability.name())
+				.redirectErrorStream(true)
+				.redirectOutput(new File(directory.toFile(), "crash.out"))
+				.start();
+		process.waitFor(60, TimeUnit.SECONDS);
+		assertEquals(Crash.EXIT_STATUS, process.exitValue());
+		checkRecovered(MyGradeBook.recover(directory));
+	} // end method checkSurvivesKilledProcess
+
+	/**
+	 * changes one grade 50 times, ending on 3.0, and adds a student
+	 *
+	 * @param book the journaled gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs adding the student
+	 */
+	static void makeChanges(MyGradeBook book) throws IOException {
+		for (int i = 49; i >= 0; --i) {
+			book.changeGrade("A1", "amy", 3.0 + i / 10.0);
+		} // end for loop
+		book.processString("STUDENT\ncy\nCy\nNg\nsmith\n2017\n");
+		book.changeGrade("A2", "cy", 9.5);
+	} // end method makeChanges
+
+	/**
+	 * checks that a recovered gradebook holds every change of makeChanges
+	 *
+	 * @param recovered the recovered gradebook
+	 */
+	private static void checkRecovered(MyGradeBook recovered) {
+		assertEquals(3.0, recovered.assignmentGrade("A1", "amy"), 1e-6);
+		assertEquals(9.5, recovered.assignmentGrade("A2", "cy"), 1e-6);
+		assertEquals(5.0, recovered.assignmentGrade("A1", "bo"), 1e-6);
+	} // end method checkRecovered
+
+	/**
+	 * Crash is a process which journals the changes of makeChanges and
+	 * then halts without closing the journal or running shutdown hooks
+	 */
+	static class Crash {
+		/** exit status of a process which made every change */
+		static final int EXIT_STATUS = 42;
+
+		/**
+		 * makes the changes and halts
+		 *
+		 * @param args journal directory and durability
+		 * @throws IOException
+		 * 			  thrown if error occurs writing the journal
+		 */
+		public static void main(String[] args) throws IOException {
+			MyGradeBook book = MyGradeBook.initializeWithString(GRADEBOOK);
+			book.openJournal(Paths.get(args[0]),
+					JournalDurability.valueOf(args[1]));
+			makeChanges(book);
+			Runtime.getRuntime().halt(EXIT_STATUS);
+		} // end method main
+	} // end class Crash
+} // end class GradeJournalTest
@@ -0,0 +1,145 @@
+package gradebook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * MappedFileReaderTest checks that characters outside the Basic
+ * Multilingual Plane, which decode to a surrogate pair, are read whole
+ * wherever they fall against the caller's buffer and the mapped windows,
+ * and that gradebooks holding one load the same in every LoadMode
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class MappedFileReaderTest {
+	/** a character encoded in 4 bytes of UTF-8 */
+	private static final String EMOJI = "\uD83D\uDE00";
+
+	/** text mixing characters of 1, 2, 3 and 4 bytes of UTF-8 */
+	private static final String MIXED = "a" + EMOJI + "\u00e9" + EMOJI
+			+ EMOJI + "b\u20ac" + EMOJI + "\n" + EMOJI + "c";
+
+	/** directory for the files read */
+	@TempDir
+	Path directory;
+
+	/**
+	 * a gradebook with a surrogate pair near the end of the tokenizer's
+	 * first buffer loads the same mapped, in parallel and streamed
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or loading the gradebook
+	 */
+	@Test
+	@Timeout(value = 60, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+	void supplementaryCharacterAtBufferEdge() throws IOException {
+		for (int offset = 8180; offset <= 8210; ++offset) {
+			String filename = write(gradebookWithEmojiAt(offset));
+			String expected = MyGradeBook.initializeWithFile(filename,
+					LoadMode.STREAM).outputGradebook();
+			assertEquals(expected, MyGradeBook.initializeWithFile(filename,
+					LoadMode.MEMORY_MAPPED).outputGradebook(),
+					"offset " + offset);
+			assertEquals(expected, MyGradeBook.initializeWithFile(filename,
+					LoadMode.PARALLEL).outputGradebook(),
+					"offset " + offset);
+		} // end for loop
+	} // end method supplementaryCharacterAtBufferEdge
+
+	/**
+	 * surrogate pairs are read whole into buffers of every small size,
+	 * including one char, and across windows ending mid-character; a
+	 * window must hold at least the 4 bytes of the longest character
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs writing or reading the file
+	 */
+	@Test
+	@Timeout(value = 60, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+	void surrogatePairsReadIntoSmallBuffers() throws IOException {
+		String filename = write(MIXED);
+		for (long windowSize = 4; windowSize <= 9; ++windowSize) {
+			for (int len = 1; len <= 5; ++len) {
+				MappedFileReader in = new MappedFileReader(filename,
+						windowSize);
+				try {
+					assertEquals(MIXED, readAll(in, len),
+							"window " + windowSize + ", buffer " + len);
+				} // end try block
+				finally {
+					in.close();
+				} // end finally block
+			} // end for loop
+		} // end for loop
+	} // end method surrogatePairsReadIntoSmallBuffers
+
+	/**
+	 * makes a gradebook whose text holds EMOJI at the given char offset,
+	 * in a student's first name
+	 *
+	 * @param offset char offset of EMOJI
+	 * @return text of the gradebook
+	 */
+	private static String gradebookWithEmojiAt(int offset) {
+		StringBuilder sb = new StringBuilder("GRADEBOOK\n"
+				+ "\t\t\t\t\tA1\n"
+				+ "\t\t\t\t\t10\n"
+				+ "\t\t\t\t\t100\n");
+		for (int row = 0; sb.length() < offset - 40; ++row) {
+			sb.append("s").append(row)
+					.append("\tFirst\tLast\tsmith\t2015\t5\n");
+		} // end for loop
+		sb.append("emoji\t");
+		while (sb.length() < offset) {
+			sb.append('x');
+		} // end while loop
+		sb.append(EMOJI).append("\tLast\tsmith\t2015\t7\n");
+		return sb.toString();
+	} // end method gradebookWithEmojiAt
+
+	/**
+	 * writes text to a file as UTF-8
+	 *
+	 * @param text the text to write
+	 * @return name of the file
+	 * @throws IOException
+	 * 			  thrown if error occurs writing the file
+	 */
+	private String write(String text) throws IOException {
+		Path path = directory.resolve("gradebook.txt");
+		Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+		return path.toString();
+	} // end method write
+
+	/**
+	 * reads a reader to its end through a buffer of the given size
+	 *
+	 * @param in the reader
+	 * @param len size of the buffer
+	 * @return everything read
+	 * @throws IOException
+	 * 			  thrown if error occurs reading
+	 */
+	private static String readAll(MappedFileReader in, int len)
+			throws IOException {
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[len];
+		int read;
+		while ((read = in.read(buffer, 0, len)) != -1) {
+			sb.append(buffer, 0, read);
+		} // end while loop
+		return sb.toString();
+	} // end method readAll
+} // end class MappedFileReaderTest
@@ -0,0 +1,114 @@
+package gradebook;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gradebook.bench.GradeDistribution;
+import gradebook.bench.WorkloadGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * SnapshotTest checks that a gradebook saved with saveSnapshot and read
+ * back with loadSnapshot reports the same as the gradebook loaded from
+ * text
+ *
+ * @author Kosi Gizdarski
+ * @author Cameron Sun
+ * @author Tom Hay
+ * @author Ryan Cebulko
+ * @version 2014-04-11
+ */
+class SnapshotTest {
+	/** directory for the snapshot files */
+	@TempDir
+	Path directory;
+
+	/**
+	 * a generated gradebook survives the round trip
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs loading or saving the gradebook
+	 */
+	@Test
+	void generatedGradebook() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		new WorkloadGenerator(42, 500, 20, GradeDistribution.BIMODAL, 0)
+				.writeGradebook(sb);
+		checkRoundTrip(MyGradeBook.initializeWithString(sb.toString()));
+	} // end method generatedGradebook
+
+	/**
+	 * a gradebook changed after it was loaded survives the round trip,
+	 * including names outside ASCII and fractional grades
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs loading or saving the gradebook
+	 */
+	@Test
+	void changedGradebook() throws IOException {
+		MyGradeBook book = MyGradeBook.initializeWithString(
+				"GRADEBOOK\n"
+				+ "\t\t\t\t\tA1\tA2\n"
+				+ "\t\t\t\t\t10\t20\n"
+				+ "\t\t\t\t\t40\t60\n"
+				+ "amy\tAmy\tLee\tsmith\t2015\t7.5\t18\n"
+				+ "bo\tBo\tZo\u00eb\tjones\t2016\t10\t0.25\n");
+		book.processString("ASSIGNMENT\nQuiz \u00e9t\u00e9\n5\n10\n");
+		book.processString("STUDENT\ncy\nCy\nMa\nsmith\n2017\n");
+		book.changeGrade("Quiz \u00e9t\u00e9", "cy", 4.75);
+		book.changeGrade("A1", "bo", 3);
+		checkRoundTrip(book);
+	} // end method changedGradebook
+
+	/**
+	 * a gradebook with assignments but no students survives the round trip
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs loading or saving the gradebook
+	 */
+	@Test
+	void noStudents() throws IOException {
+		checkRoundTrip(MyGradeBook.initializeWithString(
+				"GRADEBOOK\n"
+				+ "\t\t\t\t\tA1\tA2\n"
+				+ "\t\t\t\t\t10\t20\n"
+				+ "\t\t\t\t\t40\t60\n"));
+	} // end method noStudents
+
+	/**
+	 * an empty gradebook survives the round trip
+	 *
+	 * @throws IOException
+	 * 			  thrown if error occurs saving the gradebook
+	 */
+	@Test
+	void emptyGradebook() throws IOException {
+		checkRoundTrip(MyGradeBook.initialize());
+	} // end method emptyGradebook
+
+	/**
+	 * saves a gradebook, loads it back, and compares the two; saving the
+	 * loaded copy must also give the same bytes
+	 *
+	 * @param book the gradebook
+	 * @throws IOException
+	 * 			  thrown if error occurs saving or loading the snapshot
+	 */
+	private void checkRoundTrip(MyGradeBook book) throws IOException {
+		Path first = directory.resolve("first.snapshot");
+		Path second = directory.resolve("second.snapshot");
+		book.saveSnapshot(first);
+		MyGradeBook loaded = MyGradeBook.loadSnapshot(first);
+		assertEquals(book.outputGradebook(), loaded.outputGradebook());
+		assertEquals(book.currentGrades(), loaded.currentGrades());
+		loaded.saveSnapshot(second);
+		assertArrayEquals(Files.readAllBytes(first),
+				Files.readAllBytes(second));
+	} // end method checkRoundTrip
+} // end class SnapshotTest